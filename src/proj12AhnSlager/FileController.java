@@ -18,6 +18,7 @@ import javafx.event.Event;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.io.File;
 import java.io.BufferedWriter;
@@ -37,19 +38,20 @@ import javafx.stage.Window;
 
 import org.fxmisc.flowless.VirtualizedScrollPane;
 import org.fxmisc.richtext.CodeArea;
-import proj12AhnSlager.bantam.semant.MainMainVisitor;
-import proj12AhnSlager.bantam.semant.NumLocalVarsVisitor;
+import proj12AhnSlager.bantam.semant.ProgramChecks;
 import proj12AhnSlager.bantam.semant.SemanticAnalyzer;
-import proj12AhnSlager.bantam.semant.StringConstantsVisitor;
 import proj12AhnSlager.bantam.ast.Program;
+import proj12AhnSlager.bantam.lexer.IncrementalLexer;
 import proj12AhnSlager.bantam.lexer.Scanner;
 import proj12AhnSlager.bantam.lexer.Token;
+import proj12AhnSlager.bantam.lexer.TokenBuffer;
 import proj12AhnSlager.bantam.parser.Parser;
 import proj12AhnSlager.bantam.treedrawer.Drawer;
 import proj12AhnSlager.bantam.util.ClassTreeNode;
 import proj12AhnSlager.bantam.util.CompilationException;
 import proj12AhnSlager.bantam.util.Error;
 import proj12AhnSlager.bantam.util.ErrorHandler;
+import proj12AhnSlager.bantam.util.SymbolInterner;
 
 /**
  * This class contains the handlers for each of the menu options in the IDE.
@@ -75,10 +77,16 @@ public class FileController {
 
 
     private Scanner scanner;
+    private TokenBuffer tokens;
     private Parser parser;
     private ErrorHandler errorHandler;
     private ErrorHandler analysisErrors;
 
+    // the checks last run, and the tab and text they were run on
+    private ProgramChecks checks;
+    private Tab checkedTab;
+    private String checkedText;
+
     /**
      * Constructor for the class. Intializes the save status
      * and the tabFilepathMap in a HashMap
@@ -272,37 +280,6 @@ public class FileController {
         }
     }
 
-    /**
-     * Creates a pop-up window which allows the user to select whether they wish to save
-     * the current file or not.
-     * Used by handleClose.
-     *
-     * @param event the tab closing event that may be consumed
-     */
-    private String askSaveAndScan(Event event) {
-        ShowSaveOptionAlert saveOptions = new ShowSaveOptionAlert();
-        Optional<ButtonType> result = saveOptions.getUserSaveDecision();
-
-        if (result.isPresent()) {
-            if (result.get() == saveOptions.getCancelButton()) {
-                event.consume();
-                return "cancel";
-            }
-            else if (result.get() == saveOptions.getYesButton()){
-                boolean saved = this.handleSave();
-                if (saved) return "yes";
-                event.consume();
-                return null;
-            }
-            else {
-                event.consume();
-                return "no";
-            }
-        }
-        return null;
-    }
-
-
     /**
      * Saves the text present in the current tab to a given filename.
      * Used by handleSave, handleSaveAs.
@@ -336,8 +313,8 @@ public class FileController {
 
     /**
      * this method is called when the Scan button is pressed
-     * if the file is not saved it prompts the user to save before scanning
-     * it will scan the file and display the tokens in a new tab
+     * it will scan the text of the current tab, saved or not, and display
+     * the tokens in a new tab
      * @param event press of the Scan button triggering the handleScan method
      */
     public void handleScan(Event event) {
@@ -347,9 +324,8 @@ public class FileController {
 
     /**
      * this method is called when the Scan&Parse button is pressed
-     * if the file is not saved it prompts the user to save before scanning
-     * it will scan and parse the file and display an AST if parse
-     * was successful
+     * it will scan and parse the text of the current tab, saved or not,
+     * and display an AST if parse was successful
      * @param event press of the Scan button triggering the handleScan method
      */
     public void handleScanAndParse (Event event) {
@@ -361,65 +337,68 @@ public class FileController {
 
     /**
      * Assists with calling just scan or scanning and parsing the
-     * file
+     * text of the current tab.  The text is read straight from the editor,
+     * through the IncrementalLexer that keeps its tokens, so it need not be
+     * saved first.  Errors and the AST are named by the tab's file if it has
+     * one, or else by the tab's title.
      * @param event press of the Scan button triggering the handleScan and Parse method
      * @param scanOrParse string "SCAN_ONLY" or "SCAN_AND_PARSE" or "PARSE_NO_TREE_DRAWN"
      */
     public Program scanOrParseHelper(Event event, String scanOrParse ){
         JavaTab curTab = (JavaTab)this.javaTabPane.getSelectionModel().getSelectedItem();
+        if (curTab == null) {
+            this.scanner = null;
+            return null;
+        }
 
+        String filename = this.tabFilepathMap.get(curTab);
+        if (filename == null) {
+            filename = curTab.getText();
+        }
+        IncrementalLexer lexer = curTab.getCodeArea().getLexer();
+        this.errorHandler = new ErrorHandler();
+        if(scanOrParse.equals("SCAN_ONLY")) {
+            this.scanner = lexer.newScanner(filename, this.errorHandler,
+                    new SymbolInterner());
+            this.tokens = TokenBuffer.scanAll(this.scanner);
+        }
+        else{
+            this.parser = new Parser(this.errorHandler);
+            this.parser.setRecovering(true);
+            this.scanner = lexer.newScanner(filename, this.errorHandler,
+                    this.parser.getSymbols());
+            this.tokens = new TokenBuffer(this.scanner);
+        }
 
-        if (this.javaTabPane.tabIsSaved(curTab)) {
-            String filename = this.tabFilepathMap.get(curTab);
-            try {
-                this.errorHandler = new ErrorHandler();
-                if(scanOrParse.equals("SCAN_ONLY")) {
-                    this.scanner = new Scanner(filename, this.errorHandler);
-                }
-                else{
-                    this.parser = new Parser(this.errorHandler);
-                }
-
-            }
-            catch(CompilationException e){
-                throw e;
+        if(scanOrParse.equals("SCAN_ONLY")) {
+            this.handleNew(null);
+            curTab = (JavaTab) this.javaTabPane.getSelectionModel().getSelectedItem();
+            StringBuilder tokenDump = new StringBuilder();
+            for (int i = 0; tokens.kind(i) != Token.Kind.EOF; i++) {
+                tokenDump.append(tokens.token(i).toString()).append("\n");
             }
+            curTab.getCodeArea().appendText(tokenDump.toString());
+            return null;
+        }
 
-            if(scanOrParse.equals("SCAN_ONLY")) {
-                this.handleNew(null);
-                curTab = (JavaTab) this.javaTabPane.getSelectionModel().getSelectedItem();
-                Token nextToken;
-                while ( (nextToken = scanner.scan()).kind != Token.Kind.EOF) {
-                    curTab.getCodeArea().appendText(nextToken.toString()+"\n");
-                }
-                return null;
+        else{
+            Program root = this.parser.parse(this.tokens);
+            // the parser went on past each syntax error, so all of them are listed
+            StringBuilder message = new StringBuilder("Parsing failed");
+            boolean parseFailed = false;
+            for (Error error : this.errorHandler.getErrorList()) {
+                message.append("\n").append(error);
+                parseFailed |= error.getKind() == Error.Kind.PARSE_ERROR;
             }
-
-            else{
-                Program root = this.parser.parse(filename);
-                if(scanOrParse.equals("SCAN_AND_PARSE")) {
-                    Drawer drawer = new Drawer();
-                    drawer.draw(filename, root);
-                }
-                return root;
+            if (parseFailed) {
+                throw new CompilationException(message.toString(), false);
             }
-
-        }
-
-        String saveStatus = this.askSaveAndScan(event);
-        if (saveStatus == "cancel") {
-            this.scanner = null;
-            return null;
-        }
-        else if (saveStatus == "no") {
-            if (tabFilepathMap.get(curTab) == null) {
-                return null;
+            if(scanOrParse.equals("SCAN_AND_PARSE")) {
+                Drawer drawer = new Drawer();
+                drawer.draw(filename, root);
             }
+            return root;
         }
-        else if (saveStatus == "yes"){
-            scanOrParseHelper(event, scanOrParse);
-        }
-        return null;
     }
 
     /**
@@ -429,17 +408,37 @@ public class FileController {
      * @return boolean of statement above
      */
     public Boolean handleMainCheck(Event event){
-        Program program;
-        try {
-            program = scanOrParseHelper(event, "PARSE_NO_TREE_DRAWN");
-        }
-        catch(CompilationException e){
-            throw e;
+        return runChecks(event).hasMain();
+    }
 
+    /**
+     * Parses the program of the current tab and runs all the checks of
+     * ProgramChecks on it in one walk, unless they were last run on the same
+     * text of the same tab, in which case what they found then is kept, so
+     * that the main, string constant and local variable checks of one
+     * program take one parse and one walk between them
+     * @param event
+     * @return the checks, run on the program of the current tab, or checks
+     * that found nothing if there is no tab
+     */
+    private ProgramChecks runChecks(Event event){
+        JavaTab curTab = (JavaTab)this.javaTabPane.getSelectionModel().getSelectedItem();
+        if (curTab == null) {
+            return new ProgramChecks();
         }
-        MainMainVisitor mainVisitor = new MainMainVisitor();
-        return mainVisitor.hasMain(program);
-
+        String text = curTab.getCodeArea().getLexer().getText();
+        if (this.checks != null && curTab == this.checkedTab
+                && Objects.equals(text, this.checkedText)) {
+            return this.checks;
+        }
+        this.checks = null;
+        Program program = scanOrParseHelper(event, "PARSE_NO_TREE_DRAWN");
+        ProgramChecks programChecks = new ProgramChecks();
+        programChecks.run(program);
+        this.checks = programChecks;
+        this.checkedTab = curTab;
+        this.checkedText = text;
+        return programChecks;
     }
 
     /**
@@ -472,16 +471,7 @@ public class FileController {
      * @return Map<String, String> where the key is STRING_CONST + NUMBER
      */
     public Map<String, String> handleStrConstCheck(Event event){
-        Program program;
-        try {
-            program = scanOrParseHelper(event, "PARSE_NO_TREE_DRAWN");
-        }
-        catch(CompilationException e){
-            throw e;
-        }
-
-        StringConstantsVisitor stringConstantsVisitor = new StringConstantsVisitor();
-        return stringConstantsVisitor.getStringConstants(program);
+        return runChecks(event).getStringConstants();
     }
 
     /**
@@ -493,20 +483,22 @@ public class FileController {
      * @return
      */
     public Map<String,Integer> handleNumLocVarCheck(Event event){
-        Program program;
-        try {
-            program = scanOrParseHelper(event, "PARSE_NO_TREE_DRAWN");
-        }
-        catch(CompilationException e){
-            throw e;
-        }
-
-        NumLocalVarsVisitor numLocalVarsVisitor = new NumLocalVarsVisitor();
-        return numLocalVarsVisitor.getNumLocalVars(program);
+        return runChecks(event).getNumLocalVars();
     }
 
 
 
+    /**
+     * Gives the tokens of the most recent scan or parse so that other features,
+     * such as highlighting and bracket matching, can use them without scanning again.
+     * A buffer from a parse that stopped at an error holds only the tokens read.
+     *
+     * @return the tokens of the most recently scanned file, or null if none
+     */
+    public TokenBuffer getTokens() {
+        return this.tokens;
+    }
+
     /**
      *
      * @return the list of errors from the most recent scan performed on a file
@@ -14,6 +14,7 @@ import org.fxmisc.richtext.LineNumberFactory;
 import org.fxmisc.richtext.model.StyleSpans;
 import org.fxmisc.richtext.model.StyleSpansBuilder;
 import org.reactfx.Subscription;
+import proj12AhnSlager.bantam.lexer.IncrementalLexer;
 
 import java.time.Duration;
 import java.util.Collection;
@@ -34,6 +35,9 @@ public class JavaCodeArea extends CodeArea {
 
     private ContextMenuController contextMenuController;
 
+    // the Bantam tokens of the text, kept up to date as it is edited
+    private IncrementalLexer lexer = new IncrementalLexer("", "");
+
     //ContextMenuController contextMenuController
     public JavaCodeArea(ContextMenuController contextMenuController) {
         super();
@@ -82,6 +86,20 @@ public class JavaCodeArea extends CodeArea {
 
                 // run the following code block when previous stream emits an event
                 .subscribe(ignore -> this.setStyleSpans(0, computeHighlighting(this.getText())));
+
+        // re-scan only the tokens each change can have touched
+        this.plainTextChanges().subscribe(change -> lexer.edit(change.getPosition(),
+                change.getRemoved().length(), change.getInserted()));
+    }
+
+    /**
+     * Returns the tokens of the text, which are re-scanned as the text is
+     * edited.  Each edit's IncrementalLexer.Change says which tokens it changed.
+     *
+     * @return the IncrementalLexer of the text
+     */
+    public IncrementalLexer getLexer() {
+        return lexer;
     }
 
     // a list of strings that contain the keywords for the IDE to identify.
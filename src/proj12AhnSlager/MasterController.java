@@ -24,6 +24,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.awt.Desktop;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import proj12AhnSlager.bantam.util.CompilationException;
@@ -76,6 +77,12 @@ public class MasterController {
     private FileController fileController;
     private ErrorHandler errorHandler;
 
+    // the errors written to the console, and the offset in the console of
+    // the line of each, so that clicking a line can select its error
+    private List<Error> shownErrors = new ArrayList<>();
+    private List<Integer> shownErrorLines = new ArrayList<>();
+    private JavaTab shownErrorsTab;
+
 
     // this line from JianQuanMarcello project 6
     private ContextMenuController contextMenuController;
@@ -103,6 +110,8 @@ public class MasterController {
         // this line from JianQuanMarcello project 6
         this.setupContextMenuController();
 
+        this.console.setOnMouseClicked(event -> this.selectClickedError());
+
     }
 
 
@@ -144,20 +153,88 @@ public class MasterController {
 
 
     private void errorHelper(List<Error> scanningErrors){
-        for (Error e : scanningErrors)
+        for (Error e : scanningErrors) {
+            this.shownErrors.add(e);
+            this.shownErrorLines.add(this.console.getLength());
             this.console.writeLine(e.toString() + "\n", "ERROR");
+        }
 
         this.console.writeLine(scanningErrors.size() +
                 " illegal tokens were found.", "ERROR");
 
+        this.selectFirstError(scanningErrors);
     }
 
-    @FXML public void handleScanParseAndCheck(Event event ) throws InterruptedException {
+    /**
+     * Clears the console, and the errors it shows, before a new scan, parse
+     * or check, and notes the tab it is of
+     */
+    private void clearConsole(){
         this.console.clear();
+        this.shownErrors.clear();
+        this.shownErrorLines.clear();
+        this.shownErrorsTab = (JavaTab) this.javaTabPane.getSelectionModel().getSelectedItem();
+    }
+
+    /**
+     * Selects in the editor the source chars of the first of the errors whose
+     * span is known, so that the error is highlighted where it is
+     * @param errors the errors found, or null if none
+     */
+    private void selectFirstError(List<Error> errors){
+        if (errors == null) {
+            return;
+        }
+        for (Error error : errors) {
+            if (this.selectError(error)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Selects in the editor the source chars of the error whose line in the
+     * console was clicked, if its span is known
+     */
+    private void selectClickedError(){
+        int position = this.console.getCaretPosition();
+        for (int i = this.shownErrorLines.size() - 1; i >= 0; i--) {
+            if (this.shownErrorLines.get(i) <= position) {
+                this.selectError(this.shownErrors.get(i));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Selects the source chars of an error in the editor of the tab it was
+     * found in, and scrolls to them, if the tab is still open and the span of
+     * the error is known and still within its text
+     * @param error the error
+     * @return whether the span was selected
+     */
+    private boolean selectError(Error error){
+        if (this.shownErrorsTab == null || error.getStartOffset() < 0
+                || !this.javaTabPane.getTabs().contains(this.shownErrorsTab)) {
+            return false;
+        }
+        JavaCodeArea codeArea = this.shownErrorsTab.getCodeArea();
+        int end = Math.max(error.getStartOffset(), error.getEndOffset());
+        if (end > codeArea.getLength()) {
+            return false;
+        }
+        codeArea.selectRange(error.getStartOffset(), end);
+        codeArea.requestFollowCaret();
+        return true;
+    }
+
+    @FXML public void handleScanParseAndCheck(Event event ) throws InterruptedException {
+        this.clearConsole();
         try {
             this.fileController.handleAnalyze(event);
         } catch (CompilationException e) {
             this.console.writeLine(e.toString() + "\n", "ERROR");
+            this.selectFirstError(this.fileController.getErrors());
 
             return;
         }
@@ -180,7 +257,7 @@ public class MasterController {
      */
     @FXML public void handleScan(Event event) throws InterruptedException {
 
-        this.console.clear();
+        this.clearConsole();
         try {
             this.fileController.handleScan(event);
         } catch (CompilationException e) {
@@ -209,11 +286,12 @@ public class MasterController {
 
     @FXML public void handleScanAndParse(Event event) throws InterruptedException {
 
-        this.console.clear();
+        this.clearConsole();
         try {
             this.fileController.handleScanAndParse(event);
         } catch (CompilationException e) {
             this.console.writeLine(e.toString() + "\n", "ERROR");
+            this.selectFirstError(this.fileController.getErrors());
             return;
         }
 
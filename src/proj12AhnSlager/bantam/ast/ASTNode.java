@@ -26,12 +26,16 @@
 
 package proj12AhnSlager.bantam.ast;
 
+import proj12AhnSlager.bantam.visitor.BooleanVisitor;
+import proj12AhnSlager.bantam.visitor.GenericVisitor;
+import proj12AhnSlager.bantam.visitor.IntVisitor;
 import proj12AhnSlager.bantam.visitor.Visitor;
 
 
 /**
  * The abstract <tt>ASTNode</tt> class represents a generic AST node.
- * It contains a line number (<tt>lineNumber</tt>).
+ * It contains a line number (<tt>lineNumber</tt>) and the offsets of its
+ * first and last source chars.
  * <p/>
  * <p/>
  * <p/>
@@ -257,6 +261,22 @@ public abstract class ASTNode {
      */
     protected int lineNum;
 
+    /**
+     * The offset of the first source char of this AST node, or -1 if unknown
+     */
+    protected int startOffset = -1;
+
+    /**
+     * The offset just past the last source char of this AST node, or -1 if unknown
+     */
+    protected int endOffset = -1;
+
+    /**
+     * What this AST node has been moved by since it was parsed, which its
+     * line number and offsets are read with, or null if it has not been
+     */
+    private Shift shift;
+
     /**
      * ASTNode constructor
      *
@@ -272,9 +292,75 @@ public abstract class ASTNode {
      * @return line number
      */
     public int getLineNum() {
-        return lineNum;
+        return shift == null ? lineNum : lineNum + shift.getNumLines();
+    }
+
+    /**
+     * Get the offset of the first source char of this AST node
+     *
+     * @return the offset, or -1 if it is not known
+     */
+    public int getStartOffset() {
+        return shift == null || startOffset < 0 ? startOffset
+                : startOffset + shift.getNumChars();
+    }
+
+    /**
+     * Get the offset just past the last source char of this AST node
+     *
+     * @return the offset, or -1 if it is not known
+     */
+    public int getEndOffset() {
+        return shift == null || endOffset < 0 ? endOffset
+                : endOffset + shift.getNumChars();
+    }
+
+    /**
+     * Set the source chars this AST node was parsed from
+     *
+     * @param startOffset the offset of the first char
+     * @param endOffset   the offset just past the last char
+     */
+    public void setSpan(int startOffset, int endOffset) {
+        int numChars = shift == null ? 0 : shift.getNumChars();
+        this.startOffset = startOffset < 0 ? startOffset : startOffset - numChars;
+        this.endOffset = endOffset < 0 ? endOffset : endOffset - numChars;
+    }
+
+    /**
+     * Get what this AST node moves with
+     *
+     * @return the Shift, or null if the node does not move
+     */
+    public Shift getShift() {
+        return shift;
     }
 
+    /**
+     * Make this AST node move with a Shift from now on, when an edit before
+     * its source inserts or removes chars and lines.  The node stays where it
+     * is until the Shift is moved.
+     *
+     * @param shift the Shift, or null for the node to stay where it is
+     */
+    public void setShift(Shift shift) {
+        int line = getLineNum();
+        int start = getStartOffset();
+        int end = getEndOffset();
+        this.shift = shift;
+        this.lineNum = shift == null ? line : line - shift.getNumLines();
+        setSpan(start, end);
+    }
+
+    /**
+     * Get the kind of this node, a number from 0 to FlatAST.NUM_KINDS - 1
+     * that is different for each concrete class of node, so that code can
+     * switch on it rather than test the class of the node
+     *
+     * @return one of the kinds of node of FlatAST
+     */
+    abstract public int kind();
+
     /**
      * Visitor method
      *
@@ -283,4 +369,32 @@ public abstract class ASTNode {
      * @see proj12AhnSlager.bantam.visitor.Visitor
      */
     abstract public Object accept(Visitor v);
+
+    /**
+     * Visitor method
+     *
+     * @param v   proj12AhnSlager.bantam.visitor object
+     * @param <R> the type of the results of the visits
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.GenericVisitor
+     */
+    abstract public <R> R accept(GenericVisitor<R> v);
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.IntVisitor
+     */
+    abstract public int accept(IntVisitor v);
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.BooleanVisitor
+     */
+    abstract public boolean accept(BooleanVisitor v);
 }
@@ -26,6 +26,9 @@
 
 package proj12AhnSlager.bantam.ast;
 
+import proj12AhnSlager.bantam.visitor.BooleanVisitor;
+import proj12AhnSlager.bantam.visitor.GenericVisitor;
+import proj12AhnSlager.bantam.visitor.IntVisitor;
 import proj12AhnSlager.bantam.visitor.Visitor;
 
 
@@ -50,6 +53,11 @@ public class ArrayExpr extends Expr {
      */
     protected String name;
 
+    /**
+     * The symbol id of the name of the array, or -1 if it has not been interned
+     */
+    protected int nameId = -1;
+
     /**
      * The index expression
      */
@@ -89,6 +97,24 @@ public class ArrayExpr extends Expr {
         return name;
     }
 
+    /**
+     * Get the symbol id of the name of the array
+     *
+     * @return the id the SymbolInterner gave it, or -1 if none
+     */
+    public int getNameId() {
+        return nameId;
+    }
+
+    /**
+     * Set the symbol id of the name of the array
+     *
+     * @param nameId the id the SymbolInterner gave it
+     */
+    public void setNameId(int nameId) {
+        this.nameId = nameId;
+    }
+
     /**
      * Get the index expression
      *
@@ -98,6 +124,15 @@ public class ArrayExpr extends Expr {
         return index;
     }
 
+    /**
+     * Get the kind of this node
+     *
+     * @return FlatAST.ARRAY_EXPR
+     */
+    public int kind() {
+        return FlatAST.ARRAY_EXPR;
+    }
+
     /**
      * Visitor method
      *
@@ -108,4 +143,38 @@ public class ArrayExpr extends Expr {
     public Object accept(Visitor v) {
         return v.visit(this);
     }
+
+    /**
+     * Visitor method
+     *
+     * @param v   proj12AhnSlager.bantam.visitor object
+     * @param <R> the type of the results of the visits
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.GenericVisitor
+     */
+    public <R> R accept(GenericVisitor<R> v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.IntVisitor
+     */
+    public int accept(IntVisitor v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.BooleanVisitor
+     */
+    public boolean accept(BooleanVisitor v) {
+        return v.visit(this);
+    }
 }
@@ -26,6 +26,9 @@
 
 package proj12AhnSlager.bantam.ast;
 
+import proj12AhnSlager.bantam.visitor.BooleanVisitor;
+import proj12AhnSlager.bantam.visitor.GenericVisitor;
+import proj12AhnSlager.bantam.visitor.IntVisitor;
 import proj12AhnSlager.bantam.visitor.Visitor;
 
 
@@ -50,6 +53,11 @@ public class AssignExpr extends Expr {
      */
     protected String name;
 
+    /**
+     * The symbol id of the name of the variable assigned, or -1 if it has not been interned
+     */
+    protected int nameId = -1;
+
     /**
      * The righthand expression for assigning to the lefthand variable
      */
@@ -88,6 +96,24 @@ public class AssignExpr extends Expr {
         return name;
     }
 
+    /**
+     * Get the symbol id of the name of the variable assigned
+     *
+     * @return the id the SymbolInterner gave it, or -1 if none
+     */
+    public int getNameId() {
+        return nameId;
+    }
+
+    /**
+     * Set the symbol id of the name of the variable assigned
+     *
+     * @param nameId the id the SymbolInterner gave it
+     */
+    public void setNameId(int nameId) {
+        this.nameId = nameId;
+    }
+
     /**
      * Get the righthand expression of the assignment
      *
@@ -97,6 +123,15 @@ public class AssignExpr extends Expr {
         return expr;
     }
 
+    /**
+     * Get the kind of this node
+     *
+     * @return FlatAST.ASSIGN_EXPR
+     */
+    public int kind() {
+        return FlatAST.ASSIGN_EXPR;
+    }
+
     /**
      * Visitor method
      *
@@ -107,4 +142,38 @@ public class AssignExpr extends Expr {
     public Object accept(Visitor v) {
         return v.visit(this);
     }
+
+    /**
+     * Visitor method
+     *
+     * @param v   proj12AhnSlager.bantam.visitor object
+     * @param <R> the type of the results of the visits
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.GenericVisitor
+     */
+    public <R> R accept(GenericVisitor<R> v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.IntVisitor
+     */
+    public int accept(IntVisitor v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.BooleanVisitor
+     */
+    public boolean accept(BooleanVisitor v) {
+        return v.visit(this);
+    }
 }
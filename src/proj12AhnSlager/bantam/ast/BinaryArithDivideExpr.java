@@ -26,6 +26,9 @@
 
 package proj12AhnSlager.bantam.ast;
 
+import proj12AhnSlager.bantam.visitor.BooleanVisitor;
+import proj12AhnSlager.bantam.visitor.GenericVisitor;
+import proj12AhnSlager.bantam.visitor.IntVisitor;
 import proj12AhnSlager.bantam.visitor.Visitor;
 
 
@@ -78,6 +81,15 @@ public class BinaryArithDivideExpr extends BinaryArithExpr {
         return "int";
     }
 
+    /**
+     * Get the kind of this node
+     *
+     * @return FlatAST.DIVIDE_EXPR
+     */
+    public int kind() {
+        return FlatAST.DIVIDE_EXPR;
+    }
+
     /**
      * Visitor method
      *
@@ -88,4 +100,38 @@ public class BinaryArithDivideExpr extends BinaryArithExpr {
     public Object accept(Visitor v) {
         return v.visit(this);
     }
+
+    /**
+     * Visitor method
+     *
+     * @param v   proj12AhnSlager.bantam.visitor object
+     * @param <R> the type of the results of the visits
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.GenericVisitor
+     */
+    public <R> R accept(GenericVisitor<R> v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.IntVisitor
+     */
+    public int accept(IntVisitor v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.BooleanVisitor
+     */
+    public boolean accept(BooleanVisitor v) {
+        return v.visit(this);
+    }
 }
@@ -26,6 +26,9 @@
 
 package proj12AhnSlager.bantam.ast;
 
+import proj12AhnSlager.bantam.visitor.BooleanVisitor;
+import proj12AhnSlager.bantam.visitor.GenericVisitor;
+import proj12AhnSlager.bantam.visitor.IntVisitor;
 import proj12AhnSlager.bantam.visitor.Visitor;
 
 /**
@@ -43,6 +46,11 @@ public class CastExpr extends Expr {
      */
     protected String type;
 
+    /**
+     * The symbol id of the type cast to, or -1 if it has not been interned
+     */
+    protected int typeId = -1;
+
     /**
      * The expression to cast
      */
@@ -75,6 +83,24 @@ public class CastExpr extends Expr {
         return type;
     }
 
+    /**
+     * Get the symbol id of the type cast to
+     *
+     * @return the id the SymbolInterner gave it, or -1 if none
+     */
+    public int getTypeId() {
+        return typeId;
+    }
+
+    /**
+     * Set the symbol id of the type cast to
+     *
+     * @param typeId the id the SymbolInterner gave it
+     */
+    public void setTypeId(int typeId) {
+        this.typeId = typeId;
+    }
+
     /**
      * Get the expression to cast
      *
@@ -102,6 +128,15 @@ public class CastExpr extends Expr {
         this.upcast = upcast;
     }
 
+    /**
+     * Get the kind of this node
+     *
+     * @return FlatAST.CAST_EXPR
+     */
+    public int kind() {
+        return FlatAST.CAST_EXPR;
+    }
+
     /**
      * Visitor method
      *
@@ -112,4 +147,38 @@ public class CastExpr extends Expr {
     public Object accept(Visitor v) {
         return v.visit(this);
     }
+
+    /**
+     * Visitor method
+     *
+     * @param v   proj12AhnSlager.bantam.visitor object
+     * @param <R> the type of the results of the visits
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.GenericVisitor
+     */
+    public <R> R accept(GenericVisitor<R> v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.IntVisitor
+     */
+    public int accept(IntVisitor v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.BooleanVisitor
+     */
+    public boolean accept(BooleanVisitor v) {
+        return v.visit(this);
+    }
 }
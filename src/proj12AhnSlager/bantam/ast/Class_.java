@@ -26,6 +26,9 @@
 
 package proj12AhnSlager.bantam.ast;
 
+import proj12AhnSlager.bantam.visitor.BooleanVisitor;
+import proj12AhnSlager.bantam.visitor.GenericVisitor;
+import proj12AhnSlager.bantam.visitor.IntVisitor;
 import proj12AhnSlager.bantam.visitor.Visitor;
 
 /**
@@ -48,11 +51,21 @@ public class Class_ extends ASTNode {
      */
     protected String name;
 
+    /**
+     * The symbol id of the name of this class, or -1 if it has not been interned
+     */
+    protected int nameId = -1;
+
     /**
      * The name of the parent of this class
      */
     protected String parent;
 
+    /**
+     * The symbol id of the name of the parent of this class, or -1 if it has not been interned
+     */
+    protected int parentId = -1;
+
     /**
      * List of the class members
      */
@@ -93,6 +106,24 @@ public class Class_ extends ASTNode {
         return name;
     }
 
+    /**
+     * Get the symbol id of the name of this class
+     *
+     * @return the id the SymbolInterner gave it, or -1 if none
+     */
+    public int getNameId() {
+        return nameId;
+    }
+
+    /**
+     * Set the symbol id of the name of this class
+     *
+     * @param nameId the id the SymbolInterner gave it
+     */
+    public void setNameId(int nameId) {
+        this.nameId = nameId;
+    }
+
     /**
      * Get the name of the parent of this class
      *
@@ -102,6 +133,24 @@ public class Class_ extends ASTNode {
         return parent;
     }
 
+    /**
+     * Get the symbol id of the name of the parent of this class
+     *
+     * @return the id the SymbolInterner gave it, or -1 if none
+     */
+    public int getParentId() {
+        return parentId;
+    }
+
+    /**
+     * Set the symbol id of the name of the parent of this class
+     *
+     * @param parentId the id the SymbolInterner gave it
+     */
+    public void setParentId(int parentId) {
+        this.parentId = parentId;
+    }
+
     /**
      * Get list of members that this class contains
      *
@@ -111,6 +160,15 @@ public class Class_ extends ASTNode {
         return memberList;
     }
 
+    /**
+     * Get the kind of this node
+     *
+     * @return FlatAST.CLASS
+     */
+    public int kind() {
+        return FlatAST.CLASS;
+    }
+
     /**
      * Visitor method
      *
@@ -121,4 +179,38 @@ public class Class_ extends ASTNode {
     public Object accept(Visitor v) {
         return v.visit(this);
     }
+
+    /**
+     * Visitor method
+     *
+     * @param v   proj12AhnSlager.bantam.visitor object
+     * @param <R> the type of the results of the visits
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.GenericVisitor
+     */
+    public <R> R accept(GenericVisitor<R> v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.IntVisitor
+     */
+    public int accept(IntVisitor v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.BooleanVisitor
+     */
+    public boolean accept(BooleanVisitor v) {
+        return v.visit(this);
+    }
 }
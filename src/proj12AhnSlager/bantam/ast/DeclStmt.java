@@ -26,6 +26,9 @@
 
 package proj12AhnSlager.bantam.ast;
 
+import proj12AhnSlager.bantam.visitor.BooleanVisitor;
+import proj12AhnSlager.bantam.visitor.GenericVisitor;
+import proj12AhnSlager.bantam.visitor.IntVisitor;
 import proj12AhnSlager.bantam.visitor.Visitor;
 
 
@@ -49,6 +52,11 @@ public class DeclStmt extends Stmt {
      */
     protected String name;
 
+    /**
+     * The symbol id of the name of the declared variable, or -1 if it has not been interned
+     */
+    protected int nameId = -1;
+
     /**
      * The (non-optional) initialization expression for the variable being declared
      */
@@ -87,6 +95,24 @@ public class DeclStmt extends Stmt {
         return name;
     }
 
+    /**
+     * Get the symbol id of the name of the declared variable
+     *
+     * @return the id the SymbolInterner gave it, or -1 if none
+     */
+    public int getNameId() {
+        return nameId;
+    }
+
+    /**
+     * Set the symbol id of the name of the declared variable
+     *
+     * @param nameId the id the SymbolInterner gave it
+     */
+    public void setNameId(int nameId) {
+        this.nameId = nameId;
+    }
+
     /**
      * Get the initialization expression for the declared variable
      *
@@ -96,6 +122,15 @@ public class DeclStmt extends Stmt {
         return init;
     }
 
+    /**
+     * Get the kind of this node
+     *
+     * @return FlatAST.DECL_STMT
+     */
+    public int kind() {
+        return FlatAST.DECL_STMT;
+    }
+
     /**
      * Visitor method
      *
@@ -106,4 +141,38 @@ public class DeclStmt extends Stmt {
     public Object accept(Visitor v) {
         return v.visit(this);
     }
+
+    /**
+     * Visitor method
+     *
+     * @param v   proj12AhnSlager.bantam.visitor object
+     * @param <R> the type of the results of the visits
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.GenericVisitor
+     */
+    public <R> R accept(GenericVisitor<R> v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.IntVisitor
+     */
+    public int accept(IntVisitor v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.BooleanVisitor
+     */
+    public boolean accept(BooleanVisitor v) {
+        return v.visit(this);
+    }
 }
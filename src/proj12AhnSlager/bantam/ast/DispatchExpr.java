@@ -26,6 +26,9 @@
 
 package proj12AhnSlager.bantam.ast;
 
+import proj12AhnSlager.bantam.visitor.BooleanVisitor;
+import proj12AhnSlager.bantam.visitor.GenericVisitor;
+import proj12AhnSlager.bantam.visitor.IntVisitor;
 import proj12AhnSlager.bantam.visitor.Visitor;
 
 /**
@@ -48,6 +51,11 @@ public class DispatchExpr extends Expr {
      */
     protected String methodName;
 
+    /**
+     * The symbol id of the name of the method called, or -1 if it has not been interned
+     */
+    protected int methodNameId = -1;
+
     /**
      * The list of actual parameter expressions
      */
@@ -87,6 +95,24 @@ public class DispatchExpr extends Expr {
         return methodName;
     }
 
+    /**
+     * Get the symbol id of the name of the method called
+     *
+     * @return the id the SymbolInterner gave it, or -1 if none
+     */
+    public int getMethodNameId() {
+        return methodNameId;
+    }
+
+    /**
+     * Set the symbol id of the name of the method called
+     *
+     * @param methodNameId the id the SymbolInterner gave it
+     */
+    public void setMethodNameId(int methodNameId) {
+        this.methodNameId = methodNameId;
+    }
+
     /**
      * Get the list of actual parameter expressions
      *
@@ -96,6 +122,15 @@ public class DispatchExpr extends Expr {
         return actualList;
     }
 
+    /**
+     * Get the kind of this node
+     *
+     * @return FlatAST.DISPATCH_EXPR
+     */
+    public int kind() {
+        return FlatAST.DISPATCH_EXPR;
+    }
+
     /**
      * Visitor method
      *
@@ -106,4 +141,38 @@ public class DispatchExpr extends Expr {
     public Object accept(Visitor v) {
         return v.visit(this);
     }
+
+    /**
+     * Visitor method
+     *
+     * @param v   proj12AhnSlager.bantam.visitor object
+     * @param <R> the type of the results of the visits
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.GenericVisitor
+     */
+    public <R> R accept(GenericVisitor<R> v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.IntVisitor
+     */
+    public int accept(IntVisitor v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.BooleanVisitor
+     */
+    public boolean accept(BooleanVisitor v) {
+        return v.visit(this);
+    }
 }
@@ -26,6 +26,9 @@
 
 package proj12AhnSlager.bantam.ast;
 
+import proj12AhnSlager.bantam.visitor.BooleanVisitor;
+import proj12AhnSlager.bantam.visitor.GenericVisitor;
+import proj12AhnSlager.bantam.visitor.IntVisitor;
 import proj12AhnSlager.bantam.visitor.Visitor;
 
 
@@ -42,11 +45,21 @@ public class Field extends Member {
      */
     protected String type;
 
+    /**
+     * The symbol id of the type of the field, or -1 if it has not been interned
+     */
+    protected int typeId = -1;
+
     /**
      * The name of the field (instance variable)
      */
     protected String name;
 
+    /**
+     * The symbol id of the name of the field, or -1 if it has not been interned
+     */
+    protected int nameId = -1;
+
     /**
      * The (optional) initialization expression for the field (instance variable)
      */
@@ -76,6 +89,24 @@ public class Field extends Member {
         return type;
     }
 
+    /**
+     * Get the symbol id of the type of the field
+     *
+     * @return the id the SymbolInterner gave it, or -1 if none
+     */
+    public int getTypeId() {
+        return typeId;
+    }
+
+    /**
+     * Set the symbol id of the type of the field
+     *
+     * @param typeId the id the SymbolInterner gave it
+     */
+    public void setTypeId(int typeId) {
+        this.typeId = typeId;
+    }
+
     /**
      * Get the name of the field
      *
@@ -85,6 +116,24 @@ public class Field extends Member {
         return name;
     }
 
+    /**
+     * Get the symbol id of the name of the field
+     *
+     * @return the id the SymbolInterner gave it, or -1 if none
+     */
+    public int getNameId() {
+        return nameId;
+    }
+
+    /**
+     * Set the symbol id of the name of the field
+     *
+     * @param nameId the id the SymbolInterner gave it
+     */
+    public void setNameId(int nameId) {
+        this.nameId = nameId;
+    }
+
     /**
      * Get the initialization expression of the field
      *
@@ -94,6 +143,15 @@ public class Field extends Member {
         return init;
     }
 
+    /**
+     * Get the kind of this node
+     *
+     * @return FlatAST.FIELD
+     */
+    public int kind() {
+        return FlatAST.FIELD;
+    }
+
     /**
      * Visitor method
      *
@@ -104,4 +162,38 @@ public class Field extends Member {
     public Object accept(Visitor v) {
         return v.visit(this);
     }
+
+    /**
+     * Visitor method
+     *
+     * @param v   proj12AhnSlager.bantam.visitor object
+     * @param <R> the type of the results of the visits
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.GenericVisitor
+     */
+    public <R> R accept(GenericVisitor<R> v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.IntVisitor
+     */
+    public int accept(IntVisitor v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.BooleanVisitor
+     */
+    public boolean accept(BooleanVisitor v) {
+        return v.visit(this);
+    }
 }
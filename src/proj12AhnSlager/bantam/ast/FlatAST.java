@@ -0,0 +1,982 @@
+/**
+ * Filename: FlatAST
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.ast;
+
+import proj12AhnSlager.bantam.util.SymbolInterner;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Holds a whole AST in a few int arrays instead of an object per node, for
+ * keeping large programs in memory.  The nodes are numbered in preorder, the
+ * Program being node 0, and for each node the arrays hold its kind, its line
+ * number, its source offsets, the type semantic analysis gave it if it is an
+ * expression, and where its fields start in a shared pool of ints.  In that
+ * pool a child is the number of its node, or -1 for null, a name, type or
+ * constant is the id of its symbol in a SymbolInterner, or -1 for null, and a
+ * list is its size followed by its elements.
+ *
+ * getNode() and getProgram() give views of the nodes, which are ASTNodes of the
+ * usual classes, so they can be visited and analyzed by the usual Visitors.
+ * A view holds nothing but its own line, offsets and names; each time it is
+ * asked for a child it makes a new view of the child, so a traversal only
+ * keeps the views on its current path.  The expression types, casts and
+ * instanceof checks and declaration types that semantic analysis sets on a
+ * view are written to the arrays, so every view of the node sees them.  Other
+ * setters, such as those of symbol ids, only change the view.  The fields of
+ * a view are not those of its node, so the views are only to be used through
+ * their methods; TreeDiff, which reads fields, cannot compare them.
+ *
+ * FlatASTCheck checks the views against the nodes they were made from, and
+ * reports the memory both forms take.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class FlatAST
+{
+    // the kinds of nodes
+    public static final int PROGRAM = 0;
+    public static final int CLASS_LIST = 1;
+    public static final int CLASS = 2;
+    public static final int MEMBER_LIST = 3;
+    public static final int FIELD = 4;
+    public static final int METHOD = 5;
+    public static final int FORMAL_LIST = 6;
+    public static final int FORMAL = 7;
+    public static final int STMT_LIST = 8;
+    public static final int DECL_STMT = 9;
+    public static final int EXPR_STMT = 10;
+    public static final int IF_STMT = 11;
+    public static final int WHILE_STMT = 12;
+    public static final int FOR_STMT = 13;
+    public static final int BREAK_STMT = 14;
+    public static final int BLOCK_STMT = 15;
+    public static final int RETURN_STMT = 16;
+    public static final int ERROR_STMT = 17;
+    public static final int EXPR_LIST = 18;
+    public static final int DISPATCH_EXPR = 19;
+    public static final int NEW_EXPR = 20;
+    public static final int NEW_ARRAY_EXPR = 21;
+    public static final int INSTANCEOF_EXPR = 22;
+    public static final int CAST_EXPR = 23;
+    public static final int ASSIGN_EXPR = 24;
+    public static final int ARRAY_ASSIGN_EXPR = 25;
+    public static final int PLUS_EXPR = 26;
+    public static final int MINUS_EXPR = 27;
+    public static final int TIMES_EXPR = 28;
+    public static final int DIVIDE_EXPR = 29;
+    public static final int MODULUS_EXPR = 30;
+    public static final int EQ_EXPR = 31;
+    public static final int NE_EXPR = 32;
+    public static final int LT_EXPR = 33;
+    public static final int LEQ_EXPR = 34;
+    public static final int GT_EXPR = 35;
+    public static final int GEQ_EXPR = 36;
+    public static final int AND_EXPR = 37;
+    public static final int OR_EXPR = 38;
+    public static final int NEG_EXPR = 39;
+    public static final int NOT_EXPR = 40;
+    public static final int INCR_EXPR = 41;
+    public static final int DECR_EXPR = 42;
+    public static final int VAR_EXPR = 43;
+    public static final int ARRAY_EXPR = 44;
+    public static final int CONST_INT_EXPR = 45;
+    public static final int CONST_BOOLEAN_EXPR = 46;
+    public static final int CONST_STRING_EXPR = 47;
+
+    /**
+     * The number of kinds of nodes
+     */
+    public static final int NUM_KINDS = CONST_STRING_EXPR + 1;
+
+    // the flags kept above the kind: upcast, upcheck and isPostfix
+    private static final int FLAG = 0x80;
+    private static final int KIND_MASK = FLAG - 1;
+
+    // the fields of each kind of node that hold symbols, by their place in the pool
+    private static final int[][] SYMBOL_FIELDS = new int[NUM_KINDS][];
+
+    static {
+        Arrays.fill(SYMBOL_FIELDS, new int[0]);
+        SYMBOL_FIELDS[CLASS] = new int[]{0, 1, 2};
+        SYMBOL_FIELDS[FIELD] = new int[]{0, 1};
+        SYMBOL_FIELDS[METHOD] = new int[]{0, 1};
+        SYMBOL_FIELDS[FORMAL] = new int[]{0, 1};
+        SYMBOL_FIELDS[DECL_STMT] = new int[]{0, 1};
+        SYMBOL_FIELDS[DISPATCH_EXPR] = new int[]{1};
+        SYMBOL_FIELDS[NEW_EXPR] = new int[]{0};
+        SYMBOL_FIELDS[NEW_ARRAY_EXPR] = new int[]{0};
+        SYMBOL_FIELDS[INSTANCEOF_EXPR] = new int[]{1};
+        SYMBOL_FIELDS[CAST_EXPR] = new int[]{0};
+        SYMBOL_FIELDS[ASSIGN_EXPR] = new int[]{0, 1};
+        SYMBOL_FIELDS[ARRAY_ASSIGN_EXPR] = new int[]{0, 1};
+        SYMBOL_FIELDS[VAR_EXPR] = new int[]{1};
+        SYMBOL_FIELDS[ARRAY_EXPR] = new int[]{1};
+        SYMBOL_FIELDS[CONST_INT_EXPR] = new int[]{0};
+        SYMBOL_FIELDS[CONST_BOOLEAN_EXPR] = new int[]{0};
+        SYMBOL_FIELDS[CONST_STRING_EXPR] = new int[]{0};
+    }
+
+    private SymbolInterner symbols;
+    private int size;       // the number of nodes
+    private byte[] kinds;   // the kind of each node, with its flag
+    private int[] lines;
+    private int[] starts;
+    private int[] ends;
+    private int[] offsets;  // where the fields of each node start in the pool
+    private int[] types;    // the symbol id of the type of each expression, or -1
+    private int[] pool;
+    private int poolSize;
+
+    // the children of the node being added that are not null, and their slots
+    private ASTNode[] children = new ASTNode[8];
+    private int[] childSlots = new int[8];
+    private int numChildren;
+
+    /**
+     * Flattens an AST.  The bodies of methods that have not been parsed yet
+     * are parsed.
+     *
+     * @param program the root of the AST, which may itself be a view
+     * @param symbols the interner the names are interned in; if it is the one
+     *                the program was parsed with, the symbol ids of the views
+     *                are those of the nodes
+     */
+    public FlatAST(Program program, SymbolInterner symbols) {
+        this.symbols = symbols;
+        kinds = new byte[64];
+        lines = new int[64];
+        starts = new int[64];
+        ends = new int[64];
+        offsets = new int[64];
+        types = new int[64];
+        pool = new int[256];
+
+        // the nodes are numbered as they are popped, so in preorder, and each
+        // fills in the slot its parent left for it
+        List<ASTNode> toAdd = new ArrayList<>();
+        int[] slots = new int[16];
+        toAdd.add(program);
+        slots[0] = -1;
+        while (!toAdd.isEmpty()) {
+            int top = toAdd.size() - 1;
+            ASTNode node = toAdd.remove(top);
+            if (slots[top] >= 0) {
+                pool[slots[top]] = size;
+            }
+            add(node);
+            // push the children last first, so that they are popped in order
+            for (int i = numChildren - 1; i >= 0; i--) {
+                if (toAdd.size() == slots.length) {
+                    slots = Arrays.copyOf(slots, slots.length * 2);
+                }
+                slots[toAdd.size()] = childSlots[i];
+                toAdd.add(children[i]);
+                children[i] = null;
+            }
+            numChildren = 0;
+        }
+        kinds = Arrays.copyOf(kinds, size);
+        lines = Arrays.copyOf(lines, size);
+        starts = Arrays.copyOf(starts, size);
+        ends = Arrays.copyOf(ends, size);
+        offsets = Arrays.copyOf(offsets, size);
+        types = Arrays.copyOf(types, size);
+        pool = Arrays.copyOf(pool, poolSize);
+        children = null;
+        childSlots = null;
+    }
+
+    /**
+     * Makes a FlatAST of arrays read by readFrom()
+     */
+    private FlatAST(SymbolInterner symbols, byte[] kinds, int[] lines, int[] starts, int[] ends,
+                    int[] offsets, int[] types, int[] pool) {
+        this.symbols = symbols;
+        this.size = kinds.length;
+        this.kinds = kinds;
+        this.lines = lines;
+        this.starts = starts;
+        this.ends = ends;
+        this.offsets = offsets;
+        this.types = types;
+        this.pool = pool;
+        this.poolSize = pool.length;
+    }
+
+    /**
+     * Adds a node, with its names, and leaves a slot of -1 in the pool for each
+     * child, which is filled in when a child that is not null is added
+     */
+    private void add(ASTNode node) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            types = Arrays.copyOf(types, capacity);
+        }
+        lines[size] = node.getLineNum();
+        starts[size] = node.getStartOffset();
+        ends[size] = node.getEndOffset();
+        offsets[size] = poolSize;
+        types[size] = node instanceof Expr ? symbol(((Expr) node).getExprType()) : -1;
+        kinds[size] = (byte) kindOf(node);
+        size++;
+    }
+
+    /**
+     * Puts the fields of a node in the pool
+     *
+     * @return the kind of the node, with its flag
+     */
+    private int kindOf(ASTNode node) {
+        if (node instanceof ListNode) {
+            ListNode list = (ListNode) node;
+            put(list.getSize());
+            for (ASTNode element : list) {
+                child(element);
+            }
+            return node.kind();
+        }
+        if (node instanceof BinaryExpr) {
+            BinaryExpr binary = (BinaryExpr) node;
+            child(binary.getLeftExpr());
+            child(binary.getRightExpr());
+            return node.kind();
+        }
+        if (node instanceof UnaryExpr) {
+            UnaryExpr unary = (UnaryExpr) node;
+            child(unary.getExpr());
+            return node.kind() | (unary.isPostfix() ? FLAG : 0);
+        }
+        if (node instanceof ConstExpr) {
+            put(symbol(((ConstExpr) node).getConstant()));
+            return node.kind();
+        }
+        if (node instanceof VarExpr) {
+            VarExpr var = (VarExpr) node;
+            child(var.getRef());
+            put(symbol(var.getName()));
+            return VAR_EXPR;
+        }
+        if (node instanceof DispatchExpr) {
+            DispatchExpr dispatch = (DispatchExpr) node;
+            child(dispatch.getRefExpr());
+            put(symbol(dispatch.getMethodName()));
+            child(dispatch.getActualList());
+            return DISPATCH_EXPR;
+        }
+        if (node instanceof AssignExpr) {
+            AssignExpr assign = (AssignExpr) node;
+            put(symbol(assign.getRefName()));
+            put(symbol(assign.getName()));
+            child(assign.getExpr());
+            return ASSIGN_EXPR;
+        }
+        if (node instanceof ArrayAssignExpr) {
+            ArrayAssignExpr assign = (ArrayAssignExpr) node;
+            put(symbol(assign.getRefName()));
+            put(symbol(assign.getName()));
+            child(assign.getIndex());
+            child(assign.getExpr());
+            return ARRAY_ASSIGN_EXPR;
+        }
+        if (node instanceof ArrayExpr) {
+            ArrayExpr array = (ArrayExpr) node;
+            child(array.getRef());
+            put(symbol(array.getName()));
+            child(array.getIndex());
+            return ARRAY_EXPR;
+        }
+        if (node instanceof NewExpr) {
+            put(symbol(((NewExpr) node).getType()));
+            return NEW_EXPR;
+        }
+        if (node instanceof NewArrayExpr) {
+            NewArrayExpr newArray = (NewArrayExpr) node;
+            put(symbol(newArray.getType()));
+            child(newArray.getSize());
+            return NEW_ARRAY_EXPR;
+        }
+        if (node instanceof InstanceofExpr) {
+            InstanceofExpr instanceOf = (InstanceofExpr) node;
+            child(instanceOf.getExpr());
+            put(symbol(instanceOf.getType()));
+            return INSTANCEOF_EXPR | (instanceOf.getUpCheck() ? FLAG : 0);
+        }
+        if (node instanceof CastExpr) {
+            CastExpr cast = (CastExpr) node;
+            put(symbol(cast.getType()));
+            child(cast.getExpr());
+            return CAST_EXPR | (cast.getUpCast() ? FLAG : 0);
+        }
+        if (node instanceof ExprStmt) {
+            child(((ExprStmt) node).getExpr());
+            return EXPR_STMT;
+        }
+        if (node instanceof DeclStmt) {
+            DeclStmt decl = (DeclStmt) node;
+            put(symbol(decl.getType()));
+            put(symbol(decl.getName()));
+            child(decl.getInit());
+            return DECL_STMT;
+        }
+        if (node instanceof IfStmt) {
+            IfStmt ifStmt = (IfStmt) node;
+            child(ifStmt.getPredExpr());
+            child(ifStmt.getThenStmt());
+            child(ifStmt.getElseStmt());
+            return IF_STMT;
+        }
+        if (node instanceof WhileStmt) {
+            WhileStmt whileStmt = (WhileStmt) node;
+            child(whileStmt.getPredExpr());
+            child(whileStmt.getBodyStmt());
+            return WHILE_STMT;
+        }
+        if (node instanceof ForStmt) {
+            ForStmt forStmt = (ForStmt) node;
+            child(forStmt.getInitExpr());
+            child(forStmt.getPredExpr());
+            child(forStmt.getUpdateExpr());
+            child(forStmt.getBodyStmt());
+            return FOR_STMT;
+        }
+        if (node instanceof BlockStmt) {
+            child(((BlockStmt) node).getStmtList());
+            return BLOCK_STMT;
+        }
+        if (node instanceof ReturnStmt) {
+            child(((ReturnStmt) node).getExpr());
+            return RETURN_STMT;
+        }
+        if (node instanceof BreakStmt) {
+            return BREAK_STMT;
+        }
+        if (node instanceof ErrorStmt) {
+            return ERROR_STMT;
+        }
+        if (node instanceof Field) {
+            Field field = (Field) node;
+            put(symbol(field.getType()));
+            put(symbol(field.getName()));
+            child(field.getInit());
+            return FIELD;
+        }
+        if (node instanceof Method) {
+            Method method = (Method) node;
+            put(symbol(method.getReturnType()));
+            put(symbol(method.getName()));
+            child(method.getFormalList());
+            child(method.getStmtList());
+            return METHOD;
+        }
+        if (node instanceof Formal) {
+            Formal formal = (Formal) node;
+            put(symbol(formal.getType()));
+            put(symbol(formal.getName()));
+            return FORMAL;
+        }
+        if (node instanceof Class_) {
+            Class_ aClass = (Class_) node;
+            put(symbol(aClass.getFilename()));
+            put(symbol(aClass.getName()));
+            put(symbol(aClass.getParent()));
+            child(aClass.getMemberList());
+            return CLASS;
+        }
+        if (node instanceof Program) {
+            child(((Program) node).getClassList());
+            return PROGRAM;
+        }
+        throw new IllegalArgumentException("Cannot flatten a " + node.getClass().getName());
+    }
+
+    private void put(int value) {
+        if (poolSize == pool.length) {
+            pool = Arrays.copyOf(pool, poolSize * 2);
+        }
+        pool[poolSize++] = value;
+    }
+
+    private void child(ASTNode child) {
+        put(-1);
+        if (child != null) {
+            if (numChildren == children.length) {
+                children = Arrays.copyOf(children, numChildren * 2);
+                childSlots = Arrays.copyOf(childSlots, numChildren * 2);
+            }
+            children[numChildren] = child;
+            childSlots[numChildren++] = poolSize - 1;
+        }
+    }
+
+    private int symbol(String name) {
+        return name == null ? -1 : symbols.intern(name);
+    }
+
+    /**
+     * @return the number of nodes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the interner of the names of the nodes
+     */
+    public SymbolInterner getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * @param node the number of a node
+     * @return the kind of the node, one of the constants of this class
+     */
+    public int getKind(int node) {
+        return kinds[node] & KIND_MASK;
+    }
+
+    /**
+     * @param node the number of a node
+     * @return its source line number
+     */
+    public int getLineNum(int node) {
+        return lines[node];
+    }
+
+    /**
+     * @param node the number of a node
+     * @return the offset of its first source char, or -1 if unknown
+     */
+    public int getStartOffset(int node) {
+        return starts[node];
+    }
+
+    /**
+     * @param node the number of a node
+     * @return the offset just past its last source char, or -1 if unknown
+     */
+    public int getEndOffset(int node) {
+        return ends[node];
+    }
+
+    /**
+     * @return the number of bytes the arrays take, headers included
+     */
+    public long sizeInBytes() {
+        return 16 + size + 5 * (16 + 4L * size) + 16 + 4L * poolSize;
+    }
+
+    /**
+     * @return the number of bytes writeTo() writes
+     */
+    public int serializedSize() {
+        return symbols.serializedSize() + 8 + size + 5 * 4 * size + 4 * poolSize;
+    }
+
+    /**
+     * Writes the arrays, and the symbols of the interner, for readFrom() to
+     * read back.  Every symbol of the interner is written, so it had better be
+     * one of the FlatAST's own.
+     *
+     * @param out the buffer to write to
+     */
+    public void writeTo(ByteBuffer out) {
+        symbols.writeTo(out);
+        out.putInt(size);
+        out.putInt(poolSize);
+        out.put(kinds, 0, size);
+        for (int[] array : new int[][]{lines, starts, ends, offsets, types}) {
+            out.asIntBuffer().put(array, 0, size);
+            out.position(out.position() + 4 * size);
+        }
+        out.asIntBuffer().put(pool, 0, poolSize);
+        out.position(out.position() + 4 * poolSize);
+    }
+
+    /**
+     * Reads a FlatAST written by writeTo(), such as one memory-mapped from a
+     * file.  The arrays are read in bulk, and only the symbols are read one
+     * by one, to intern them.
+     *
+     * @param in       the buffer to read from
+     * @param symbols  the interner to intern the symbols in, which the ids of
+     *                 the FlatAST and its views are then those of
+     * @param filename the filename to give the classes, since the same source
+     *                 may have been read from another file, or null to keep
+     *                 the one written
+     * @return the FlatAST
+     */
+    public static FlatAST readFrom(ByteBuffer in, SymbolInterner symbols, String filename) {
+        int[] ids = symbols.readFrom(in);
+        int size = in.getInt();
+        int poolSize = in.getInt();
+        byte[] kinds = new byte[size];
+        in.get(kinds);
+        int[][] arrays = new int[6][];
+        for (int i = 0; i < arrays.length; i++) {
+            arrays[i] = new int[i < 5 ? size : poolSize];
+            in.asIntBuffer().get(arrays[i]);
+            in.position(in.position() + 4 * arrays[i].length);
+        }
+        FlatAST flat = new FlatAST(symbols, kinds, arrays[0], arrays[1], arrays[2], arrays[3],
+                arrays[4], arrays[5]);
+
+        // give the symbols their ids in the interner
+        int filenameId = filename == null ? -1 : symbols.intern(filename);
+        for (int node = 0; node < size; node++) {
+            int offset = flat.offsets[node];
+            for (int field : SYMBOL_FIELDS[flat.getKind(node)]) {
+                if (flat.pool[offset + field] >= 0) {
+                    flat.pool[offset + field] = ids[flat.pool[offset + field]];
+                }
+            }
+            if (flat.types[node] >= 0) {
+                flat.types[node] = ids[flat.types[node]];
+            }
+            if (filenameId >= 0 && flat.getKind(node) == CLASS) {
+                flat.pool[offset] = filenameId;
+            }
+        }
+        return flat;
+    }
+
+    /**
+     * @return a view of the Program
+     */
+    public Program getProgram() {
+        return (Program) getNode(0);
+    }
+
+    /**
+     * Makes a view of a node
+     *
+     * @param node the number of a node, or -1
+     * @return a new view of the node, or null if the number is -1
+     */
+    public ASTNode getNode(int node) {
+        if (node < 0) {
+            return null;
+        }
+        int line = lines[node];
+        ASTNode view;
+        switch (getKind(node)) {
+            case PROGRAM:
+                view = new Program(line, null) {
+                    public ClassList getClassList() { return (ClassList) child(node, 0); }
+                };
+                break;
+            case CLASS_LIST:
+                view = new ClassList(line) {
+                    public int getSize() { return pool[offsets[node]]; }
+                    public ASTNode get(int index) { return element(node, index); }
+                    public Iterator<ASTNode> iterator() { return elements(node); }
+                };
+                break;
+            case MEMBER_LIST:
+                view = new MemberList(line) {
+                    public int getSize() { return pool[offsets[node]]; }
+                    public ASTNode get(int index) { return element(node, index); }
+                    public Iterator<ASTNode> iterator() { return elements(node); }
+                };
+                break;
+            case FORMAL_LIST:
+                view = new FormalList(line) {
+                    public int getSize() { return pool[offsets[node]]; }
+                    public ASTNode get(int index) { return element(node, index); }
+                    public Iterator<ASTNode> iterator() { return elements(node); }
+                };
+                break;
+            case STMT_LIST:
+                view = new StmtList(line) {
+                    public int getSize() { return pool[offsets[node]]; }
+                    public ASTNode get(int index) { return element(node, index); }
+                    public Iterator<ASTNode> iterator() { return elements(node); }
+                };
+                break;
+            case EXPR_LIST:
+                view = new ExprList(line) {
+                    public int getSize() { return pool[offsets[node]]; }
+                    public ASTNode get(int index) { return element(node, index); }
+                    public Iterator<ASTNode> iterator() { return elements(node); }
+                };
+                break;
+            case CLASS:
+                Class_ aClass = new Class_(line, name(node, 0), name(node, 1), name(node, 2), null) {
+                    public MemberList getMemberList() { return (MemberList) child(node, 3); }
+                };
+                aClass.setNameId(pool[offsets[node] + 1]);
+                aClass.setParentId(pool[offsets[node] + 2]);
+                view = aClass;
+                break;
+            case FIELD:
+                Field field = new Field(line, name(node, 0), name(node, 1), null) {
+                    public Expr getInit() { return (Expr) child(node, 2); }
+                };
+                field.setTypeId(pool[offsets[node]]);
+                field.setNameId(pool[offsets[node] + 1]);
+                view = field;
+                break;
+            case METHOD:
+                Method method = new Method(line, name(node, 0), name(node, 1), null, null) {
+                    public FormalList getFormalList() { return (FormalList) child(node, 2); }
+                    public StmtList getStmtList() { return (StmtList) child(node, 3); }
+                };
+                method.setReturnTypeId(pool[offsets[node]]);
+                method.setNameId(pool[offsets[node] + 1]);
+                view = method;
+                break;
+            case FORMAL:
+                Formal formal = new Formal(line, name(node, 0), name(node, 1));
+                formal.setTypeId(pool[offsets[node]]);
+                formal.setNameId(pool[offsets[node] + 1]);
+                view = formal;
+                break;
+            case DECL_STMT:
+                DeclStmt decl = new DeclStmt(line, name(node, 1), null) {
+                    public String getType() { return name(node, 0); }
+                    public void setType(String type) { pool[offsets[node]] = symbol(type); }
+                    public Expr getInit() { return (Expr) child(node, 2); }
+                };
+                decl.setNameId(pool[offsets[node] + 1]);
+                view = decl;
+                break;
+            case EXPR_STMT:
+                view = new ExprStmt(line, null) {
+                    public Expr getExpr() { return (Expr) child(node, 0); }
+                };
+                break;
+            case IF_STMT:
+                view = new IfStmt(line, null, null, null) {
+                    public Expr getPredExpr() { return (Expr) child(node, 0); }
+                    public Stmt getThenStmt() { return (Stmt) child(node, 1); }
+                    public Stmt getElseStmt() { return (Stmt) child(node, 2); }
+                };
+                break;
+            case WHILE_STMT:
+                view = new WhileStmt(line, null, null) {
+                    public Expr getPredExpr() { return (Expr) child(node, 0); }
+                    public Stmt getBodyStmt() { return (Stmt) child(node, 1); }
+                };
+                break;
+            case FOR_STMT:
+                view = new ForStmt(line, null, null, null, null) {
+                    public Expr getInitExpr() { return (Expr) child(node, 0); }
+                    public Expr getPredExpr() { return (Expr) child(node, 1); }
+                    public Expr getUpdateExpr() { return (Expr) child(node, 2); }
+                    public Stmt getBodyStmt() { return (Stmt) child(node, 3); }
+                };
+                break;
+            case BREAK_STMT:
+                view = new BreakStmt(line);
+                break;
+            case BLOCK_STMT:
+                view = new BlockStmt(line, null) {
+                    public StmtList getStmtList() { return (StmtList) child(node, 0); }
+                };
+                break;
+            case RETURN_STMT:
+                view = new ReturnStmt(line, null) {
+                    public Expr getExpr() { return (Expr) child(node, 0); }
+                };
+                break;
+            case ERROR_STMT:
+                view = new ErrorStmt(line);
+                break;
+            default:
+                view = getExpr(node, line);
+        }
+        view.setSpan(starts[node], ends[node]);
+        return view;
+    }
+
+    /**
+     * Makes a view of an expression, whose type is kept in the arrays
+     */
+    private Expr getExpr(int node, int line) {
+        switch (getKind(node)) {
+            case DISPATCH_EXPR:
+                DispatchExpr dispatch = new DispatchExpr(line, null, name(node, 1), null) {
+                    public Expr getRefExpr() { return (Expr) child(node, 0); }
+                    public ExprList getActualList() { return (ExprList) child(node, 2); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+                dispatch.setMethodNameId(pool[offsets[node] + 1]);
+                return dispatch;
+            case NEW_EXPR:
+                NewExpr newExpr = new NewExpr(line, name(node, 0)) {
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+                newExpr.setTypeId(pool[offsets[node]]);
+                return newExpr;
+            case NEW_ARRAY_EXPR:
+                NewArrayExpr newArray = new NewArrayExpr(line, name(node, 0), null) {
+                    public Expr getSize() { return (Expr) child(node, 1); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+                newArray.setTypeId(pool[offsets[node]]);
+                return newArray;
+            case INSTANCEOF_EXPR:
+                InstanceofExpr instanceOf = new InstanceofExpr(line, null, name(node, 1)) {
+                    public Expr getExpr() { return (Expr) child(node, 0); }
+                    public boolean getUpCheck() { return (kinds[node] & FLAG) != 0; }
+                    public void setUpCheck(boolean upcheck) { setFlag(node, upcheck); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+                instanceOf.setTypeId(pool[offsets[node] + 1]);
+                return instanceOf;
+            case CAST_EXPR:
+                CastExpr cast = new CastExpr(line, name(node, 0), null) {
+                    public Expr getExpr() { return (Expr) child(node, 1); }
+                    public boolean getUpCast() { return (kinds[node] & FLAG) != 0; }
+                    public void setUpCast(boolean upcast) { setFlag(node, upcast); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+                cast.setTypeId(pool[offsets[node]]);
+                return cast;
+            case ASSIGN_EXPR:
+                AssignExpr assign = new AssignExpr(line, name(node, 0), name(node, 1), null) {
+                    public Expr getExpr() { return (Expr) child(node, 2); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+                assign.setNameId(pool[offsets[node] + 1]);
+                return assign;
+            case ARRAY_ASSIGN_EXPR:
+                ArrayAssignExpr arrayAssign =
+                        new ArrayAssignExpr(line, name(node, 0), name(node, 1), null, null) {
+                    public Expr getIndex() { return (Expr) child(node, 2); }
+                    public Expr getExpr() { return (Expr) child(node, 3); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+                arrayAssign.setNameId(pool[offsets[node] + 1]);
+                return arrayAssign;
+            case PLUS_EXPR:
+                return new BinaryArithPlusExpr(line, null, null) {
+                    public Expr getLeftExpr() { return (Expr) child(node, 0); }
+                    public Expr getRightExpr() { return (Expr) child(node, 1); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            case MINUS_EXPR:
+                return new BinaryArithMinusExpr(line, null, null) {
+                    public Expr getLeftExpr() { return (Expr) child(node, 0); }
+                    public Expr getRightExpr() { return (Expr) child(node, 1); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            case TIMES_EXPR:
+                return new BinaryArithTimesExpr(line, null, null) {
+                    public Expr getLeftExpr() { return (Expr) child(node, 0); }
+                    public Expr getRightExpr() { return (Expr) child(node, 1); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            case DIVIDE_EXPR:
+                return new BinaryArithDivideExpr(line, null, null) {
+                    public Expr getLeftExpr() { return (Expr) child(node, 0); }
+                    public Expr getRightExpr() { return (Expr) child(node, 1); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            case MODULUS_EXPR:
+                return new BinaryArithModulusExpr(line, null, null) {
+                    public Expr getLeftExpr() { return (Expr) child(node, 0); }
+                    public Expr getRightExpr() { return (Expr) child(node, 1); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            case EQ_EXPR:
+                return new BinaryCompEqExpr(line, null, null) {
+                    public Expr getLeftExpr() { return (Expr) child(node, 0); }
+                    public Expr getRightExpr() { return (Expr) child(node, 1); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            case NE_EXPR:
+                return new BinaryCompNeExpr(line, null, null) {
+                    public Expr getLeftExpr() { return (Expr) child(node, 0); }
+                    public Expr getRightExpr() { return (Expr) child(node, 1); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            case LT_EXPR:
+                return new BinaryCompLtExpr(line, null, null) {
+                    public Expr getLeftExpr() { return (Expr) child(node, 0); }
+                    public Expr getRightExpr() { return (Expr) child(node, 1); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            case LEQ_EXPR:
+                return new BinaryCompLeqExpr(line, null, null) {
+                    public Expr getLeftExpr() { return (Expr) child(node, 0); }
+                    public Expr getRightExpr() { return (Expr) child(node, 1); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            case GT_EXPR:
+                return new BinaryCompGtExpr(line, null, null) {
+                    public Expr getLeftExpr() { return (Expr) child(node, 0); }
+                    public Expr getRightExpr() { return (Expr) child(node, 1); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            case GEQ_EXPR:
+                return new BinaryCompGeqExpr(line, null, null) {
+                    public Expr getLeftExpr() { return (Expr) child(node, 0); }
+                    public Expr getRightExpr() { return (Expr) child(node, 1); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            case AND_EXPR:
+                return new BinaryLogicAndExpr(line, null, null) {
+                    public Expr getLeftExpr() { return (Expr) child(node, 0); }
+                    public Expr getRightExpr() { return (Expr) child(node, 1); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            case OR_EXPR:
+                return new BinaryLogicOrExpr(line, null, null) {
+                    public Expr getLeftExpr() { return (Expr) child(node, 0); }
+                    public Expr getRightExpr() { return (Expr) child(node, 1); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            case NEG_EXPR:
+                return new UnaryNegExpr(line, null) {
+                    public Expr getExpr() { return (Expr) child(node, 0); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            case NOT_EXPR:
+                return new UnaryNotExpr(line, null) {
+                    public Expr getExpr() { return (Expr) child(node, 0); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            case INCR_EXPR:
+                return new UnaryIncrExpr(line, null, (kinds[node] & FLAG) != 0) {
+                    public Expr getExpr() { return (Expr) child(node, 0); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            case DECR_EXPR:
+                return new UnaryDecrExpr(line, null, (kinds[node] & FLAG) != 0) {
+                    public Expr getExpr() { return (Expr) child(node, 0); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            case VAR_EXPR:
+                VarExpr var = new VarExpr(line, null, name(node, 1)) {
+                    public Expr getRef() { return (Expr) child(node, 0); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+                var.setNameId(pool[offsets[node] + 1]);
+                return var;
+            case ARRAY_EXPR:
+                ArrayExpr array = new ArrayExpr(line, null, name(node, 1), null) {
+                    public Expr getRef() { return (Expr) child(node, 0); }
+                    public Expr getIndex() { return (Expr) child(node, 2); }
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+                array.setNameId(pool[offsets[node] + 1]);
+                return array;
+            case CONST_INT_EXPR:
+                return new ConstIntExpr(line, name(node, 0)) {
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            case CONST_BOOLEAN_EXPR:
+                return new ConstBooleanExpr(line, name(node, 0)) {
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+            default:
+                return new ConstStringExpr(line, name(node, 0)) {
+                    public String getExprType() { return exprType(node); }
+                    public void setExprType(String type) { types[node] = symbol(type); }
+                };
+        }
+    }
+
+    /**
+     * @return a view of the child in the given field of a node
+     */
+    private ASTNode child(int node, int field) {
+        return getNode(pool[offsets[node] + field]);
+    }
+
+    /**
+     * @return the name in the given field of a node
+     */
+    private String name(int node, int field) {
+        int id = pool[offsets[node] + field];
+        return id < 0 ? null : symbols.get(id);
+    }
+
+    private String exprType(int node) {
+        return types[node] < 0 ? null : symbols.get(types[node]);
+    }
+
+    private void setFlag(int node, boolean flag) {
+        kinds[node] = (byte) (flag ? kinds[node] | FLAG : kinds[node] & ~FLAG);
+    }
+
+    private ASTNode element(int list, int index) {
+        if (index < 0 || index >= pool[offsets[list]]) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        return getNode(pool[offsets[list] + 1 + index]);
+    }
+
+    private Iterator<ASTNode> elements(int list) {
+        return new Iterator<ASTNode>()
+        {
+            private int index = 0;
+
+            public boolean hasNext() {
+                return index < pool[offsets[list]];
+            }
+
+            public ASTNode next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return getNode(pool[offsets[list] + 1 + index++]);
+            }
+        };
+    }
+
+    /**
+     * @param other another FlatAST
+     * @return whether the two have the same arrays, which for two FlatASTs
+     * flattened with interners of their own means the same ASTs
+     */
+    public boolean sameAs(FlatAST other) {
+        return Arrays.equals(kinds, other.kinds) && Arrays.equals(lines, other.lines)
+                && Arrays.equals(starts, other.starts) && Arrays.equals(ends, other.ends)
+                && Arrays.equals(offsets, other.offsets) && Arrays.equals(types, other.types)
+                && Arrays.equals(pool, other.pool);
+    }
+}
@@ -26,6 +26,9 @@
 
 package proj12AhnSlager.bantam.ast;
 
+import proj12AhnSlager.bantam.visitor.BooleanVisitor;
+import proj12AhnSlager.bantam.visitor.GenericVisitor;
+import proj12AhnSlager.bantam.visitor.IntVisitor;
 import proj12AhnSlager.bantam.visitor.Visitor;
 
 
@@ -41,11 +44,22 @@ public class Formal extends ASTNode {
      * The type of the formal parameter
      */
     protected String type;
+
+    /**
+     * The symbol id of the type of the formal parameter, or -1 if it has not been interned
+     */
+    protected int typeId = -1;
+
     /**
      * The name of the formal parameter
      */
     protected String name;
 
+    /**
+     * The symbol id of the name of the formal parameter, or -1 if it has not been interned
+     */
+    protected int nameId = -1;
+
     /**
      * Formal constructor
      *
@@ -68,6 +82,24 @@ public class Formal extends ASTNode {
         return type;
     }
 
+    /**
+     * Get the symbol id of the type of the formal parameter
+     *
+     * @return the id the SymbolInterner gave it, or -1 if none
+     */
+    public int getTypeId() {
+        return typeId;
+    }
+
+    /**
+     * Set the symbol id of the type of the formal parameter
+     *
+     * @param typeId the id the SymbolInterner gave it
+     */
+    public void setTypeId(int typeId) {
+        this.typeId = typeId;
+    }
+
     /**
      * Get the name of the formal parameter
      *
@@ -77,6 +109,33 @@ public class Formal extends ASTNode {
         return name;
     }
 
+    /**
+     * Get the symbol id of the name of the formal parameter
+     *
+     * @return the id the SymbolInterner gave it, or -1 if none
+     */
+    public int getNameId() {
+        return nameId;
+    }
+
+    /**
+     * Set the symbol id of the name of the formal parameter
+     *
+     * @param nameId the id the SymbolInterner gave it
+     */
+    public void setNameId(int nameId) {
+        this.nameId = nameId;
+    }
+
+    /**
+     * Get the kind of this node
+     *
+     * @return FlatAST.FORMAL
+     */
+    public int kind() {
+        return FlatAST.FORMAL;
+    }
+
     /**
      * Visitor method
      *
@@ -87,4 +146,38 @@ public class Formal extends ASTNode {
     public Object accept(Visitor v) {
         return v.visit(this);
     }
+
+    /**
+     * Visitor method
+     *
+     * @param v   proj12AhnSlager.bantam.visitor object
+     * @param <R> the type of the results of the visits
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.GenericVisitor
+     */
+    public <R> R accept(GenericVisitor<R> v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.IntVisitor
+     */
+    public int accept(IntVisitor v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.BooleanVisitor
+     */
+    public boolean accept(BooleanVisitor v) {
+        return v.visit(this);
+    }
 }
@@ -26,6 +26,9 @@
 
 package proj12AhnSlager.bantam.ast;
 
+import proj12AhnSlager.bantam.visitor.BooleanVisitor;
+import proj12AhnSlager.bantam.visitor.GenericVisitor;
+import proj12AhnSlager.bantam.visitor.IntVisitor;
 import proj12AhnSlager.bantam.visitor.Visitor;
 
 /**
@@ -48,6 +51,11 @@ public class InstanceofExpr extends Expr {
      */
     protected String type;
 
+    /**
+     * The symbol id of the type compared against, or -1 if it has not been interned
+     */
+    protected int typeId = -1;
+
     /**
      * Boolean indicating whether this is an upcheck
      * (checking whether one type is instanceof a super type -- always true
@@ -85,6 +93,24 @@ public class InstanceofExpr extends Expr {
         return type;
     }
 
+    /**
+     * Get the symbol id of the type compared against
+     *
+     * @return the id the SymbolInterner gave it, or -1 if none
+     */
+    public int getTypeId() {
+        return typeId;
+    }
+
+    /**
+     * Set the symbol id of the type compared against
+     *
+     * @param typeId the id the SymbolInterner gave it
+     */
+    public void setTypeId(int typeId) {
+        this.typeId = typeId;
+    }
+
     /**
      * Is this an upcheck?
      * i.e., checking whether one type is an instanceof a super type
@@ -107,6 +133,15 @@ public class InstanceofExpr extends Expr {
         this.upcheck = upcheck;
     }
 
+    /**
+     * Get the kind of this node
+     *
+     * @return FlatAST.INSTANCEOF_EXPR
+     */
+    public int kind() {
+        return FlatAST.INSTANCEOF_EXPR;
+    }
+
     /**
      * Visitor method
      *
@@ -117,4 +152,38 @@ public class InstanceofExpr extends Expr {
     public Object accept(Visitor v) {
         return v.visit(this);
     }
+
+    /**
+     * Visitor method
+     *
+     * @param v   proj12AhnSlager.bantam.visitor object
+     * @param <R> the type of the results of the visits
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.GenericVisitor
+     */
+    public <R> R accept(GenericVisitor<R> v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.IntVisitor
+     */
+    public int accept(IntVisitor v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.BooleanVisitor
+     */
+    public boolean accept(BooleanVisitor v) {
+        return v.visit(this);
+    }
 }
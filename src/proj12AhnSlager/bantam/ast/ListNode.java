@@ -103,6 +103,16 @@ public abstract class ListNode extends ASTNode
         return listElements.get(index);
     }
 
+    /**
+     * Replace the index-th element, as a NodeInterner does with one it shares
+     *
+     * @param index index of the element
+     * @param node  the new element
+     */
+    void set(int index, ASTNode node) {
+        listElements.set(index, node);
+    }
+
     /**
      * Visitor method
      *
@@ -26,14 +26,20 @@
 
 package proj12AhnSlager.bantam.ast;
 
+import proj12AhnSlager.bantam.visitor.BooleanVisitor;
+import proj12AhnSlager.bantam.visitor.GenericVisitor;
+import proj12AhnSlager.bantam.visitor.IntVisitor;
 import proj12AhnSlager.bantam.visitor.Visitor;
 
+import java.util.function.Supplier;
+
 /**
  * The <tt>Method</tt> class represents a method declaration within
  * a class declaration.  It contains the name of the method (<tt>name</tt>),
  * a list of formal parameters (<tt>formalList</tt>), the return type of the
  * method (<tt>returnType</tt>), and a list of statements from the method body
- * (<tt>stmtList</tt>).
+ * (<tt>stmtList</tt>).  The body may be parsed lazily, in which case the
+ * list of statements is built the first time it is asked for.
  *
  * @see ASTNode
  */
@@ -43,11 +49,21 @@ public class Method extends Member {
      */
     protected String returnType;
 
+    /**
+     * The symbol id of the return type of the method, or -1 if it has not been interned
+     */
+    protected int returnTypeId = -1;
+
     /**
      * The name of the method
      */
     protected String name;
 
+    /**
+     * The symbol id of the name of the method, or -1 if it has not been interned
+     */
+    protected int nameId = -1;
+
     /**
      * A list of formal parameters
      */
@@ -58,6 +74,12 @@ public class Method extends Member {
      */
     protected StmtList stmtList;
 
+    /**
+     * Parses the method body the first time its statements are asked for,
+     * or null if the body has been parsed
+     */
+    protected Supplier<StmtList> bodyParser;
+
     /**
      * Method constructor
      *
@@ -85,6 +107,24 @@ public class Method extends Member {
         return returnType;
     }
 
+    /**
+     * Get the symbol id of the return type of the method
+     *
+     * @return the id the SymbolInterner gave it, or -1 if none
+     */
+    public int getReturnTypeId() {
+        return returnTypeId;
+    }
+
+    /**
+     * Set the symbol id of the return type of the method
+     *
+     * @param returnTypeId the id the SymbolInterner gave it
+     */
+    public void setReturnTypeId(int returnTypeId) {
+        this.returnTypeId = returnTypeId;
+    }
+
     /**
      * Get the name of this method
      *
@@ -94,6 +134,24 @@ public class Method extends Member {
         return name;
     }
 
+    /**
+     * Get the symbol id of the name of the method
+     *
+     * @return the id the SymbolInterner gave it, or -1 if none
+     */
+    public int getNameId() {
+        return nameId;
+    }
+
+    /**
+     * Set the symbol id of the name of the method
+     *
+     * @param nameId the id the SymbolInterner gave it
+     */
+    public void setNameId(int nameId) {
+        this.nameId = nameId;
+    }
+
     /**
      * Get list of formal parameters
      *
@@ -104,14 +162,61 @@ public class Method extends Member {
     }
 
     /**
-     * Get list of statements from method body
+     * Get list of statements from method body.  A body not yet parsed is
+     * parsed now, with the tokens and the ErrorHandler of the parse of the
+     * method, so the bodies of one program are not to be asked for on more
+     * than one thread until they have been parsed.
      *
      * @return list of statements
      */
     public StmtList getStmtList() {
+        if (bodyParser != null) {
+            stmtList = bodyParser.get();
+            bodyParser = null;
+        }
         return stmtList;
     }
 
+    /**
+     * Set the list of statements of the method body, when the body was
+     * parsed apart from the rest of the method
+     *
+     * @param stmtList the list of statements of the method body
+     */
+    public void setStmtList(StmtList stmtList) {
+        this.stmtList = stmtList;
+        this.bodyParser = null;
+    }
+
+    /**
+     * Set how to parse the method body when its statements are first asked
+     * for, in place of a list of statements.  Any syntax errors in the body are
+     * only found then.
+     *
+     * @param bodyParser gives the list of statements of the method body
+     */
+    public void setBodyParser(Supplier<StmtList> bodyParser) {
+        this.bodyParser = bodyParser;
+    }
+
+    /**
+     * Get whether the method body has been parsed into statements
+     *
+     * @return false if the body is still waiting to be parsed
+     */
+    public boolean isBodyParsed() {
+        return bodyParser == null;
+    }
+
+    /**
+     * Get the kind of this node
+     *
+     * @return FlatAST.METHOD
+     */
+    public int kind() {
+        return FlatAST.METHOD;
+    }
+
     /**
      * Visitor method
      *
@@ -122,4 +227,38 @@ public class Method extends Member {
     public Object accept(Visitor v) {
         return v.visit(this);
     }
+
+    /**
+     * Visitor method
+     *
+     * @param v   proj12AhnSlager.bantam.visitor object
+     * @param <R> the type of the results of the visits
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.GenericVisitor
+     */
+    public <R> R accept(GenericVisitor<R> v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.IntVisitor
+     */
+    public int accept(IntVisitor v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.BooleanVisitor
+     */
+    public boolean accept(BooleanVisitor v) {
+        return v.visit(this);
+    }
 }
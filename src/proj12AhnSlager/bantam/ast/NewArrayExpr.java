@@ -26,6 +26,9 @@
 
 package proj12AhnSlager.bantam.ast;
 
+import proj12AhnSlager.bantam.visitor.BooleanVisitor;
+import proj12AhnSlager.bantam.visitor.GenericVisitor;
+import proj12AhnSlager.bantam.visitor.IntVisitor;
 import proj12AhnSlager.bantam.visitor.Visitor;
 
 
@@ -43,6 +46,11 @@ public class NewArrayExpr extends Expr {
      */
     protected String type;
 
+    /**
+     * The symbol id of the element type of the array created, or -1 if it has not been interned
+     */
+    protected int typeId = -1;
+
     /**
      * The size of the constructed array
      */
@@ -70,6 +78,24 @@ public class NewArrayExpr extends Expr {
         return type;
     }
 
+    /**
+     * Get the symbol id of the element type of the array created
+     *
+     * @return the id the SymbolInterner gave it, or -1 if none
+     */
+    public int getTypeId() {
+        return typeId;
+    }
+
+    /**
+     * Set the symbol id of the element type of the array created
+     *
+     * @param typeId the id the SymbolInterner gave it
+     */
+    public void setTypeId(int typeId) {
+        this.typeId = typeId;
+    }
+
     /**
      * Get the construction size expression
      *
@@ -79,6 +105,15 @@ public class NewArrayExpr extends Expr {
         return size;
     }
 
+    /**
+     * Get the kind of this node
+     *
+     * @return FlatAST.NEW_ARRAY_EXPR
+     */
+    public int kind() {
+        return FlatAST.NEW_ARRAY_EXPR;
+    }
+
     /**
      * Visitor method
      *
@@ -89,4 +124,38 @@ public class NewArrayExpr extends Expr {
     public Object accept(Visitor v) {
         return v.visit(this);
     }
+
+    /**
+     * Visitor method
+     *
+     * @param v   proj12AhnSlager.bantam.visitor object
+     * @param <R> the type of the results of the visits
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.GenericVisitor
+     */
+    public <R> R accept(GenericVisitor<R> v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.IntVisitor
+     */
+    public int accept(IntVisitor v) {
+        return v.visit(this);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v proj12AhnSlager.bantam.visitor object
+     * @return result of visiting this node
+     * @see proj12AhnSlager.bantam.visitor.BooleanVisitor
+     */
+    public boolean accept(BooleanVisitor v) {
+        return v.visit(this);
+    }
 }
@@ -0,0 +1,502 @@
+/**
+ * Filename: NodeInterner
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.ast;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Hash-conses the expressions of ASTs: structurally equal expression
+ * subtrees, such as every "this.x", "i + 1" or "0", are made one shared node.
+ * Sharing leaves fewer nodes resident, and makes two interned expressions
+ * structurally equal exactly when they are the same node, so a pass that
+ * caches what it finds for an expression can look it up by identity.
+ *
+ * Expressions and ExprLists are shared; statements, members and classes are
+ * not, since they are where positions and scopes are kept.  Two nodes are
+ * equal when they are of the same class, their names, symbol ids, constants,
+ * types and flags are equal, and their children are the same nodes.  Since
+ * children are interned before their parents, comparing and hashing a node
+ * only looks at its own fields.
+ *
+ * A shared subtree keeps the lines and offsets of the occurrence it was
+ * first made for.  Those of the occurrences folded into it are kept in the
+ * Positions that share() returns, by parent and child.  A shared node also has
+ * one type, so semantic analysis of an interned AST gives every occurrence of
+ * an expression the type of its last occurrence; passes that need a type for
+ * each occurrence, as for a local name declared with two types in two blocks,
+ * should run on an AST parsed without sharing.
+ *
+ * The table holds its nodes weakly, so a node stays in it only as long as
+ * some AST uses it, and one interner can be kept across parses, such as the
+ * reparses of an editor, to share their nodes too.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class NodeInterner
+{
+    // the fields of each class of node holding children, and holding the rest
+    // of what makes it equal to another; the positions of ASTNode and the
+    // elements of ListNode are left out
+    private static final ClassValue<Field[][]> FIELDS = new ClassValue<Field[][]>()
+    {
+        @Override
+        protected Field[][] computeValue(Class<?> nodeClass) {
+            List<Field> children = new ArrayList<>();
+            List<Field> values = new ArrayList<>();
+            for (Class<?> c = nodeClass; c != ListNode.class && c != ASTNode.class;
+                 c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    if (ASTNode.class.isAssignableFrom(field.getType())) {
+                        children.add(field);
+                    }
+                    else {
+                        values.add(field);
+                    }
+                }
+            }
+            return new Field[][]{children.toArray(new Field[0]),
+                    values.toArray(new Field[0])};
+        }
+    };
+
+    private static final int CHILDREN = 0, VALUES = 1;
+
+    private static class Entry extends WeakReference<ASTNode>
+    {
+        final int hash;
+        Entry next;
+
+        Entry(ASTNode node, int hash, Entry next, ReferenceQueue<ASTNode> queue) {
+            super(node, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    private Entry[] table = new Entry[1024]; // chained; the length is a power of 2
+    private int size;
+    private final ReferenceQueue<ASTNode> collected = new ReferenceQueue<>();
+
+    /**
+     * The positions of the occurrences of expressions that were folded into a
+     * shared node, by the parent they occur in and the slot of the parent they
+     * occur at, the index of the child in getChildren().  The nodes of a shared subtree
+     * have the positions of the occurrence it was first made for, so those of
+     * every node of a folded occurrence are kept.
+     */
+    public static class Positions
+    {
+        // open addressing on the parent and slot; a free entry has no parent
+        private ASTNode[] parents = new ASTNode[64];
+        private int[] slots = new int[64];
+        private int[] firsts = new int[64]; // where each occurrence starts in pool
+        private int size;
+        // for each occurrence, the number of its nodes, and then the line, start
+        // and end offsets of each in preorder
+        private int[] pool = new int[256];
+        private int poolSize;
+
+        private void put(ASTNode parent, int slot, int[] nodePositions, int from, int count) {
+            if (4 * (size + 1) > 3 * parents.length) {
+                grow();
+            }
+            int i = find(parent, slot);
+            if (parents[i] == null) {
+                parents[i] = parent;
+                slots[i] = slot;
+                size++;
+            }
+            if (poolSize + 1 + 3 * count > pool.length) {
+                pool = Arrays.copyOf(pool, Math.max(2 * pool.length, poolSize + 1 + 3 * count));
+            }
+            firsts[i] = poolSize;
+            pool[poolSize++] = count;
+            System.arraycopy(nodePositions, 3 * from, pool, poolSize, 3 * count);
+            poolSize += 3 * count;
+        }
+
+        // the index of the parent and slot, or of the free entry they go in
+        private int find(ASTNode parent, int slot) {
+            int mask = parents.length - 1;
+            int i = (System.identityHashCode(parent) * 31 + slot) * 0x9E3779B9 >>> 7 & mask;
+            while (parents[i] != null && (parents[i] != parent || slots[i] != slot)) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        private void grow() {
+            ASTNode[] oldParents = parents;
+            int[] oldSlots = slots;
+            int[] oldFirsts = firsts;
+            parents = new ASTNode[2 * oldParents.length];
+            slots = new int[parents.length];
+            firsts = new int[parents.length];
+            for (int j = 0; j < oldParents.length; j++) {
+                if (oldParents[j] != null) {
+                    int i = find(oldParents[j], oldSlots[j]);
+                    parents[i] = oldParents[j];
+                    slots[i] = oldSlots[j];
+                    firsts[i] = oldFirsts[j];
+                }
+            }
+        }
+
+        private void trim() {
+            pool = Arrays.copyOf(pool, poolSize);
+        }
+
+        // where in pool the occurrence at a slot of the parent starts, or -1
+        // if the child there was not folded
+        private int firstAt(ASTNode parent, int slot) {
+            int i = find(parent, slot);
+            return parents[i] == null ? -1 : firsts[i];
+        }
+
+        // where in pool the occurrence of the child at the first slot of the
+        // parent that holds it starts, or -1 if it was not folded there
+        private int firstOf(ASTNode parent, ASTNode child) {
+            ASTNode[] children = getChildren(parent);
+            for (int slot = 0; slot < children.length; slot++) {
+                if (children[slot] == child) {
+                    return firstAt(parent, slot);
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @param parent the node the child occurs in
+         * @param child  a child of the parent
+         * @return the line of the child where it occurs in the parent; if it
+         * occurs there more than once, where it occurs first
+         */
+        public int getLineNum(ASTNode parent, ASTNode child) {
+            int first = firstOf(parent, child);
+            return first < 0 ? child.getLineNum() : pool[first + 1];
+        }
+
+        /**
+         * @param parent the node the child occurs in
+         * @param child  a child of the parent
+         * @return the offset of the start of the child where it occurs in
+         * the parent
+         */
+        public int getStartOffset(ASTNode parent, ASTNode child) {
+            int first = firstOf(parent, child);
+            return first < 0 ? child.getStartOffset() : pool[first + 2];
+        }
+
+        /**
+         * @param parent the node the child occurs in
+         * @param child  a child of the parent
+         * @return the offset just past the end of the child where it occurs in
+         * the parent
+         */
+        public int getEndOffset(ASTNode parent, ASTNode child) {
+            int first = firstOf(parent, child);
+            return first < 0 ? child.getEndOffset() : pool[first + 3];
+        }
+
+        /**
+         * @param parent a node
+         * @param slot   the index of one of its children in getChildren()
+         * @return the line, start and end offsets of each node of the subtree
+         * of the child, in preorder, where it occurs at the slot, or null if
+         * the child there was not folded and its nodes have their own
+         */
+        public int[] getSubtreePositions(ASTNode parent, int slot) {
+            int first = firstAt(parent, slot);
+            return first < 0 ? null
+                    : Arrays.copyOfRange(pool, first + 1, first + 1 + 3 * pool[first]);
+        }
+
+        /**
+         * @return the number of occurrences folded into shared nodes
+         */
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * @param node a node of an AST
+     * @return whether the interner shares nodes like it
+     */
+    public static boolean isShareable(ASTNode node) {
+        return node instanceof Expr || node instanceof ExprList;
+    }
+
+    /**
+     * Finds the shared node equal to a node whose children are all interned
+     *
+     * @param node the node
+     * @return the node that was interned equal to it, or the node itself if
+     * there was none, which it then becomes; a node that is not shareable
+     * is itself
+     */
+    public synchronized ASTNode intern(ASTNode node) {
+        if (!isShareable(node)) {
+            return node;
+        }
+        expungeCollected();
+        int hash = hash(node);
+        int i = hash & (table.length - 1);
+        for (Entry entry = table[i]; entry != null; entry = entry.next) {
+            ASTNode shared = entry.get();
+            if (entry.hash == hash && shared != null && equal(shared, node)) {
+                return shared;
+            }
+        }
+        table[i] = new Entry(node, hash, table[i], collected);
+        if (++size > table.length - table.length / 4) {
+            resize();
+        }
+        return node;
+    }
+
+    /**
+     * Shares the expressions of an AST: each is interned, bottom up, and
+     * replaced in its parent by the shared node it is equal to.  The root
+     * itself is not replaced, and the bodies of methods that have not been
+     * parsed yet are left alone.
+     *
+     * @param root the root of the AST, which is changed in place
+     * @return the positions of the occurrences that were replaced
+     */
+    public Positions share(ASTNode root) {
+        // the nodes in preorder, so that the nodes of a subtree follow its
+        // root, with the index of the parent of each and its slot there
+        List<ASTNode> nodes = new ArrayList<>();
+        int[] parentOf = new int[64];
+        int[] slotOf = new int[64];
+        List<ASTNode> pending = new ArrayList<>();
+        int[] pendingParents = new int[64];
+        int[] pendingSlots = new int[64];
+        pending.add(root);
+        pendingParents[0] = -1;
+        while (!pending.isEmpty()) {
+            int top = pending.size() - 1;
+            ASTNode node = pending.remove(top);
+            int n = nodes.size();
+            if (n == parentOf.length) {
+                parentOf = Arrays.copyOf(parentOf, 2 * n);
+                slotOf = Arrays.copyOf(slotOf, 2 * n);
+            }
+            nodes.add(node);
+            parentOf[n] = pendingParents[top];
+            slotOf[n] = pendingSlots[top];
+            // pushed last to first, so that they come off first to last
+            ASTNode[] children = getChildren(node);
+            for (int slot = children.length - 1; slot >= 0; slot--) {
+                if (children[slot] != null) {
+                    if (pending.size() == pendingParents.length) {
+                        pendingParents = Arrays.copyOf(pendingParents, 2 * pending.size());
+                        pendingSlots = Arrays.copyOf(pendingSlots, 2 * pending.size());
+                    }
+                    pendingParents[pending.size()] = n;
+                    pendingSlots[pending.size()] = slot;
+                    pending.add(children[slot]);
+                }
+            }
+        }
+        int count = nodes.size();
+        int[] sizes = new int[count];
+        int[] positions = new int[3 * count];
+        for (int n = count - 1; n >= 0; n--) {
+            ASTNode node = nodes.get(n);
+            sizes[n]++;
+            if (n > 0) {
+                sizes[parentOf[n]] += sizes[n];
+            }
+            positions[3 * n] = node.getLineNum();
+            positions[3 * n + 1] = node.getStartOffset();
+            positions[3 * n + 2] = node.getEndOffset();
+        }
+
+        // going through them backwards interns the children of a node before it
+        ASTNode[] shared = new ASTNode[count];
+        for (int n = count - 1; n >= 0; n--) {
+            ASTNode node = nodes.get(n);
+            for (int child = n + 1; child < n + sizes[n]; child += sizes[child]) {
+                if (shared[child] != nodes.get(child)) {
+                    setChild(node, slotOf[child], shared[child]);
+                }
+            }
+            shared[n] = intern(node);
+        }
+
+        // only the occurrences in the parents that are left in the AST are
+        // kept, so that the nodes folded away can be collected
+        Positions folded = new Positions();
+        for (int n = 1; n < count; ) {
+            if (shared[n] != nodes.get(n)) {
+                folded.put(nodes.get(parentOf[n]), slotOf[n], positions, n, sizes[n]);
+                n += sizes[n];
+            }
+            else {
+                n++;
+            }
+        }
+        folded.trim();
+        return folded;
+    }
+
+    /**
+     * @return the number of shared nodes in the table, some of which may no
+     * longer be used
+     */
+    public synchronized int size() {
+        expungeCollected();
+        return size;
+    }
+
+    private static int hash(ASTNode node) {
+        int hash = node.getClass().hashCode();
+        if (node instanceof ListNode) {
+            for (ASTNode element : (ListNode) node) {
+                hash = hash * 31 + System.identityHashCode(element);
+            }
+            return hash;
+        }
+        Field[][] fields = FIELDS.get(node.getClass());
+        for (Field field : fields[CHILDREN]) {
+            hash = hash * 31 + System.identityHashCode(get(field, node));
+        }
+        for (Field field : fields[VALUES]) {
+            hash = hash * 31 + Objects.hashCode(get(field, node));
+        }
+        return hash;
+    }
+
+    private static boolean equal(ASTNode a, ASTNode b) {
+        if (a.getClass() != b.getClass()) {
+            return false;
+        }
+        if (a instanceof ListNode) {
+            ListNode listA = (ListNode) a;
+            ListNode listB = (ListNode) b;
+            if (listA.getSize() != listB.getSize()) {
+                return false;
+            }
+            for (int i = 0; i < listA.getSize(); i++) {
+                if (listA.get(i) != listB.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        Field[][] fields = FIELDS.get(a.getClass());
+        for (Field field : fields[CHILDREN]) {
+            if (get(field, a) != get(field, b)) {
+                return false;
+            }
+        }
+        for (Field field : fields[VALUES]) {
+            if (!Objects.equals(get(field, a), get(field, b))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void resize() {
+        Entry[] old = table;
+        table = new Entry[2 * old.length];
+        for (Entry entry : old) {
+            while (entry != null) {
+                Entry next = entry.next;
+                int i = entry.hash & (table.length - 1);
+                entry.next = table[i];
+                table[i] = entry;
+                entry = next;
+            }
+        }
+    }
+
+    // unlinks the entries whose nodes have been collected
+    private void expungeCollected() {
+        for (Object ref; (ref = collected.poll()) != null; ) {
+            Entry stale = (Entry) ref;
+            int i = stale.hash & (table.length - 1);
+            Entry previous = null;
+            for (Entry entry = table[i]; entry != null; entry = entry.next) {
+                if (entry == stale) {
+                    if (previous == null) {
+                        table[i] = entry.next;
+                    }
+                    else {
+                        previous.next = entry.next;
+                    }
+                    size--;
+                    break;
+                }
+                previous = entry;
+            }
+        }
+    }
+
+    /**
+     * @param node a node of an AST
+     * @return the children of the node by slot, as Positions knows them: its
+     * child fields, some of which may be null, or the elements of a list
+     */
+    public static ASTNode[] getChildren(ASTNode node) {
+        if (node instanceof ListNode) {
+            ListNode list = (ListNode) node;
+            ASTNode[] children = new ASTNode[list.getSize()];
+            for (int slot = 0; slot < children.length; slot++) {
+                children[slot] = list.get(slot);
+            }
+            return children;
+        }
+        Field[] fields = FIELDS.get(node.getClass())[CHILDREN];
+        ASTNode[] children = new ASTNode[fields.length];
+        for (int slot = 0; slot < children.length; slot++) {
+            children[slot] = (ASTNode) get(fields[slot], node);
+        }
+        return children;
+    }
+
+    private static void setChild(ASTNode node, int slot, ASTNode child) {
+        if (node instanceof ListNode) {
+            ((ListNode) node).set(slot, child);
+        }
+        else {
+            set(FIELDS.get(node.getClass())[CHILDREN][slot], node, child);
+        }
+    }
+
+    private static Object get(Field field, ASTNode node) {
+        try {
+            return field.get(node);
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void set(Field field, ASTNode node, ASTNode value) {
+        try {
+            field.set(node, value);
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
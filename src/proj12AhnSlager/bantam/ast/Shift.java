@@ -0,0 +1,62 @@
+/**
+ * Filename: Shift
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.ast;
+
+/**
+ * The chars and lines the nodes of a member or class have been moved by since
+ * they were parsed, as an IncrementalParser moves them when an edit before
+ * them inserts or removes source.  Each node moved with a Shift keeps the
+ * positions it was parsed with and adds the Shift to them when they are read,
+ * so that moving a member or class takes one call to moveBy() however many
+ * nodes it has.
+ *
+ * The Shift of a member lies inside the Shift of its class, and moves by it
+ * too, so that a class is moved along with all of its members at once.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class Shift
+{
+    private Shift enclosing;    // the Shift this one moves by too, or null
+    private int numChars;
+    private int numLines;
+
+    /**
+     * @param enclosing the Shift of the class of a member, which the member
+     *                  is moved by too, or null
+     */
+    public Shift(Shift enclosing) {
+        this.enclosing = enclosing;
+    }
+
+    /**
+     * Moves the nodes of this Shift by some chars and lines more
+     *
+     * @param numChars the number of chars inserted before them, or minus
+     *                 the number removed
+     * @param numLines the number of lines inserted before them, or minus
+     *                 the number removed
+     */
+    public void moveBy(int numChars, int numLines) {
+        this.numChars += numChars;
+        this.numLines += numLines;
+    }
+
+    /**
+     * @return the number of chars the nodes have been moved by in all
+     */
+    public int getNumChars() {
+        return enclosing == null ? numChars : numChars + enclosing.getNumChars();
+    }
+
+    /**
+     * @return the number of lines the nodes have been moved by in all
+     */
+    public int getNumLines() {
+        return enclosing == null ? numLines : numLines + enclosing.getNumLines();
+    }
+}
@@ -46,6 +46,7 @@ import proj12AhnSlager.bantam.visitor.Visitor;
  * @see BreakStmt
  * @see ReturnStmt
  * @see BlockStmt
+ * @see ErrorStmt
  */
 public abstract class Stmt extends proj12AhnSlager.bantam.ast.ASTNode {
     /**
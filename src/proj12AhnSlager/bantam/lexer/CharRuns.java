@@ -0,0 +1,126 @@
+/**
+ * Filename: CharRuns
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.lexer;
+
+/**
+ * Finds the ends of the runs of chars that make up most of a source file:
+ * white space, identifier chars and comment bodies.  Each method reads the
+ * source buffer directly and tests a block of chars at a time, combining the
+ * flags of all the chars in the block with one bitwise operation so that the
+ * common case, a block with nothing to stop at, costs a single branch.  Only the
+ * block holding the end of the run is looked at char by char.
+ *
+ * Each method returns the offset of the first char that ends the run, or the
+ * length of the source if the run reaches its end.  The Scanner moves there and
+ * carries on with its usual char-at-a-time code, so both ways of scanning see
+ * exactly the same chars at the ends of the runs.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+class CharRuns
+{
+    private static final int BLOCK = 8;
+
+    private static final byte IDENTIFIER = 1;   // an ASCII letter, digit or _
+    private static final byte WHITE_SPACE = 2;  // \t \n \f \r or space
+    private static final byte LINE_END = 4;     // \n, or a NUL, which reads as the end of file
+    private static final byte SLASH = 8;        // /, which may end a block comment, or a NUL
+
+    // the flags of every char
+    private static final byte[] flags = new byte[Character.MAX_VALUE + 1];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            flags[c] |= IDENTIFIER;
+            flags[Character.toUpperCase(c)] |= IDENTIFIER;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            flags[c] |= IDENTIFIER;
+        }
+        flags['_'] |= IDENTIFIER;
+        for (char c : "\t\n\f\r ".toCharArray()) {
+            flags[c] |= WHITE_SPACE;
+        }
+        flags['\n'] |= LINE_END;
+        flags[SourceFile.eof] |= LINE_END | SLASH;
+        flags['/'] |= SLASH;
+    }
+
+    private CharRuns() {
+    }
+
+    /**
+     * @return the offset of the first char at or after from that is not white space
+     */
+    static int skipWhiteSpace(char[] buffer, int from, int length) {
+        return skipWhile(buffer, from, length, WHITE_SPACE);
+    }
+
+    /**
+     * Identifier chars outside ASCII end the run, to be handled by the caller.
+     *
+     * @return the offset of the first char at or after from that is not an
+     * ASCII letter, digit or underscore
+     */
+    static int skipIdentifierChars(char[] buffer, int from, int length) {
+        return skipWhile(buffer, from, length, IDENTIFIER);
+    }
+
+    /**
+     * @return the offset of the first eol or NUL char at or after from
+     */
+    static int findLineEnd(char[] buffer, int from, int length) {
+        return findFirst(buffer, from, length, LINE_END);
+    }
+
+    /**
+     * Finds the end of a block comment, which is the "/" of the first
+     * "*&#47;" whose "/" is at or after from, or the first NUL char.  The
+     * char before from is part of the comment, so it may be the "*".
+     *
+     * @return the offset of the "/" or NUL char
+     */
+    static int findBlockCommentEnd(char[] buffer, int from, int length) {
+        int i = from;
+        while ((i = findFirst(buffer, i, length, SLASH)) < length) {
+            if (buffer[i] == SourceFile.eof || (i > 0 && buffer[i - 1] == '*')) {
+                return i;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    private static int skipWhile(char[] buffer, int i, int length, byte flag) {
+        final byte[] flags = CharRuns.flags;
+        while (i + BLOCK <= length
+                && (flags[buffer[i]] & flags[buffer[i + 1]] & flags[buffer[i + 2]]
+                & flags[buffer[i + 3]] & flags[buffer[i + 4]] & flags[buffer[i + 5]]
+                & flags[buffer[i + 6]] & flags[buffer[i + 7]] & flag) != 0) {
+            i += BLOCK;
+        }
+        while (i < length && (flags[buffer[i]] & flag) != 0) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int findFirst(char[] buffer, int i, int length, byte flag) {
+        final byte[] flags = CharRuns.flags;
+        while (i + BLOCK <= length
+                && ((flags[buffer[i]] | flags[buffer[i + 1]] | flags[buffer[i + 2]]
+                | flags[buffer[i + 3]] | flags[buffer[i + 4]] | flags[buffer[i + 5]]
+                | flags[buffer[i + 6]] | flags[buffer[i + 7]]) & flag) == 0) {
+            i += BLOCK;
+        }
+        while (i < length && (flags[buffer[i]] & flag) == 0) {
+            i++;
+        }
+        return i;
+    }
+
+}
@@ -0,0 +1,807 @@
+/**
+ * Filename: IncrementalLexer
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.lexer;
+
+import proj12AhnSlager.bantam.util.Error;
+import proj12AhnSlager.bantam.util.ErrorHandler;
+import proj12AhnSlager.bantam.util.ErrorList;
+import proj12AhnSlager.bantam.util.SymbolInterner;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Keeps the tokens of a document that is being edited, such as the text of a
+ * JavaCodeArea, and re-scans only the part of it an edit can have changed.
+ *
+ * For each token it keeps, besides what a TokenBuffer keeps, the offset of the
+ * char the Scanner was looking at once the token was scanned, since the token
+ * depends on every char up to and including that one.  The tokens before an
+ * edit that ended looking at a char before the line the edit is on cannot have
+ * changed, so that line start is the checkpoint scanning starts again from,
+ * between tokens where the Scanner was after the last of them.  Scanning stops
+ * as soon as a token starts past the edit where a token started before the
+ * edit; since the Scanner carries nothing from one token to the next but where
+ * it is, from there on the old tokens are the new ones, only moved by the
+ * change in the number of chars and line breaks.
+ *
+ * It also keeps the state the scanning is in at the start of each line, which
+ * is inside a block comment or a string if one of those runs across the line
+ * start, and normal otherwise.  Line here means a paragraph of the editor: a
+ * line starts at the beginning of the text and just after each eol char.
+ *
+ * Each edit reports, as a Change, exactly which tokens it replaced, so that
+ * highlighting and diagnostics need only redo those.  The tokens and errors
+ * are always those a Scanner would find in the whole text, which main()
+ * checks over random edits.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class IncrementalLexer
+{
+    /**
+     * The state of the scanning at the start of a line
+     */
+    public enum LineState
+    {
+        NORMAL, IN_BLOCK_COMMENT, IN_STRING
+    }
+
+    private static final Token.Kind[] kinds = Token.Kind.values();
+    private static final LineState[] lineStates = LineState.values();
+
+    private String filename;
+    private SymbolInterner symbols;
+
+    private char[] text;
+    private int textLength;
+    private int[] lineBreaks;        // the line breaks of the text, as SourceFile finds them
+    private int numLineBreaks;
+    private int[] lineStarts;        // the offset of the start of each line
+    private byte[] lineStartStates;  // the ordinal of the LineState at each line start
+    private int numLines;
+    private boolean textShared;      // whether a Scanner from newScanner() may still read
+                                     // text and lineBreaks, so edits must copy them
+
+    private TokenList tokens = new TokenList(16);
+
+    /**
+     * A change to the tokens made by one edit: the tokens from the first one
+     * that changed were replaced by the tokens scanned for them.  The tokens
+     * after them are the same as before, moved along.
+     */
+    public static class Change
+    {
+        private int firstToken;
+        private int numRemoved;
+        private int numInserted;
+        private int start;
+        private int end;
+
+        private Change(int firstToken, int numRemoved, int numInserted, int start, int end) {
+            this.firstToken = firstToken;
+            this.numRemoved = numRemoved;
+            this.numInserted = numInserted;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * @return the index of the first token that changed
+         */
+        public int getFirstToken() {
+            return firstToken;
+        }
+
+        /**
+         * @return the number of tokens that were replaced
+         */
+        public int getNumRemoved() {
+            return numRemoved;
+        }
+
+        /**
+         * @return the number of tokens that replaced them
+         */
+        public int getNumInserted() {
+            return numInserted;
+        }
+
+        /**
+         * @return the offset in the edited text of the first changed token,
+         * or of the tokens after them if there are none
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * @return the offset in the edited text just past the last changed token
+         */
+        public int getEnd() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return "tokens " + firstToken + " to " + (firstToken + numRemoved) +
+                    " replaced by " + numInserted + " tokens at [" + start + ", " + end + ")";
+        }
+    }
+
+    /**
+     * Scans a whole text with a new SymbolInterner
+     *
+     * @param filename the name of the file the text is from, for errors
+     * @param text the text
+     */
+    public IncrementalLexer(String filename, String text) {
+        this(filename, text, new SymbolInterner());
+    }
+
+    /**
+     * Scans a whole text
+     *
+     * @param filename the name of the file the text is from, for errors
+     * @param text the text
+     * @param symbols the SymbolInterner to intern identifiers with
+     */
+    public IncrementalLexer(String filename, String text, SymbolInterner symbols) {
+        this.filename = filename;
+        this.symbols = symbols;
+        this.text = new char[0];
+        this.lineBreaks = new int[16];
+        this.lineStarts = new int[16];
+        this.lineStartStates = new byte[16];
+        this.numLines = 1;
+        edit(0, 0, text);
+    }
+
+    /**
+     * Applies an edit to the text and re-scans what it may have changed.
+     * The arguments are those of a plain text change of the editor.
+     *
+     * @param position the offset of the first char removed or inserted
+     * @param numRemoved the number of chars removed there
+     * @param inserted the chars inserted there
+     * @return the change to the tokens
+     */
+    public Change edit(int position, int numRemoved, String inserted) {
+        if (position < 0 || numRemoved < 0 || position + numRemoved > textLength) {
+            throw new IllegalArgumentException("The edit from " + position + " removing " +
+                    numRemoved + " chars is outside the text of " + textLength + " chars");
+        }
+        // the first token that may have changed, and where the Scanner was before it
+        int first = tokens.firstLookingAt(lineStarts[lineOf(position)]);
+        int from = first == 0 ? 0 : tokens.lookahead[first - 1];
+
+        int delta = inserted.length() - numRemoved;
+        int lineDelta = replaceText(position, numRemoved, inserted);
+        int editEnd = position + inserted.length();
+
+        // scan until a token starts past the edit where an old one started
+        ErrorList errorList = new ErrorList();
+        SourceFile source = new SourceFile(filename, text, textLength, lineBreaks,
+                numLineBreaks, from);
+        Scanner scanner = new Scanner(source, errorList, symbols);
+        TokenBuffer current = new TokenBuffer(source, symbols, 1);
+        TokenList scanned = new TokenList(16);
+        int last = tokens.size;
+        int end = textLength;
+        while (true) {
+            current.clear();
+            int numErrors = errorList.getErrorList().size();
+            Token.Kind kind = scanner.scanInto(current);
+            int start = current.start(0);
+            if (start >= editEnd) {
+                int old = tokens.indexOf(start - delta);
+                if (old >= 0) {
+                    last = old;
+                    end = start;
+                    break;
+                }
+            }
+            scanned.add(kind, current.knownSpelling(0), start, current.length(0),
+                    current.line(0), source.getCharOffset(), current.symbol(0),
+                    errorList.getErrorList().subList(numErrors, errorList.getErrorList().size()));
+            if (kind == Token.Kind.EOF) {
+                break;
+            }
+        }
+
+        // the tokens scanned again that looked only at chars before the edit
+        // have not changed
+        int same = 0;
+        while (same < scanned.size && first + same < last
+                && scanned.lookahead[same] < position
+                && tokens.start[first + same] == scanned.start[same]) {
+            same++;
+        }
+        first += same;
+        tokens.splice(first, last, scanned, same, delta, lineDelta);
+        updateLineStates(from, end);
+
+        int numInserted = scanned.size - same;
+        int start = numInserted > 0 ? tokens.start[first] : end;
+        int changeEnd = numInserted > 0
+                ? tokens.start[first + numInserted - 1] + tokens.length[first + numInserted - 1]
+                : end;
+        return new Change(first, last - first, numInserted, start, changeEnd);
+    }
+
+    /**
+     * Replaces chars of the text, and updates the line breaks and line starts.
+     * The states of new line starts are set later, by updateLineStates().
+     *
+     * @return the change in the number of line breaks
+     */
+    private int replaceText(int position, int numRemoved, String inserted) {
+        int oldEnd = position + numRemoved;
+        int delta = inserted.length() - numRemoved;
+        char[] target = text;
+        if (textLength + delta > text.length) {
+            target = new char[Math.max(textLength + delta, text.length * 2)];
+            System.arraycopy(text, 0, target, 0, position);
+        }
+        else if (textShared) {
+            target = new char[text.length];
+            System.arraycopy(text, 0, target, 0, position);
+        }
+        System.arraycopy(text, oldEnd, target, position + inserted.length(), textLength - oldEnd);
+        inserted.getChars(0, inserted.length(), target, position);
+        text = target;
+        textLength += delta;
+        int newEnd = position + inserted.length();
+
+        // a char just after the edit may start a line or not depending on the char before it
+        int removedFrom = lowerBound(lineBreaks, numLineBreaks, position);
+        int removedTo = lowerBound(lineBreaks, numLineBreaks, oldEnd + 1);
+        int[] breaks = new int[inserted.length() + 1];
+        int numBreaks = 0;
+        for (int i = position; i <= newEnd && i < textLength; i++) {
+            if (SourceFile.isLineBreak(text, i)) {
+                breaks[numBreaks++] = i;
+            }
+        }
+        if (textShared) {
+            lineBreaks = lineBreaks.clone();
+            textShared = false;
+        }
+        lineBreaks = makeRoom(lineBreaks, numLineBreaks, removedFrom, removedTo, numBreaks);
+        System.arraycopy(breaks, 0, lineBreaks, removedFrom, numBreaks);
+        int lineDelta = numBreaks - (removedTo - removedFrom);
+        numLineBreaks += lineDelta;
+        for (int i = removedFrom + numBreaks; i < numLineBreaks; i++) {
+            lineBreaks[i] += delta;
+        }
+
+        // the lines that start after an eol char removed or inserted
+        int startsFrom = lowerBound(lineStarts, numLines, position + 1);
+        int startsTo = lowerBound(lineStarts, numLines, oldEnd + 1);
+        int[] starts = new int[inserted.length()];
+        int numStarts = 0;
+        for (int i = position; i < newEnd; i++) {
+            if (text[i] == SourceFile.eol) {
+                starts[numStarts++] = i + 1;
+            }
+        }
+        lineStarts = makeRoom(lineStarts, numLines, startsFrom, startsTo, numStarts);
+        lineStartStates = makeRoom(lineStartStates, numLines, startsFrom, startsTo, numStarts);
+        System.arraycopy(starts, 0, lineStarts, startsFrom, numStarts);
+        numLines += numStarts - (startsTo - startsFrom);
+        for (int i = startsFrom + numStarts; i < numLines; i++) {
+            lineStarts[i] += delta;
+        }
+        return lineDelta;
+    }
+
+    /**
+     * Sets the states of the line starts from the given offset up to the given
+     * offset, past which the tokens have not changed
+     */
+    private void updateLineStates(int from, int to) {
+        for (int i = lowerBound(lineStarts, numLines, from); i < numLines && lineStarts[i] <= to;
+             i++) {
+            lineStartStates[i] = (byte) stateAt(lineStarts[i]).ordinal();
+        }
+    }
+
+    /**
+     * @return the state the scanning is in at the given offset, which depends
+     * on the token running across it, if there is one
+     */
+    private LineState stateAt(int offset) {
+        int i = lowerBound(tokens.start, tokens.size, offset) - 1;
+        if (i < 0 || tokens.start[i] + tokens.length[i] <= offset) {
+            return LineState.NORMAL;
+        }
+        int start = tokens.start[i];
+        if (text[start] == '"') {
+            return LineState.IN_STRING;
+        }
+        if ((text[start] == '/' || text[start] == '%') && start + 1 < textLength
+                && text[start + 1] == '*') {
+            return LineState.IN_BLOCK_COMMENT;
+        }
+        return LineState.NORMAL;
+    }
+
+    /**
+     * @param offset an offset in the text
+     * @return the index of the line the char at the offset is on
+     */
+    private int lineOf(int offset) {
+        return lowerBound(lineStarts, numLines, offset + 1) - 1;
+    }
+
+    /**
+     * @return the text as it is after the edits so far
+     */
+    public String getText() {
+        return new String(text, 0, textLength);
+    }
+
+    /**
+     * Creates a Scanner of the text as it is now, which shares the chars and
+     * line breaks kept here instead of copying the text and finding its line
+     * breaks again.  The next edit copies them before changing them, so the
+     * Scanner goes on reading the text as it was when it was created.
+     *
+     * @param logicalName the name the text is known by, which errors give as
+     *                    their filename
+     * @param handler the ErrorHandler to register the lexical errors with
+     * @param symbols the SymbolInterner to intern identifiers with
+     * @return the Scanner
+     */
+    public Scanner newScanner(String logicalName, ErrorHandler handler, SymbolInterner symbols) {
+        textShared = true;
+        return new Scanner(new SourceFile(logicalName, text, textLength, lineBreaks,
+                numLineBreaks, 0), handler, symbols);
+    }
+
+    /**
+     * @return the name of the file the text is from
+     */
+    public String getFilename() {
+        return filename;
+    }
+
+    /**
+     * @return the SymbolInterner the identifiers are interned with
+     */
+    public SymbolInterner getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * @return the number of lines of the text, counting a line after a last eol char
+     */
+    public int getNumLines() {
+        return numLines;
+    }
+
+    /**
+     * @param line the index of a line, from 0
+     * @return the offset of the start of the line
+     */
+    public int getLineStart(int line) {
+        return lineStarts[line];
+    }
+
+    /**
+     * @param line the index of a line, from 0
+     * @return the state the scanning is in at the start of the line
+     */
+    public LineState getLineState(int line) {
+        return lineStates[lineStartStates[line]];
+    }
+
+    /**
+     * @return the number of tokens, the last of which is the EOF token
+     */
+    public int size() {
+        return tokens.size;
+    }
+
+    /**
+     * @param i the index of a token
+     * @return the kind of the i-th token
+     */
+    public Token.Kind kind(int i) {
+        return kinds[tokens.kind[i]];
+    }
+
+    /**
+     * @param i the index of a token
+     * @return the line number (position) of the i-th token
+     */
+    public int line(int i) {
+        return tokens.line[i];
+    }
+
+    /**
+     * @param i the index of a token
+     * @return the offset of the first char of the i-th token in the text
+     */
+    public int start(int i) {
+        return tokens.start[i];
+    }
+
+    /**
+     * @param i the index of a token
+     * @return the number of chars of the text in the i-th token
+     */
+    public int length(int i) {
+        return tokens.length[i];
+    }
+
+    /**
+     * @param i the index of a token
+     * @return the symbol id of the i-th token if it is an identifier or keyword, else -1
+     */
+    public int symbol(int i) {
+        return tokens.symbol[i];
+    }
+
+    /**
+     * @param i the index of a token
+     * @return the spelling of the i-th token
+     */
+    public String spelling(int i) {
+        String spelling = tokens.spellings[i];
+        if (spelling != null) {
+            return spelling;
+        }
+        // a token at the end of the text may be spelled with the eof char after it
+        char[] chars = new char[tokens.length[i]];
+        System.arraycopy(text, tokens.start[i], chars, 0,
+                Math.min(chars.length, textLength - tokens.start[i]));
+        return new String(chars);
+    }
+
+    /**
+     * @param i the index of a token
+     * @return a Token object for the i-th token
+     */
+    public Token token(int i) {
+        Token token = new Token(kind(i), spelling(i), tokens.start[i], tokens.length[i],
+                tokens.line[i]);
+        token.symbol = tokens.symbol[i];
+        return token;
+    }
+
+    /**
+     * @param offset an offset in the text
+     * @return the index of the token the char at the offset is in, or of the
+     * first token after it if it is between tokens
+     */
+    public int tokenAt(int offset) {
+        int i = lowerBound(tokens.start, tokens.size, offset + 1) - 1;
+        return i >= 0 && tokens.start[i] + tokens.length[i] > offset ? i : i + 1;
+    }
+
+    /**
+     * @return the lexical errors in the text, in the order a Scanner finds them
+     */
+    public List<Error> getErrors() {
+        List<Error> errors = new ArrayList<>();
+        for (int i = 0; i < tokens.size; i++) {
+            if (tokens.errors[i] != null) {
+                for (Error error : tokens.errors[i]) {
+                    errors.add(errorAt(i, error));
+                }
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * @param i the index of a token
+     * @param error an error found scanning the token, with line and offsets
+     *              relative to the token
+     * @return the error with the line and offsets of the text
+     */
+    private Error errorAt(int i, Error error) {
+        return new Error(error.getKind(), filename, tokens.line[i] + error.getLineNum(),
+                tokens.start[i] + error.getStartOffset(),
+                tokens.start[i] + error.getEndOffset(), error.getMessage());
+    }
+
+    /**
+     * Gives some of the tokens in a TokenBuffer of their own, ended by an EOF
+     * token just past the last of them, so that the part of the text they
+     * cover can be parsed again after an edit.  The buffer reads the text as
+     * it is now, as a Scanner from newScanner() does.
+     *
+     * @param from the index of the first token
+     * @param to the index just past the last token
+     * @param handler the ErrorHandler to register the lexical errors of the
+     *                tokens with
+     * @return the buffer
+     */
+    public TokenBuffer getTokens(int from, int to, ErrorHandler handler) {
+        textShared = true;
+        SourceFile source = new SourceFile(filename, text, textLength, lineBreaks,
+                numLineBreaks, 0);
+        TokenBuffer buffer = new TokenBuffer(source, symbols, to - from + 1);
+        for (int i = from; i < to; i++) {
+            buffer.add(kinds[tokens.kind[i]], tokens.spellings[i], tokens.start[i],
+                    tokens.length[i], tokens.line[i], tokens.symbol[i]);
+            if (tokens.errors[i] != null) {
+                for (Error error : tokens.errors[i]) {
+                    error = errorAt(i, error);
+                    handler.register(error.getKind(), filename, error.getLineNum(),
+                            error.getStartOffset(), error.getEndOffset(), error.getMessage());
+                }
+            }
+        }
+        int end = from < to ? tokens.start[to - 1] + tokens.length[to - 1] : start(from);
+        buffer.add(Token.Kind.EOF, String.valueOf(SourceFile.eof), end, 0,
+                from < to ? tokens.line[to - 1] : line(from), -1);
+        return buffer;
+    }
+
+    /**
+     * The tokens, in parallel arrays as in a TokenBuffer
+     */
+    private static class TokenList
+    {
+        private byte[] kind;
+        private int[] start;
+        private int[] length;
+        private int[] line;
+        private int[] lookahead;    // the offset of the char the Scanner looked at last
+        private int[] symbol;
+        private String[] spellings; // null for slices of the text
+        private Error[][] errors;   // the errors found scanning each token, with line
+                                    // numbers and offsets relative to the token's, or null
+        private int size;
+
+        TokenList(int capacity) {
+            kind = new byte[capacity];
+            start = new int[capacity];
+            length = new int[capacity];
+            line = new int[capacity];
+            lookahead = new int[capacity];
+            symbol = new int[capacity];
+            spellings = new String[capacity];
+            errors = new Error[capacity][];
+        }
+
+        void add(Token.Kind kind, String spelling, int start, int length, int line,
+                 int lookahead, int symbol, List<Error> errors) {
+            int i = size;
+            makeRoom(i, i, 1);
+            this.kind[i] = (byte) kind.ordinal();
+            this.spellings[i] = spelling;
+            this.start[i] = start;
+            this.length[i] = length;
+            this.line[i] = line;
+            this.lookahead[i] = lookahead;
+            this.symbol[i] = symbol;
+            this.errors[i] = null;
+            if (!errors.isEmpty()) {
+                this.errors[i] = new Error[errors.size()];
+                for (int e = 0; e < errors.size(); e++) {
+                    Error error = errors.get(e);
+                    this.errors[i][e] = new Error(error.getKind(), null,
+                            error.getLineNum() - line, error.getStartOffset() - start,
+                            error.getEndOffset() - start, error.getMessage());
+                }
+            }
+            size++;
+        }
+
+        /**
+         * Replaces the tokens from first up to last with those of the given
+         * list from the given index on, and moves the tokens after them
+         */
+        void splice(int first, int last, TokenList replacement, int from, int delta,
+                    int lineDelta) {
+            int count = replacement.size - from;
+            makeRoom(first, last, count);
+            System.arraycopy(replacement.kind, from, kind, first, count);
+            System.arraycopy(replacement.start, from, start, first, count);
+            System.arraycopy(replacement.length, from, length, first, count);
+            System.arraycopy(replacement.line, from, line, first, count);
+            System.arraycopy(replacement.lookahead, from, lookahead, first, count);
+            System.arraycopy(replacement.symbol, from, symbol, first, count);
+            System.arraycopy(replacement.spellings, from, spellings, first, count);
+            System.arraycopy(replacement.errors, from, errors, first, count);
+            size += count - (last - first);
+            for (int i = first + count; i < size; i++) {
+                start[i] += delta;
+                lookahead[i] += delta;
+                line[i] += lineDelta;
+            }
+        }
+
+        private void makeRoom(int from, int to, int count) {
+            kind = IncrementalLexer.makeRoom(kind, size, from, to, count);
+            start = IncrementalLexer.makeRoom(start, size, from, to, count);
+            length = IncrementalLexer.makeRoom(length, size, from, to, count);
+            line = IncrementalLexer.makeRoom(line, size, from, to, count);
+            lookahead = IncrementalLexer.makeRoom(lookahead, size, from, to, count);
+            symbol = IncrementalLexer.makeRoom(symbol, size, from, to, count);
+            spellings = IncrementalLexer.makeRoom(spellings, size, from, to, count);
+            errors = IncrementalLexer.makeRoom(errors, size, from, to, count);
+        }
+
+        /**
+         * @return the index of the first token the Scanner looked past the
+         * given offset for, or the last token
+         */
+        int firstLookingAt(int offset) {
+            return Math.max(0, Math.min(lowerBound(lookahead, size, offset), size - 1));
+        }
+
+        /**
+         * @return the index of the token starting at the given offset, or -1
+         */
+        int indexOf(int offset) {
+            int i = lowerBound(start, size, offset);
+            return i < size && start[i] == offset ? i : -1;
+        }
+    }
+
+    /**
+     * Makes room in an array for count elements in place of those from from
+     * up to to, moving the elements after them
+     *
+     * @param array an array
+     * @param size the number of elements in use
+     * @return the array, or a bigger copy of it
+     */
+    @SuppressWarnings("unchecked")
+    private static <A> A makeRoom(A array, int size, int from, int to, int count) {
+        int newSize = size - (to - from) + count;
+        A target = array;
+        int capacity = Array.getLength(array);
+        if (newSize > capacity) {
+            target = (A) Array.newInstance(array.getClass().getComponentType(),
+                    Math.max(newSize, capacity * 2));
+            System.arraycopy(array, 0, target, 0, from);
+        }
+        System.arraycopy(array, to, target, from + count, size - to);
+        return target;
+    }
+
+    /**
+     * @return the index of the first of the first size sorted ints that is at
+     * least the given value, or size if there is none
+     */
+    private static int lowerBound(int[] array, int size, int value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (array[middle] < value) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Checks that the tokens, errors and line states of an IncrementalLexer
+     * are those found by scanning its whole text again.  The first difference
+     * found is printed.
+     *
+     * @param lexer the IncrementalLexer to check
+     * @param out where to print a difference
+     * @return true if the two agree
+     */
+    public static boolean verify(IncrementalLexer lexer, PrintStream out) {
+        IncrementalLexer expected = new IncrementalLexer(lexer.filename, lexer.getText());
+        if (expected.size() != lexer.size()) {
+            out.println(lexer.filename + ": expected " + expected.size() +
+                    " tokens but found " + lexer.size());
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (expected.kind(i) != lexer.kind(i) || expected.line(i) != lexer.line(i)
+                    || expected.start(i) != lexer.start(i)
+                    || expected.length(i) != lexer.length(i)
+                    || expected.tokens.lookahead[i] != lexer.tokens.lookahead[i]
+                    || !expected.spelling(i).equals(lexer.spelling(i))
+                    || (expected.symbol(i) < 0) != (lexer.symbol(i) < 0)) {
+                out.println(lexer.filename + ": token " + i + " differs: expected " +
+                        expected.token(i) + " but found " + lexer.token(i));
+                return false;
+            }
+        }
+        if (!describe(expected.getErrors()).equals(describe(lexer.getErrors()))) {
+            out.println(lexer.filename + ": errors differ: expected " + expected.getErrors() +
+                    " but found " + lexer.getErrors());
+            return false;
+        }
+        for (int line = 0; line < expected.getNumLines(); line++) {
+            if (expected.getLineStart(line) != lexer.getLineStart(line)
+                    || expected.getLineState(line) != lexer.getLineState(line)) {
+                out.println(lexer.filename + ": line " + line + " differs");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> describe(List<Error> errors) {
+        List<String> descriptions = new ArrayList<>();
+        for (Error error : errors) {
+            descriptions.add(error + " at [" + error.getStartOffset() + ", " +
+                    error.getEndOffset() + ")");
+        }
+        return descriptions;
+    }
+
+    /**
+     * Makes random edits to a file, checking the IncrementalLexer after each
+     * one, and then times edits against scanning the whole text again.
+     * The arguments are the file and the number of edits.
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: IncrementalLexer file edits");
+            return;
+        }
+        String filename = args[0];
+        int numEdits = Integer.parseInt(args[1]);
+        String text;
+        try {
+            text = new String(Files.readAllBytes(Paths.get(filename)), StandardCharsets.UTF_8);
+        }
+        catch (IOException e) {
+            System.out.println("Could not read " + filename);
+            return;
+        }
+        String[] snippets = {"", "a", "x1", "class", " ", "\n", "\r", "\r\n", "\"", "\\",
+                "/*", "*/", "*", "/", "//", "%", "{", "}", ";", "123", "!", "=", "==",
+                "\"abc\"", "/* c */", "if (x) { }"};
+        Random random = new Random(461);
+        IncrementalLexer lexer = new IncrementalLexer(filename, text);
+        int agreeing = 0;
+        for (int e = 0; e < numEdits; e++) {
+            int length = lexer.getText().length();
+            int position = random.nextInt(length + 1);
+            int numRemoved = random.nextInt(4) == 0
+                    ? Math.min(random.nextInt(8), length - position) : 0;
+            lexer.edit(position, numRemoved, snippets[random.nextInt(snippets.length)]);
+            if (verify(lexer, System.out)) {
+                agreeing++;
+            }
+        }
+        System.out.println("Checked " + numEdits + " edits: " + agreeing + " agree.");
+
+        long incremental = 0;
+        long whole = 0;
+        for (int e = 0; e < 2000; e++) {
+            int position = random.nextInt(lexer.getText().length() + 1);
+            long start = System.nanoTime();
+            lexer.edit(position, 0, "a");
+            lexer.edit(position, 1, "");
+            incremental += System.nanoTime() - start;
+            start = System.nanoTime();
+            new IncrementalLexer(filename, lexer.getText());
+            whole += System.nanoTime() - start;
+        }
+        System.out.println("Two edits: " + incremental / 2000 + " ns, scanning it all again: " +
+                whole / 2000 + " ns");
+    }
+
+}
@@ -0,0 +1,408 @@
+/**
+ * Filename: LexerSpec
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.lexer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import static proj12AhnSlager.bantam.lexer.Token.Kind.*;
+
+/**
+ * A declarative description of the Bantam Java tokens as a DFA, and the
+ * generator that turns it into the tables run by the TableScanner.
+ *
+ * The spec is a list of states.  Each state has rules, tried in order, saying
+ * which state a char moves it to, and says what token to accept if the scan
+ * stops in it.  A scan stops when no rule matches the current char, which is
+ * then left as the first char of the next token.  The eof char '\0' is matched
+ * like any other char.
+ *
+ * From the rules the generator partitions all chars into classes that every
+ * state treats alike, giving a char-class lookup table and a dense
+ * state-by-class transition table.  Rules given by a predicate must treat
+ * alike all the chars past ASCII that are not listed in any rule and are of
+ * the same Unicode category, as Character.isLetter() and isDigit() do, so that
+ * one char of each category can stand for the rest.
+ *
+ * The spec reproduces the hand-written Scanner exactly, including its
+ * peculiar corners, so the two can be diffed token for token.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+class LexerSpec
+{
+    /**
+     * A check made on the text of an accepted token, turning it into an
+     * error token with the given message if it fails
+     */
+    enum Check
+    {
+        NONE(null),
+        RESERVED_WORD(null),
+        INT_RANGE("INVALID INTEGER CONSTANT"),
+        STRING_LENGTH("STRING EXCEEDS MAX CHAR LENGTH 5000");
+
+        final String error;
+
+        Check(String error) {
+            this.error = error;
+        }
+    }
+
+    /**
+     * What to do when a scan stops in a state: the token to build and any
+     * error to report.  By default the token is the chars from its start up
+     * to, but not including, the current char.
+     */
+    static class Accept
+    {
+        Token.Kind kind;
+        String spelling;             // the shared spelling, or null for the slice of source
+        int endAdjust;               // added to the end of the slice: -1 drops the last
+                                     // char read, +1 includes the current char
+        boolean slashOpener;         // a comment opened with % is spelled as if with /
+        String error;                // the error to report, or null
+        boolean errorAtLastChar;     // report it on the line of the last char read
+        Check check = Check.NONE;
+
+        Accept(Token.Kind kind) {
+            this.kind = kind;
+        }
+
+        Accept spelled(String spelling) {
+            this.spelling = spelling;
+            return this;
+        }
+
+        Accept endAdjust(int endAdjust) {
+            this.endAdjust = endAdjust;
+            return this;
+        }
+
+        Accept slashOpener() {
+            this.slashOpener = true;
+            return this;
+        }
+
+        Accept error(String error) {
+            this.error = error;
+            return this;
+        }
+
+        Accept errorAtLastChar(String error) {
+            this.error = error;
+            this.errorAtLastChar = true;
+            return this;
+        }
+
+        Accept check(Check check) {
+            this.check = check;
+            return this;
+        }
+    }
+
+    /**
+     * A state of the DFA with its rules and its accepting action
+     */
+    static class State
+    {
+        final int number;
+        final String name;
+        // each rule is either a list of chars or a set given by a predicate
+        private final List<String> charLists = new ArrayList<>();
+        private final List<IntPredicate> sets = new ArrayList<>();
+        private final List<State> targets = new ArrayList<>();
+        Accept accept;
+
+        private State(int number, String name) {
+            this.number = number;
+            this.name = name;
+        }
+
+        /** moves to target on any of the given chars; a null target stops the scan */
+        State on(String chars, State target) {
+            return rule(chars, null, target);
+        }
+
+        /** moves to target on any char in the set; a null target stops the scan */
+        State on(IntPredicate set, State target) {
+            return rule(null, set, target);
+        }
+
+        /** moves to target on any char not matched by an earlier rule */
+        State otherwise(State target) {
+            return on(c -> true, target);
+        }
+
+        private State rule(String chars, IntPredicate set, State target) {
+            charLists.add(chars);
+            sets.add(set);
+            targets.add(target);
+            return this;
+        }
+
+        State accepts(Accept accept) {
+            this.accept = accept;
+            return this;
+        }
+
+        /**
+         * @return the state the given char moves this state to, or null to stop
+         */
+        State next(char c) {
+            for (int i = 0; i < sets.size(); i++) {
+                String chars = charLists.get(i);
+                if (chars != null ? chars.indexOf(c) >= 0 : sets.get(i).test(c)) {
+                    return targets.get(i);
+                }
+            }
+            return null;
+        }
+    }
+
+    static final char eof = SourceFile.eof;
+
+    private static final IntPredicate EOF_CHAR = c -> c == eof;
+    private static final IntPredicate LETTER = c -> Character.isLetter((char) c);
+    private static final IntPredicate DIGIT = c -> Character.isDigit((char) c);
+    private static final IntPredicate IDENTIFIER_PART =
+            c -> Character.isLetterOrDigit((char) c) || c == '_';
+
+    // the chars that end an identifier or keyword without being part of it
+    private static final String IDENTIFIER_TERMINATORS = "\"/+->=<&{}[]();:! .,\r\n*%";
+
+    private final List<State> states = new ArrayList<>();
+
+    // the generated tables
+    final char[] charClass = new char[Character.MAX_VALUE + 1];
+    int numClasses;
+    byte[] transitions;       // transitions[state * numClasses + class], -1 to stop
+    Accept[] accepts;         // indexed by state
+
+    /** The spec of the Bantam Java tokens, with its tables */
+    static final LexerSpec BANTAM = bantam().generate();
+
+    State state(String name) {
+        State state = new State(states.size(), name);
+        states.add(state);
+        return state;
+    }
+
+    /**
+     * The Bantam Java tokens as scanned by the Scanner.  The start state is
+     * state 0, and moving back to it means the chars read were white space.
+     */
+    private static LexerSpec bantam() {
+        LexerSpec spec = new LexerSpec();
+
+        State start = spec.state("START");
+
+        State identifier = spec.state("IDENTIFIER");
+        State badIdentifier = spec.state("BAD_IDENTIFIER");
+        State intConst = spec.state("INTCONST");
+        State string = spec.state("STRING");
+        State stringEscape = spec.state("STRING_ESCAPE");
+        State stringEnd = spec.state("STRING_END");
+        State slash = spec.state("SLASH");
+        State percent = spec.state("PERCENT");
+        State lineComment = spec.state("LINE_COMMENT");
+        State lineCommentEnd = spec.state("LINE_COMMENT_END");
+        State blockOpen = spec.state("BLOCK_COMMENT_OPEN");
+        State block = spec.state("BLOCK_COMMENT");
+        State blockStar = spec.state("BLOCK_COMMENT_STAR");
+        State blockClose = spec.state("BLOCK_COMMENT_CLOSE");
+        State blockEnd = spec.state("BLOCK_COMMENT_END");
+        State badChar = spec.state("BAD_CHAR");
+
+        start.accepts(new Accept(EOF).spelled("\u0000"))
+                .on(EOF_CHAR, null)
+                .on(" \t\f\r\n", start)
+                .on("\"", string)
+                .on("/", slash)
+                .on("%", percent);
+
+        String punctuation = "*{}[]();:.,";
+        Token.Kind[] punctuationKinds = {MULDIV, LCURLY, RCURLY, LBRACKET, RBRACKET,
+                LPAREN, RPAREN, SEMICOLON, COLON, DOT, COMMA};
+        for (int i = 0; i < punctuation.length(); i++) {
+            String spelling = punctuation.substring(i, i + 1);
+            start.on(spelling, spec.state(spelling)
+                    .accepts(new Accept(punctuationKinds[i]).spelled(spelling)));
+        }
+
+        spec.operator(start, "+", PLUSMINUS, "+", UNARYINCR);
+        spec.operator(start, "-", PLUSMINUS, "-", UNARYDECR);
+        spec.operator(start, "<", COMPARE, "=", COMPARE);
+        spec.operator(start, ">", COMPARE, "=", COMPARE);
+        spec.operator(start, "=", ASSIGN, "=", COMPARE);
+        spec.operator(start, "!", UNARYNOT, "=", COMPARE);
+        spec.operator(start, "&", ERROR, "&", BINARYLOGIC).accept
+                .error("BINARY LOGIC ERROR");
+        spec.operator(start, "|", ERROR, "|", BINARYLOGIC).accept
+                .error("BINARY LOGIC ERROR");
+
+        start.on(DIGIT, intConst)
+                .on(LETTER, identifier)
+                .otherwise(badChar);
+
+        badChar.accepts(new Accept(ERROR).error("TOKEN ERROR"));
+
+        intConst.accepts(new Accept(INTCONST).check(Check.INT_RANGE))
+                .on(DIGIT, intConst);
+
+        identifier.accepts(new Accept(IDENTIFIER).check(Check.RESERVED_WORD))
+                .on(IDENTIFIER_PART, identifier)
+                .on(IDENTIFIER_TERMINATORS, null)
+                .otherwise(badIdentifier);
+        // the bad char is part of the error token
+        badIdentifier.accepts(new Accept(ERROR)
+                .errorAtLastChar("UNSUPPORTED IDENTIFIER CHARACTER"));
+
+        // an escaped char is part of the string whatever it is
+        string.accepts(new Accept(ERROR).error("UNCLOSED QUOTE"))
+                .on("\"", stringEnd)
+                .on("\n", null)
+                .on(EOF_CHAR, null)
+                .on("\\", stringEscape)
+                .otherwise(string);
+        stringEscape.otherwise(string);
+        stringEnd.accepts(new Accept(STRCONST).check(Check.STRING_LENGTH));
+
+        slash.accepts(new Accept(MULDIV).spelled("/"))
+                .on("/", lineComment)
+                .on("*", blockOpen);
+        percent.accepts(new Accept(MULDIV).spelled("%"))
+                .on("/", lineComment)
+                .on("*", blockOpen);
+
+        // a line comment takes its eol char but is not spelled with it
+        lineComment.accepts(new Accept(COMMENT).slashOpener())
+                .on("\n", lineCommentEnd)
+                .on(EOF_CHAR, null)
+                .otherwise(lineComment);
+        lineCommentEnd.accepts(new Accept(COMMENT).endAdjust(-1).slashOpener());
+
+        // the first char after the opener cannot end the comment, not even if
+        // it is an eof char, and the char after the closer is thrown away
+        Accept unterminated = new Accept(ERROR).endAdjust(1).slashOpener()
+                .error("UNTERMINATED BLOCK COMMENT");
+        blockOpen.on("*", blockStar)
+                .otherwise(block);
+        block.accepts(unterminated)
+                .on(EOF_CHAR, null)
+                .on("*", blockStar)
+                .otherwise(block);
+        blockStar.accepts(unterminated)
+                .on(EOF_CHAR, null)
+                .on("/", blockClose)
+                .on("*", blockStar)
+                .otherwise(block);
+        blockClose.otherwise(blockEnd);
+        blockEnd.accepts(new Accept(COMMENT).endAdjust(-1).slashOpener());
+
+        return spec;
+    }
+
+    /**
+     * Adds the states for a token of one char that may be followed by a
+     * second char to make a different token
+     *
+     * @return the state for the token of just the first char
+     */
+    private State operator(State start, String first, Token.Kind kind,
+                           String second, Token.Kind pairKind) {
+        State one = state(first).accepts(new Accept(kind).spelled(first));
+        State two = state(first + second)
+                .accepts(new Accept(pairKind).spelled(first + second));
+        start.on(first, one);
+        one.on(second, two);
+        return one;
+    }
+
+    /**
+     * Builds the char-class and transition tables from the states.  Two chars
+     * are in the same class if every state moves the same way on both.
+     *
+     * @return this spec
+     */
+    LexerSpec generate() {
+        int numStates = states.size();
+        if (numStates > Byte.MAX_VALUE) {
+            throw new IllegalStateException("Too many states for the transition table");
+        }
+        // the chars the rules are tried on: the ASCII chars, the chars listed
+        // in rules, and one char of each Unicode category to stand for the rest
+        boolean[] listed = new boolean[Character.MAX_VALUE + 1];
+        for (int c = 0; c < 128; c++) {
+            listed[c] = true;
+        }
+        for (State state : states) {
+            for (String chars : state.charLists) {
+                if (chars != null) {
+                    for (char c : chars.toCharArray()) {
+                        listed[c] = true;
+                    }
+                }
+            }
+        }
+        byte[] type = new byte[Character.MAX_VALUE + 1];
+        int[] representativeOfType = new int[Byte.MAX_VALUE + 1];
+        Arrays.fill(representativeOfType, -1);
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            type[c] = (byte) Character.getType(c);
+            if (!listed[c] && representativeOfType[type[c]] < 0) {
+                representativeOfType[type[c]] = c;
+            }
+        }
+
+        HashMap<String, Integer> classesBySignature = new HashMap<>();
+        List<char[]> classRows = new ArrayList<>();
+        char[] signature = new char[numStates];
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            if (!listed[c] && representativeOfType[type[c]] != c) {
+                continue;
+            }
+            for (State state : states) {
+                State next = state.next((char) c);
+                signature[state.number] = (char) (next == null ? 0 : next.number + 1);
+            }
+            String key = new String(signature);
+            Integer charClass = classesBySignature.get(key);
+            if (charClass == null) {
+                charClass = classRows.size();
+                classesBySignature.put(key, charClass);
+                classRows.add(signature.clone());
+            }
+            this.charClass[c] = (char) (int) charClass;
+        }
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            if (!listed[c]) {
+                this.charClass[c] = this.charClass[representativeOfType[type[c]]];
+            }
+        }
+
+        numClasses = classRows.size();
+        transitions = new byte[numStates * numClasses];
+        accepts = new Accept[numStates];
+        for (State state : states) {
+            accepts[state.number] = state.accept;
+            for (int k = 0; k < numClasses; k++) {
+                int next = classRows.get(k)[state.number] - 1;
+                if (next < 0 && state.accept == null) {
+                    throw new IllegalStateException("State " + state.name +
+                            " can stop without accepting a token");
+                }
+                transitions[state.number * numClasses + k] = (byte) next;
+            }
+        }
+        return this;
+    }
+
+}
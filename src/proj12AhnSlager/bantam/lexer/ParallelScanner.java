@@ -0,0 +1,440 @@
+/**
+ * Filename: ParallelScanner
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.lexer;
+
+import proj12AhnSlager.bantam.util.CompilationException;
+import proj12AhnSlager.bantam.util.Error;
+import proj12AhnSlager.bantam.util.ErrorHandler;
+import proj12AhnSlager.bantam.util.ErrorList;
+import proj12AhnSlager.bantam.util.SymbolInterner;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Scans a large file into a TokenBuffer by splitting it into chunks and
+ * scanning the chunks at the same time on a ForkJoinPool.
+ *
+ * The chunks are split just after an eol char that is not escaped in a
+ * string, so the only token that can run from one chunk into the next is a
+ * block comment.  Since it is not known where a chunk starts until the chunks
+ * before it have been scanned, every chunk after the first is scanned twice,
+ * speculatively: once as if it starts between tokens and once as if it starts
+ * inside a block comment.  The scans are then stitched together in order,
+ * taking for each chunk the scan that matches how the chunk before it ended,
+ * and joining the pieces of block comments that cross chunks.
+ *
+ * The chunks share the line breaks of the whole file, so the line numbers of
+ * their tokens and errors are right as scanned.  Each chunk interns its
+ * identifiers with its own SymbolInterner, and keeps its own list of errors;
+ * while stitching, the identifiers are interned again with the interner of the
+ * compilation, and the errors are registered with the ErrorHandler, in the
+ * order the Scanner would have found them.  The tokens and errors are exactly
+ * those of TokenBuffer.scanAll() with a Scanner, which main() checks.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class ParallelScanner
+{
+    /**
+     * The number of chars in a chunk, unless given
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private ForkJoinPool pool;
+    private int chunkSize;
+
+    /**
+     * Creates a ParallelScanner that scans 1M char chunks on the common pool
+     */
+    public ParallelScanner() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     *
+     * @param pool the pool to scan the chunks on
+     * @param chunkSize the number of chars in a chunk, to which each chunk is
+     *                  extended up to the next line break it can be split at
+     */
+    public ParallelScanner(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size must be positive");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Scans a whole file into a new TokenBuffer with a new SymbolInterner
+     *
+     * @param filename the name of the file to be scanned
+     * @param handler the ErrorHandler to register lexical errors with
+     * @return the filled buffer
+     */
+    public TokenBuffer scanAll(String filename, ErrorHandler handler) {
+        return scanAll(filename, handler, new SymbolInterner());
+    }
+
+    /**
+     * Scans a whole file into a new TokenBuffer
+     *
+     * @param filename the name of the file to be scanned
+     * @param handler the ErrorHandler to register lexical errors with
+     * @param symbols the SymbolInterner of the compilation, to intern identifiers with
+     * @return the filled buffer
+     */
+    public TokenBuffer scanAll(String filename, ErrorHandler handler, SymbolInterner symbols) {
+        SourceFile source = new SourceFile(filename);
+        int[] bounds = split(source);
+        int numChunks = bounds.length - 1;
+        if (numChunks == 1) {
+            return TokenBuffer.scanAll(new Scanner(source, handler, symbols));
+        }
+
+        List<ForkJoinTask<Chunk>> startingBetweenTokens = new ArrayList<>();
+        List<ForkJoinTask<Chunk>> startingInComment = new ArrayList<>();
+        for (int c = 0; c < numChunks; c++) {
+            int from = bounds[c];
+            int to = bounds[c + 1];
+            ForkJoinTask<Chunk> betweenTokens = pool.submit(() -> new Chunk(source, from, to));
+            startingBetweenTokens.add(betweenTokens);
+            startingInComment.add(c == 0 ? null :
+                    pool.submit(() -> new Chunk(source, from, to, betweenTokens)));
+        }
+
+        TokenBuffer tokens = new TokenBuffer(source, symbols, source.getLength() / 4);
+        int commentStart = -1; // the start of a block comment still open at the end of a chunk
+        for (int c = 0; c < numChunks; c++) {
+            Chunk chunk = (commentStart < 0 ? startingBetweenTokens : startingInComment)
+                    .get(c).join();
+            if (chunk.stitch(tokens, handler, commentStart, c == numChunks - 1)) {
+                break;
+            }
+            if (!chunk.allComment) {
+                commentStart = chunk.openCommentStart;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Splits the source into chunks of about chunkSize chars, each ending
+     * just after an eol char that is not preceded by a backslash.  Only a block
+     * comment can run past such an eol char, since a line comment or a string
+     * ends there, and so does every other token, which cannot hold white space.
+     *
+     * @return the offsets the chunks start at, followed by the length of the source
+     */
+    private int[] split(SourceFile source) {
+        char[] buffer = source.getBuffer();
+        int length = source.getLength();
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int next = chunkSize;
+        while (next < length) {
+            int i = next;
+            while (i < length && !(buffer[i - 1] == SourceFile.eol
+                    && (i < 2 || buffer[i - 2] != '\\'))) {
+                i++;
+            }
+            if (i >= length) {
+                break;
+            }
+            bounds.add(i);
+            next = i + chunkSize;
+        }
+        bounds.add(length);
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * The tokens and errors of one chunk, scanned as if the chunk starts
+     * between tokens or inside a block comment
+     */
+    private static class Chunk
+    {
+        private SourceFile source;       // the whole source
+        private int to;                  // the offset just past the chunk
+        private TokenBuffer tokens;      // the tokens, ending with an EOF token
+        private SymbolInterner symbols;  // the interner of the tokens
+        private List<Error> errors;      // the errors, in the order they were found
+        private int[] errorsBefore;      // the number of errors found before each token
+        private int first;               // the index of the first token after a comment's tail
+        private TokenBuffer tail;        // if starting in a comment, holds its rest first
+        private boolean allComment;      // whether the whole chunk is inside one comment
+        private int openCommentStart;    // the start of a comment open at the end, else -1
+
+        /**
+         * Scans the chunk as if it starts between tokens
+         */
+        Chunk(SourceFile source, int from, int to) {
+            this(source, from, to, null);
+        }
+
+        /**
+         * Scans the chunk as if it starts inside a block comment.  Once the
+         * comment ends, if the next token was also found by the scan starting
+         * between tokens, the two scans agree from there on, so the rest of
+         * that scan is used instead of scanning the rest of the chunk again.
+         *
+         * @param betweenTokens the scan of the chunk that starts between tokens
+         */
+        Chunk(SourceFile source, int from, int to, ForkJoinTask<Chunk> betweenTokens) {
+            this.source = source;
+            this.to = to;
+            SymbolInterner ownSymbols = new SymbolInterner();
+            ErrorList errorList = new ErrorList();
+            SourceFile chunkSource = new SourceFile(source, from, to);
+            Scanner scanner = new Scanner(chunkSource, errorList, ownSymbols);
+            TokenBuffer ownTokens = new TokenBuffer(chunkSource, ownSymbols,
+                    betweenTokens == null ? (to - from) / 4 : 16);
+            int[] ownErrorsBefore = new int[16];
+
+            Token.Kind kind;
+            if (betweenTokens == null) {
+                kind = scanner.scanInto(ownTokens);
+            }
+            else {
+                kind = scanner.scanBlockCommentTailInto(ownTokens);
+                tail = ownTokens;
+                first = 1;
+                if (kind != Token.Kind.EOF) {
+                    int tailErrors = errorList.getErrorList().size();
+                    kind = scanner.scanInto(ownTokens);
+                    Chunk other = betweenTokens.join();
+                    int index = other.indexOf(ownTokens.start(1), ownTokens.kind(1));
+                    if (index >= 0) {
+                        tokens = other.tokens;
+                        symbols = other.symbols;
+                        first = index;
+                        errors = new ArrayList<>(errorList.getErrorList().subList(0, tailErrors));
+                        errors.addAll(other.errors.subList(other.errorsBefore[index],
+                                other.errors.size()));
+                        openCommentStart = other.openCommentStart;
+                        return;
+                    }
+                }
+            }
+            while (kind != Token.Kind.EOF) {
+                if (ownTokens.size() == ownErrorsBefore.length) {
+                    int[] bigger = new int[ownErrorsBefore.length * 2];
+                    System.arraycopy(ownErrorsBefore, 0, bigger, 0, ownErrorsBefore.length);
+                    ownErrorsBefore = bigger;
+                }
+                ownErrorsBefore[ownTokens.size()] = errorList.getErrorList().size();
+                kind = scanner.scanInto(ownTokens);
+            }
+            tokens = ownTokens;
+            symbols = ownSymbols;
+            errors = errorList.getErrorList();
+            errorsBefore = ownErrorsBefore;
+
+            // a block comment that reaches the end of the chunk is spelled with
+            // the eof char just past it
+            int last = tokens.size() - 2;
+            openCommentStart = last >= 0 && tokens.kind(last) == Token.Kind.ERROR
+                    && tokens.start(last) + tokens.length(last) > to ? tokens.start(last) : -1;
+            allComment = tail != null && last == 0 && openCommentStart >= 0;
+        }
+
+        /**
+         * @return the index of the token with the given start and kind that
+         * is not an EOF token, or -1 if there is none
+         */
+        private int indexOf(int start, Token.Kind kind) {
+            int low = 0;
+            int high = tokens.size() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (tokens.start(middle) < start) {
+                    low = middle + 1;
+                }
+                else if (tokens.start(middle) > start) {
+                    high = middle - 1;
+                }
+                else {
+                    return kind == tokens.kind(middle) && kind != Token.Kind.EOF ? middle : -1;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Adds the tokens of the chunk to the tokens of the whole file, and
+         * registers its errors
+         *
+         * @param all the tokens of the chunks before this one
+         * @param handler the ErrorHandler of the whole file
+         * @param commentStart the start of the block comment this chunk starts
+         *                     inside, or -1 if it starts between tokens
+         * @param isLast whether this is the last chunk
+         * @return true if the tokens of the file ended in this chunk
+         */
+        boolean stitch(TokenBuffer all, ErrorHandler handler, int commentStart,
+                       boolean isLast) {
+            boolean endsOpen = !isLast && openCommentStart >= 0;
+            // the error for a comment open at the end of the chunk is not real
+            int numErrors = endsOpen ? errors.size() - 1 : errors.size();
+            for (int i = 0; i < numErrors; i++) {
+                Error error = errors.get(i);
+                // an error in the tail of a comment is about the whole comment
+                int start = i == 0 && tail != null && tail.kind(0) == Token.Kind.ERROR
+                        ? commentStart : error.getStartOffset();
+                handler.register(error.getKind(), error.getFilename(), error.getLineNum(),
+                        start, error.getEndOffset(), error.getMessage());
+            }
+
+            if (tail != null) {
+                if (allComment && !isLast) {
+                    // the comment goes on into the next chunk
+                    return false;
+                }
+                addComment(all, commentStart);
+            }
+
+            int end = endsOpen ? tokens.size() - 2 : tokens.size();
+            int[] globalSymbols = new int[symbols.size()];
+            for (int i = first; i < end; i++) {
+                Token.Kind kind = tokens.kind(i);
+                if (kind == Token.Kind.EOF && !isLast && tokens.start(i) == to) {
+                    // the end of the chunk, not of the file
+                    return false;
+                }
+                String spelling = tokens.knownSpelling(i);
+                int symbol = tokens.symbol(i);
+                if (symbol >= 0) {
+                    if (globalSymbols[symbol] == 0) {
+                        globalSymbols[symbol] = all.getSymbols().intern(symbols.get(symbol)) + 1;
+                    }
+                    symbol = globalSymbols[symbol] - 1;
+                    if (kind == Token.Kind.IDENTIFIER) {
+                        spelling = all.getSymbols().get(symbol);
+                    }
+                }
+                all.add(kind, spelling, tokens.start(i), tokens.length(i), tokens.line(i),
+                        symbol);
+                if (kind == Token.Kind.EOF) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Adds a block comment that started in an earlier chunk and ends with
+         * the tail this chunk starts with, spelled as the Scanner would spell it
+         */
+        private void addComment(TokenBuffer all, int commentStart) {
+            int end = tail.start(0) + tail.length(0);
+            String spelling = null;
+            if (source.getBuffer()[commentStart] == '%') {
+                spelling = "/*" + source.getText(commentStart + 2, end - commentStart - 2);
+            }
+            all.add(tail.kind(0), spelling, commentStart, end - commentStart,
+                    tail.line(0), -1);
+        }
+    }
+
+    /**
+     * Scans a file with a Scanner and with a ParallelScanner and compares
+     * their tokens and errors.  The first difference found is printed.
+     *
+     * @param filename the file to scan
+     * @param scanner the ParallelScanner to check
+     * @param out where to print a difference
+     * @return true if the two agree
+     */
+    public static boolean verify(String filename, ParallelScanner scanner, PrintStream out) {
+        ErrorHandler expectedErrors = new ErrorHandler();
+        ErrorHandler actualErrors = new ErrorHandler();
+        TokenBuffer expected = TokenBuffer.scanAll(new Scanner(filename, expectedErrors));
+        TokenBuffer actual = scanner.scanAll(filename, actualErrors);
+        if (expected.size() != actual.size()) {
+            out.println(filename + ": expected " + expected.size() + " tokens but found " +
+                    actual.size());
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (expected.kind(i) != actual.kind(i) || expected.line(i) != actual.line(i)
+                    || expected.start(i) != actual.start(i)
+                    || expected.length(i) != actual.length(i)
+                    || expected.symbol(i) != actual.symbol(i)
+                    || !expected.spelling(i).equals(actual.spelling(i))) {
+                out.println(filename + ": token " + i + " differs: expected " +
+                        expected.token(i) + " but found " + actual.token(i));
+                return false;
+            }
+        }
+        List<String> expectedList = new ArrayList<>();
+        expectedErrors.getErrorList().forEach(error -> expectedList.add(describe(error)));
+        List<String> actualList = new ArrayList<>();
+        actualErrors.getErrorList().forEach(error -> actualList.add(describe(error)));
+        if (!expectedList.equals(actualList)) {
+            out.println(filename + ": errors differ: expected " + expectedList +
+                    " but found " + actualList);
+            return false;
+        }
+        return true;
+    }
+
+    private static String describe(Error error) {
+        return error + " at [" + error.getStartOffset() + ", " + error.getEndOffset() + ")";
+    }
+
+    /**
+     * Checks the ParallelScanner against the Scanner on a file and times them,
+     * with a pool of each of the numbers of threads given.
+     * The arguments are the file, the chunk size, and the numbers of threads.
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: ParallelScanner file chunkSize threads...");
+            return;
+        }
+        String filename = args[0];
+        int chunkSize = Integer.parseInt(args[1]);
+        try {
+            System.out.println("Scanner: " + time(() ->
+                    TokenBuffer.scanAll(new Scanner(filename, new ErrorHandler()))) + " ms");
+            for (int i = 2; i < args.length; i++) {
+                int threads = Integer.parseInt(args[i]);
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                ParallelScanner scanner = new ParallelScanner(pool, chunkSize);
+                boolean agrees = verify(filename, scanner, System.out);
+                long millis = time(() -> scanner.scanAll(filename, new ErrorHandler()));
+                System.out.println("ParallelScanner with " + threads + " threads: " + millis +
+                        " ms" + (agrees ? "" : " (differs from the Scanner)"));
+                pool.shutdown();
+            }
+        }
+        catch (CompilationException e) {
+            System.out.println(e);
+        }
+    }
+
+    /**
+     * @return the fastest of 15 runs, in milliseconds, after 10 to warm up
+     */
+    private static long time(Runnable scan) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 25; run++) {
+            long start = System.nanoTime();
+            scan.run();
+            if (run >= 10) {
+                best = Math.min(best, (System.nanoTime() - start) / 1000000);
+            }
+        }
+        return best;
+    }
+
+}
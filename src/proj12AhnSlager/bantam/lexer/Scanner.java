@@ -12,9 +12,11 @@ package proj12AhnSlager.bantam.lexer;
 
 import proj12AhnSlager.bantam.util.CompilationException;
 import proj12AhnSlager.bantam.util.ErrorHandler;
+import proj12AhnSlager.bantam.util.SymbolInterner;
 
 import java.io.*;
-import java.util.Set;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import proj12AhnSlager.bantam.util.Error;
 
@@ -29,16 +31,34 @@ import proj12AhnSlager.bantam.util.Error;
  * @version 1.0
  * @since 11-20-2018
  */
-public class Scanner
+public class Scanner implements AutoCloseable
 {
     private SourceFile sourceFile;
     private ErrorHandler errorHandler;
-    private Character currentChar;
+    private SymbolInterner symbols;
+    private char currentChar;
+    private TokenBuffer target;     // while scanning into a TokenBuffer, where the token goes
+    private Token.Kind lastKind;    // the kind of the token most recently scanned
+    private boolean fastRuns = fastRunsByDefault; // skip runs of chars with CharRuns
 
-    private final Set<Character> charsEndingIdentifierOrKeyword =
-            Set.of('"', '/', '+', '-', '>', '<', '=', '&', '{',
-                    '}', '[', ']', '(', ')', ';', ':', '!', ' ',
-                    '.', ',', '\r', '\n', '*', '%');
+    /**
+     * The system property that turns off the CharRuns fast path of new
+     * scanners when it is "false"
+     */
+    public static final String FAST_RUNS_PROPERTY = "bantam.scanner.fastRuns";
+
+    private static final boolean fastRunsByDefault =
+            !"false".equals(System.getProperty(FAST_RUNS_PROPERTY));
+
+    // charsEndingIdentifierOrKeyword[c] is true for the ASCII chars that end an
+    // identifier or keyword:  " / + - > < = & { } [ ] ( ) ; : ! space . , \r \n * %
+    private static final boolean[] charsEndingIdentifierOrKeyword = new boolean[128];
+
+    static {
+        for (char c : "\"/+->=<&{}[]();:! .,\r\n*%".toCharArray()) {
+            charsEndingIdentifierOrKeyword[c] = true;
+        }
+    }
 
 
     /**
@@ -47,6 +67,7 @@ public class Scanner
      */
     public Scanner(ErrorHandler handler) {
         errorHandler = handler;
+        symbols = new SymbolInterner();
         currentChar = ' ';
         sourceFile = null;
     }
@@ -57,7 +78,18 @@ public class Scanner
      * @param handler an ErrorHandler
      */
     public Scanner(String filename, ErrorHandler handler) {
+        this(filename, handler, new SymbolInterner());
+    }
+
+    /**
+     *
+     * @param filename the name of the file that will be passed to the SourceFile
+     * @param handler an ErrorHandler
+     * @param symbols the SymbolInterner of the compilation, to intern identifiers with
+     */
+    public Scanner(String filename, ErrorHandler handler, SymbolInterner symbols) {
         errorHandler = handler;
+        this.symbols = symbols;
         currentChar = ' ';
         try {
             sourceFile = new SourceFile(filename);
@@ -68,6 +100,72 @@ public class Scanner
         }
     }
 
+    /**
+     * Creates a scanner that reads the file through a sliding window of
+     * windowSize chars, so that however large the file is, only the window,
+     * which grows only to hold a token longer than it, and the distinct
+     * identifiers are kept in memory.  The tokens' spellings are built as they
+     * are scanned.  Use it with stream() or a TokenCursor to process a file
+     * token by token.  The file stays open until the EOF token is scanned, so
+     * a scanner that may be given up before then is to be closed.
+     *
+     * @param filename the name of the file to be scanned
+     * @param handler an ErrorHandler
+     * @param windowSize the number of chars in the window
+     */
+    public Scanner(String filename, ErrorHandler handler, int windowSize) {
+        errorHandler = handler;
+        symbols = new SymbolInterner();
+        currentChar = ' ';
+        sourceFile = new SourceFile(filename, windowSize);
+    }
+
+    /**
+     * Creates a scanner of text that is already in memory, such as the unsaved
+     * text of an editor, so that it need not be written to a file first
+     *
+     * @param text the text to be scanned
+     * @param logicalName the name the text is known by, which errors give as
+     *                    their filename
+     * @param handler an ErrorHandler
+     */
+    public Scanner(CharSequence text, String logicalName, ErrorHandler handler) {
+        this(text, logicalName, handler, new SymbolInterner());
+    }
+
+    /**
+     * Creates a scanner of text that is already in memory
+     *
+     * @param text the text to be scanned
+     * @param logicalName the name the text is known by, which errors give as
+     *                    their filename
+     * @param handler an ErrorHandler
+     * @param symbols the SymbolInterner of the compilation, to intern identifiers with
+     */
+    public Scanner(CharSequence text, String logicalName, ErrorHandler handler,
+                   SymbolInterner symbols) {
+        errorHandler = handler;
+        this.symbols = symbols;
+        currentChar = ' ';
+        sourceFile = new SourceFile(logicalName, text);
+    }
+
+    /**
+     * Creates a scanner of a SourceFile that has been read already, such as
+     * one chunk of a file.  Scanning starts at the source's next char, which
+     * must be between tokens.
+     *
+     * @param sourceFile the source to scan
+     * @param handler an ErrorHandler
+     * @param symbols the SymbolInterner to intern identifiers with
+     */
+    Scanner(SourceFile sourceFile, ErrorHandler handler, SymbolInterner symbols) {
+        errorHandler = handler;
+        this.symbols = symbols;
+        this.sourceFile = sourceFile;
+        currentChar = sourceFile.getNextChar();
+    }
+
     /**
      *
      * @param reader a Reader linked to existing File to be passed to the SourceFile
@@ -75,6 +173,8 @@ public class Scanner
      */
     public Scanner(Reader reader, ErrorHandler handler) {
         errorHandler = handler;
+        symbols = new SymbolInterner();
+        currentChar = ' ';
         sourceFile = new SourceFile(reader);
     }
 
@@ -84,32 +184,28 @@ public class Scanner
      * file, any calls to scan() result in a Token of kind EOF.
      */
     public Token scan() {
-        Character tempChar = currentChar;
-
-        if (currentChar.equals(SourceFile.eof)) return new Token(Token.Kind.EOF,
-                currentChar.toString(), this.sourceFile.getCurrentLineNumber());
-
         //gets rid of whitespace
-        else {
-            while(currentChar.equals('\t') || currentChar.equals('\r')
-                    || currentChar.equals('\n') || currentChar.equals('\f') || currentChar.equals(' ')) {
+        if (fastRuns && isWhiteSpace(currentChar)) {
+            currentChar = sourceFile.skipWhiteSpace();
+        }
+        while(currentChar == '\t' || currentChar == '\r'
+                || currentChar == '\n' || currentChar == '\f' || currentChar == ' ') {
 
-                currentChar = this.sourceFile.getNextChar();
-                tempChar = currentChar;
-            }
+            this.sourceFile.mark();
+            currentChar = this.sourceFile.getNextChar();
         }
 
+        char tempChar = currentChar;
+        int start = this.sourceFile.getCharOffset();
+        // a windowed source keeps the token from here on
+        this.sourceFile.mark();
 
         switch(tempChar) {
 
             case(SourceFile.eof):
-                return new Token(Token.Kind.EOF,
-                        currentChar.toString(), this.sourceFile.getCurrentLineNumber());
+                return makeToken(Token.Kind.EOF, "\u0000", start, 0);
 
-            case('*'):
-                currentChar = sourceFile.getNextChar();
-                return new Token(Token.Kind.MULDIV, tempChar.toString(),
-                        this.sourceFile.getCurrentLineNumber());
+            case('*'): return this.getSingleCharToken(Token.Kind.MULDIV, "*", start);
 
             case('"'): return this.getStringConstToken();
 
@@ -131,57 +227,27 @@ public class Scanner
 
             case('%'): return getCommentOrMulDivToken();
 
-            case('{'):
-                currentChar = sourceFile.getNextChar();
-                return new Token(Token.Kind.LCURLY,
-                    tempChar.toString(), this.sourceFile.getCurrentLineNumber());
+            case('{'): return this.getSingleCharToken(Token.Kind.LCURLY, "{", start);
 
-            case('}'):
-                currentChar = sourceFile.getNextChar();
-                return new Token(Token.Kind.RCURLY,
-                    tempChar.toString(), this.sourceFile.getCurrentLineNumber());
+            case('}'): return this.getSingleCharToken(Token.Kind.RCURLY, "}", start);
 
-            case('['):
-                currentChar = sourceFile.getNextChar();
-                return new Token(Token.Kind.LBRACKET,
-                    tempChar.toString(), this.sourceFile.getCurrentLineNumber());
+            case('['): return this.getSingleCharToken(Token.Kind.LBRACKET, "[", start);
 
-            case(']'):
-                currentChar = sourceFile.getNextChar();
-                return new Token(Token.Kind.RBRACKET,
-                    tempChar.toString(), this.sourceFile.getCurrentLineNumber());
+            case(']'): return this.getSingleCharToken(Token.Kind.RBRACKET, "]", start);
 
-            case('('):
-                currentChar = sourceFile.getNextChar();
-                return new Token(Token.Kind.LPAREN,
-                    tempChar.toString(), this.sourceFile.getCurrentLineNumber());
+            case('('): return this.getSingleCharToken(Token.Kind.LPAREN, "(", start);
 
-            case(')'):
-                currentChar = sourceFile.getNextChar();
-                return new Token(Token.Kind.RPAREN,
-                    tempChar.toString(), this.sourceFile.getCurrentLineNumber());
+            case(')'): return this.getSingleCharToken(Token.Kind.RPAREN, ")", start);
 
-            case(';'):
-                currentChar = sourceFile.getNextChar();
-                return new Token(Token.Kind.SEMICOLON,
-                    tempChar.toString(), this.sourceFile.getCurrentLineNumber());
+            case(';'): return this.getSingleCharToken(Token.Kind.SEMICOLON, ";", start);
 
-            case(':'):
-                currentChar = sourceFile.getNextChar();
-                return new Token(Token.Kind.COLON,
-                    tempChar.toString(), this.sourceFile.getCurrentLineNumber());
+            case(':'): return this.getSingleCharToken(Token.Kind.COLON, ":", start);
 
             case('!'): return this.getUnaryNotOrCompareToken();
 
-            case('.'):
-                currentChar = sourceFile.getNextChar();
-                return new Token(Token.Kind.DOT,
-                    tempChar.toString(), this.sourceFile.getCurrentLineNumber());
+            case('.'): return this.getSingleCharToken(Token.Kind.DOT, ".", start);
 
-            case(','):
-                currentChar = sourceFile.getNextChar();
-                return new Token(Token.Kind.COMMA,
-                    tempChar.toString(), this.sourceFile.getCurrentLineNumber());
+            case(','): return this.getSingleCharToken(Token.Kind.COMMA, ",", start);
 
             default:
 
@@ -189,31 +255,192 @@ public class Scanner
                 else if (Character.isLetter(currentChar)) return getIdentifierOrKeywordToken();
                 else {
                     currentChar = sourceFile.getNextChar();
-                    this.errorHandler.register(Error.Kind.LEX_ERROR,
-                            this.sourceFile.getFilename(), this.sourceFile.getCurrentLineNumber(),
-                            "TOKEN ERROR");
-                    return new Token(Token.Kind.ERROR, tempChar.toString(),
-                            this.sourceFile.getCurrentLineNumber());
+                    this.registerError("TOKEN ERROR", start, start + 1);
+                    return makeToken(Token.Kind.ERROR, Token.charSpelling(tempChar), start, 1);
                 }
          }
     }
 
+    /**
+     * Chooses between skipping runs of white space, identifier chars and
+     * comment bodies a block of chars at a time, with CharRuns, or reading
+     * them one char at a time.  Both give exactly the same tokens.  The default
+     * is the fast path, unless the bantam.scanner.fastRuns property is "false".
+     *
+     * @param fastRuns true to use the CharRuns fast path
+     */
+    public void setFastRuns(boolean fastRuns) {
+        this.fastRuns = fastRuns;
+    }
+
+    /**
+     * @return true if the CharRuns fast path is being used
+     */
+    public boolean isFastRuns() {
+        return fastRuns;
+    }
+
+    private static boolean isWhiteSpace(char c) {
+        return c == '\t' || c == '\r' || c == '\n' || c == '\f' || c == ' ';
+    }
+
+    /**
+     * Returns the tokens still to be scanned as a sequential Stream, which
+     * ends before the EOF token.  Nothing is scanned until the stream is used.
+     * Closing the stream closes this scanner, so a stream that may stop
+     * early, as limit(), findFirst() and anyMatch() do, is best used in a
+     * try-with-resources statement.
+     *
+     * @return a Stream of the tokens
+     */
+    public Stream<Token> stream() {
+        return StreamSupport.stream(new TokenSpliterator(this), false).onClose(this::close);
+    }
+
+    /**
+     * Closes the file a windowed scanner reads, if it has not already been
+     * closed by scanning to its end.  A scanner of a file read all at once,
+     * or of text in memory, holds nothing open, so closing it does nothing.
+     * No more tokens can be scanned from the file once it is closed.
+     */
+    @Override
+    public void close() {
+        if (sourceFile != null) {
+            sourceFile.close();
+        }
+    }
+
+    /**
+     * Scans the next token straight into the given buffer instead of building
+     * a Token object for it
+     *
+     * @param tokens the buffer to append the token to
+     * @return the kind of the token scanned
+     */
+    Token.Kind scanInto(TokenBuffer tokens) {
+        target = tokens;
+        try {
+            scan();
+        }
+        finally {
+            target = null;
+        }
+        return lastKind;
+    }
+
+    /**
+     * Scans, into the given buffer, the rest of a block comment that was
+     * opened before the start of the source, which must not have been
+     * scanned from yet.  The char before the start,
+     * which is part of the comment, cannot be the "*" of its "*&#47;".
+     * Scanning goes on from the end of the comment with scanInto() as usual.
+     *
+     * @param tokens the buffer to append the comment to
+     * @return Kind.COMMENT, or Kind.ERROR if the comment does not end
+     * before the end of the source
+     */
+    Token.Kind scanBlockCommentTailInto(TokenBuffer tokens) {
+        target = tokens;
+        try {
+            finishBlockComment('/', this.sourceFile.getCharOffset(), SourceFile.eol);
+        }
+        finally {
+            target = null;
+        }
+        return lastKind;
+    }
+
+    /**
+     * Registers a lexical error at the line of the current char
+     *
+     * @param message the error message
+     * @param start the offset of the first char the error is about
+     * @param end the offset just past the last char the error is about
+     */
+    private void registerError(String message, int start, int end) {
+        this.errorHandler.register(Error.Kind.LEX_ERROR, this.sourceFile.getFilename(),
+                this.sourceFile.getCurrentLineNumber(), start, end, message);
+    }
+
+    /**
+     * Builds the token that has just been scanned, or appends it to the
+     * TokenBuffer being filled and returns null.  The token's position is the
+     * line number of the current char.
+     *
+     * @param kind the kind of the token
+     * @param spelling the spelling of the token, or null if it is its slice of the source
+     * @param start the offset of the token in the source
+     * @param length the number of source chars in the token
+     * @return the token, or null if it went into a TokenBuffer
+     */
+    private Token makeToken(Token.Kind kind, String spelling, int start, int length) {
+        return makeToken(kind, spelling, start, length, -1);
+    }
+
+    /**
+     * Builds the token that has just been scanned, as above, giving it a symbol id
+     *
+     * @param symbol the symbol id of an identifier or keyword, else -1
+     */
+    private Token makeToken(Token.Kind kind, String spelling, int start, int length,
+                            int symbol) {
+        lastKind = kind;
+        int position = this.sourceFile.getCurrentLineNumber();
+        if (spelling == null && this.sourceFile.isWindowed()) {
+            // the window will slide past the token
+            spelling = this.sourceFile.getText(start, length);
+        }
+        if (target != null) {
+            target.add(kind, spelling, start, length, position, symbol);
+            return null;
+        }
+        Token token = spelling == null ? new Token(kind, this.sourceFile, start, length, position)
+                : new Token(kind, spelling, start, length, position);
+        token.symbol = symbol;
+        return token;
+    }
+
+    /**
+     * Moves past a one-char token and returns it with its shared spelling
+     *
+     * @param kind the kind of the token
+     * @param spelling the spelling of the token
+     * @param start the offset of the token in the source
+     * @return a token of the given kind
+     */
+    private Token getSingleCharToken(Token.Kind kind, String spelling, int start) {
+        currentChar = sourceFile.getNextChar();
+        return makeToken(kind, spelling, start, 1);
+    }
+
+    /**
+     * Returns a token whose spelling is the source from start up to,
+     * but not including, the current char
+     *
+     * @param kind the kind of the token
+     * @param start the offset of the token in the source
+     * @return a token of the given kind
+     */
+    private Token getSliceToken(Token.Kind kind, int start) {
+        return makeToken(kind, null, start, this.sourceFile.getCharOffset() - start);
+    }
+
     /**
      *
      * @return a token of Kind.COMMENT, Kind.MULDIV or Kind.ERROR
      */
     private Token getCommentOrMulDivToken() {
-        Character prevChar = currentChar;
+        char prevChar = currentChar;
+        int start = this.sourceFile.getCharOffset();
         currentChar = this.sourceFile.getNextChar();
         switch(currentChar) {
 
-            case('/'): return this.getSingleLineCommentToken();
+            case('/'): return this.getSingleLineCommentToken(prevChar, start);
 
-            case('*'): return this.getBlockCommentToken(prevChar);
+            case('*'): return this.getBlockCommentToken(prevChar, start);
 
             default:
-                return new Token(Token.Kind.MULDIV, prevChar.toString(),
-                    this.sourceFile.getCurrentLineNumber());
+                return makeToken(Token.Kind.MULDIV, Token.charSpelling(prevChar), start, 1);
         }
     }
 
@@ -221,64 +448,100 @@ public class Scanner
      * Creates and returns a single line comment token
      * @return a token of Kind.COMMENT
      */
-    private Token getSingleLineCommentToken() {
+    private Token getSingleLineCommentToken(char firstChar, int start) {
 
-        String commentBody = "//";
         currentChar = this.sourceFile.getNextChar();    // move to first char after //
-        while (!( currentChar.equals(SourceFile.eol) ||
-                currentChar.equals(SourceFile.eof) )) {
+        if (fastRuns) {
+            currentChar = sourceFile.skipToLineEnd();
+        }
+        while (!( currentChar == SourceFile.eol ||
+                currentChar == SourceFile.eof )) {
 
-            commentBody = commentBody.concat(currentChar.toString());
             currentChar = this.sourceFile.getNextChar();
         }
+        int end = this.sourceFile.getCharOffset();
 
-        if(currentChar.equals(SourceFile.eol)){currentChar = sourceFile.getNextChar();}
+        if(currentChar == SourceFile.eol){currentChar = sourceFile.getNextChar();}
 
-        return new Token(Token.Kind.COMMENT, commentBody,
-                this.sourceFile.getCurrentLineNumber());
+        return getCommentToken(Token.Kind.COMMENT, firstChar, "//", start, end);
     }
 
     /**
      * Creates and returns a multi-line comment token
      * @return a token of Kind.COMMENT or Kind.ERROR if it was unclosed
      */
-    private Token getBlockCommentToken(Character prevChar) {
+    private Token getBlockCommentToken(char firstChar, int start) {
 
-        String commentBody = "/*";
+        char prevChar = currentChar;
 
         // move prevChar and currentChar past the "/*"
         for (int i = 0; i < 2; i++) {
             prevChar = currentChar;
             currentChar = this.sourceFile.getNextChar();
         }
+        return finishBlockComment(firstChar, start, prevChar);
+    }
+
+    /**
+     * Scans a block comment from the current char to its end
+     *
+     * @param firstChar the first char of the comment, / or %
+     * @param start the offset of the first char of the comment
+     * @param prevChar the char before the current char
+     * @return a token of Kind.COMMENT or Kind.ERROR if it was unclosed
+     */
+    private Token finishBlockComment(char firstChar, int start, char prevChar) {
+        if (fastRuns && currentChar != SourceFile.eof) {
+            // move to the end of the comment, where the loop below stops
+            currentChar = sourceFile.skipToBlockCommentEnd();
+            prevChar = sourceFile.getPreviousChar();
+        }
 
         boolean commentTerminated = false;
 
         while (!commentTerminated) {
 
-            commentBody = commentBody.concat(prevChar.toString());
-            if (currentChar.equals(SourceFile.eof)) {
+            if (currentChar == SourceFile.eof) {
 
-                this.errorHandler.register(Error.Kind.LEX_ERROR,
-                        this.sourceFile.getFilename(),
-                        this.sourceFile.getCurrentLineNumber(),
-                        "UNTERMINATED BLOCK COMMENT");
+                this.registerError("UNTERMINATED BLOCK COMMENT",
+                        start, this.sourceFile.getCharOffset());
 
-                return new Token(Token.Kind.ERROR,
-                        commentBody.concat(currentChar.toString()),
-                        this.sourceFile.getCurrentLineNumber());
+                // the spelling ends with the eof char
+                return getCommentToken(Token.Kind.ERROR, firstChar, "/*", start,
+                        this.sourceFile.getCharOffset() + 1);
             }
 
-            else if (prevChar.equals('*') && currentChar.equals('/'))
+            else if (prevChar == '*' && currentChar == '/')
                 commentTerminated = true;
 
 
             prevChar = currentChar;
             currentChar = this.sourceFile.getNextChar();
         }
+        // the comment ends at prevChar, the "/" of the "*/"
+        int end = this.sourceFile.getCharOffset();
         currentChar = sourceFile.getNextChar();
-        return new Token(Token.Kind.COMMENT, commentBody.concat(prevChar.toString()),
-                this.sourceFile.getCurrentLineNumber());
+        return getCommentToken(Token.Kind.COMMENT, firstChar, "/*", start, end);
+    }
+
+    /**
+     * Returns a comment token covering the source from start to end.  A comment
+     * opened with % is spelled as if it had been opened with a /.
+     *
+     * @param kind Kind.COMMENT or Kind.ERROR
+     * @param firstChar the first char of the comment, / or %
+     * @param opener the spelling of the comment's first two chars if they started with a /
+     * @param start the offset of the first char of the comment
+     * @param end the offset just past the last char of the comment
+     * @return the comment token
+     */
+    private Token getCommentToken(Token.Kind kind, char firstChar, String opener,
+                                  int start, int end) {
+        if (firstChar == '/') {
+            return makeToken(kind, null, start, end - start);
+        }
+        return makeToken(kind, opener + this.sourceFile.getText(start + 2, end - start - 2),
+                start, end - start);
     }
 
     /**
@@ -289,23 +552,19 @@ public class Scanner
      */
     private Token getBinaryLogicToken() {
 
-        Character prevChar = currentChar;
+        char prevChar = currentChar;
+        int start = this.sourceFile.getCharOffset();
         currentChar = this.sourceFile.getNextChar();
 
-        if (currentChar.equals(prevChar)) {
-            Character temp = currentChar;
+        if (currentChar == prevChar) {
             currentChar = sourceFile.getNextChar();
 
-            String spelling = prevChar.toString().concat(temp.toString());
-            return new Token(Token.Kind.BINARYLOGIC, spelling,
-                    this.sourceFile.getCurrentLineNumber());
+            String spelling = prevChar == '&' ? "&&" : "||";
+            return makeToken(Token.Kind.BINARYLOGIC, spelling, start, 2);
         }
         else {
-            this.errorHandler.register(Error.Kind.LEX_ERROR,
-                    this.sourceFile.getFilename(), this.sourceFile.getCurrentLineNumber(),
-                    "BINARY LOGIC ERROR");
-            return new Token(Token.Kind.ERROR, prevChar.toString(),
-                    this.sourceFile.getCurrentLineNumber());
+            this.registerError("BINARY LOGIC ERROR", start, start + 1);
+            return makeToken(Token.Kind.ERROR, Token.charSpelling(prevChar), start, 1);
         }
     }
 
@@ -315,16 +574,17 @@ public class Scanner
      * @return a token of Kind.COMPARE, could be >, >=, <, <=
      */
     private Token getCompareToken() {
-        Character prevChar = currentChar;
+        char prevChar = currentChar;
+        int start = this.sourceFile.getCharOffset();
         currentChar = this.sourceFile.getNextChar();
 
-        if (currentChar.equals('=')) {
-            String tokenSpelling = prevChar.toString().concat(currentChar.toString());
+        if (currentChar == '=') {
+            String tokenSpelling = prevChar == '<' ? "<=" : ">=";
             currentChar = sourceFile.getNextChar();
-            return new Token(Token.Kind.COMPARE, tokenSpelling, this.sourceFile.getCurrentLineNumber());
+            return makeToken(Token.Kind.COMPARE, tokenSpelling, start, 2);
         }
         else {
-            return new Token(Token.Kind.COMPARE, prevChar.toString(), this.sourceFile.getCurrentLineNumber());
+            return makeToken(Token.Kind.COMPARE, Token.charSpelling(prevChar), start, 1);
         }
     }
 
@@ -334,15 +594,14 @@ public class Scanner
      * @return a token of Kind.COMPARE (if !=) or Kind.UNARYNOT (if just !)
      */
     private Token getUnaryNotOrCompareToken(){
+        int start = this.sourceFile.getCharOffset();
         currentChar = this.sourceFile.getNextChar();
-        if (currentChar.equals('=')){
+        if (currentChar == '='){
             currentChar = sourceFile.getNextChar();
-            return new Token(Token.Kind.COMPARE,
-                    "!=", this.sourceFile.getCurrentLineNumber());
+            return makeToken(Token.Kind.COMPARE, "!=", start, 2);
         }
         else {
-            return new Token(Token.Kind.UNARYNOT,
-                    currentChar.toString(), this.sourceFile.getCurrentLineNumber());
+            return makeToken(Token.Kind.UNARYNOT, "!", start, 1);
         }
     }
 
@@ -353,20 +612,17 @@ public class Scanner
      */
     private Token getEqualsToken() {
 
-        Character prevChar = currentChar;
+        int start = this.sourceFile.getCharOffset();
         currentChar = this.sourceFile.getNextChar();
 
-        if (currentChar.equals(prevChar)) {
+        if (currentChar == '=') {
 
-            String spelling = prevChar.toString().concat(currentChar.toString());
             currentChar = sourceFile.getNextChar();
-            return new Token(Token.Kind.COMPARE, spelling,
-                    this.sourceFile.getCurrentLineNumber());
+            return makeToken(Token.Kind.COMPARE, "==", start, 2);
         }
         else {
 
-            return new Token(Token.Kind.ASSIGN, prevChar.toString(),
-                    this.sourceFile.getCurrentLineNumber());
+            return makeToken(Token.Kind.ASSIGN, "=", start, 1);
         }
     }
 
@@ -377,19 +633,16 @@ public class Scanner
      */
     private Token getPlusToken() {
 
-        Character prevChar = currentChar;
+        int start = this.sourceFile.getCharOffset();
         currentChar = this.sourceFile.getNextChar();
 
-        if (currentChar.equals(prevChar)) {
+        if (currentChar == '+') {
 
-            String spelling = prevChar.toString().concat(currentChar.toString());
             currentChar = sourceFile.getNextChar();
-            return new Token(Token.Kind.UNARYINCR, spelling,
-                    this.sourceFile.getCurrentLineNumber());
+            return makeToken(Token.Kind.UNARYINCR, "++", start, 2);
         }
         else {
-            return new Token(Token.Kind.PLUSMINUS, prevChar.toString(),
-                    this.sourceFile.getCurrentLineNumber());
+            return makeToken(Token.Kind.PLUSMINUS, "+", start, 1);
         }
     }
 
@@ -400,19 +653,16 @@ public class Scanner
      */
     private Token getMinusToken() {
 
-        Character prevChar = currentChar;
+        int start = this.sourceFile.getCharOffset();
         currentChar = this.sourceFile.getNextChar();
 
-        if (currentChar.equals(prevChar)) {
+        if (currentChar == '-') {
 
-            String spelling = prevChar.toString().concat(currentChar.toString());
             currentChar = sourceFile.getNextChar();
-            return new Token(Token.Kind.UNARYDECR, spelling,
-                    this.sourceFile.getCurrentLineNumber());
+            return makeToken(Token.Kind.UNARYDECR, "--", start, 2);
         }
         else {
-            return new Token(Token.Kind.PLUSMINUS, prevChar.toString(),
-                    this.sourceFile.getCurrentLineNumber());
+            return makeToken(Token.Kind.PLUSMINUS, "-", start, 1);
         }
     }
 
@@ -422,54 +672,62 @@ public class Scanner
      * @return token of Kind.INTCONST or Kind.ERROR
      */
     private Token getIntConstToken() {
-        String spelling = "";
+        int start = this.sourceFile.getCharOffset();
+        long value = 0;
         while(Character.isDigit(currentChar)){
-            spelling = spelling.concat(currentChar.toString());
+            if (value <= Integer.MAX_VALUE) {
+                value = value * 10 + Character.digit(currentChar, 10);
+            }
             currentChar = this.sourceFile.getNextChar();
         }
 
-        try {
-                Integer.parseInt(spelling);
-                return new Token(Token.Kind.INTCONST, spelling, this.sourceFile.getCurrentLineNumber());
+        if (value <= Integer.MAX_VALUE) {
+            return getSliceToken(Token.Kind.INTCONST, start);
         }
-        catch (NumberFormatException e){
-            this.errorHandler.register(Error.Kind.LEX_ERROR,
-                    this.sourceFile.getFilename(), this.sourceFile.getCurrentLineNumber(),
-                    "INVALID INTEGER CONSTANT");
-            return new Token(Token.Kind.ERROR, spelling,
-                    this.sourceFile.getCurrentLineNumber());
+        else {
+            this.registerError("INVALID INTEGER CONSTANT", start, this.sourceFile.getCharOffset());
+            return getSliceToken(Token.Kind.ERROR, start);
         }
     }
 
     /**
      * Returns a identifier or keyword token
-     * if it should be a keyword, it will be converted to the appropriate Kind in the
-     * Token constructor
+     * if it should be a keyword, it will be converted to the appropriate Kind
+     * here, using the shared spelling of the keyword.  Identifiers are spelled
+     * with the String the SymbolInterner shares among all their uses.
      *
      * @return a token of Kind.IDENTIFIER or Kind.ERROR if its an invalid character
      */
     private Token getIdentifierOrKeywordToken() {
-        String spelling = "";
-        while(!charsEndingIdentifierOrKeyword.contains(currentChar)){
+        int start = this.sourceFile.getCharOffset();
+        if (fastRuns) {
+            // the ASCII identifier chars; the loop below handles the rest
+            currentChar = sourceFile.skipIdentifierChars();
+        }
+        while(currentChar >= charsEndingIdentifierOrKeyword.length
+                || !charsEndingIdentifierOrKeyword[currentChar]){
 
-            if(Character.isLetterOrDigit(currentChar) || currentChar.equals('_')) {
-                spelling = spelling.concat(currentChar.toString());
+            if(Character.isLetterOrDigit(currentChar) || currentChar == '_') {
                 currentChar = this.sourceFile.getNextChar();
             }
             else{
-                this.errorHandler.register(Error.Kind.LEX_ERROR,
-                        this.sourceFile.getFilename(), this.sourceFile.getCurrentLineNumber(),
-                        "UNSUPPORTED IDENTIFIER CHARACTER");
+                this.registerError("UNSUPPORTED IDENTIFIER CHARACTER",
+                        start, this.sourceFile.getCharOffset() + 1);
 
-                spelling= spelling.concat(currentChar.toString());
+                // the spelling includes the unsupported char
                 currentChar = sourceFile.getNextChar();
-                return new Token(Token.Kind.ERROR, spelling,
-                        this.sourceFile.getCurrentLineNumber());
+                return getSliceToken(Token.Kind.ERROR, start);
             }
         }
 
-
-        return new Token(Token.Kind.IDENTIFIER, spelling, this.sourceFile.getCurrentLineNumber());
+        int length = this.sourceFile.getCharOffset() - start;
+        int symbol = this.symbols.intern(this.sourceFile.getBuffer(),
+                start - this.sourceFile.getBase(), length);
+        if (SymbolInterner.isKeyword(symbol)) {
+            return makeToken(Token.reservedKinds[symbol], Token.reservedSpellings[symbol],
+                    start, length, symbol);
+        }
+        return makeToken(Token.Kind.IDENTIFIER, this.symbols.get(symbol), start, length, symbol);
     }
 
     /**
@@ -480,42 +738,36 @@ public class Scanner
      */
     private Token getStringConstToken() {
 
-        String spelling = "";
-        spelling = spelling.concat(currentChar.toString());
+        int start = this.sourceFile.getCharOffset();
         currentChar = this.sourceFile.getNextChar();
 
         //while the quote is unmatched continue getting chars
-        while(!currentChar.equals('"')){
+        while(currentChar != '"'){
 
             //if you've reached an eof or a new line in a string, throws error
-            if(currentChar.equals(SourceFile.eof) || currentChar.equals('\n')){
-                this.errorHandler.register(Error.Kind.LEX_ERROR,
-                        this.sourceFile.getFilename(), this.sourceFile.getCurrentLineNumber(),
-                        "UNCLOSED QUOTE");
-                return createErrorToken(spelling);
+            if(currentChar == SourceFile.eof || currentChar == '\n'){
+                this.registerError("UNCLOSED QUOTE", start, this.sourceFile.getCharOffset());
+                return getSliceToken(Token.Kind.ERROR, start);
             }
-            else if (currentChar.equals('\\')){
-                spelling = spelling.concat(currentChar.toString());
+            else if (currentChar == '\\'){
+                // the escaped char is part of the string, whatever it is
                 currentChar = this.sourceFile.getNextChar();
             }
             //otherwise add on to the string
-            spelling = spelling.concat(currentChar.toString());
             currentChar = this.sourceFile.getNextChar();
         }
 
         //add on end quote
-        spelling = spelling.concat(currentChar.toString());
         currentChar = sourceFile.getNextChar();
 
         //makes sure the string is less than 5000 chars
-        if(spelling.length()<5000) {
-            return new Token(Token.Kind.STRCONST, spelling, this.sourceFile.getCurrentLineNumber());
+        if(this.sourceFile.getCharOffset() - start < 5000) {
+            return getSliceToken(Token.Kind.STRCONST, start);
         }
         else{
-            this.errorHandler.register(Error.Kind.LEX_ERROR,
-                    this.sourceFile.getFilename(), this.sourceFile.getCurrentLineNumber(),
-                    "STRING EXCEEDS MAX CHAR LENGTH 5000");
-            return createErrorToken(spelling);
+            this.registerError("STRING EXCEEDS MAX CHAR LENGTH 5000",
+                    start, this.sourceFile.getCharOffset());
+            return getSliceToken(Token.Kind.ERROR, start);
         }
     }
 
@@ -537,7 +789,9 @@ public class Scanner
                 ErrorHandler errorHandler = new ErrorHandler();
                 try {
 
-                    scanner = new Scanner(args[i], errorHandler);
+                    // a window keeps the memory used the same however large the file
+                    scanner = new Scanner(args[i], errorHandler,
+                            SourceFile.DEFAULT_WINDOW_SIZE);
 
                 }
                 catch(CompilationException e){
@@ -545,9 +799,8 @@ public class Scanner
                     continue;
                 }
 
-                Token nextToken;
-                while ( (nextToken = scanner.scan()).kind != Token.Kind.EOF) {
-                    System.out.println(nextToken);
+                try (Stream<Token> tokens = scanner.stream()) {
+                    tokens.forEach(System.out::println);
                 }
 
                 if(errorHandler.getErrorList().size() > 0){
@@ -569,4 +822,25 @@ public class Scanner
         return sourceFile.getFilename();
     }
 
+    /**
+     * @return the SymbolInterner identifiers are interned with
+     */
+    public SymbolInterner getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * Builds the table of the offsets the lines of the source start at, for a
+     * SourcePositionIndex.  Not available for a windowed source.
+     *
+     * @return the offsets of the starts of the lines, the first of which is 0
+     */
+    public int[] getLineStarts() {
+        return sourceFile.getLineStarts();
+    }
+
+    SourceFile getSourceFile() {
+        return sourceFile;
+    }
+
 }
\ No newline at end of file
@@ -19,22 +19,61 @@ package proj12AhnSlager.bantam.lexer;
 import proj12AhnSlager.bantam.util.CompilationException;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
 /**
  * A class for extracting the characters, one at a time, from a text file or an
  * InputStream.
+ *
+ * The whole source is decoded once into a char buffer when the SourceFile is
+ * created.  Files are memory-mapped and decoded from UTF-8 directly, with a fast
+ * path for runs of ASCII bytes.  The offsets of the line terminators are found in
+ * a single pass over the buffer, so getNextChar() is just an array read.
+ *
+ * A file can instead be read through a window of a fixed number of chars, for
+ * files too large to hold in memory.  The window slides along the file as the
+ * chars are read, keeping only the chars from the mark on, which the Scanner
+ * sets to the start of the token it is scanning.  The window only grows if a
+ * single token does not fit in it.  Offsets and line numbers are still those of
+ * the whole file, but only the chars in the window can be read as text.
  */
 class SourceFile
 {
+    /**
+     * The number of chars in the window of a windowed SourceFile, unless given
+     */
+    static final int DEFAULT_WINDOW_SIZE = 1 << 16;
+
     static final char eol = '\n';         // end of line character
     private static final char cr = '\r';  // carriage return character
     static final char eof = '\u0000';     // end of file character
 
-    private Reader sourceReader;   // the reader of the file
-    private int currentLineNumber; // for bantam.error messages
-    private int prevChar;          // the previous character read
+    private static final char replacement = '\uFFFD'; // for malformed UTF-8 input
+
+    private char[] buffer;         // the decoded characters of the source
+    private int length;            // the number of characters in the buffer
+    private int pos;               // the offset of the next character to be read
+    private int[] lineBreaks;      // offsets of the characters that start a new line
+    private int numLineBreaks;     // the number of offsets in lineBreaks
+    private int breaksRead;        // the number of line breaks before pos
     private String filename;       // the file currently being scanned.
 
+    // for a windowed source
+    private int base;              // the offset in the source of buffer[0]
+    private int mark;              // the offset of the first char to keep in the window
+    private ReadableByteChannel input; // the rest of the file, null once it is all decoded
+    private boolean inputEnded;    // whether all the bytes of the file have been read
+    private ByteBuffer bytes;      // bytes read but not yet decoded
+    private int breaksDropped;     // the number of line breaks before the window
+    private char charBeforeWindow; // the char just before buffer[0]
+
     /**
      * creates a new SourceFile object for the file with the given name
      * Note:  You should always call isValid() to check that the SourceFile
@@ -43,55 +82,538 @@ class SourceFile
      * @param filename the name of the file to be read.
      */
     public SourceFile(String filename) {
-        try {
-            sourceReader = new FileReader(filename);
-        } catch (FileNotFoundException e) {
+        this.filename = filename;
+        try (FileChannel channel = FileChannel.open(Paths.get(filename),
+                StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new CompilationException("File " + filename + " is too large.");
+            }
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            // a UTF-8 file never has more chars than bytes
+            buffer = new char[(int) size + 1];
+            decodeUTF8(bytes, 0, (int) size, true);
+        } catch (NoSuchFileException | FileNotFoundException e) {
             throw new CompilationException("File " + filename + " not found.");
+        } catch (IOException e) {
+            throw new CompilationException("File " + filename + " could not be read.");
         }
-        currentLineNumber = 1;
-        prevChar = -1;
+        findLineBreaks(0);
+    }
+
+    /**
+     * creates a new SourceFile object that reads the file with the given name
+     * through a window of windowSize chars, so that the file is never all in
+     * memory at once
+     *
+     * @param filename the name of the file to be read.
+     * @param windowSize the number of chars in the window
+     */
+    SourceFile(String filename, int windowSize) {
         this.filename = filename;
+        try {
+            input = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw new CompilationException("File " + filename + " not found.");
+        } catch (IOException e) {
+            throw new CompilationException("File " + filename + " could not be read.");
+        }
+        buffer = new char[Math.max(16, windowSize)];
+        bytes = ByteBuffer.allocate(buffer.length);
+        lineBreaks = new int[16];
     }
 
 
     public SourceFile(Reader in) {
-        sourceReader = in;
-        currentLineNumber = 1;
-        prevChar = -1;
+        buffer = new char[8192];
+        try {
+            int n;
+            while ((n = in.read(buffer, length, buffer.length - length)) != -1) {
+                length += n;
+                if (length == buffer.length) {
+                    char[] bigger = new char[buffer.length * 2];
+                    System.arraycopy(buffer, 0, bigger, 0, length);
+                    buffer = bigger;
+                }
+            }
+        } catch (IOException e) {
+            throw new CompilationException("File " + filename + " could not be read.");
+        }
+        findLineBreaks(0);
+    }
+
+
+    /**
+     * creates a new SourceFile object for text that is already in memory,
+     * such as the unsaved text of an editor.  The chars are copied once into
+     * the buffer, in bulk if the text is a String, StringBuilder or
+     * StringBuffer, since scanning runs over a char array.
+     *
+     * @param filename the name the text is known by, for errors
+     * @param text the text to be read
+     */
+    SourceFile(String filename, CharSequence text) {
+        this.filename = filename;
+        length = text.length();
+        buffer = new char[length + 1];
+        if (text instanceof String) {
+            ((String) text).getChars(0, length, buffer, 0);
+        }
+        else if (text instanceof StringBuilder) {
+            ((StringBuilder) text).getChars(0, length, buffer, 0);
+        }
+        else if (text instanceof StringBuffer) {
+            ((StringBuffer) text).getChars(0, length, buffer, 0);
+        }
+        else {
+            for (int i = 0; i < length; i++) {
+                buffer[i] = text.charAt(i);
+            }
+        }
+        findLineBreaks(0);
+    }
+
+    /**
+     * Creates a SourceFile for a chunk of another one.  It shares the other's
+     * chars and line breaks, so offsets and line numbers are those of the whole
+     * source, but it starts at the chunk's first char and reads the eof char at
+     * the end of the chunk.
+     *
+     * @param source the whole source
+     * @param from the offset of the first char of the chunk
+     * @param to the offset just past the last char of the chunk
+     */
+    SourceFile(SourceFile source, int from, int to) {
+        this(source.filename, source.buffer, to, source.lineBreaks, source.numLineBreaks, from);
+    }
+
+    /**
+     * Creates a SourceFile over chars and line breaks that are already known,
+     * such as those of a document being edited, sharing them
+     *
+     * @param filename the name of the file the chars are from
+     * @param buffer the chars of the source
+     * @param length the number of chars in the source
+     * @param lineBreaks the sorted offsets of the line breaks of the source,
+     *                   as findLineBreaks() finds them
+     * @param numLineBreaks the number of offsets in lineBreaks
+     * @param from the offset of the first char to read
+     */
+    SourceFile(String filename, char[] buffer, int length, int[] lineBreaks,
+               int numLineBreaks, int from) {
+        this.filename = filename;
+        this.buffer = buffer;
+        this.length = length;
+        this.pos = from;
+        this.lineBreaks = lineBreaks;
+        this.numLineBreaks = numLineBreaks;
+        int index = Arrays.binarySearch(lineBreaks, 0, numLineBreaks, from);
+        this.breaksRead = index >= 0 ? index : -index - 1;
     }
 
+    /**
+     * @param buffer some chars
+     * @param i the index of one of them
+     * @return true if the char at i is a cr character, or an eol character
+     * not preceded by a cr character, and so starts a new line
+     */
+    static boolean isLineBreak(char[] buffer, int i) {
+        char c = buffer[i];
+        return c == cr || (c == eol && (i == 0 || buffer[i - 1] != cr));
+    }
 
     public int getCurrentLineNumber() {
-        return currentLineNumber;
+        return getLineNumber(pos - 1);
+    }
+
+    /**
+     * @param offset the offset of a char in the source
+     * @return the line number the scanner reports while that char is the current char,
+     * which counts the line break at offset itself
+     */
+    int getLineNumber(int offset) {
+        // the breaks are sorted and the offsets asked for almost never move
+        // backwards, so these loops run about once per line over the whole scan
+        while (breaksRead < numLineBreaks && lineBreaks[breaksRead] <= offset) {
+            breaksRead++;
+        }
+        while (breaksRead > 0 && lineBreaks[breaksRead - 1] > offset) {
+            breaksRead--;
+        }
+        return breaksDropped + breaksRead + 1;
     }
 
     public String getFilename() { return filename; }
 
     /**
      * Finds and returns the next character in the source file.
-     * If the end of the file has been reached or an exception occurs,
-     * then an exception is thrown.
-     * If the character is the cr character or the eol char not preceded by the cr
-     * character, the current line number is also incremented.
+     * If the end of the file has been reached, the eof character is returned.
+     * The line number is incremented by each cr character and by each eol
+     * character not preceded by a cr character.
      *
      * @return the next character in the source file
      */
     public char getNextChar(){
-        try {
-            int c = sourceReader.read();
+        // pos keeps counting past the end so that every char handed out,
+        // including the eof chars, has its own offset
+        int offset = pos++;
+        if (offset - base < length || (input != null && fill(offset))) {
+            return buffer[offset - base];
+        }
+        return eof;
+    }
 
-            if (c == -1) {
-                c = eof;
-            }
-            else if (c == cr || (c == eol && prevChar != cr)) {
-                currentLineNumber++;
+    /**
+     * Marks the current char as the first one a windowed source must keep
+     * when it slides its window.  The chars before it can no longer be read
+     * as text.
+     */
+    void mark() {
+        mark = pos - 1;
+    }
+
+    /**
+     * Slides the window of a windowed source along until it holds the char at
+     * the given offset, or the end of the file has been reached
+     *
+     * @param offset the offset of the char needed
+     * @return true if the char at the offset is in the window
+     */
+    private boolean fill(int offset) {
+        try {
+            while (offset - base >= length && input != null) {
+                slide();
+                if (!inputEnded && input.read(bytes) < 0) {
+                    inputEnded = true;
+                }
+                int oldLength = length;
+                bytes.flip();
+                bytes.position(decodeUTF8(bytes, 0, bytes.limit(), inputEnded));
+                bytes.compact();
+                findLineBreaks(oldLength);
+                if (inputEnded && bytes.position() == 0) {
+                    input.close();
+                    input = null;
+                }
             }
-            prevChar = c;
-            return (char) c;
         } catch (IOException e) {
             throw new CompilationException("File " + filename + " could not be read.");
         }
+        return offset - base < length;
     }
 
-}
+    /**
+     * Closes the file of a windowed source, if it is still open.  A windowed
+     * source closes its file itself once it has read all of it, so this is
+     * only needed for one that is given up before its end.  The chars in the
+     * window can still be read, but no more of the file.
+     */
+    void close() {
+        if (input == null) {
+            return;
+        }
+        try {
+            input.close();
+        } catch (IOException e) {
+            throw new CompilationException("File " + filename + " could not be closed.");
+        } finally {
+            input = null;
+        }
+    }
 
+    /**
+     * Drops the chars before the mark from the window, and makes room for
+     * more chars, growing the window if what is left fills it
+     */
+    private void slide() {
+        int keep = Math.max(0, Math.min(mark - base, length));
+        if (keep > 0) {
+            charBeforeWindow = buffer[keep - 1];
+            System.arraycopy(buffer, keep, buffer, 0, length - keep);
+            length -= keep;
+            base += keep;
+
+            int dropped = 0;
+            while (dropped < numLineBreaks && lineBreaks[dropped] < base) {
+                dropped++;
+            }
+            System.arraycopy(lineBreaks, dropped, lineBreaks, 0, numLineBreaks - dropped);
+            numLineBreaks -= dropped;
+            breaksDropped += dropped;
+            breaksRead = Math.max(0, breaksRead - dropped);
+        }
+        if (buffer.length - length < buffer.length / 2) {
+            // the token being scanned does not fit in the window
+            char[] bigger = new char[buffer.length * 2];
+            System.arraycopy(buffer, 0, bigger, 0, length);
+            buffer = bigger;
+        }
+    }
+
+    /**
+     * Moves ahead to the given offset, as if getNextChar() had been called
+     * until it returned the char there
+     *
+     * @param offset the offset of the char to move to
+     * @return the char at offset, or the eof char if it is past the end
+     */
+    char skipTo(int offset) {
+        pos = offset;
+        return getNextChar();
+    }
+
+    /**
+     * Moves past the white space from the current char on, as far as the
+     * chars in the buffer go, with CharRuns
+     *
+     * @return the new current char
+     */
+    char skipWhiteSpace() {
+        // before the first char is read, the current char is a blank at offset -1
+        int end = base + CharRuns.skipWhiteSpace(buffer, Math.max(0, pos - 1 - base), length);
+        // the white space need not be kept in the window
+        mark = end;
+        return skipTo(end);
+    }
+
+    /**
+     * Moves past the ASCII identifier chars from the current char on, as
+     * far as the chars in the buffer go, with CharRuns
+     *
+     * @return the new current char
+     */
+    char skipIdentifierChars() {
+        int from = pos - 1 - base;
+        return from < length ? skipTo(base + CharRuns.skipIdentifierChars(buffer, from, length))
+                : eof;
+    }
+
+    /**
+     * Moves to the eol or NUL char that ends a line comment, or as far as
+     * the chars in the buffer go, with CharRuns
+     *
+     * @return the new current char
+     */
+    char skipToLineEnd() {
+        int from = pos - 1 - base;
+        return from < length ? skipTo(base + CharRuns.findLineEnd(buffer, from, length)) : eof;
+    }
+
+    /**
+     * Moves to the "/" or NUL char that ends a block comment, or as far as
+     * the chars in the buffer go, with CharRuns.  The char before the current
+     * char is part of the comment.
+     *
+     * @return the new current char
+     */
+    char skipToBlockCommentEnd() {
+        int from = pos - 1 - base;
+        return from < length ? skipTo(base + CharRuns.findBlockCommentEnd(buffer, from, length))
+                : eof;
+    }
+
+    /**
+     * @return the char before the current char, which must be in the buffer
+     */
+    char getPreviousChar() {
+        return buffer[pos - 2 - base];
+    }
+
+    /**
+     * @return the offset of the char most recently returned by getNextChar().
+     * Offsets at or past the end of the source belong to eof chars.
+     */
+    int getCharOffset() {
+        return pos - 1;
+    }
+
+    /**
+     * Builds the table of the offsets the lines of the source start at.  A
+     * line starts just after a line break, and just after the eol char of a
+     * cr character followed by an eol character.
+     *
+     * @return the offsets of the starts of the lines, the first of which is 0
+     * @throws IllegalStateException if the source is windowed, since a
+     * windowed source forgets the line breaks of the chars it has passed
+     */
+    int[] getLineStarts() {
+        if (isWindowed()) {
+            throw new IllegalStateException("A windowed source does not keep its line breaks");
+        }
+        int[] starts = new int[numLineBreaks + 1];
+        for (int i = 0; i < numLineBreaks; i++) {
+            int lineBreak = lineBreaks[i];
+            starts[i + 1] = lineBreak + 1 < length && buffer[lineBreak] == cr
+                    && buffer[lineBreak + 1] == eol ? lineBreak + 2 : lineBreak + 1;
+        }
+        return starts;
+    }
+
+    /**
+     * @return the buffer holding the chars of the source.  Only the first
+     * getLength() chars are valid.  For a windowed source it holds the chars of
+     * the window, the first of which is at offset getBase().
+     */
+    char[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return the offset in the source of the first char in the buffer, which
+     * is 0 unless the source is windowed
+     */
+    int getBase() {
+        return base;
+    }
+
+    /**
+     * @return the number of chars in the source, or in the window of a windowed source
+     */
+    int getLength() {
+        return length;
+    }
+
+    /**
+     * @return true if the source is read through a window
+     */
+    boolean isWindowed() {
+        return bytes != null;
+    }
+
+    /**
+     * @param offset the offset of a char of the source that is in the buffer
+     * @return the char
+     */
+    char charAt(int offset) {
+        return buffer[offset - base];
+    }
+
+    /**
+     * Builds a String from a slice of the source.  Offsets at or past the end
+     * of the source read as eof chars, the same as getNextChar() returns there.
+     *
+     * @param offset the offset of the first char of the slice
+     * @param count  the number of chars in the slice
+     * @return the chars of the slice
+     */
+    String getText(int offset, int count) {
+        int index = offset - base;
+        if (index + count <= length) {
+            return new String(buffer, index, count);
+        }
+        char[] text = new char[count];
+        int inBuffer = Math.max(0, Math.min(count, length - index));
+        if (inBuffer > 0) {
+            System.arraycopy(buffer, index, text, 0, inBuffer);
+        }
+        return new String(text);
+    }
+
+    /**
+     * Decodes UTF-8 bytes into the char buffer, after the chars already in it.
+     * ASCII bytes are copied straight across; multi-byte sequences are decoded
+     * by hand and malformed sequences are replaced by U+FFFD.  Decoding stops
+     * early if the buffer fills up, or, unless the bytes are the end of the
+     * input, before a sequence that may go on in bytes not read yet.
+     *
+     * @param bytes the bytes to decode
+     * @param i     the index of the first byte to decode
+     * @param size  the index just past the last byte to decode
+     * @param endOfInput whether the bytes run to the end of the file
+     * @return the index of the first byte not decoded
+     */
+    private int decodeUTF8(ByteBuffer bytes, int i, int size, boolean endOfInput) {
+        char[] chars = buffer;
+        int n = length;
+        // a sequence decodes to at most two chars
+        int limit = chars.length - 1;
+        while (i < size && n < limit) {
+            // fast path: a run of ASCII bytes
+            byte b;
+            while (i < size && n < limit && (b = bytes.get(i)) >= 0) {
+                chars[n++] = (char) b;
+                i++;
+            }
+            if (i == size || n == limit) {
+                break;
+            }
+
+            int lead = bytes.get(i) & 0xFF;
+            int needed;
+            int codePoint;
+            if (lead >= 0xC2 && lead <= 0xDF) {
+                needed = 1;
+                codePoint = lead & 0x1F;
+            }
+            else if (lead >= 0xE0 && lead <= 0xEF) {
+                needed = 2;
+                codePoint = lead & 0x0F;
+            }
+            else if (lead >= 0xF0 && lead <= 0xF4) {
+                needed = 3;
+                codePoint = lead & 0x07;
+            }
+            else {
+                chars[n++] = replacement;
+                i++;
+                continue;
+            }
+
+            int j = 1;
+            while (j <= needed && i + j < size && (bytes.get(i + j) & 0xC0) == 0x80) {
+                codePoint = (codePoint << 6) | (bytes.get(i + j) & 0x3F);
+                j++;
+            }
+            if (j <= needed && i + j == size && !endOfInput) {
+                // the rest of the sequence has not been read yet
+                break;
+            }
+            if (j <= needed || (needed == 2 && (codePoint < 0x800 ||
+                    Character.isSurrogate((char) codePoint))) ||
+                    (needed == 3 && (codePoint < 0x10000 || codePoint > 0x10FFFF))) {
+                // truncated, overlong or otherwise invalid sequence
+                chars[n++] = replacement;
+                i += j;
+                continue;
+            }
+            if (needed == 3) {
+                chars[n++] = Character.highSurrogate(codePoint);
+                chars[n++] = Character.lowSurrogate(codePoint);
+            }
+            else {
+                chars[n++] = (char) codePoint;
+            }
+            i += j;
+        }
+        length = n;
+        return i;
+    }
+
+    /**
+     * Records, in one pass over the buffer from the given index, the offset of
+     * every cr character and of every eol character not preceded by a cr character.
+     *
+     * @param from the index of the first char in the buffer not looked at yet
+     */
+    private void findLineBreaks(int from) {
+        int[] breaks = lineBreaks != null ? lineBreaks : new int[Math.max(16, length / 32)];
+        int count = numLineBreaks;
+        for (int i = from; i < length; i++) {
+            char c = buffer[i];
+            if (c > cr) {
+                continue;
+            }
+            if (c == cr || (c == eol && (i == 0 ? charBeforeWindow : buffer[i - 1]) != cr)) {
+                if (count == breaks.length) {
+                    int[] bigger = new int[breaks.length * 2];
+                    System.arraycopy(breaks, 0, bigger, 0, count);
+                    breaks = bigger;
+                }
+                breaks[count++] = base + i;
+            }
+        }
+        lineBreaks = breaks;
+        numLineBreaks = count;
+    }
+
+}
@@ -0,0 +1,313 @@
+/**
+ * Filename: TableScanner
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.lexer;
+
+import proj12AhnSlager.bantam.util.CompilationException;
+import proj12AhnSlager.bantam.util.Error;
+import proj12AhnSlager.bantam.util.ErrorHandler;
+import proj12AhnSlager.bantam.util.SymbolInterner;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A Scanner that runs the DFA generated from the LexerSpec instead of the
+ * hand-written scanning methods.  Each token is scanned by one loop that
+ * looks up the class of each char and the state it moves to in the spec's
+ * tables; the work particular to a kind of token is done once, when the loop
+ * stops.  It produces exactly the tokens and errors the Scanner does, which
+ * main() checks over a corpus of files.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class TableScanner extends Scanner
+{
+    private static final LexerSpec spec = LexerSpec.BANTAM;
+
+    private ErrorHandler errorHandler;
+    private SymbolInterner symbols;
+    private SourceFile sourceFile;
+    private char[] buffer;
+    private int length;
+    private int pos;                // the offset of the current char
+    private TokenBuffer target;     // while scanning into a TokenBuffer, where the token goes
+    private Token.Kind lastKind;    // the kind of the token most recently scanned
+
+    /**
+     *
+     * @param filename the name of the file to be scanned
+     * @param handler an ErrorHandler
+     */
+    public TableScanner(String filename, ErrorHandler handler) {
+        this(filename, handler, new SymbolInterner());
+    }
+
+    /**
+     *
+     * @param filename the name of the file to be scanned
+     * @param handler an ErrorHandler
+     * @param symbols the SymbolInterner of the compilation, to intern identifiers with
+     */
+    public TableScanner(String filename, ErrorHandler handler, SymbolInterner symbols) {
+        super(filename, handler, symbols);
+        errorHandler = handler;
+        setSourceFile(getSourceFile());
+    }
+
+    /**
+     *
+     * @param reader a Reader linked to existing File to be scanned
+     * @param handler an ErrorHandler
+     */
+    public TableScanner(Reader reader, ErrorHandler handler) {
+        super(reader, handler);
+        errorHandler = handler;
+        setSourceFile(getSourceFile());
+    }
+
+    private void setSourceFile(SourceFile sourceFile) {
+        this.sourceFile = sourceFile;
+        this.buffer = sourceFile.getBuffer();
+        this.length = sourceFile.getLength();
+        this.symbols = getSymbols();
+    }
+
+    /** Each call of this method builds the next Token from the contents
+     * of the file being scanned and returns it. When it reaches the end of the
+     * file, any calls to scan() result in a Token of kind EOF.
+     */
+    @Override
+    public Token scan() {
+        return next();
+    }
+
+    @Override
+    Token.Kind scanInto(TokenBuffer tokens) {
+        target = tokens;
+        try {
+            next();
+        }
+        finally {
+            target = null;
+        }
+        return lastKind;
+    }
+
+    @Override
+    public Token createErrorToken(String spelling) {
+        return new Token(Token.Kind.ERROR, spelling, sourceFile.getLineNumber(pos));
+    }
+
+    /**
+     * Runs the DFA from the current char until it stops and builds the token
+     * for the state it stopped in
+     *
+     * @return the token, or null if it went into a TokenBuffer
+     */
+    private Token next() {
+        final char[] charClass = spec.charClass;
+        final byte[] transitions = spec.transitions;
+        final int numClasses = spec.numClasses;
+        final char[] buffer = this.buffer;
+        final int length = this.length;
+
+        int pos = this.pos;
+        int start = pos;
+        int state = 0;
+        while (true) {
+            char c = pos < length ? buffer[pos] : SourceFile.eof;
+            int next = transitions[state * numClasses + charClass[c]];
+            if (next < 0) {
+                break;
+            }
+            pos++;
+            if (next == 0) {
+                // white space, so the token starts after it
+                start = pos;
+            }
+            state = next;
+        }
+        this.pos = pos;
+        return accept(spec.accepts[state], start);
+    }
+
+    /**
+     * Builds the token described by the given Accept, which starts at start
+     * and ends at the current char
+     */
+    private Token accept(LexerSpec.Accept accept, int start) {
+        int end = pos + accept.endAdjust;
+        Token.Kind kind = accept.kind;
+        String spelling = accept.spelling;
+        int symbol = -1;
+        if (accept.slashOpener && buffer[start] == '%') {
+            spelling = "/" + sourceFile.getText(start + 1, end - start - 1);
+        }
+
+        switch (accept.check) {
+            case RESERVED_WORD:
+                symbol = symbols.intern(buffer, start, end - start);
+                if (SymbolInterner.isKeyword(symbol)) {
+                    kind = Token.reservedKinds[symbol];
+                    spelling = Token.reservedSpellings[symbol];
+                }
+                else {
+                    spelling = symbols.get(symbol);
+                }
+                break;
+            case INT_RANGE:
+                if (!isIntInRange(start, end)) {
+                    kind = Token.Kind.ERROR;
+                    registerError(accept.check.error, pos, start, end);
+                }
+                break;
+            case STRING_LENGTH:
+                if (end - start >= 5000) {
+                    kind = Token.Kind.ERROR;
+                    registerError(accept.check.error, pos, start, end);
+                }
+                break;
+            default:
+                break;
+        }
+        if (accept.error != null) {
+            // an unterminated comment ends with the eof char, which the error leaves out
+            registerError(accept.error, accept.errorAtLastChar ? pos - 1 : pos, start,
+                    Math.min(end, pos));
+        }
+
+        lastKind = kind;
+        int position = sourceFile.getLineNumber(pos);
+        if (target != null) {
+            target.add(kind, spelling, start, end - start, position, symbol);
+            return null;
+        }
+        Token token = spelling == null ? new Token(kind, sourceFile, start, end - start, position)
+                : new Token(kind, spelling, start, end - start, position);
+        token.symbol = symbol;
+        return token;
+    }
+
+    /**
+     * @return true if the digits from start to end are at most Integer.MAX_VALUE
+     */
+    private boolean isIntInRange(int start, int end) {
+        long value = 0;
+        for (int i = start; i < end && value <= Integer.MAX_VALUE; i++) {
+            value = value * 10 + Character.digit(buffer[i], 10);
+        }
+        return value <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Registers a lexical error about some chars
+     *
+     * @param message the error message
+     * @param offset the offset of the char whose line the error is at
+     * @param start the offset of the first char the error is about
+     * @param end the offset just past the last char the error is about
+     */
+    private void registerError(String message, int offset, int start, int end) {
+        errorHandler.register(Error.Kind.LEX_ERROR, sourceFile.getFilename(),
+                sourceFile.getLineNumber(offset), start, end, message);
+    }
+
+    /**
+     * Scans a file with both the Scanner and the TableScanner and compares
+     * their tokens, including where each token is in the source, and their
+     * errors.  The first difference found is printed.
+     *
+     * @param filename the file to scan
+     * @param out where to print a difference
+     * @return true if the two scanners agree
+     */
+    public static boolean verify(String filename, PrintStream out) {
+        ErrorHandler expectedErrors = new ErrorHandler();
+        ErrorHandler actualErrors = new ErrorHandler();
+        Scanner expectedScanner = new Scanner(filename, expectedErrors);
+        Scanner actualScanner = new TableScanner(filename, actualErrors);
+
+        for (int i = 0; ; i++) {
+            Token expected = expectedScanner.scan();
+            Token actual = actualScanner.scan();
+            if (expected.kind != actual.kind || expected.position != actual.position
+                    || !expected.getSpelling().equals(actual.getSpelling())
+                    || expected.offset != actual.offset || expected.length != actual.length
+                    || expected.symbol != actual.symbol) {
+                out.println(filename + ": token " + i + " differs: expected " +
+                        describe(expected) + " but found " + describe(actual));
+                return false;
+            }
+            if (expected.kind == Token.Kind.EOF) {
+                break;
+            }
+        }
+
+        List<String> expected = expectedErrors.getErrorList().stream()
+                .map(TableScanner::describe).collect(Collectors.toList());
+        List<String> actual = actualErrors.getErrorList().stream()
+                .map(TableScanner::describe).collect(Collectors.toList());
+        if (!expected.equals(actual)) {
+            out.println(filename + ": errors differ: expected " + expected +
+                    " but found " + actual);
+            return false;
+        }
+        return true;
+    }
+
+    private static String describe(Token token) {
+        return token + " at [" + token.offset + ", " + token.length + "]";
+    }
+
+    private static String describe(Error error) {
+        return error + " at [" + error.getStartOffset() + ", " + error.getEndOffset() + ")";
+    }
+
+    /**
+     * Verifies the TableScanner against the Scanner over every file named, and
+     * every file in the directories named, and prints a summary.
+     *
+     * @param args command line file and directory arguments
+     */
+    public static void main(String[] args) {
+        List<String> filenames = new ArrayList<>();
+        for (String arg : args) {
+            try (Stream<Path> paths = Files.walk(Paths.get(arg))) {
+                paths.filter(Files::isRegularFile).sorted()
+                        .forEach(path -> filenames.add(path.toString()));
+            }
+            catch (IOException e) {
+                System.out.println("Could not read " + arg);
+            }
+        }
+
+        int differing = 0;
+        for (String filename : filenames) {
+            try {
+                if (!verify(filename, System.out)) {
+                    differing++;
+                }
+            }
+            catch (CompilationException e) {
+                System.out.println(e);
+                differing++;
+            }
+        }
+        System.out.println("Verified " + filenames.size() + " files: " +
+                (differing == 0 ? "the scanners agree on all of them." :
+                        differing + " differ."));
+    }
+
+}
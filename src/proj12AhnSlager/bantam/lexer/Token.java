@@ -15,16 +15,51 @@
 
  package proj12AhnSlager.bantam.lexer;
 
- import java.util.Set;
+ import proj12AhnSlager.bantam.util.SymbolInterner;
 
  public class Token
  {
      //instance variables
      public Kind kind;
-     public String spelling; // the actual sequence of chars in the token
      public int position; // the line number where the token was found
 
+     // the actual sequence of chars in the token, or null until it is first asked
+     // for if the token is a slice of the source
+     private String spelling;
+     private SourceFile source;  // the source the token was sliced from, if any
+     int offset;                 // the offset of the token's first char in the source
+     int length;                 // the number of source chars in the token
+     int symbol = -1;            // the symbol id of an identifier or keyword, else -1
+
+     /**
+      * @return the id the SymbolInterner gave the spelling of this identifier
+      * or keyword, or -1 if it is some other kind of token
+      */
+     public int getSymbol() {
+         return symbol;
+     }
+
+     /**
+      * @return the offset of the token's first char in the source, or -1 if
+      * the token was not scanned from a source
+      */
+     public int getStartOffset() {
+         return offset;
+     }
+
+     /**
+      * @return the offset just past the token's last char in the source, or
+      * -1 if the token was not scanned from a source
+      */
+     public int getEndOffset() {
+         return offset < 0 ? -1 : offset + length;
+     }
+
      public String getSpelling() {
+         if (spelling == null) {
+             spelling = source.getText(offset, length);
+             source = null;
+         }
          return spelling;
      }
 
@@ -33,21 +68,41 @@
      Token(Kind kind, String spelling, int position) {
          this.spelling = spelling;
          this.position = position;
+         this.offset = -1;
 
          // patch the kind in the case of boolean constants and keywords
-         if (kind == Kind.IDENTIFIER && (spelling.equals("true") || spelling.equals("false"))) {
-             this.kind = Kind.BOOLEAN;
-         }
-         else if (kind == Kind.IDENTIFIER && reservedWords.contains(spelling)) {
-             this.kind = Enum.valueOf(Kind.class, spelling.toUpperCase());
-         }
-         else {
-             this.kind = kind;
-         }
+         int keyword = kind == Kind.IDENTIFIER ? SymbolInterner.keywords.indexOf(spelling) : -1;
+         this.kind = keyword >= 0 ? reservedKinds[keyword] : kind;
+     }
+
+     /**
+      * creates a token whose spelling is the given slice of the source.
+      * The spelling is only built if getSpelling() is called.
+      * The kind must already be final (keywords and boolean constants resolved).
+      */
+     Token(Kind kind, SourceFile source, int offset, int length, int position) {
+         this.kind = kind;
+         this.source = source;
+         this.offset = offset;
+         this.length = length;
+         this.position = position;
+     }
+
+     /**
+      * creates a token covering the given slice of the source but with a
+      * spelling that is already known, e.g. a shared punctuation spelling.
+      * The kind must already be final (keywords and boolean constants resolved).
+      */
+     Token(Kind kind, String spelling, int offset, int length, int position) {
+         this.kind = kind;
+         this.spelling = spelling;
+         this.offset = offset;
+         this.length = length;
+         this.position = position;
      }
 
      public String toString() {
-         return "Token: Kind=" + kind.name() + ", spelling=" + spelling + ", " +
+         return "Token: Kind=" + kind.name() + ", spelling=" + getSpelling() + ", " +
                  "position=" + position;
      }
 
@@ -75,7 +130,30 @@
          RETURN, WHILE
      }
 
-     private static Set<String> reservedWords = Set.of("break", "cast", "class", "var",
-             "else", "extends", "for", "if", "instanceof", "new", "return", "while");
+     // the kind of token of each reserved word and boolean constant, indexed by
+     // its symbol id; the words double as the shared spellings of those tokens.
+     static final String[] reservedSpellings = SymbolInterner.keywords.toArray(new String[0]);
+     static final Kind[] reservedKinds = {Kind.BREAK, Kind.CAST, Kind.CLASS, Kind.VAR,
+             Kind.ELSE, Kind.EXTENDS, Kind.FOR, Kind.IF, Kind.INSTANCEOF, Kind.NEW,
+             Kind.RETURN, Kind.WHILE, Kind.BOOLEAN, Kind.BOOLEAN};
+
+     // shared spellings of the single ASCII chars
+     private static final String[] asciiSpellings = new String[128];
+
+     static {
+         for (int c = 0; c < asciiSpellings.length; c++) {
+             asciiSpellings[c] = String.valueOf((char) c).intern();
+         }
+     }
+
+     /**
+      * Returns the spelling of a single char, shared for ASCII chars.
+      *
+      * @param c the char
+      * @return a String containing just c
+      */
+     static String charSpelling(char c) {
+         return c < asciiSpellings.length ? asciiSpellings[c] : String.valueOf(c);
+     }
 
  }
\ No newline at end of file
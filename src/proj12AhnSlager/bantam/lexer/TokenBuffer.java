@@ -0,0 +1,424 @@
+/**
+ * Filename: TokenBuffer
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.lexer;
+
+import proj12AhnSlager.bantam.util.SymbolInterner;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Holds all the tokens of one source file in parallel primitive arrays:
+ * the ordinal of each token's kind, the offset and length of its slice of the
+ * source, and its line number.  Spellings are built from the source only when
+ * they are asked for, so a whole file of tokens is a handful of objects.
+ *
+ * A buffer can be filled all at once with scanAll(), or lazily from a Scanner,
+ * in which case tokens are scanned only as far as they have been looked at.
+ * Either way the buffer ends with exactly one EOF token, and asking for a
+ * token past the end gives that EOF token again, just as Scanner.scan() keeps
+ * returning EOF tokens.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class TokenBuffer
+{
+    private static final Token.Kind[] kinds = Token.Kind.values();
+
+    private byte[] kind;          // the ordinal of the kind of each token
+    private int[] start;          // the offset of each token in the source
+    private int[] length;         // the number of source chars in each token
+    private int[] line;           // the line number (position) of each token
+    private int[] symbol;         // the symbol id of each identifier or keyword, else -1
+    private String[] spellings;   // spellings known when scanned, null for slices
+    private int size;             // the number of tokens in the buffer
+
+    private SourceFile source;
+    private SymbolInterner symbols;
+    private Scanner scanner;      // scans more tokens on demand, null once EOF is read
+    private String filename;
+
+    private int cachedIndex = -1; // the last slice spelling built, since callers
+    private String cachedSpelling; // tend to ask for the same one repeatedly
+
+    /**
+     * Creates a buffer that is filled from the given scanner as tokens are
+     * looked at.  Lexical errors are therefore reported to the scanner's
+     * ErrorHandler in step with whoever is reading the tokens.
+     *
+     * @param scanner the Scanner whose tokens fill this buffer
+     */
+    public TokenBuffer(Scanner scanner) {
+        this(scanner.getSourceFile(), scanner.getSymbols(),
+                Math.max(16, scanner.getSourceFile().getLength() / 4));
+        this.scanner = scanner;
+    }
+
+    /**
+     * Creates an empty buffer whose tokens are added by whoever created it
+     *
+     * @param source the source the tokens are slices of
+     * @param symbols the SymbolInterner the identifiers were interned with
+     * @param capacity the number of tokens there is room for at first
+     */
+    TokenBuffer(SourceFile source, SymbolInterner symbols, int capacity) {
+        this.source = source;
+        this.symbols = symbols;
+        this.filename = source.getFilename();
+        capacity = Math.max(16, capacity);
+        kind = new byte[capacity];
+        start = new int[capacity];
+        length = new int[capacity];
+        line = new int[capacity];
+        symbol = new int[capacity];
+        spellings = new String[capacity];
+    }
+
+    /**
+     * Creates a buffer over the same tokens as the given complete buffer
+     */
+    private TokenBuffer(TokenBuffer tokens) {
+        this.kind = tokens.kind;
+        this.start = tokens.start;
+        this.length = tokens.length;
+        this.line = tokens.line;
+        this.symbol = tokens.symbol;
+        this.spellings = tokens.spellings;
+        this.size = tokens.size;
+        this.source = tokens.source;
+        this.symbols = tokens.symbols;
+        this.filename = tokens.filename;
+    }
+
+    /**
+     * Scans the whole source of the given scanner into a new buffer
+     *
+     * @param scanner the Scanner to read all the tokens from
+     * @return the filled buffer
+     */
+    public static TokenBuffer scanAll(Scanner scanner) {
+        TokenBuffer tokens = new TokenBuffer(scanner);
+        tokens.fill(Integer.MAX_VALUE);
+        return tokens;
+    }
+
+    /**
+     * Gives another thread its own view of the tokens of a complete buffer.
+     * The view shares the token arrays, which no longer change, but has its
+     * own cache of the last spelling built, so that the two can be read at
+     * the same time.
+     *
+     * @return a buffer over the same tokens
+     */
+    public TokenBuffer share() {
+        if (!isComplete()) {
+            throw new IllegalStateException("Only a complete buffer can be shared");
+        }
+        return new TokenBuffer(this);
+    }
+
+    /**
+     * @return the number of tokens scanned so far, including the EOF token
+     * if it has been reached
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the whole source has been scanned
+     */
+    public boolean isComplete() {
+        return scanner == null;
+    }
+
+    /**
+     * @return the SymbolInterner the identifiers were interned with
+     */
+    public SymbolInterner getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * @return the name of the file the tokens came from
+     */
+    public String getFilename() {
+        return filename;
+    }
+
+    /**
+     * @return the offsets of the starts of the lines of the source, the first
+     * of which is 0, for a SourcePositionIndex
+     */
+    public int[] getLineStarts() {
+        return source.getLineStarts();
+    }
+
+    /**
+     * @param i the index of a token
+     * @return the kind of the i-th token
+     */
+    public Token.Kind kind(int i) {
+        i = index(i);
+        return kinds[kind[i]];
+    }
+
+    /**
+     * @param i the index of a token
+     * @return the line number of the i-th token
+     */
+    public int line(int i) {
+        i = index(i);
+        return line[i];
+    }
+
+    /**
+     * @param i the index of a token
+     * @return the offset in the source of the i-th token's first char
+     */
+    public int start(int i) {
+        i = index(i);
+        return start[i];
+    }
+
+    /**
+     * @param i the index of a token
+     * @return the number of source chars in the i-th token
+     */
+    public int length(int i) {
+        i = index(i);
+        return length[i];
+    }
+
+    /**
+     * @param i the index of a token
+     * @return the symbol id of the i-th token if it is an identifier or
+     * keyword, else -1
+     */
+    public int symbol(int i) {
+        i = index(i);
+        return symbol[i];
+    }
+
+    /**
+     * @param i the index of a token
+     * @return the spelling of the i-th token
+     */
+    public String spelling(int i) {
+        i = index(i);
+        if (spellings[i] != null) {
+            return spellings[i];
+        }
+        if (i != cachedIndex) {
+            cachedSpelling = source.getText(start[i], length[i]);
+            cachedIndex = i;
+        }
+        return cachedSpelling;
+    }
+
+    /**
+     * Gives the first char of a token without building its spelling, which
+     * with the token's kind and length tells the operators apart
+     *
+     * @param i the index of a token
+     * @return the first char of the i-th token, or 0 if it has none
+     */
+    public char firstChar(int i) {
+        i = index(i);
+        if (spellings[i] != null) {
+            return spellings[i].isEmpty() ? 0 : spellings[i].charAt(0);
+        }
+        return length[i] == 0 ? 0 : source.charAt(start[i]);
+    }
+
+    /**
+     * @param i the index of a scanned token
+     * @return the spelling the i-th token was scanned with, or null if it is
+     * its slice of the source
+     */
+    String knownSpelling(int i) {
+        return spellings[i];
+    }
+
+    /**
+     * Builds a Token object for the i-th token, for callers that want one
+     *
+     * @param i the index of a token
+     * @return the i-th token
+     */
+    public Token token(int i) {
+        i = index(i);
+        Token token = spellings[i] != null
+                ? new Token(kinds[kind[i]], spellings[i], start[i], length[i], line[i])
+                : new Token(kinds[kind[i]], source, start[i], length[i], line[i]);
+        token.symbol = symbol[i];
+        return token;
+    }
+
+    /**
+     * Makes sure the i-th token has been scanned and returns the index to use
+     * for it, which is the index of the EOF token if i is past the end.
+     * Scanning may replace the arrays, so call this before reading them.
+     */
+    private int index(int i) {
+        if (i >= size) {
+            fill(i);
+            if (i >= size) {
+                return size - 1;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Scans tokens until there are more than i of them or EOF is reached
+     */
+    private void fill(int i) {
+        while (scanner != null && size <= i) {
+            if (scanner.scanInto(this) == Token.Kind.EOF) {
+                scanner = null;
+            }
+        }
+    }
+
+    /**
+     * Empties the buffer so it can be filled again, keeping its arrays
+     */
+    void clear() {
+        size = 0;
+        cachedIndex = -1;
+        cachedSpelling = null;
+    }
+
+    /**
+     * Appends a token to the buffer.  Called by the Scanner.
+     *
+     * @param kind     the kind of the token
+     * @param spelling the spelling of the token, or null if it is its slice of the source
+     * @param start    the offset of the token in the source
+     * @param length   the number of source chars in the token
+     * @param line     the line number of the token
+     * @param symbol   the symbol id of an identifier or keyword, else -1
+     */
+    void add(Token.Kind kind, String spelling, int start, int length, int line, int symbol) {
+        if (size == this.kind.length) {
+            grow();
+        }
+        this.kind[size] = (byte) kind.ordinal();
+        this.spellings[size] = spelling;
+        this.start[size] = start;
+        this.length[size] = length;
+        this.line[size] = line;
+        this.symbol[size] = symbol;
+        size++;
+    }
+
+    private void grow() {
+        int capacity = kind.length * 2;
+        byte[] newKind = new byte[capacity];
+        System.arraycopy(kind, 0, newKind, 0, size);
+        kind = newKind;
+        start = copyOf(start, capacity);
+        length = copyOf(length, capacity);
+        line = copyOf(line, capacity);
+        symbol = copyOf(symbol, capacity);
+        String[] newSpellings = new String[capacity];
+        System.arraycopy(spellings, 0, newSpellings, 0, size);
+        spellings = newSpellings;
+    }
+
+    /**
+     * @return the number of bytes writeTo() writes
+     */
+    public int serializedSize() {
+        int bytes = symbols.serializedSize() + 4 + size + 4 * 4 * size + 4;
+        for (int i = 0; i < size; i++) {
+            if (spellings[i] != null) {
+                bytes += 8 + 2 * spellings[i].length();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the tokens of a complete buffer, and the symbols of its interner,
+     * for readFrom() to read back.  The spellings that are slices of the
+     * source are not written, since the source is read again.
+     *
+     * @param out the buffer to write to
+     */
+    public void writeTo(ByteBuffer out) {
+        if (!isComplete()) {
+            throw new IllegalStateException("Only a complete buffer can be written");
+        }
+        symbols.writeTo(out);
+        out.putInt(size);
+        out.put(kind, 0, size);
+        for (int[] array : new int[][]{start, length, line, symbol}) {
+            out.asIntBuffer().put(array, 0, size);
+            out.position(out.position() + 4 * size);
+        }
+        int numSpellings = 0;
+        for (int i = 0; i < size; i++) {
+            if (spellings[i] != null) {
+                numSpellings++;
+            }
+        }
+        out.putInt(numSpellings);
+        for (int i = 0; i < size; i++) {
+            if (spellings[i] != null) {
+                out.putInt(i);
+                out.putInt(spellings[i].length());
+                for (int j = 0; j < spellings[i].length(); j++) {
+                    out.putChar(spellings[i].charAt(j));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the tokens of a file written by writeTo(), such as from a
+     * memory-mapped file, without scanning the file.  The file is read again
+     * for the spellings of the tokens.
+     *
+     * @param in       the buffer to read from
+     * @param filename the name of the file the tokens were scanned from
+     * @param symbols  the interner to intern the symbols in
+     * @return the complete buffer
+     */
+    public static TokenBuffer readFrom(ByteBuffer in, String filename, SymbolInterner symbols) {
+        int[] ids = symbols.readFrom(in);
+        int size = in.getInt();
+        TokenBuffer tokens = new TokenBuffer(new SourceFile(filename), symbols, size);
+        tokens.size = size;
+        in.get(tokens.kind, 0, size);
+        for (int[] array : new int[][]{tokens.start, tokens.length, tokens.line, tokens.symbol}) {
+            in.asIntBuffer().get(array, 0, size);
+            in.position(in.position() + 4 * size);
+        }
+        for (int i = 0; i < size; i++) {
+            if (tokens.symbol[i] >= 0) {
+                tokens.symbol[i] = ids[tokens.symbol[i]];
+            }
+        }
+        int numSpellings = in.getInt();
+        for (int n = 0; n < numSpellings; n++) {
+            int i = in.getInt();
+            char[] chars = new char[in.getInt()];
+            in.asCharBuffer().get(chars);
+            in.position(in.position() + 2 * chars.length);
+            tokens.spellings[i] = new String(chars);
+        }
+        return tokens;
+    }
+
+    private int[] copyOf(int[] array, int capacity) {
+        int[] copy = new int[capacity];
+        System.arraycopy(array, 0, copy, 0, size);
+        return copy;
+    }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * Filename: TokenCursor
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.lexer;
+
+/**
+ * A cursor that steps through the tokens of a Scanner one at a time without
+ * building a Token object for each.  The current token is scanned into a
+ * one-token TokenBuffer that is reused for every token, so with a windowed
+ * Scanner a whole file can be read token by token in a fixed amount of memory.
+ *
+ * <pre>
+ *     try (TokenCursor cursor = new TokenCursor(new Scanner(filename, handler, windowSize))) {
+ *         while (cursor.next()) {
+ *             ... cursor.kind() ... cursor.spelling() ...
+ *         }
+ *     }
+ * </pre>
+ *
+ * Closing the cursor closes its Scanner, and so the file of a windowed one,
+ * which is otherwise only closed once the EOF token has been reached.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class TokenCursor implements AutoCloseable
+{
+    private Scanner scanner;      // null once the EOF token has been scanned
+    private TokenBuffer current;  // holds just the current token
+
+    /**
+     *
+     * @param scanner the Scanner to take the tokens from
+     */
+    public TokenCursor(Scanner scanner) {
+        this.scanner = scanner;
+        this.current = new TokenBuffer(scanner.getSourceFile(), scanner.getSymbols(), 1);
+    }
+
+    /**
+     * Moves to the next token.  The last token is the EOF token.
+     *
+     * @return true if there was another token, false once past the EOF token
+     */
+    public boolean next() {
+        if (scanner == null) {
+            return false;
+        }
+        current.clear();
+        if (scanner.scanInto(current) == Token.Kind.EOF) {
+            scanner = null;
+        }
+        return true;
+    }
+
+    /**
+     * @return the kind of the current token
+     */
+    public Token.Kind kind() {
+        return current.kind(0);
+    }
+
+    /**
+     * @return the spelling of the current token
+     */
+    public String spelling() {
+        return current.spelling(0);
+    }
+
+    /**
+     * @return the line number of the current token
+     */
+    public int position() {
+        return current.line(0);
+    }
+
+    /**
+     * @return the offset in the source of the current token's first char
+     */
+    public int offset() {
+        return current.start(0);
+    }
+
+    /**
+     * @return the number of source chars in the current token
+     */
+    public int length() {
+        return current.length(0);
+    }
+
+    /**
+     * @return the symbol id of the current token if it is an identifier or
+     * keyword, else -1
+     */
+    public int symbol() {
+        return current.symbol(0);
+    }
+
+    /**
+     * @return a Token object for the current token
+     */
+    public Token token() {
+        return current.token(0);
+    }
+
+    /**
+     * Closes the Scanner, if the EOF token has not been reached yet; after
+     * that there are no more tokens
+     */
+    @Override
+    public void close() {
+        if (scanner != null) {
+            scanner.close();
+            scanner = null;
+        }
+    }
+
+}
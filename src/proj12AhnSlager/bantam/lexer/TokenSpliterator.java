@@ -0,0 +1,61 @@
+/**
+ * Filename: TokenSpliterator
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.lexer;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A Spliterator over the tokens a Scanner has yet to scan, which ends before
+ * the EOF token.  Each token is scanned when it is asked for, so with a
+ * windowed Scanner a whole file can be streamed in a fixed amount of memory.
+ * The tokens come in order and cannot be split among threads.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class TokenSpliterator implements Spliterator<Token>
+{
+    private Scanner scanner;   // null once the EOF token has been scanned
+
+    /**
+     *
+     * @param scanner the Scanner to take the tokens from
+     */
+    public TokenSpliterator(Scanner scanner) {
+        this.scanner = scanner;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Token> action) {
+        if (scanner == null) {
+            return false;
+        }
+        Token token = scanner.scan();
+        if (token.kind == Token.Kind.EOF) {
+            scanner = null;
+            return false;
+        }
+        action.accept(token);
+        return true;
+    }
+
+    @Override
+    public Spliterator<Token> trySplit() {
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return scanner == null ? 0 : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+}
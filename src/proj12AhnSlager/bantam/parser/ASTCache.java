@@ -0,0 +1,325 @@
+/**
+ * Filename: ASTCache
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.parser;
+
+import proj12AhnSlager.bantam.ast.FlatAST;
+import proj12AhnSlager.bantam.ast.Program;
+import proj12AhnSlager.bantam.lexer.Scanner;
+import proj12AhnSlager.bantam.lexer.TokenBuffer;
+import proj12AhnSlager.bantam.util.CompilationException;
+import proj12AhnSlager.bantam.util.ErrorHandler;
+import proj12AhnSlager.bantam.util.SymbolInterner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the ASTs and tokens of source files in a directory between runs, so
+ * that a file that has not changed since it was last parsed is neither
+ * scanned nor parsed again.
+ *
+ * An entry is found by a key, the SHA-256 hash of VERSION and the bytes of the
+ * file, so an edited file, or a new version of the compiler, misses.  An AST
+ * is kept as the arrays of a FlatAST, and tokens as those of a TokenBuffer,
+ * each with the symbols their ids stand for.  An entry is memory-mapped and
+ * its arrays read in bulk; only the symbols are read one by one, to intern
+ * them.  A cached AST comes back as the views of a FlatAST.
+ *
+ * Only the tokens of a file with no lexical errors, and the AST of a file with
+ * no errors at all, are kept, so a file with errors is parsed again and its
+ * errors reported again.  An entry is written to a file of its own and then
+ * renamed, so a reader never sees half an entry, and one that cannot be read
+ * is taken as a miss.  Failing to write an entry only loses the entry.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class ASTCache
+{
+    /**
+     * The version of the scanner, the parser and the format of the entries.
+     * It is part of every key, so changing it leaves the old entries unused.
+     */
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x0BA47A57; // begins every entry
+    private static final String AST = ".ast";
+    private static final String TOKENS = ".tokens";
+
+    private Path directory;
+
+    /**
+     * @param directory the directory to keep the entries in, which is created
+     *                  if it does not exist
+     */
+    public ASTCache(String directory) {
+        this.directory = Paths.get(directory);
+        try {
+            Files.createDirectories(this.directory);
+        }
+        catch (IOException e) {
+            throw new CompilationException("Cache directory " + directory +
+                    " could not be created.");
+        }
+    }
+
+    /**
+     * Finds the key of the current contents of a file
+     *
+     * @param filename the name of the file
+     * @return the key, as hex digits
+     */
+    public String key(String filename) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(ByteBuffer.allocate(4).putInt(VERSION).array());
+        try (FileChannel channel = FileChannel.open(Paths.get(filename),
+                StandardOpenOption.READ)) {
+            digest.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        catch (NoSuchFileException e) {
+            throw new CompilationException("File " + filename + " not found.");
+        }
+        catch (IOException e) {
+            throw new CompilationException("File " + filename + " could not be read.");
+        }
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16))
+                    .append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.toString();
+    }
+
+    /**
+     * @param key      the key of the contents of a file
+     * @param filename the name of the file, for the classes of the AST
+     * @param symbols  the interner to intern the symbols of the AST in
+     * @return the AST kept for the key, or null if there is none
+     */
+    public FlatAST loadAST(String key, String filename, SymbolInterner symbols) {
+        ByteBuffer in = map(key + AST);
+        try {
+            return in == null ? null : FlatAST.readFrom(in, symbols, filename);
+        }
+        catch (RuntimeException e) {
+            return null; // a damaged entry
+        }
+    }
+
+    /**
+     * @param key the key of the contents of a file
+     * @return whether an AST is kept for the key
+     */
+    public boolean containsAST(String key) {
+        return Files.exists(directory.resolve(key + AST));
+    }
+
+    /**
+     * Keeps the AST of a file with no errors
+     *
+     * @param key     the key of the contents of the file
+     * @param program the AST of the file
+     */
+    public void storeAST(String key, Program program) {
+        // flattened with an interner of its own, so that only its own symbols
+        // are written, and the interner of the compilation is left alone
+        FlatAST flat = new FlatAST(program, new SymbolInterner());
+        ByteBuffer out = allocate(flat.serializedSize());
+        flat.writeTo(out);
+        write(key + AST, out);
+    }
+
+    /**
+     * @param key      the key of the contents of a file
+     * @param filename the name of the file, which is read again for the
+     *                 spellings of the tokens
+     * @param symbols  the interner to intern the symbols of the tokens in
+     * @return the tokens kept for the key, or null if there are none
+     */
+    public TokenBuffer loadTokens(String key, String filename, SymbolInterner symbols) {
+        ByteBuffer in = map(key + TOKENS);
+        try {
+            return in == null ? null : TokenBuffer.readFrom(in, filename, symbols);
+        }
+        catch (RuntimeException e) {
+            return null; // a damaged entry
+        }
+    }
+
+    /**
+     * Keeps the tokens of a file with no lexical errors
+     *
+     * @param key    the key of the contents of the file
+     * @param tokens all the tokens of the file; every symbol of their interner
+     *               is written with them
+     */
+    public void storeTokens(String key, TokenBuffer tokens) {
+        ByteBuffer out = allocate(tokens.serializedSize());
+        tokens.writeTo(out);
+        write(key + TOKENS, out);
+    }
+
+    /**
+     * Parses a file as a non-recovering Parser would, using and filling the
+     * cache
+     *
+     * @param filename the name of the file
+     * @param handler  the ErrorHandler to register errors with
+     * @param symbols  the SymbolInterner of the compilation
+     * @return the AST, which is a view of a FlatAST if it was cached
+     */
+    public Program parse(String filename, ErrorHandler handler, SymbolInterner symbols) {
+        String key = key(filename);
+        FlatAST flat = loadAST(key, filename, symbols);
+        if (flat != null) {
+            return flat.getProgram();
+        }
+        int numErrors = handler.getErrorList().size();
+        TokenBuffer tokens = loadTokens(key, filename, symbols);
+        if (tokens == null) {
+            tokens = TokenBuffer.scanAll(new Scanner(filename, handler, symbols));
+            if (handler.getErrorList().size() == numErrors) {
+                storeTokens(key, tokens);
+            }
+        }
+        Program program = new Parser(handler, symbols).parse(tokens);
+        if (handler.getErrorList().size() == numErrors) {
+            storeAST(key, program);
+        }
+        return program;
+    }
+
+    private static ByteBuffer allocate(int size) {
+        ByteBuffer out = ByteBuffer.allocate(8 + size).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        return out;
+    }
+
+    /**
+     * Writes an entry to a file of its own and renames it into place
+     */
+    private void write(String name, ByteBuffer out) {
+        out.flip();
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, name, ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+            }
+            Files.move(temp, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            try {
+                if (temp != null) {
+                    Files.deleteIfExists(temp);
+                }
+            }
+            catch (IOException ignored) {
+                // the entry is lost either way
+            }
+        }
+    }
+
+    /**
+     * Memory-maps an entry
+     *
+     * @return the entry past its header, or null if there is no entry of
+     * this version
+     */
+    private ByteBuffer map(String name) {
+        Path entry = directory.resolve(name);
+        if (!Files.exists(entry)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (in.remaining() < 8 || in.getInt() != MAGIC || in.getInt() != VERSION) {
+                return null;
+            }
+            return in;
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses the files and directories given with a FrontEnd, first with an
+     * empty cache and then with the cache it filled, prints the times, and
+     * checks that the two ASTs are the same
+     *
+     * @param args the cache directory, then the files and directories to parse
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: ASTCache cacheDirectory files...");
+            return;
+        }
+        ASTCache cache = new ASTCache(args[0]);
+        List<String> paths = Arrays.asList(args).subList(1, args.length);
+        try (java.util.stream.Stream<Path> entries = Files.list(cache.directory)) {
+            for (Path entry : (Iterable<Path>) entries::iterator) {
+                Files.delete(entry);
+            }
+        }
+        catch (IOException e) {
+            System.out.println("Could not empty " + args[0]);
+            return;
+        }
+        FrontEnd frontEnd = new FrontEnd();
+        frontEnd.setRecovering(true);
+        long uncached = Long.MAX_VALUE;
+        Program parsed = null;
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            parsed = frontEnd.parse(paths, new ErrorHandler());
+            uncached = Math.min(uncached, System.nanoTime() - start);
+        }
+
+        frontEnd.setCache(cache);
+        long start = System.nanoTime();
+        frontEnd.parse(paths, new ErrorHandler());
+        long filling = System.nanoTime() - start;
+
+        long cached = Long.MAX_VALUE;
+        Program loaded = null;
+        for (int run = 0; run < 5; run++) {
+            start = System.nanoTime();
+            loaded = frontEnd.parse(paths, new ErrorHandler());
+            cached = Math.min(cached, System.nanoTime() - start);
+        }
+        System.out.println("Without the cache: " + uncached / 1000000 + " ms");
+        System.out.println("Filling the cache: " + filling / 1000000 + " ms");
+        System.out.println("From the cache: " + cached / 1000000 + " ms");
+        // flattened with interners of their own, the same ASTs give the same arrays
+        String same = new FlatAST(parsed, new SymbolInterner()).sameAs(
+                new FlatAST(loaded, new SymbolInterner())) ? "the same" : "different";
+        System.out.println("The ASTs are " + same + ".");
+    }
+}
@@ -0,0 +1,387 @@
+/**
+ * Filename: FrontEnd
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.parser;
+
+import proj12AhnSlager.bantam.ast.ASTNode;
+import proj12AhnSlager.bantam.ast.ClassList;
+import proj12AhnSlager.bantam.ast.FlatAST;
+import proj12AhnSlager.bantam.ast.Program;
+import proj12AhnSlager.bantam.lexer.Scanner;
+import proj12AhnSlager.bantam.lexer.TokenBuffer;
+import proj12AhnSlager.bantam.util.CompilationException;
+import proj12AhnSlager.bantam.util.Error;
+import proj12AhnSlager.bantam.util.ErrorHandler;
+import proj12AhnSlager.bantam.util.ErrorList;
+import proj12AhnSlager.bantam.util.SymbolInterner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Scans and parses the source files of a program at the same time on a
+ * ForkJoinPool, and merges their classes into one Program, so that a program
+ * spread over many files can be analyzed in one go.
+ *
+ * The work is done in two parallel phases with a short sequential step
+ * between them, and each file has its own ErrorLists, so no task registers
+ * with or interns into anything another task uses:
+ * <ol>
+ * <li>each file is scanned into a TokenBuffer with a SymbolInterner of its own;
+ * <li>the symbols of every file, and the names of the array types they use,
+ * are interned with the SymbolInterner of the compilation, one file after
+ * another;
+ * <li>each file is parsed by a Parser of its own, which then only looks up
+ * names in the interner of the compilation, so the parsers can share it and
+ * the AST gets its symbol ids.
+ * </ol>
+ * With an ASTCache, a file whose AST is cached is neither scanned nor parsed:
+ * its AST is read in the interning step, with the names interned straight
+ * into the interner of the compilation.  A file whose tokens are cached is not
+ * scanned.  The AST of a file without errors is cached once it is parsed, and
+ * the tokens of a file with only syntax errors.
+ *
+ * The files are then merged in the order they were given.  The errors of each
+ * file are registered with the ErrorHandler in the order Parser.parse() would
+ * register them, so they come out the same however the tasks were scheduled.
+ * The classes of each file, which keep their filenames, are added to the
+ * ClassList of the Program.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class FrontEnd
+{
+    /**
+     * The extension of the Bantam Java files looked for in directories
+     */
+    public static final String EXTENSION = ".btm";
+
+    private ForkJoinPool pool;
+    private boolean recovering; // whether to go on parsing after a syntax error
+    private ASTCache cache;     // the cache of tokens and ASTs, or null
+
+    /**
+     * Creates a FrontEnd that parses on the common pool
+     */
+    public FrontEnd() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool the pool to scan and parse the files on
+     */
+    public FrontEnd(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sets whether the parse of each file goes on after a syntax error, as
+     * Parser.setRecovering() does.  Otherwise the classes of a file with a
+     * syntax error are left out of the Program.
+     * @param recovering whether to recover from syntax errors
+     */
+    public void setRecovering(boolean recovering) {
+        this.recovering = recovering;
+    }
+
+    /**
+     * @return whether the parse of each file goes on after a syntax error
+     */
+    public boolean isRecovering() {
+        return recovering;
+    }
+
+    /**
+     * Sets the cache to take the tokens and ASTs of unchanged files from, and
+     * to keep those of the files parsed in
+     * @param cache the cache, or null to scan and parse every file
+     */
+    public void setCache(ASTCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * @return the cache of tokens and ASTs, or null if there is none
+     */
+    public ASTCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Parses files with a new SymbolInterner
+     *
+     * @param paths the names of the files, and of directories to parse every
+     *              Bantam Java file under
+     * @param handler the ErrorHandler to register errors with
+     * @return the Program holding the classes of all the files
+     */
+    public Program parse(List<String> paths, ErrorHandler handler) {
+        return parse(paths, handler, new SymbolInterner());
+    }
+
+    /**
+     * Parses files, registering any file that cannot be read as an error.
+     * The ErrorHandler tells whether the parse failed.
+     *
+     * @param paths the names of the files, and of directories to parse every
+     *              Bantam Java file under
+     * @param handler the ErrorHandler to register errors with
+     * @param symbols the SymbolInterner of the compilation
+     * @return the Program holding the classes of all the files
+     */
+    public Program parse(List<String> paths, ErrorHandler handler, SymbolInterner symbols) {
+        List<Unit> units = new ArrayList<>();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (String filename : sourceFiles(paths)) {
+            Unit unit = new Unit(filename, cache);
+            units.add(unit);
+            tasks.add(pool.submit(unit::scan));
+        }
+        for (int i = 0; i < units.size(); i++) {
+            tasks.get(i).join();
+            units.get(i).intern(symbols);
+        }
+
+        tasks.clear();
+        for (Unit unit : units) {
+            tasks.add(pool.submit(() -> unit.parse(symbols, recovering)));
+        }
+        ClassList classList = new ClassList(1);
+        for (int i = 0; i < units.size(); i++) {
+            tasks.get(i).join();
+            Unit unit = units.get(i);
+            unit.registerErrors(handler);
+            if (unit.program != null) {
+                for (ASTNode aClass : unit.program.getClassList()) {
+                    classList.addElement(aClass);
+                }
+            }
+        }
+        return new Program(1, classList);
+    }
+
+    /**
+     * Lists the files to parse, in the order given, with the Bantam Java files
+     * under each directory in the order of their names
+     *
+     * @param paths the names of files and directories
+     * @return the names of the files
+     */
+    public static List<String> sourceFiles(List<String> paths) {
+        List<String> filenames = new ArrayList<>();
+        for (String path : paths) {
+            if (!Files.isDirectory(Paths.get(path))) {
+                filenames.add(path);
+                continue;
+            }
+            try (Stream<Path> files = Files.walk(Paths.get(path))) {
+                filenames.addAll(files.filter(Files::isRegularFile)
+                        .map(Path::toString)
+                        .filter(name -> name.endsWith(EXTENSION))
+                        .sorted()
+                        .collect(Collectors.toList()));
+            }
+            catch (IOException e) {
+                throw new CompilationException("Directory " + path + " could not be read.");
+            }
+        }
+        return filenames;
+    }
+
+    /**
+     * One file, scanned and parsed by tasks of its own
+     */
+    private static class Unit
+    {
+        private String filename;
+        private ASTCache cache;         // null if there is none
+        private String key;             // the key of the file in the cache
+        private boolean cachedAST;      // whether the cache has the AST of the file
+        private FlatAST flat;           // the cached AST, until the file is "parsed"
+        private TokenBuffer tokens;     // the tokens, until the file is parsed
+        private boolean scanned;        // whether the tokens were scanned, not cached
+        private List<String> arrayTypes;
+        private ErrorList lexErrors = new ErrorList();
+        private ErrorList parseErrors = new ErrorList();
+        private String failure;         // why the file could not be read, or null
+        private Program program;        // the AST, or null if it could not be built
+        private boolean stopped;        // whether the parse stopped at a syntax error
+
+        Unit(String filename, ASTCache cache) {
+            this.filename = filename;
+            this.cache = cache;
+        }
+
+        /**
+         * Scans the file with a SymbolInterner of its own, unless its tokens
+         * or AST are cached
+         */
+        void scan() {
+            try {
+                if (cache != null) {
+                    key = cache.key(filename);
+                    cachedAST = cache.containsAST(key);
+                    if (cachedAST) {
+                        return;
+                    }
+                    tokens = cache.loadTokens(key, filename, new SymbolInterner());
+                }
+                scanFile();
+            }
+            catch (CompilationException e) {
+                failure = e.getMessage();
+            }
+        }
+
+        /**
+         * Scans the file unless its tokens were read from the cache
+         */
+        private void scanFile() {
+            if (tokens == null) {
+                tokens = TokenBuffer.scanAll(new Scanner(filename, lexErrors,
+                        new SymbolInterner()));
+                scanned = true;
+            }
+            arrayTypes = ParallelParser.arrayTypes(tokens);
+        }
+
+        /**
+         * Interns every name the parse of the file will ask for
+         *
+         * @param symbols the SymbolInterner of the compilation
+         */
+        void intern(SymbolInterner symbols) {
+            if (cachedAST) {
+                flat = cache.loadAST(key, filename, symbols);
+                if (flat != null) {
+                    return;
+                }
+                // the entry has gone or is damaged
+                try {
+                    scanFile();
+                }
+                catch (CompilationException e) {
+                    failure = e.getMessage();
+                }
+            }
+            if (tokens == null) {
+                return;
+            }
+            SymbolInterner ownSymbols = tokens.getSymbols();
+            for (int id = SymbolInterner.FIRST_USER_SYMBOL; id < ownSymbols.size(); id++) {
+                symbols.intern(ownSymbols.get(id));
+            }
+            for (String arrayType : arrayTypes) {
+                symbols.intern(arrayType);
+            }
+        }
+
+        /**
+         * Parses the tokens of the file, only looking up names in the
+         * SymbolInterner of the compilation
+         */
+        void parse(SymbolInterner symbols, boolean recovering) {
+            if (flat != null) {
+                program = flat.getProgram();
+                flat = null;
+                return;
+            }
+            if (tokens == null) {
+                return;
+            }
+            Parser parser = new Parser(parseErrors, symbols);
+            parser.setRecovering(recovering);
+            try {
+                program = parser.parse(tokens, symbols);
+            }
+            catch (CompilationException e) {
+                stopped = true;
+            }
+            // the tokens are only worth keeping if the AST cannot be kept
+            if (cache != null && !lexErrors.errorsFound()) {
+                if (program != null && !parseErrors.errorsFound()) {
+                    cache.storeAST(key, program);
+                }
+                else if (scanned) {
+                    cache.storeTokens(key, tokens);
+                }
+            }
+            tokens = null;
+        }
+
+        /**
+         * Registers the errors of the file in the order Parser.parse() would:
+         * a lexical error is found when its token is first looked at, so before
+         * any syntax error at or after that token.  A parse that stopped at a
+         * syntax error never looked at the tokens after it.
+         */
+        void registerErrors(ErrorHandler handler) {
+            if (failure != null) {
+                handler.register(Error.Kind.PARSE_ERROR, filename, -1, failure);
+                return;
+            }
+            List<Error> lex = lexErrors.getErrorList();
+            List<Error> parse = parseErrors.getErrorList();
+            int lastSeen = stopped && !parse.isEmpty()
+                    ? parse.get(parse.size() - 1).getStartOffset() : Integer.MAX_VALUE;
+            int l = 0;
+            for (Error error : parse) {
+                while (l < lex.size() && lex.get(l).getStartOffset() <= error.getStartOffset()) {
+                    register(handler, lex.get(l++));
+                }
+                register(handler, error);
+            }
+            while (l < lex.size() && lex.get(l).getStartOffset() <= lastSeen) {
+                register(handler, lex.get(l++));
+            }
+        }
+
+        private static void register(ErrorHandler handler, Error error) {
+            handler.register(error.getKind(), error.getFilename(), error.getLineNum(),
+                    error.getStartOffset(), error.getEndOffset(), error.getMessage());
+        }
+    }
+
+    /**
+     * Parses the files and directories given into one program and prints
+     * their errors.  ProgramAnalyzer in the semant package goes on to analyze
+     * the program.
+     *
+     * @param args the names of the files and directories
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Please include at least 1 file or directory in arguments");
+            return;
+        }
+        ErrorHandler errorHandler = new ErrorHandler();
+        FrontEnd frontEnd = new FrontEnd();
+        frontEnd.setRecovering(true);
+        try {
+            frontEnd.parse(Arrays.asList(args), errorHandler);
+        }
+        catch (CompilationException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        if (!errorHandler.errorsFound()) {
+            System.out.println("Parsing Successful.");
+        }
+        for (Error error : errorHandler.getErrorList()) {
+            System.out.println(error.toString() + "\n");
+        }
+    }
+
+}
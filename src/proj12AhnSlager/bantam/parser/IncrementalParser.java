@@ -0,0 +1,497 @@
+/**
+ * Filename: IncrementalParser
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.parser;
+
+import proj12AhnSlager.bantam.ast.ASTNode;
+import proj12AhnSlager.bantam.ast.ClassList;
+import proj12AhnSlager.bantam.ast.Class_;
+import proj12AhnSlager.bantam.ast.ListNode;
+import proj12AhnSlager.bantam.ast.Member;
+import proj12AhnSlager.bantam.ast.MemberList;
+import proj12AhnSlager.bantam.ast.Program;
+import proj12AhnSlager.bantam.ast.Shift;
+import proj12AhnSlager.bantam.lexer.IncrementalLexer;
+import proj12AhnSlager.bantam.lexer.TokenBuffer;
+import proj12AhnSlager.bantam.util.CompilationException;
+import proj12AhnSlager.bantam.util.Error;
+import proj12AhnSlager.bantam.util.ErrorHandler;
+import proj12AhnSlager.bantam.util.ErrorList;
+import proj12AhnSlager.bantam.util.TreeDiff;
+import proj12AhnSlager.bantam.visitor.SwitchTraversal;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Keeps the AST of a document that is being edited, and after each edit
+ * parses again only the members or classes the edit can have changed.
+ *
+ * The tokens are kept by an IncrementalLexer, whose Change says which tokens
+ * an edit replaced.  If those tokens are inside the braces of one class, the
+ * members they overlap, with the white space and comments around them, are
+ * parsed again on their own; usually that is the one method being typed in.
+ * Otherwise, or if those tokens do not parse as whole members, the classes
+ * they overlap are parsed again, and if even that fails, the whole text is.
+ * The new Program shares every other node with the old one: the members and
+ * classes before the edit are left as they are, and those after it are the
+ * same nodes moved along by the chars and lines the edit inserted or removed,
+ * so the old Program is not to be used once it has been edited.  Only the
+ * Program, ClassList, Class_ and MemberList holding the change are new.
+ * Every node of a member moves with a Shift of the member, inside a Shift of
+ * its class, so that moving a member or class after the edit is one call to
+ * Shift.moveBy() rather than a change to each of its nodes.
+ *
+ * A part parsed on its own is parsed with no recovery, and is only used if it
+ * has no errors, lexical or syntax.  Since the parser looks at nothing past
+ * the last token of a member or class it parses without an error, such a part
+ * gives the same nodes a parse of the whole text would.  While the text has
+ * errors, each edit parses the whole text again, recovering from them, so that
+ * all of them are listed.  main() checks the AST against a parse of the whole
+ * text over random edits.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class IncrementalParser
+{
+    private IncrementalLexer lexer;
+    private Program program;
+    private List<Error> errors;
+    private int numReparsed;    // the number of tokens the last edit parsed again
+
+    /**
+     * Makes each node of a tree move with a Shift
+     */
+    private static class ShiftSetter extends SwitchTraversal
+    {
+        private Shift shift;
+
+        void run(ASTNode root, Shift shift) {
+            this.shift = shift;
+            run(root);
+        }
+
+        @Override
+        protected boolean enter(ASTNode node, int kind) {
+            node.setShift(shift);
+            return true;
+        }
+    }
+
+    private ShiftSetter shiftSetter = new ShiftSetter();
+
+    /**
+     * Parses a whole text
+     *
+     * @param filename the name of the file the text is from, for errors and
+     *                 the classes of the AST
+     * @param text the text
+     */
+    public IncrementalParser(String filename, String text) {
+        this.lexer = new IncrementalLexer(filename, text);
+        parseAll();
+    }
+
+    /**
+     * Applies an edit to the text and parses again what it may have changed.
+     * The arguments are those of a plain text change of the editor.
+     *
+     * @param position the offset of the first char removed or inserted
+     * @param numRemoved the number of chars removed there
+     * @param inserted the chars inserted there
+     * @return the Program of the edited text
+     */
+    public Program edit(int position, int numRemoved, String inserted) {
+        IncrementalLexer.Change change = lexer.edit(position, numRemoved, inserted);
+        Program reparsed = errors.isEmpty()
+                ? reparse(change, position, numRemoved, inserted.length()) : null;
+        if (reparsed == null) {
+            parseAll();
+        }
+        else {
+            program = reparsed;
+        }
+        return program;
+    }
+
+    /**
+     * @return the Program of the text as it is after the edits so far
+     */
+    public Program getProgram() {
+        return program;
+    }
+
+    /**
+     * @return the lexical and syntax errors in the text, in the order a parse
+     * of the whole text registers them
+     */
+    public List<Error> getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return the IncrementalLexer that keeps the text and its tokens, which
+     * is only to be edited through this parser
+     */
+    public IncrementalLexer getLexer() {
+        return lexer;
+    }
+
+    /**
+     * @return the number of tokens the last edit parsed again, which is all
+     * of them if it parsed the whole text
+     */
+    public int getNumReparsed() {
+        return numReparsed;
+    }
+
+    /**
+     * Parses the whole text, recovering from syntax errors
+     */
+    private void parseAll() {
+        ErrorHandler handler = new ErrorHandler();
+        Parser parser = new Parser(handler, lexer.getSymbols());
+        parser.setRecovering(true);
+        String filename = lexer.getFilename();
+        TokenBuffer tokens = new TokenBuffer(lexer.newScanner(filename, handler,
+                lexer.getSymbols()));
+        program = parser.parse(tokens);
+        for (ASTNode aClass : program.getClassList()) {
+            setShifts((Class_) aClass);
+        }
+        errors = handler.getErrorList();
+        numReparsed = lexer.size();
+    }
+
+    /**
+     * Parses again the members or classes an edit changed the tokens of
+     *
+     * @param change the change the edit made to the tokens
+     * @return the new Program, or null if the whole text is to be parsed again
+     */
+    private Program reparse(IncrementalLexer.Change change, int position, int numRemoved,
+                            int numInserted) {
+        int delta = numInserted - numRemoved;
+        int textEnd = lexer.start(lexer.size() - 1) - delta;
+        // the chars of the text before the edit that the edit or the tokens it
+        // changed may cover, which are those between the tokens left as they were
+        int from = position;
+        int to = position + numRemoved;
+        if (change.getNumRemoved() > 0 || change.getNumInserted() > 0) {
+            int before = change.getFirstToken() - 1;
+            int after = change.getFirstToken() + change.getNumInserted();
+            from = Math.min(from, before >= 0 ? lexer.start(before) + lexer.length(before) : 0);
+            to = Math.max(to, after < lexer.size() ? lexer.start(after) - delta : textEnd);
+        }
+
+        ClassList classList = program.getClassList();
+        int first = firstEndingAt(classList, from);
+        int last = lastStartingAt(classList, to);
+        List<Class_> classes = null;
+        if (first == last) {
+            Class_ aClass = (Class_) classList.get(first);
+            MemberList memberList = aClass.getMemberList();
+            // the chars changed are between the braces of the class
+            if (memberList.getStartOffset() < from && to < aClass.getEndOffset()) {
+                Class_ changed = reparseMembers(aClass, from, to, delta);
+                if (changed != null) {
+                    classes = new ArrayList<>();
+                    classes.add(changed);
+                }
+            }
+        }
+        if (classes == null) {
+            classes = parsePart(classList, first, last, 0, textEnd, delta, true);
+            if (classes == null) {
+                return null;
+            }
+            for (Class_ aClass : classes) {
+                setShifts(aClass);
+            }
+        }
+
+        List<ASTNode> newClasses = new ArrayList<>();
+        for (int i = 0; i < first; i++) {
+            newClasses.add(classList.get(i));
+        }
+        newClasses.addAll(classes);
+        moveAfter(classList, last, delta, newClasses);
+        if (newClasses.isEmpty()) {
+            return null;
+        }
+        // the program starts at its first class and ends at its last
+        ASTNode firstClass = newClasses.get(0);
+        int start = firstClass.getStartOffset();
+        int end = newClasses.get(newClasses.size() - 1).getEndOffset();
+        ClassList newClassList = new ClassList(firstClass.getLineNum());
+        for (ASTNode aClass : newClasses) {
+            newClassList.addElement(aClass);
+        }
+        newClassList.setSpan(start, end);
+        Program newProgram = new Program(firstClass.getLineNum(), newClassList);
+        newProgram.setSpan(start, end);
+        return newProgram;
+    }
+
+    /**
+     * Parses again the members of a class whose tokens changed
+     *
+     * @param aClass the class
+     * @param from the offset of the first char changed
+     * @param to the offset just past the last char changed
+     * @param delta the number of chars inserted, less the number removed
+     * @return a new class with the new members, or null if they did not parse
+     */
+    private Class_ reparseMembers(Class_ aClass, int from, int to, int delta) {
+        MemberList memberList = aClass.getMemberList();
+        int first = firstEndingAt(memberList, from);
+        int last = lastStartingAt(memberList, to);
+        // between the "{" and the "}" of the class
+        List<Member> members = parsePart(memberList, first, last,
+                memberList.getStartOffset() + 1, aClass.getEndOffset() - 1, delta, false);
+        if (members == null) {
+            return null;
+        }
+        Shift classShift = aClass.getShift();
+        for (Member member : members) {
+            shiftSetter.run(member, new Shift(classShift));
+        }
+        List<ASTNode> newMembers = new ArrayList<>();
+        for (int i = 0; i < first; i++) {
+            newMembers.add(memberList.get(i));
+        }
+        newMembers.addAll(members);
+        moveAfter(memberList, last, delta, newMembers);
+        MemberList newMemberList = new MemberList(memberList.getLineNum());
+        for (ASTNode member : newMembers) {
+            newMemberList.addElement(member);
+        }
+        newMemberList.setSpan(memberList.getStartOffset(), memberList.getEndOffset() + delta);
+
+        Class_ newClass = new Class_(aClass.getLineNum(), aClass.getFilename(),
+                aClass.getName(), aClass.getParent(), newMemberList);
+        newClass.setSpan(aClass.getStartOffset(), aClass.getEndOffset() + delta);
+        // the members left as they were move with the Shift of the class
+        newMemberList.setShift(classShift);
+        newClass.setShift(classShift);
+        newClass.setNameId(aClass.getNameId());
+        newClass.setParentId(aClass.getParentId());
+        return newClass;
+    }
+
+    /**
+     * Parses again the part of the text from the end of the element of a list
+     * before the given elements up to the start of the element after them,
+     * which holds the given elements, now changed, and nothing else but white
+     * space and comments
+     *
+     * @param list a list of classes or members
+     * @param first the index of the first element changed
+     * @param last the index of the last element changed, which is first - 1
+     *             if the change is between two elements
+     * @param lowerBound the offset the part starts at if first is 0
+     * @param upperBound the offset the part ends at if last is the last element
+     * @param delta the number of chars inserted, less the number removed
+     * @param classes whether the list is of classes rather than members
+     * @return the classes or members of the part, or null if it had an error
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends ASTNode> List<T> parsePart(ListNode list, int first, int last,
+                                                  int lowerBound, int upperBound, int delta,
+                                                  boolean classes) {
+        int start = first > 0 ? list.get(first - 1).getEndOffset() : lowerBound;
+        int end = last + 1 < list.getSize() ? list.get(last + 1).getStartOffset() : upperBound;
+        int startToken = lexer.tokenAt(start);
+        int endToken = Math.min(lexer.tokenAt(end + delta), lexer.size() - 1);
+        ErrorList errorList = new ErrorList();
+        TokenBuffer tokens = lexer.getTokens(startToken, endToken, errorList);
+        Parser parser = new Parser(errorList, lexer.getSymbols());
+        List<? extends ASTNode> nodes;
+        try {
+            nodes = classes ? parser.parseClasses(tokens) : parser.parseMembers(tokens);
+        }
+        catch (CompilationException e) {
+            return null;
+        }
+        numReparsed = endToken - startToken;
+        return errorList.errorsFound() ? null : (List<T>) nodes;
+    }
+
+    /**
+     * Moves the elements of a list after the given one along with their
+     * source, by the chars and lines the edit before them inserted, and adds
+     * them to the elements of a new list.  Each is moved by moving its Shift,
+     * which moves every node of it.
+     *
+     * @param list a list of classes or members
+     * @param last the index of the last element changed
+     * @param delta the number of chars inserted, less the number removed
+     * @param newElements the elements of the new list
+     */
+    private void moveAfter(ListNode list, int last, int delta, List<ASTNode> newElements) {
+        if (last + 1 == list.getSize()) {
+            return;
+        }
+        ASTNode next = list.get(last + 1);
+        int lineDelta = lexer.line(lexer.tokenAt(next.getStartOffset() + delta)) -
+                next.getLineNum();
+        for (int i = last + 1; i < list.getSize(); i++) {
+            ASTNode node = list.get(i);
+            if (delta != 0 || lineDelta != 0) {
+                node.getShift().moveBy(delta, lineDelta);
+            }
+            newElements.add(node);
+        }
+    }
+
+    /**
+     * Makes a class and its MemberList move with a new Shift, and each of its
+     * members with a Shift inside that one
+     */
+    private void setShifts(Class_ aClass) {
+        Shift classShift = new Shift(null);
+        aClass.setShift(classShift);
+        aClass.getMemberList().setShift(classShift);
+        for (ASTNode member : aClass.getMemberList()) {
+            shiftSetter.run(member, new Shift(classShift));
+        }
+    }
+
+    /**
+     * @return the index of the first element of a list that ends at or after
+     * the given offset, or the size of the list if there is none
+     */
+    private static int firstEndingAt(ListNode list, int offset) {
+        int low = 0;
+        int high = list.getSize();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (list.get(middle).getEndOffset() < offset) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the index of the last element of a list that starts at or
+     * before the given offset, or -1 if there is none
+     */
+    private static int lastStartingAt(ListNode list, int offset) {
+        int low = 0;
+        int high = list.getSize();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (list.get(middle).getStartOffset() <= offset) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * Checks that the AST and errors of an IncrementalParser are those of a
+     * parse of its whole text.  The first difference found is printed.
+     *
+     * @param parser the IncrementalParser to check
+     * @param out where to print a difference
+     * @return true if the two agree
+     */
+    public static boolean verify(IncrementalParser parser, PrintStream out) {
+        IncrementalParser expected = new IncrementalParser(parser.lexer.getFilename(),
+                parser.lexer.getText());
+        String difference = new TreeDiff(expected.lexer.getSymbols(),
+                parser.lexer.getSymbols()).firstDifference(expected.program, parser.program);
+        if (difference != null) {
+            out.println(parser.lexer.getFilename() + ": " + difference);
+            return false;
+        }
+        if (!expected.errors.toString().equals(parser.errors.toString())) {
+            out.println(parser.lexer.getFilename() + ": errors differ: expected " +
+                    expected.errors + " but found " + parser.errors);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Makes random edits to a file, checking the IncrementalParser after each
+     * one, and then times typing in a method against parsing the whole text
+     * again.  The arguments are the file and the number of edits.
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: IncrementalParser file edits");
+            return;
+        }
+        String filename = args[0];
+        int numEdits = Integer.parseInt(args[1]);
+        String text;
+        try {
+            text = new String(Files.readAllBytes(Paths.get(filename)), StandardCharsets.UTF_8);
+        }
+        catch (IOException e) {
+            System.out.println("Could not read " + filename);
+            return;
+        }
+        String[] snippets = {"", "a", "x1", " ", "\n", "\r\n", "\"", "/*", "*/", "//", "{",
+                "}", ";", "123", "=", "x = 1;", "int f() { }", "class C { }", "/* c */",
+                "if (x) { }"};
+        Random random = new Random(461);
+        IncrementalParser parser = new IncrementalParser(filename, text);
+        int agreeing = 0;
+        for (int e = 0; e < numEdits; e++) {
+            int length = parser.lexer.getText().length();
+            int position = random.nextInt(length + 1);
+            int numRemoved = random.nextInt(4) == 0
+                    ? Math.min(random.nextInt(8), length - position) : 0;
+            parser.edit(position, numRemoved, snippets[random.nextInt(snippets.length)]);
+            if (verify(parser, System.out)) {
+                agreeing++;
+            }
+            // go back to the file now and then, so that not every edit is an error
+            if (random.nextInt(4) == 0) {
+                parser.edit(0, parser.lexer.getText().length(), text);
+            }
+        }
+        System.out.println("Checked " + numEdits + " edits: " + agreeing + " agree.");
+
+        // type a blank in front of a random token and take it out again
+        parser = new IncrementalParser(filename, text);
+        long incremental = 0;
+        long whole = 0;
+        long reparsed = 0;
+        for (int e = 0; e < 2000; e++) {
+            int position = parser.lexer.start(random.nextInt(parser.lexer.size()));
+            long start = System.nanoTime();
+            parser.edit(position, 0, " ");
+            reparsed += parser.getNumReparsed();
+            parser.edit(position, 1, "");
+            incremental += System.nanoTime() - start;
+            start = System.nanoTime();
+            new IncrementalParser(filename, parser.lexer.getText());
+            whole += System.nanoTime() - start;
+        }
+        System.out.println("Two edits: " + incremental / 2000 + " ns, parsing it all again: " +
+                whole / 2000 + " ns, " + reparsed / 2000 + " of " + parser.lexer.size() +
+                " tokens parsed again");
+    }
+
+}
@@ -0,0 +1,97 @@
+/**
+ * Filename: IntVisitorTiming
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.parser;
+
+import proj12AhnSlager.bantam.ast.ConstIntExpr;
+import proj12AhnSlager.bantam.ast.Program;
+import proj12AhnSlager.bantam.util.CompilationException;
+import proj12AhnSlager.bantam.util.ErrorHandler;
+import proj12AhnSlager.bantam.visitor.GenericVisitor;
+import proj12AhnSlager.bantam.visitor.IntVisitor;
+
+/**
+ * Times an IntVisitor against a GenericVisitor on parsed files.  It is kept
+ * with the parser, which it drives, so that the visitor package depends
+ * only on the ast.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class IntVisitorTiming
+{
+    /**
+     * Folds the ASTs of the given files into the number of their nodes and the
+     * sum of their int constants, with a GenericVisitor, which boxes the
+     * result of every node, and with an IntVisitor, and prints the times
+     *
+     * @param args the files to parse
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: IntVisitorTiming files...");
+            return;
+        }
+        Program[] programs = new Program[args.length];
+        for (int i = 0; i < args.length; i++) {
+            try {
+                programs[i] = new Parser(new ErrorHandler()).parse(args[i]);
+            }
+            catch (CompilationException e) {
+                System.out.println(args[i] + " could not be parsed.");
+                return;
+            }
+        }
+        GenericVisitor<Integer> boxed = new GenericVisitor<Integer>()
+        {
+            @Override
+            protected Integer defaultResult() {
+                return 1;
+            }
+
+            @Override
+            protected Integer combine(Integer result, Integer childResult) {
+                return result + childResult;
+            }
+
+            @Override
+            public Integer visit(ConstIntExpr node) {
+                return 1 + node.getIntConstant();
+            }
+        };
+        IntVisitor primitive = new IntVisitor()
+        {
+            @Override
+            protected int defaultResult() {
+                return 1;
+            }
+
+            @Override
+            public int visit(ConstIntExpr node) {
+                return 1 + node.getIntConstant();
+            }
+        };
+        long boxedTime = Long.MAX_VALUE;
+        long primitiveTime = Long.MAX_VALUE;
+        int boxedSum = 0;
+        int primitiveSum = 0;
+        for (int run = 0; run < 20; run++) {
+            long start = System.nanoTime();
+            boxedSum = 0;
+            for (Program program : programs) {
+                boxedSum += program.accept(boxed);
+            }
+            boxedTime = Math.min(boxedTime, System.nanoTime() - start);
+            start = System.nanoTime();
+            primitiveSum = 0;
+            for (Program program : programs) {
+                primitiveSum += program.accept(primitive);
+            }
+            primitiveTime = Math.min(primitiveTime, System.nanoTime() - start);
+        }
+        System.out.println("GenericVisitor<Integer>: " + boxedTime / 1000 + " us, " + boxedSum);
+        System.out.println("IntVisitor: " + primitiveTime / 1000 + " us, " + primitiveSum);
+    }
+}
@@ -0,0 +1,354 @@
+/**
+ * Filename: ParallelParser
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.parser;
+
+import proj12AhnSlager.bantam.ast.Method;
+import proj12AhnSlager.bantam.ast.Program;
+import proj12AhnSlager.bantam.ast.StmtList;
+import proj12AhnSlager.bantam.lexer.Scanner;
+import proj12AhnSlager.bantam.lexer.Token;
+import proj12AhnSlager.bantam.lexer.TokenBuffer;
+import proj12AhnSlager.bantam.util.CompilationException;
+import proj12AhnSlager.bantam.util.Error;
+import proj12AhnSlager.bantam.util.ErrorHandler;
+import proj12AhnSlager.bantam.util.ErrorList;
+import proj12AhnSlager.bantam.util.SymbolInterner;
+import proj12AhnSlager.bantam.util.TreeDiff;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parses one large file using more than one core, by parsing its method bodies
+ * at the same time on a ForkJoinPool.
+ *
+ * The file is first scanned into a TokenBuffer, and parsed by a Parser that
+ * only matches the braces of each method body, which gives the classes, their
+ * members in source order, and where each body starts.  The bodies are then
+ * parsed in batches of about batchSize tokens, each batch by a Parser of its
+ * own reading its own view of the tokens, and the statements of each body are
+ * given to its Method.  Parsing a body only looks up the symbols its names
+ * were interned as by the scanner, so the batches share the SymbolInterner;
+ * the one kind of name a body makes up, an array type "T[]", is interned
+ * before the batches start.
+ *
+ * Errors are found by the scan and by each batch in an ErrorList of its own.
+ * If there are any, the file is parsed again by a Parser alone, so that the
+ * errors registered, and the AST, are exactly those of Parser.parse().  A file
+ * without errors gives the same AST as Parser.parse(), which main() checks.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class ParallelParser
+{
+    /**
+     * The number of tokens of method bodies parsed by one task, unless given
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1 << 12;
+
+    private ForkJoinPool pool;
+    private int batchSize;
+    private boolean recovering; // whether to go on parsing after a syntax error
+
+    /**
+     * Creates a ParallelParser that parses batches of 4K tokens on the common pool
+     */
+    public ParallelParser() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param pool the pool to parse the method bodies on
+     * @param batchSize the number of tokens of method bodies each task
+     *                  parses, which is rounded up to a whole body
+     */
+    public ParallelParser(ForkJoinPool pool, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive");
+        }
+        this.pool = pool;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sets whether the parse goes on after a syntax error, as
+     * Parser.setRecovering() does
+     * @param recovering whether to recover from syntax errors
+     */
+    public void setRecovering(boolean recovering) {
+        this.recovering = recovering;
+    }
+
+    /**
+     * @return whether the parse goes on after a syntax error
+     */
+    public boolean isRecovering() {
+        return recovering;
+    }
+
+    /**
+     * Parses a file with a new SymbolInterner
+     *
+     * @param filename the name of the Bantam Java file to be parsed
+     * @param handler the ErrorHandler to register errors with
+     * @return the Program node forming the root of the AST
+     */
+    public Program parse(String filename, ErrorHandler handler) {
+        return parse(filename, handler, new SymbolInterner());
+    }
+
+    /**
+     * Parses a file
+     *
+     * @param filename the name of the Bantam Java file to be parsed
+     * @param handler the ErrorHandler to register errors with
+     * @param symbols the SymbolInterner of the compilation
+     * @return the Program node forming the root of the AST
+     */
+    public Program parse(String filename, ErrorHandler handler, SymbolInterner symbols) {
+        ErrorList errors = new ErrorList();
+        TokenBuffer tokens = TokenBuffer.scanAll(new Scanner(filename, errors, symbols));
+        Program program = errors.errorsFound() ? null : parseWithoutErrors(tokens);
+        if (program == null) {
+            Parser parser = new Parser(handler, symbols);
+            parser.setRecovering(recovering);
+            program = parser.parse(filename);
+        }
+        return program;
+    }
+
+    /**
+     * Parses the classes and members, and then the method bodies in parallel
+     *
+     * @return the Program node forming the root of the AST, or null if there
+     * is a syntax error
+     */
+    private Program parseWithoutErrors(TokenBuffer tokens) {
+        ErrorList errors = new ErrorList();
+        Parser parser = new Parser(errors, tokens.getSymbols());
+        parser.setRecovering(recovering);
+        List<Method> methods = new ArrayList<>();
+        List<Integer> bodyStarts = new ArrayList<>();
+        Program program;
+        try {
+            program = parser.parseWithoutBodies(tokens, methods, bodyStarts);
+        }
+        catch (CompilationException e) {
+            return null;
+        }
+        if (errors.errorsFound()) {
+            return null;
+        }
+        internArrayTypes(tokens);
+
+        List<ForkJoinTask<StmtList[]>> batches = new ArrayList<>();
+        int from = 0;
+        while (from < methods.size()) {
+            // a body is taken to run up to the start of the next one
+            int to = from + 1;
+            while (to < methods.size()
+                    && bodyStarts.get(to) - bodyStarts.get(from) < batchSize) {
+                to++;
+            }
+            List<Integer> starts = bodyStarts.subList(from, to);
+            TokenBuffer view = tokens.share();
+            batches.add(pool.submit(() -> parseBodies(view, starts)));
+            from = to;
+        }
+
+        int m = 0;
+        for (int b = 0; b < batches.size(); b++) {
+            StmtList[] bodies = batches.get(b).join();
+            if (bodies == null) {
+                for (int rest = b + 1; rest < batches.size(); rest++) {
+                    batches.get(rest).cancel(false);
+                }
+                return null;
+            }
+            for (StmtList body : bodies) {
+                methods.get(m++).setStmtList(body);
+            }
+        }
+        return program;
+    }
+
+    /**
+     * Parses a batch of method bodies with a Parser of its own
+     *
+     * @param tokens a view of the tokens the batch does not share
+     * @param bodyStarts the index of the "{" token of each body
+     * @return the statements of each body, or null if there is a syntax error
+     */
+    private StmtList[] parseBodies(TokenBuffer tokens, List<Integer> bodyStarts) {
+        ErrorList errors = new ErrorList();
+        Parser parser = new Parser(errors, tokens.getSymbols());
+        parser.setRecovering(recovering);
+        StmtList[] bodies = new StmtList[bodyStarts.size()];
+        try {
+            for (int i = 0; i < bodies.length; i++) {
+                bodies[i] = parser.parseBody(tokens, bodyStarts.get(i));
+            }
+        }
+        catch (CompilationException e) {
+            return null;
+        }
+        return errors.errorsFound() ? null : bodies;
+    }
+
+    /**
+     * Interns the names of the array types in the tokens, so that the parsers
+     * of the bodies never add a symbol to the SymbolInterner they share
+     */
+    private static void internArrayTypes(TokenBuffer tokens) {
+        for (String arrayType : arrayTypes(tokens)) {
+            tokens.getSymbols().intern(arrayType);
+        }
+    }
+
+    /**
+     * Lists the name of the array type "T[]" for each identifier T followed by
+     * "[" and "]", in source order.  These are the only names a Parser makes
+     * up rather than taking from an identifier token.
+     *
+     * @param tokens the tokens of a complete file
+     * @return the names of the array types
+     */
+    static List<String> arrayTypes(TokenBuffer tokens) {
+        List<String> arrayTypes = new ArrayList<>();
+        int beforeLast = -1; // the indices of the last two tokens that are not comments
+        int last = -1;
+        for (int i = 0; i < tokens.size(); i++) {
+            Token.Kind kind = tokens.kind(i);
+            if (kind == Token.Kind.COMMENT) {
+                continue;
+            }
+            if (kind == Token.Kind.RBRACKET && last >= 0
+                    && tokens.kind(last) == Token.Kind.LBRACKET && beforeLast >= 0
+                    && tokens.kind(beforeLast) == Token.Kind.IDENTIFIER) {
+                arrayTypes.add(tokens.spelling(beforeLast) + "[]");
+            }
+            beforeLast = last;
+            last = i;
+        }
+        return arrayTypes;
+    }
+
+    /**
+     * Parses a file with a Parser and with a ParallelParser, and compares
+     * their ASTs and errors.  The first difference found is printed.
+     *
+     * @param filename the file to parse
+     * @param parallelParser the ParallelParser to check
+     * @param out where to print a difference
+     * @return true if the two agree
+     */
+    public static boolean verify(String filename, ParallelParser parallelParser,
+                                 PrintStream out) {
+        ErrorHandler expectedErrors = new ErrorHandler();
+        ErrorHandler actualErrors = new ErrorHandler();
+        Parser parser = new Parser(expectedErrors);
+        parser.setRecovering(parallelParser.isRecovering());
+        SymbolInterner actualSymbols = new SymbolInterner();
+        Program expected = null;
+        Program actual = null;
+        String expectedException = null;
+        String actualException = null;
+        try {
+            expected = parser.parse(filename);
+        }
+        catch (CompilationException e) {
+            expectedException = e.getMessage();
+        }
+        try {
+            actual = parallelParser.parse(filename, actualErrors, actualSymbols);
+        }
+        catch (CompilationException e) {
+            actualException = e.getMessage();
+        }
+        if (expectedException != null || actualException != null) {
+            if (expectedException == null || !expectedException.equals(actualException)) {
+                out.println(filename + ": expected exception " + expectedException +
+                        " but found " + actualException);
+                return false;
+            }
+        }
+        else {
+            String difference = new TreeDiff(parser.getSymbols(), actualSymbols)
+                    .firstDifference(expected, actual);
+            if (difference != null) {
+                out.println(filename + ": ASTs differ at " + difference);
+                return false;
+            }
+        }
+        List<String> expectedList = new ArrayList<>();
+        expectedErrors.getErrorList().forEach(error -> expectedList.add(describe(error)));
+        List<String> actualList = new ArrayList<>();
+        actualErrors.getErrorList().forEach(error -> actualList.add(describe(error)));
+        if (!expectedList.equals(actualList)) {
+            out.println(filename + ": errors differ: expected " + expectedList +
+                    " but found " + actualList);
+            return false;
+        }
+        return true;
+    }
+
+    private static String describe(Error error) {
+        return error + " at [" + error.getStartOffset() + ", " + error.getEndOffset() + ")";
+    }
+
+    /**
+     * Checks the ParallelParser against the Parser on a file and times them,
+     * with a pool of each of the numbers of threads given.
+     * The arguments are the file, the batch size, and the numbers of threads.
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: ParallelParser file batchSize threads...");
+            return;
+        }
+        String filename = args[0];
+        int batchSize = Integer.parseInt(args[1]);
+        try {
+            System.out.println("Parser: " + time(() ->
+                    new Parser(new ErrorHandler()).parse(filename)) + " ms");
+            for (int i = 2; i < args.length; i++) {
+                int threads = Integer.parseInt(args[i]);
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                ParallelParser parser = new ParallelParser(pool, batchSize);
+                boolean agrees = verify(filename, parser, System.out);
+                long millis = time(() -> parser.parse(filename, new ErrorHandler()));
+                System.out.println("ParallelParser with " + threads + " threads: " + millis +
+                        " ms" + (agrees ? "" : " (differs from the Parser)"));
+                pool.shutdown();
+            }
+        }
+        catch (CompilationException e) {
+            System.out.println(e);
+        }
+    }
+
+    /**
+     * @return the fastest of 15 runs, in milliseconds, after 10 to warm up
+     */
+    private static long time(Runnable parse) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 25; run++) {
+            long start = System.nanoTime();
+            parse.run();
+            if (run >= 10) {
+                best = Math.min(best, (System.nanoTime() - start) / 1000000);
+            }
+        }
+        return best;
+    }
+
+}
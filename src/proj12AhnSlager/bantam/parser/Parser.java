@@ -41,9 +41,11 @@ package proj12AhnSlager.bantam.parser;
 import proj12AhnSlager.bantam.ast.*;
 import proj12AhnSlager.bantam.lexer.Scanner;
 import proj12AhnSlager.bantam.lexer.Token;
+import proj12AhnSlager.bantam.lexer.TokenBuffer;
 import proj12AhnSlager.bantam.util.CompilationException;
 import proj12AhnSlager.bantam.util.Error;
 import proj12AhnSlager.bantam.util.ErrorHandler;
+import proj12AhnSlager.bantam.util.SymbolInterner;
 
 import static proj12AhnSlager.bantam.lexer.Token.Kind.*;
 
@@ -59,23 +61,163 @@ import static proj12AhnSlager.bantam.lexer.Token.Kind.*;
  * All other terminal symbols that are in all caps correspond to keywords.
  */
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * This class constructs an AST from a legal Bantam Java program.  If the
  * program is illegal, then one or more error messages are displayed.
+ *
+ * By default the parser stops at the first syntax error.  In recovering mode
+ * it registers the error and skips ahead to the next statement or member
+ * boundary, a ";" or "}", or to the next class, and goes on parsing from there,
+ * so that one parse reports every syntax error.  A skipped statement is
+ * replaced by an ErrorStmt; a skipped member or class is left out.
+ *
+ * With lazy bodies, the parser only matches the braces of each method body and
+ * leaves the Method to parse the body the first time its statements are asked
+ * for, so that work that only needs the classes and the signatures of their
+ * members does not pay for the bodies.  Syntax errors in a body are then
+ * registered when the body is parsed, and are those parsing it with the rest
+ * would have registered, since a body that has a "class" in it or runs to the
+ * end of file, whose errors recovery goes on from outside it, is parsed with
+ * the rest.  A body is parsed with the tokens and the ErrorHandler of the
+ * parse, so the bodies of a program must not be parsed on more than one
+ * thread at the same time.
+ *
+ * Statements and expressions, which can nest to any depth, are parsed with
+ * explicit stacks rather than by recursion, so a generated program with
+ * thousands of nested parentheses, blocks or else ifs is parsed in a fixed
+ * amount of the Java stack.
  */
 public class Parser
 {
     // instance variables
-    private Scanner scanner;
-    private Token currentToken; // the lookahead token
+    private TokenBuffer tokens; // the tokens of the file being parsed
+    private int current;        // the index in tokens of the lookahead token
+    private int previousEnd;    // the offset just past the last token moved past
     private ErrorHandler errorHandler;
+    private SymbolInterner symbols; // interns the names stored in the AST
     private String filename;
+    private boolean recovering;     // whether to go on parsing after a syntax error
+    private int lastErrorToken;     // the index of the token of the last error, or -1
+    private boolean lazyBodies;     // whether method bodies are parsed when first needed
+    private List<Method> skippedMethods;   // if set, the methods whose bodies were skipped,
+    private List<Integer> skippedBodies;   // and the index of the "{" of each body
+    private MemberList classMembers;       // the members of the class being parsed
+    private NodeInterner nodeInterner;     // if set, shares the expressions of each AST
+    private NodeInterner.Positions sharedPositions; // where the folded expressions occur
+
+    // the binary operators, and the binding power of each, indexed by operator;
+    // a higher power binds more tightly
+    private static final int OR_OP = 0, AND_OP = 1, EQ_OP = 2, NE_OP = 3, LT_OP = 4,
+            LEQ_OP = 5, GT_OP = 6, GEQ_OP = 7, INSTANCEOF_OP = 8, PLUS_OP = 9,
+            MINUS_OP = 10, TIMES_OP = 11, DIVIDE_OP = 12, MODULUS_OP = 13;
+    private static final int OR_POWER = 1, AND_POWER = 2, EQUALITY_POWER = 3,
+            RELATIONAL_POWER = 4, ADD_POWER = 5, MULT_POWER = 6;
+    private static final int[] BINDING_POWER = {OR_POWER, AND_POWER, EQUALITY_POWER,
+            EQUALITY_POWER, RELATIONAL_POWER, RELATIONAL_POWER, RELATIONAL_POWER,
+            RELATIONAL_POWER, RELATIONAL_POWER, ADD_POWER, ADD_POWER, MULT_POWER,
+            MULT_POWER, MULT_POWER};
+
+    // unwinds the parse to the nearest place to recover at; it is shared and
+    // has no stack trace, so a syntax error costs no more than a return
+    private static final SyntaxError SYNTAX_ERROR = new SyntaxError();
+
+    private static class SyntaxError extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        SyntaxError() {
+            super(null, null, false, false);
+        }
+    }
 
     // constructor
     public Parser(ErrorHandler errorHandler) {
+        this(errorHandler, new SymbolInterner());
+    }
+
+    /**
+     * @param errorHandler the ErrorHandler to report errors to
+     * @param symbols the SymbolInterner of the compilation
+     */
+    public Parser(ErrorHandler errorHandler, SymbolInterner symbols) {
         this.errorHandler = errorHandler;
+        this.symbols = symbols;
+    }
+
+    /**
+     * @return the SymbolInterner that gave out the symbol ids in the AST
+     */
+    public SymbolInterner getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * Sets whether the parser goes on after a syntax error.  A recovering
+     * parser registers every error it finds with the ErrorHandler and always
+     * returns a Program, which holds an ErrorStmt for each statement skipped;
+     * the ErrorHandler tells whether the parse failed.  Otherwise the parser
+     * throws a CompilationException at the first error.
+     * @param recovering whether to recover from syntax errors
+     */
+    public void setRecovering(boolean recovering) {
+        this.recovering = recovering;
+    }
+
+    /**
+     * @return whether the parser goes on after a syntax error
+     */
+    public boolean isRecovering() {
+        return recovering;
+    }
+
+    /**
+     * Sets whether method bodies are parsed only when their statements are
+     * first asked for, by Method.getStmtList() or a visitor.  The tokens of
+     * the file are kept until then, and the bodies are parsed with the
+     * ErrorHandler, SymbolInterner and recovering mode of this parse.
+     * @param lazyBodies whether to put off parsing method bodies
+     */
+    public void setLazyBodies(boolean lazyBodies) {
+        this.lazyBodies = lazyBodies;
+    }
+
+    /**
+     * @return whether method bodies are parsed only when first needed
+     */
+    public boolean isLazyBodies() {
+        return lazyBodies;
+    }
+
+    /**
+     * Sets a NodeInterner to share the equal expressions of each AST parsed,
+     * so that it takes less memory and equal expressions are the same node.
+     * The positions of the occurrences folded into a shared node are then
+     * given by getSharedPositions().  Lazily parsed bodies are not shared.
+     * @param nodeInterner the interner, which may be shared with other
+     *                     parsers, or null to not share expressions
+     */
+    public void setNodeInterner(NodeInterner nodeInterner) {
+        this.nodeInterner = nodeInterner;
+    }
+
+    /**
+     * @return the interner that shares expressions, or null if there is none
+     */
+    public NodeInterner getNodeInterner() {
+        return nodeInterner;
+    }
+
+    /**
+     * @return the positions of the expressions of the last AST parsed that
+     * were folded into shared nodes, or null if it was not shared
+     */
+    public NodeInterner.Positions getSharedPositions() {
+        return sharedPositions;
     }
 
 
@@ -85,9 +227,82 @@ public class Parser
      * @return The Program node forming the root of the AST generated by the parser
      */
     public Program parse(String filename) {
-        this.scanner=new Scanner(filename, this.errorHandler);
-        this.filename=filename;
-        return this.parseProgram();
+        Scanner scanner=new Scanner(filename, this.errorHandler, this.symbols);
+        return this.parse(new TokenBuffer(scanner));
+    }
+
+    /**
+     * parse the given text, such as the unsaved text of an editor, and return
+     * the root node of the AST, without writing the text to a file first
+     * @param text The Bantam Java source to be parsed
+     * @param logicalName The name the text is known by, which the errors and
+     *                    the classes of the AST give as their filename
+     * @return The Program node forming the root of the AST generated by the parser
+     */
+    public Program parse(CharSequence text, String logicalName) {
+        Scanner scanner=new Scanner(text, logicalName, this.errorHandler, this.symbols);
+        return this.parse(new TokenBuffer(scanner));
+    }
+
+    /**
+     * parse the given tokens and return the root node of the AST.  The buffer
+     * may already be filled, or may scan more tokens as the parser asks for them.
+     * The symbol ids in the AST are given out by the SymbolInterner of the tokens.
+     * @param tokens The tokens of the Bantam Java file to be parsed
+     * @return The Program node forming the root of the AST generated by the parser
+     */
+    public Program parse(TokenBuffer tokens) {
+        return this.parse(tokens, tokens.getSymbols());
+    }
+
+    /**
+     * parse the given tokens, giving the AST the symbol ids of the given
+     * SymbolInterner instead of that of the tokens.  Parsing interns the names
+     * of the AST, so the interner must already hold all of them if others are
+     * reading it at the same time.
+     * @param tokens The tokens of the Bantam Java file to be parsed
+     * @param symbols the SymbolInterner of the compilation
+     * @return The Program node forming the root of the AST generated by the parser
+     */
+    Program parse(TokenBuffer tokens, SymbolInterner symbols) {
+        this.tokens=tokens;
+        this.symbols=symbols;
+        this.current=-1;
+        this.previousEnd=0;
+        this.lastErrorToken=-1;
+        this.filename=tokens.getFilename();
+        this.sharedPositions=null;
+        Program program=this.parseProgram();
+        if(this.nodeInterner!=null){
+            this.sharedPositions=this.nodeInterner.share(program);
+        }
+        return program;
+    }
+
+    /**
+     * Parses the given tokens without the method bodies, whose braces are only
+     * matched, and lists the methods and where their bodies start, so that the
+     * bodies can be parsed apart from the rest, as a ParallelParser does.
+     * The methods are left with no statements, or way to parse them.
+     * @param tokens The tokens of the Bantam Java file to be parsed
+     * @param methods gets the methods whose bodies were skipped, in source order
+     * @param bodyStarts gets the index of the "{" token of each of their bodies
+     * @return The Program node forming the root of the AST generated by the parser
+     */
+    Program parseWithoutBodies(TokenBuffer tokens, List<Method> methods,
+                               List<Integer> bodyStarts) {
+        boolean wasLazy = this.lazyBodies;
+        this.lazyBodies = true;
+        this.skippedMethods = methods;
+        this.skippedBodies = bodyStarts;
+        try {
+            return this.parse(tokens);
+        }
+        finally {
+            this.lazyBodies = wasLazy;
+            this.skippedMethods = null;
+            this.skippedBodies = null;
+        }
     }
 
     public static void main(String[] argv){
@@ -99,21 +314,25 @@ public class Parser
         for(String filename: argv) {
             ErrorHandler errorHandler = new ErrorHandler();
             Parser parser = new Parser(errorHandler);
+            parser.setRecovering(true);
 
             try {
                 parser.parse(filename);
-                System.out.println("Parsing Successful.");
             }catch(CompilationException e){
-                if(errorHandler.errorsFound()){
-                    System.out.println(filename + ": Parsing Failed");
-                    List<Error> errorList= errorHandler.getErrorList();
-                    for(Error error:errorList ){
-                        System.out.println(error.toString() + "\n");
-                    }
-                }else{
+                if(!errorHandler.errorsFound()){
                     System.out.println("Invalid filename: "+filename);
+                    continue;
                 }
             }
+            if(errorHandler.errorsFound()){
+                System.out.println(filename + ": Parsing Failed");
+                List<Error> errorList= errorHandler.getErrorList();
+                for(Error error:errorList ){
+                    System.out.println(error.toString() + "\n");
+                }
+            }else{
+                System.out.println("Parsing Successful.");
+            }
         }
     }
 
@@ -123,15 +342,51 @@ public class Parser
      */
     private Program parseProgram(){
         updateCurrentToken();
-        int position = currentToken.position;
+        int position = tokens.line(current);
+        int start = tokens.start(current);
         ClassList classList = new ClassList(position);
 
-        while (currentToken.kind != EOF) {
+        while (tokens.kind(current) != EOF) {
+            Class_ aClass = parseClassOrSkip();
+            if (aClass != null) {
+                classList.addElement(aClass);
+            }
+        }
+        return span(new Program(position, span(classList, start)), start);
+    }
+
+
+    /**
+     * Parses a class and moves past its "}".  In recovering mode a class
+     * with a syntax error that could not be recovered from inside it is
+     * skipped up to the next "class".
+     * @return the class, or null if it was skipped
+     */
+    private Class_ parseClassOrSkip() {
+        if (!recovering) {
+            Class_ aClass = parseClass();
+            updateCurrentToken();
+            return aClass;
+        }
+        try {
             Class_ aClass = parseClass();
-            classList.addElement(aClass);
             updateCurrentToken();
+            return aClass;
+        }
+        catch (SyntaxError e) {
+            while (tokens.kind(current) != CLASS && tokens.kind(current) != EOF) {
+                updateCurrentToken();
+            }
+            if (lazyBodies && classMembers != null) {
+                // register the errors of the bodies left out with the class
+                for (ASTNode member : classMembers) {
+                    if (member instanceof Method) {
+                        ((Method) member).getStmtList();
+                    }
+                }
+            }
+            return null;
         }
-        return new Program(position, classList);
     }
 
 
@@ -141,27 +396,61 @@ public class Parser
      * <MemberList> ::= EMPTY | <Member> <MemberList>
      */
     private Class_ parseClass() {
-        int position = currentToken.position;
+        int position = tokens.line(current);
+        int start = tokens.start(current);
         String parent="";
         MemberList memberList= new MemberList(position);
+        classMembers = memberList;
         this.checkToken(CLASS,"When parsing class, class expected." );
         String name = parseIdentifier();
 
-        if (currentToken.kind==EXTENDS){
+        if (tokens.kind(current)==EXTENDS){
             updateCurrentToken();
             parent =parseIdentifier();
         }
 
+        int membersStart = tokens.start(current);
         this.checkToken(LCURLY,"When parsing class, \"{\" expected.");
 
-        while (currentToken.kind!= RCURLY){
-            if (currentToken.kind == EOF){
+        while (tokens.kind(current)!= RCURLY){
+            if (tokens.kind(current) == EOF){
                 this.registerError("When parsing class, \"}\" expected.",
                         "Unexpected Token");
             }
-            memberList.addElement(parseMember());
+            Member member = parseMemberOrSkip();
+            if (member != null) {
+                memberList.addElement(member);
+            }
+        }
+        // the "}" is the current token, which is moved past by parseClassOrSkip
+        int end = tokens.start(current) + tokens.length(current);
+        memberList.setSpan(membersStart, end);
+        Class_ aClass = new Class_(position,filename,name, parent, memberList);
+        aClass.setSpan(start, end);
+        aClass.setNameId(symbol(name));
+        aClass.setParentId(symbol(parent));
+        return aClass;
+    }
+
+
+    /**
+     * Parses a member.  In recovering mode a member with a syntax error is
+     * skipped up to the next ";" or "}" outside it.
+     * @return the member, or null if it was skipped
+     */
+    private Member parseMemberOrSkip() {
+        if (!recovering) {
+            return parseMember();
+        }
+        try {
+            return parseMember();
+        }
+        catch (SyntaxError e) {
+            if (skipToBoundary()) {
+                throw e;
+            }
+            return null;
         }
-        return new Class_(position,filename,name, parent, memberList);
     }
 
 
@@ -172,7 +461,8 @@ public class Parser
      * <InitialValue> ::= EMPTY | = <Expression>
      */
     private Member parseMember() {
-        int position= currentToken.position;
+        int position= tokens.line(current);
+        int start = tokens.start(current);
         FormalList formalList;
         StmtList stmtList;
         Expr expr;
@@ -183,29 +473,53 @@ public class Parser
         //name
         String identifier =parseIdentifier();
 
-        if(currentToken.kind == LPAREN){
+        if(tokens.kind(current) == LPAREN){
             //Method case
             updateCurrentToken();
             formalList=parseParameters();
             updateCurrentToken();
+            int bodyStart = current;
+            int bodyPreviousEnd = previousEnd;
+            if (lazyBodies && skipBlock()) {
+                Method method = span(new Method(position, type, identifier, formalList, null),
+                        start);
+                if (skippedMethods != null) {
+                    skippedMethods.add(method);
+                    skippedBodies.add(bodyStart);
+                }
+                else {
+                    method.setBodyParser(bodyParser(bodyStart));
+                }
+                method.setReturnTypeId(symbol(type));
+                method.setNameId(symbol(identifier));
+                return method;
+            }
+            // the body is parsed with the rest, as every body is when bodies
+            // are not lazy, and as one skipBlock() could not skip is
+            current = bodyStart;
+            previousEnd = bodyPreviousEnd;
             BlockStmt block = (BlockStmt)this.parseBlock();
             stmtList = block.getStmtList();
-            return new Method(position,type, identifier, formalList, stmtList );
+            Method method = span(new Method(position,type, identifier, formalList, stmtList ),
+                    start);
+            method.setReturnTypeId(symbol(type));
+            method.setNameId(symbol(identifier));
+            return method;
         }
 
-        else if (currentToken.kind== ASSIGN){
+        else if (tokens.kind(current)== ASSIGN){
             //non-empty field case
             updateCurrentToken();
             expr=parseExpression();
             this.checkToken(SEMICOLON, "When parsing field, \";\" expected.");
-            return new Field(position, type, identifier, expr);
+            return field(span(new Field(position, type, identifier, expr), start));
 
         }
 
-        else if (currentToken.kind==SEMICOLON){
+        else if (tokens.kind(current)==SEMICOLON){
             //empty field case
             updateCurrentToken();
-            return new Field(position,type, identifier, null);
+            return field(span(new Field(position,type, identifier, null), start));
         }
         else {
             this.registerError("When parsing field, \"(\", \"=\", or \";\" expected.",
@@ -217,54 +531,228 @@ public class Parser
 
     //-----------------------------------
 
-    /* Statements
-     *  <Stmt> ::= <WhileStmt> | <ReturnStmt> | <BreakStmt> | <DeclStmt>
-     *              | <ExpressionStmt> | <ForStmt> | <BlockStmt> | <IfStmt>
+    /**
+     * The kinds of StatementFrame, each of a statement that has been parsed
+     * up to a statement inside it
      */
-    private Stmt parseStatement() {
-        Stmt stmt;
+    private static final int BLOCK_FRAME = 0, IF_FRAME = 1, ELSE_FRAME = 2, WHILE_FRAME = 3,
+            FOR_FRAME = 4;
 
-        switch (currentToken.kind) {
-            case IF:
-                stmt = parseIf();
-                break;
-            case LCURLY:
-                stmt = parseBlock();
-                break;
-            case VAR:
-                stmt = parseDeclStmt();
-                break;
-            case RETURN:
-                stmt = parseReturn();
-                break;
-            case FOR:
-                stmt = parseFor();
-                break;
-            case WHILE:
-                stmt = parseWhile();
-                break;
-            case BREAK:
-                stmt = parseBreak();
-                break;
-            default:
-                stmt = parseExpressionStmt();
+    /**
+     * A statement being parsed by parseBlock(), which holds what has been
+     * parsed of it until the statement inside it has been parsed
+     */
+    private static class StatementFrame
+    {
+        int kind;
+        int position;       // the line of the first token of the statement
+        int start;          // the offset of the first token of the statement
+        StmtList stmtList;  // the statements of a block parsed so far
+        int stmtPosition;   // the line of the first token of the block's
+        int stmtStart;      // statement being parsed, and its offset
+        Expr predExpr;      // the expressions of an if, while or for
+        Expr initExpr;
+        Expr updateExpr;
+        Stmt thenStmt;      // the statement of an if when its else is parsed
+    }
+
+    private StatementFrame[] statementFrames = new StatementFrame[16];
+    private int statementDepth; // the number of statementFrames in use
+
+
+    /*
+     * <BlockStmt> ::= { <Body> }
+     * <Body> ::= EMPTY | <Stmt> <Body>
+     *
+     * Blocks, ifs, whiles and fors nest inside each other to any depth, so a
+     * block is parsed with an explicit stack of StatementFrames rather than by
+     * one call per statement, and a deeply nested block or a long chain of
+     * else ifs cannot overflow the Java stack.  In recovering mode a statement
+     * of a block with a syntax error is skipped up to the next ";" or "}"
+     * outside it, and an ErrorStmt spanning the skipped source is put in its
+     * place.
+     */
+    private Stmt parseBlock() {
+        int base = statementDepth;
+        try {
+            pushBlock();
+            Stmt stmt = null; // the statement just parsed, for the frame on top
+            while (true) {
+                try {
+                    StatementFrame frame = statementFrames[statementDepth - 1];
+                    if (stmt == null) {
+                        // the block on top goes on to its next statement
+                        if (tokens.kind(current) == RCURLY) {
+                            updateCurrentToken();
+                            statementDepth--;
+                            stmt = span(new BlockStmt(frame.position,
+                                    span(frame.stmtList, frame.start)), frame.start);
+                            if (statementDepth == base) {
+                                return stmt;
+                            }
+                            continue;
+                        }
+                        if (tokens.kind(current) == EOF) {
+                            // the error is in the enclosing block's statement
+                            statementDepth--;
+                            this.registerError("When parsing Block\"}\" expected",
+                                    "Unexpected Token");
+                        }
+                        frame.stmtPosition = tokens.line(current);
+                        frame.stmtStart = tokens.start(current);
+                        stmt = beginStatement();
+                        continue;
+                    }
+                    switch (frame.kind) {
+                        case BLOCK_FRAME:
+                            frame.stmtList.addElement(stmt);
+                            stmt = null;
+                            break;
+                        case IF_FRAME:
+                            if (tokens.kind(current) == ELSE) {
+                                updateCurrentToken();
+                                frame.kind = ELSE_FRAME;
+                                frame.thenStmt = stmt;
+                                stmt = beginStatement();
+                                break;
+                            }
+                            statementDepth--;
+                            stmt = span(new IfStmt(frame.position, frame.predExpr, stmt, null),
+                                    frame.start);
+                            break;
+                        case ELSE_FRAME:
+                            statementDepth--;
+                            stmt = span(new IfStmt(frame.position, frame.predExpr,
+                                    frame.thenStmt, stmt), frame.start);
+                            break;
+                        case WHILE_FRAME:
+                            statementDepth--;
+                            stmt = span(new WhileStmt(frame.position, frame.predExpr, stmt),
+                                    frame.start);
+                            break;
+                        default:
+                            statementDepth--;
+                            stmt = span(new ForStmt(frame.position, frame.initExpr,
+                                    frame.predExpr, frame.updateExpr, stmt), frame.start);
+                    }
+                }
+                catch (SyntaxError e) {
+                    // skip the statement of the innermost block that holds the error
+                    while (statementDepth > base
+                            && statementFrames[statementDepth - 1].kind != BLOCK_FRAME) {
+                        statementDepth--;
+                    }
+                    if (statementDepth == base || skipToBoundary()) {
+                        throw e;
+                    }
+                    StatementFrame block = statementFrames[statementDepth - 1];
+                    stmt = span(new ErrorStmt(block.stmtPosition), block.stmtStart);
+                }
+            }
         }
+        finally {
+            statementDepth = base;
+        }
+    }
 
-        return stmt;
+    /**
+     * Moves past the "{" of a block and pushes the frame of the block
+     */
+    private void pushBlock() {
+        int position = tokens.line(current);
+        int start = tokens.start(current);
+        StmtList stmtList = new StmtList(position);
+        this.checkToken(LCURLY,"When parsing Block\"{\" expected" );
+        pushStatement(BLOCK_FRAME, position, start).stmtList = stmtList;
     }
 
+    /**
+     * @return the frame of a statement, on top of the stack, which has the
+     * given kind, position and start
+     */
+    private StatementFrame pushStatement(int kind, int position, int start) {
+        if (statementDepth == statementFrames.length) {
+            statementFrames = Arrays.copyOf(statementFrames, 2 * statementDepth);
+        }
+        StatementFrame frame = statementFrames[statementDepth];
+        if (frame == null) {
+            frame = statementFrames[statementDepth] = new StatementFrame();
+        }
+        statementDepth++;
+        frame.kind = kind;
+        frame.position = position;
+        frame.start = start;
+        return frame;
+    }
 
-    /*
+
+    /* Statements
+     *  <Stmt> ::= <WhileStmt> | <ReturnStmt> | <BreakStmt> | <DeclStmt>
+     *              | <ExpressionStmt> | <ForStmt> | <BlockStmt> | <IfStmt>
+     *
      * <WhileStmt> ::= WHILE ( <Expression> ) <Stmt>
+     *
+     * <ForStmt> ::= FOR ( <Start> ; <Terminate> ; <Increment> ) <STMT>
+     * <Start>     ::= EMPTY | <Expression>
+     * <Terminate> ::= EMPTY | <Expression>
+     * <Increment> ::= EMPTY | <Expression>
+     *
+     * <IfStmt> ::= IF ( <Expr> ) <Stmt> | IF ( <Expr> ) <Stmt> ELSE <Stmt>
+     *
+     * Parses the heads of the whiles, fors and ifs at the current token,
+     * pushing a frame for each, up to a statement with no statement inside it.
+     * Returns that statement, or null if it is a block, whose frame is then
+     * on top.
      */
-    private Stmt parseWhile() {
-        int position = this.currentToken.position;
-        updateCurrentToken();
-        this.checkToken(LPAREN,"When parsing while, \"(\" expected.");
-        Expr predExpr = this.parseExpression();
-
-        this.checkToken(RPAREN,"When parsing while, \")\" expected.");
-        return new WhileStmt(position, predExpr, this.parseStatement());
+    private Stmt beginStatement() {
+        while (true) {
+            int position = tokens.line(current);
+            int start = tokens.start(current);
+            switch (tokens.kind(current)) {
+                case IF: {
+                    updateCurrentToken();
+                    this.checkToken(LPAREN, "When parsing If, \"(\" expected");
+                    Expr predExpr = this.parseExpression();
+                    this.checkToken(RPAREN,"When parsing If, \")\" expected");
+                    pushStatement(IF_FRAME, position, start).predExpr = predExpr;
+                    break;
+                }
+                case WHILE: {
+                    updateCurrentToken();
+                    this.checkToken(LPAREN,"When parsing while, \"(\" expected.");
+                    Expr predExpr = this.parseExpression();
+                    this.checkToken(RPAREN,"When parsing while, \")\" expected.");
+                    pushStatement(WHILE_FRAME, position, start).predExpr = predExpr;
+                    break;
+                }
+                case FOR: {
+                    updateCurrentToken();
+                    this.checkToken(LPAREN, "When parsing For, \"(\" expected");
+                    Expr initExpr = this.parseExpression();
+                    this.checkToken(SEMICOLON,"When parsing For, \";\" expected");
+                    Expr predExpr = this.parseExpression();
+                    this.checkToken(SEMICOLON, "When parsing For, \";\" expected");
+                    Expr updateExpr = this.parseExpression();
+                    this.checkToken(RPAREN,"When parsing For, \")\" expected");
+                    StatementFrame frame = pushStatement(FOR_FRAME, position, start);
+                    frame.initExpr = initExpr;
+                    frame.predExpr = predExpr;
+                    frame.updateExpr = updateExpr;
+                    break;
+                }
+                case LCURLY:
+                    pushBlock();
+                    return null;
+                case VAR:
+                    return parseDeclStmt();
+                case RETURN:
+                    return parseReturn();
+                case BREAK:
+                    return parseBreak();
+                default:
+                    return parseExpressionStmt();
+            }
+        }
     }
 
 
@@ -272,15 +760,16 @@ public class Parser
      * <ReturnStmt> ::= RETURN <Expression> ; | RETURN ;
      */
     private Stmt parseReturn() {
+        int start = tokens.start(current);
         updateCurrentToken();
-        int position = this.currentToken.position;
-        if(this.currentToken.kind == SEMICOLON){
+        int position = tokens.line(current);
+        if(tokens.kind(current) == SEMICOLON){
             updateCurrentToken();
-            return new ReturnStmt(position, null);
+            return span(new ReturnStmt(position, null), start);
         }else{
             Expr expr = this.parseExpression();
             this.checkToken(SEMICOLON, "When parsing Return, \";\" expected.");
-            return new ReturnStmt(position,expr);
+            return span(new ReturnStmt(position,expr), start);
         }
     }
 
@@ -289,10 +778,11 @@ public class Parser
      * BreakStmt> ::= BREAK ;
      */
     private Stmt parseBreak() {
+        int start = tokens.start(current);
         updateCurrentToken();
-        int position = this.currentToken.position;
+        int position = tokens.line(current);
         this.checkToken(SEMICOLON,"When parsing Break, \";\" expected");
-        return new BreakStmt(this.currentToken.position);
+        return span(new BreakStmt(tokens.line(current)), start);
     }
 
 
@@ -300,10 +790,11 @@ public class Parser
      * <ExpressionStmt> ::= <Expression> ;
      */
     private ExprStmt parseExpressionStmt() {
+        int start = tokens.start(current);
         Expr expr = this.parseExpression();
-        int position = this.currentToken.position;
+        int position = tokens.line(current);
         this.checkToken(SEMICOLON, "When parsing ExpressionStmt\";\" expected");
-        return new ExprStmt(position,expr);
+        return span(new ExprStmt(position,expr), start);
     }
 
 
@@ -312,86 +803,139 @@ public class Parser
      * every local variable must be initialized
      */
     private Stmt parseDeclStmt() {
+        int start = tokens.start(current);
         updateCurrentToken();
-        int position = this.currentToken.position;
+        int position = tokens.line(current);
         String name = this.parseIdentifier();
 
         this.checkToken(ASSIGN, "When parsing DeclStmt, \"=\" expected");
         Expr expr = this.parseExpression();
 
         this.checkToken(SEMICOLON,"When parsing DeclStmt, \";\" expected");
-        return new DeclStmt(position,name,expr);
+        DeclStmt declStmt = span(new DeclStmt(position,name,expr), start);
+        declStmt.setNameId(symbol(name));
+        return declStmt;
     }
 
 
-
-    /*
-     * <ForStmt> ::= FOR ( <Start> ; <Terminate> ; <Increment> ) <STMT>
-     * <Start>     ::= EMPTY | <Expression>
-     * <Terminate> ::= EMPTY | <Expression>
-     * <Increment> ::= EMPTY | <Expression>
+    /**
+     * Moves past a block without parsing it, by matching its braces.  A block
+     * with a "class" in it, or with no "}" to match its "{", is not skipped,
+     * since recovering from its syntax errors goes on at the "class" or gives
+     * up at the end of file rather than at its "}", and so it must be parsed
+     * to find the errors parsing it with the rest would find.
+     * @return true if the block was moved past, or false if it must be parsed
      */
-    private Stmt parseFor() {
-        int position = this.currentToken.position;
-        updateCurrentToken();
-
-        this.checkToken(LPAREN, "When parsing For, \"(\" expected");
-        Expr startExpr = this.parseExpression();
-
-        this.checkToken(SEMICOLON,"When parsing For, \";\" expected");
-        Expr predExpr = this.parseExpression();
-
-        this.checkToken(SEMICOLON, "When parsing For, \";\" expected");
-        Expr incExpr = this.parseExpression();
-
-        this.checkToken(RPAREN,"When parsing For, \")\" expected");
-        return new ForStmt(position, startExpr, predExpr, incExpr, this.parseStatement());
+    private boolean skipBlock() {
+        if (tokens.kind(current) != LCURLY) {
+            return false;
+        }
+        int depth = 0;
+        do {
+            switch (tokens.kind(current)) {
+                case LCURLY:
+                    depth++;
+                    break;
+                case RCURLY:
+                    depth--;
+                    break;
+                case CLASS:
+                case EOF:
+                    return false;
+            }
+            updateCurrentToken();
+        } while (depth > 0);
+        return true;
     }
 
-
-    /*
-     * <BlockStmt> ::= { <Body> }
-     * <Body> ::= EMPTY | <Stmt> <Body>
+    /**
+     * @param bodyStart the index of the "{" token of a method body skipped
+     * @return a parser of the body's statements that needs none of the
+     * parser's state, which moves on to other files
      */
-    private Stmt parseBlock() {
-        int position = this.currentToken.position;
-        StmtList stmtList = new StmtList(position);
-        this.checkToken(LCURLY,"When parsing Block\"{\" expected" );
-
-        while(this.currentToken.kind != RCURLY){
-            if (currentToken.kind == EOF){
-                this.registerError("When parsing Block\"}\" expected","Unexpected Token");
-            }
-            stmtList.addElement(this.parseStatement());
+    private Supplier<StmtList> bodyParser(int bodyStart) {
+        TokenBuffer tokens = this.tokens;
+        ErrorHandler errorHandler = this.errorHandler;
+        SymbolInterner symbols = this.symbols;
+        boolean recovering = this.recovering;
+        return () -> {
+            Parser parser = new Parser(errorHandler, symbols);
+            parser.setRecovering(recovering);
+            return parser.parseBody(tokens, bodyStart);
+        };
+    }
 
+    /**
+     * Parses a method body whose braces have already been matched
+     * @param tokens the tokens of the file
+     * @param bodyStart the index of the body's "{" token
+     * @return the statements of the body
+     */
+    StmtList parseBody(TokenBuffer tokens, int bodyStart) {
+        this.tokens = tokens;
+        this.current = bodyStart;
+        this.previousEnd = tokens.start(bodyStart);
+        this.lastErrorToken = -1;
+        this.filename = tokens.getFilename();
+        try {
+            return ((BlockStmt) this.parseBlock()).getStmtList();
+        }
+        catch (SyntaxError e) {
+            // not thrown for a body skipBlock() moved past, which has no
+            // "class" in it and a "}" that matches its "{"
+            StmtList stmtList = new StmtList(tokens.line(bodyStart));
+            stmtList.addElement(span(new ErrorStmt(tokens.line(bodyStart)),
+                    tokens.start(bodyStart)));
+            return span(stmtList, tokens.start(bodyStart));
         }
-        updateCurrentToken();
-        return new BlockStmt(position, stmtList);
     }
 
 
-    /*
-     * <IfStmt> ::= IF ( <Expr> ) <Stmt> | IF ( <Expr> ) <Stmt> ELSE <Stmt>
+    /**
+     * Parses tokens that should be nothing but whole members, such as the
+     * members of a class an edit may have changed.  The parser must not be
+     * recovering, so that the first syntax error throws a CompilationException.
+     * @param tokens the tokens of the members, ended by an EOF token
+     * @return the members, in source order
      */
-    private Stmt parseIf() {
-        int position = this.currentToken.position;
-        Stmt elseStmt;
-        updateCurrentToken();
-
-        this.checkToken(LPAREN, "When parsing If, \"(\" expected");
-        Expr predExpr = this.parseExpression();
-
-        this.checkToken(RPAREN,"When parsing If, \")\" expected");
-        Stmt thenStmt = this.parseStatement();
+    List<Member> parseMembers(TokenBuffer tokens) {
+        beginPart(tokens);
+        List<Member> members = new ArrayList<>();
+        while (tokens.kind(current) != EOF) {
+            members.add(parseMember());
+        }
+        return members;
+    }
 
-        if(this.currentToken.kind == ELSE){
+    /**
+     * Parses tokens that should be nothing but whole classes, such as the
+     * classes an edit may have changed.  The parser must not be recovering,
+     * so that the first syntax error throws a CompilationException.
+     * @param tokens the tokens of the classes, ended by an EOF token
+     * @return the classes, in source order
+     */
+    List<Class_> parseClasses(TokenBuffer tokens) {
+        beginPart(tokens);
+        List<Class_> classes = new ArrayList<>();
+        while (tokens.kind(current) != EOF) {
+            classes.add(parseClass());
             updateCurrentToken();
-            elseStmt = this.parseStatement();
-        }
-        else{
-            elseStmt = null;
         }
-        return new IfStmt(position, predExpr, thenStmt, elseStmt);
+        return classes;
+    }
+
+    /**
+     * Gets ready to parse tokens that are only a part of a file, from the
+     * first of them
+     */
+    private void beginPart(TokenBuffer tokens) {
+        this.tokens = tokens;
+        this.symbols = tokens.getSymbols();
+        this.current = -1;
+        this.previousEnd = tokens.start(0);
+        this.lastErrorToken = -1;
+        this.filename = tokens.getFilename();
+        updateCurrentToken();
     }
 
 
@@ -399,292 +943,438 @@ public class Parser
     // Expressions
     //Here we introduce the precedence to operations
 
+    /**
+     * The kinds of ExpressionFrame, each of an expression that has been parsed
+     * up to an expression inside it
+     */
+    private static final int EXPRESSION_FRAME = 0, ASSIGN_FRAME = 1, ARRAY_ASSIGN_FRAME = 2,
+            BINARY_FRAME = 3, PREFIX_FRAME = 4, PRIMARY_FRAME = 5, PAREN_FRAME = 6,
+            ARGUMENT_FRAME = 7, INDEX_FRAME = 8, NEW_ARRAY_FRAME = 9, CAST_FRAME = 10;
+
+    /**
+     * An expression being parsed by parseExpression(), which holds what has
+     * been parsed of it until the expression inside it has been parsed
+     */
+    private static class ExpressionFrame
+    {
+        int kind;
+        int position;       // the line of the first token of the expression
+        int start;          // the offset of the first token of the expression
+        int minPower;       // the binding powers of the operators a binary
+        int maxPower;       // expression can take next, as in resumeBinary()
+        int operator;       // the operator of the right operand being parsed, or -1
+        Token.Kind prefix;  // the kind of a prefix operator
+        Expr expr;          // the left operand, the primary parsed so far, or the
+                            // index of an array being assigned to
+        String name;        // the name being assigned to, called, indexed or
+        String refName;     // made, the reference it is under, or the cast type
+        ExprList exprList;  // the arguments of a call parsed so far
+        int listStart;      // the offset of the first token of the arguments
+    }
+
+    private ExpressionFrame[] expressionFrames = new ExpressionFrame[32];
+    private int expressionDepth; // the number of expressionFrames in use
+    private boolean nested;      // whether an expression is to be begun on top
+
+
     /*
      * <Expression> ::= <LogicalOrExpr> <OptionalAssignment>
      * <OptionalAssignment> ::= EMPTY | = <Expression>
+     *
+     * Expressions nest inside each other to any depth, in parentheses,
+     * arguments, indices, casts and prefix operators, and binary operators
+     * chain without end, so an expression is parsed with an explicit stack of
+     * ExpressionFrames rather than by one call per rule, and cannot overflow
+     * the Java stack.  The begin methods parse from the current token down to
+     * the first expression that has none inside it, pushing a frame for each
+     * expression around it; resume() hands each expression parsed to the frame
+     * on top, which either finishes its own expression or goes on to the next
+     * expression inside it.  A method that has come to an expression inside
+     * the one on top returns nestExpression(), and the expression is begun
+     * here, so no call is ever made per level of nesting.
      */
     private Expr parseExpression(){
-        int position = this.currentToken.position;
-        Expr left = this.parseOrExpr();
+        int base = expressionDepth;
+        try {
+            Expr expr = beginExpression();
+            while (true) {
+                if (nested) {
+                    nested = false;
+                    expr = beginExpression();
+                }
+                else if (expressionDepth > base) {
+                    expr = resume(expr);
+                }
+                else {
+                    return expr;
+                }
+            }
+        }
+        finally {
+            expressionDepth = base;
+            nested = false;
+        }
+    }
 
-        if (this.currentToken.kind == ASSIGN){
+    /**
+     * Has parseExpression() begin an expression at the current token, inside
+     * the expression on top
+     * @return null, for the expression not yet parsed
+     */
+    private Expr nestExpression() {
+        nested = true;
+        return null;
+    }
+
+    /**
+     * Begins an <Expression> at the current token
+     * @return the first expression parsed, or nestExpression() if the first
+     * one has an expression inside it before any other
+     */
+    private Expr beginExpression() {
+        pushExpression(EXPRESSION_FRAME);
+        return beginBinary(OR_POWER);
+    }
+
+    /**
+     * Hands an expression to the frame on top
+     * @param expr the expression just parsed
+     * @return the next expression parsed, for the frame then on top
+     */
+    private Expr resume(Expr expr) {
+        ExpressionFrame frame = expressionFrames[expressionDepth - 1];
+        switch (frame.kind) {
+            case EXPRESSION_FRAME:
+                return resumeExpression(frame, expr);
+            case ASSIGN_FRAME: {
+                expressionDepth--;
+                AssignExpr assignExpr = span(new AssignExpr(frame.position, frame.refName,
+                        frame.name, expr), frame.start);
+                assignExpr.setNameId(symbol(frame.name));
+                return assignExpr;
+            }
+            case ARRAY_ASSIGN_FRAME: {
+                expressionDepth--;
+                ArrayAssignExpr arrayAssignExpr = span(new ArrayAssignExpr(frame.position,
+                        frame.refName, frame.name, frame.expr, expr), frame.start);
+                arrayAssignExpr.setNameId(symbol(frame.name));
+                return arrayAssignExpr;
+            }
+            case BINARY_FRAME:
+                return resumeBinary(frame, expr);
+            case PREFIX_FRAME:
+                expressionDepth--;
+                return span(prefixExpr(frame.prefix, frame.position, expr), frame.start);
+            case PAREN_FRAME:
+                this.checkToken(RPAREN, "When parsing (Expr), \")\" expected");
+                frame.expr = expr;
+                return resumeSuffixes(frame);
+            case ARGUMENT_FRAME:
+                return resumeArguments(frame, expr);
+            case INDEX_FRAME: {
+                this.checkToken(RBRACKET, "When parsing (Expr), \"]\" expected");
+                ArrayExpr arrayExpr = span(new ArrayExpr(tokens.line(current), frame.expr,
+                        frame.name, expr), frame.start);
+                arrayExpr.setNameId(symbol(frame.name));
+                frame.expr = arrayExpr;
+                return resumeSuffixes(frame);
+            }
+            case NEW_ARRAY_FRAME: {
+                expressionDepth--;
+                this.checkToken(RBRACKET,"When parsing New, \"]\" expected");
+                NewArrayExpr newArrayExpr = span(new NewArrayExpr(tokens.line(current),
+                        frame.name, expr), frame.start);
+                newArrayExpr.setTypeId(symbol(frame.name));
+                return newArrayExpr;
+            }
+            default: {
+                expressionDepth--;
+                this.checkToken(RPAREN, "When parsing Cast, \")\" expected");
+                CastExpr castExpr = span(new CastExpr(tokens.line(current), frame.name, expr),
+                        frame.start);
+                castExpr.setTypeId(symbol(frame.name));
+                return castExpr;
+            }
+        }
+    }
+
+    /**
+     * Finishes an <Expression> whose <LogicalOrExpr> has been parsed, or
+     * begins the right side of its assignment
+     */
+    private Expr resumeExpression(ExpressionFrame frame, Expr left) {
+        if (tokens.kind(current) == ASSIGN){
             if (left instanceof VarExpr){
                 String refName = null;
                 if(((VarExpr) left).getRef() != null) {
                     refName = ((VarExpr) ((VarExpr) left).getRef()).getName();
                 }
-                String name = ((VarExpr) left).getName();
+                frame.name = ((VarExpr) left).getName();
+                frame.refName = refName;
+                frame.kind = ASSIGN_FRAME;
                 updateCurrentToken();
-
-                return new AssignExpr(position,refName,name,this.parseExpression());
+                return nestExpression();
             }
             else if(left instanceof ArrayExpr){
                 String refName = null;
                 if(((ArrayExpr) left).getRef() != null) {
                     refName = ((ArrayExpr) ((ArrayExpr) left).getRef()).getName();
                 }
-                String name = ((ArrayExpr) left).getName();
-                Expr index = ((ArrayExpr) left).getIndex();
+                frame.name = ((ArrayExpr) left).getName();
+                frame.refName = refName;
+                frame.expr = ((ArrayExpr) left).getIndex();
+                frame.kind = ARRAY_ASSIGN_FRAME;
                 updateCurrentToken();
-                return new ArrayAssignExpr(position,refName,name,index, this.parseExpression());
+                return nestExpression();
             }
             else{
                 this.registerError("When parsing Expr, Variable name Expected",
                         "Error in parsing expression");
             }
-
         }
-        else{
-            return left;
-        }
-        return null;
+        expressionDepth--;
+        return left;
     }
 
 
-    /*
-     * <LogicalOR> ::= <logicalAND> <LogicalORRest>
-     * <LogicalORRest> ::= EMPTY |  || <LogicalAND> <LogicalORRest>
+    /**
+     * <LogicalOR>      ::= <LogicalAND> | <LogicalOR> || <LogicalAND>
+     * <LogicalAND>     ::= <ComparisonExpr> | <LogicalAND> && <ComparisonExpr>
+     * <ComparisonExpr> ::= <RelationalExpr> | <RelationalExpr> == <RelationalExpr>
+     *                    | <RelationalExpr> != <RelationalExpr>
+     * <RelationalExpr> ::= <AddExpr> | <AddExpr> <ComparisonOp> <AddExpr>
+     *                    | <AddExpr> INSTANCEOF <Type>
+     * <ComparisonOp>   ::= < | > | <= | >=
+     * <AddExpr>        ::= <MultExpr> | <AddExpr> + <MultExpr> | <AddExpr> - <MultExpr>
+     * <MultExpr>       ::= <NewCastOrUnary> | <MultExpr> * <NewCastOrUnary>
+     *                    | <MultExpr> / <NewCastOrUnary> | <MultExpr> % <NewCastOrUnary>
+     *
+     * These levels are parsed by precedence climbing, from the binding power of
+     * each operator in BINDING_POWER: an operand is followed by the operators
+     * that bind at least as tightly as minPower, each with a right operand that
+     * holds the operators that bind more tightly than it.  The comparisons do
+     * not chain: after one, only an operator that binds more loosely can follow.
+     * A node gets the position and start of the first token of its left operand.
+     *
+     * @param minPower the binding power of the most loosely binding operator
+     *                 to take
+     * @return the first expression parsed
      */
-    private Expr parseOrExpr() {
-        int position = currentToken.position;
-
-        Expr left = parseAndExpr();
-        while (this.currentToken.spelling.equals("||")) {
-            updateCurrentToken();
-            Expr right = parseAndExpr();
-            left = new BinaryLogicOrExpr(position, left, right);
-        }
-
-        return left;
+    private Expr beginBinary(int minPower) {
+        ExpressionFrame frame = pushExpression(BINARY_FRAME);
+        frame.minPower = minPower;
+        // the power of the most tightly binding operator that can come next
+        frame.maxPower = MULT_POWER;
+        return beginNewCastOrUnary();
     }
 
-    //-------------------------------------------------------
-    /*
-     * <LogicalAND> ::= <ComparisonExpr> <LogicalANDRest>
-     * <LogicalANDRest> ::= EMPTY |  && <ComparisonExpr> <LogicalANDRest>
+    /**
+     * Adds an operand to a binary expression, and takes the operators after
+     * it up to one with a right operand, which is begun
      */
-    private Expr parseAndExpr() {
-        int position =currentToken.position;
-        Expr left= parseEqualityExpr();
-        while (this.currentToken.spelling.equals("&&")){
-            updateCurrentToken();
-            Expr right=parseEqualityExpr();
-            left= new BinaryLogicAndExpr(position,left, right);
-
+    private Expr resumeBinary(ExpressionFrame frame, Expr operand) {
+        if (frame.operator < 0) {
+            frame.expr = operand;
         }
-        return left;
-    }
-
-
-    /*
-     * <ComparisonExpr> ::= <RelationalExpr> <equalOrNotEqual> <RelationalExpr> |
-     *                     <RelationalExpr>
-     * <equalOrNotEqual> ::=  == | !=
-     */
-    private Expr parseEqualityExpr() {
-        int position= currentToken.position;
-        Expr left = parseRelationalExpr();
-        String operator = this.parseOperator();
-        if(operator.equals("==")){
-            updateCurrentToken();
-            Expr right= parseRelationalExpr();
-            left=new BinaryCompEqExpr(position,left,right);
+        else {
+            frame.expr = span(binaryExpr(frame.operator, frame.position, frame.expr, operand),
+                    frame.start);
+            frame.maxPower = powerAfter(frame.operator);
         }
-        else if(operator.equals("!=")){
+        while (true) {
+            int operator = binaryOperator(current);
+            if (operator < 0) {
+                break;
+            }
+            int power = BINDING_POWER[operator];
+            if (power < frame.minPower || power > frame.maxPower) {
+                break;
+            }
             updateCurrentToken();
-            Expr right= parseRelationalExpr();
-            left=new BinaryCompNeExpr(position,left,right);
+            if (operator == INSTANCEOF_OP) {
+                String type = this.parseType();
+                InstanceofExpr instanceofExpr = new InstanceofExpr(frame.position,
+                        frame.expr, type);
+                instanceofExpr.setTypeId(symbol(type));
+                frame.expr = span(instanceofExpr, frame.start);
+                frame.maxPower = powerAfter(operator);
+            }
+            else {
+                frame.operator = operator;
+                return beginBinary(power + 1);
+            }
         }
-        return left;
+        expressionDepth--;
+        return frame.expr;
     }
 
-    //------------------------------------------------------------
-    /*
-     * <RelationalExpr> ::=<AddExpr> | <AddExpr> <ComparisonOp> <AddExpr>
-     * <ComparisonOp> ::=  < | > | <= | >= | INSTANCEOF
+    /**
+     * @return the binding power of the most tightly binding operator that can
+     * follow an operand of the given operator
      */
-    private Expr parseRelationalExpr() {
-        int position = this.currentToken.position;
-        Expr left = this.parseAddExpr();
-        String operator = this.parseOperator();
-        switch (operator) {
-            case "<":
-                updateCurrentToken();
-                return new BinaryCompLtExpr(position, left, this.parseAddExpr());
-            case "<=":
-                updateCurrentToken();
-                return new BinaryCompLeqExpr(position, left, this.parseAddExpr());
-            case ">":
-                updateCurrentToken();
-                return new BinaryCompGtExpr(position, left, this.parseAddExpr());
-            case ">=":
-                updateCurrentToken();
-                return new BinaryCompGeqExpr(position, left, this.parseAddExpr());
-            case "instanceof":
-                updateCurrentToken();
-                return new InstanceofExpr(position, left, this.parseType());
-            default:
-                return left;
-        }
+    private static int powerAfter(int operator) {
+        int power = BINDING_POWER[operator];
+        return power >= EQUALITY_POWER && power <= RELATIONAL_POWER ? power - 1 : power;
     }
 
-    //-----------------------------------------------------------------
-    /*
-     * <AddExpr>::＝ <MultExpr> <MoreMultExpr>
-     * <MoreMultExpr> ::= EMPTY | + <MultExpr> <MoreMultExpr> | - <MultExpr> <MoreMultExpr>
+    /**
+     * @param i the index of a token
+     * @return the binary operator the i-th token is, or -1 if it is none
      */
-    private Expr parseAddExpr() {
-        int position = this.currentToken.position;
-
-        Expr left = parseMultExpr();
-        while (this.currentToken.spelling.equals("+") || this.currentToken.spelling.equals("-")) {
-            if(this.currentToken.spelling.equals("+")){
-                updateCurrentToken();
-                Expr right = parseMultExpr();
-                left = new BinaryArithPlusExpr(position, left, right);
-            }
-            else if(this.currentToken.spelling.equals("-")){
-                updateCurrentToken();
-                Expr right= parseMultExpr();
-                left = new BinaryArithMinusExpr(position, left, right);
-            }
-
-        }
-        return left;
-    }
-
-
-    /*
-     * <MultiExpr> ::= <NewCastOrUnary> <MoreNCU>
-     * <MoreNCU> ::= * <NewCastOrUnary> <MoreNCU> |
-     *               / <NewCastOrUnary> <MoreNCU> |
-     *               % <NewCastOrUnary> <MoreNCU> |
-     *               EMPTY
-     */
-    private Expr parseMultExpr() {
-        int position = this.currentToken.position;
-
-        Expr left = parseNewCastOrUnary();
-        Expr right;
-        while (this.currentToken.spelling.equals("*") || this.currentToken.spelling.equals("/")
-                || this.currentToken.spelling.equals("%")) {
-            switch(this.currentToken.spelling) {
-                case "*":
-                    updateCurrentToken();
-                    right = parseNewCastOrUnary();
-                    left = new BinaryArithTimesExpr(position, left, right);
-                    break;
-                case "/":
-                    updateCurrentToken();
-                    right = parseNewCastOrUnary();
-                    left = new BinaryArithDivideExpr(position, left, right);
-                    break;
-                case "%":
-                    updateCurrentToken();
-                    right = parseNewCastOrUnary();
-                    left = new BinaryArithModulusExpr(position, left, right);
-                    break;
-            }
+    private int binaryOperator(int i) {
+        switch (tokens.kind(i)) {
+            case BINARYLOGIC:
+                return tokens.firstChar(i) == '|' ? OR_OP : AND_OP;
+            case COMPARE:
+                switch (tokens.firstChar(i)) {
+                    case '=':
+                        return EQ_OP;
+                    case '!':
+                        return NE_OP;
+                    case '<':
+                        return tokens.length(i) == 1 ? LT_OP : LEQ_OP;
+                    default:
+                        return tokens.length(i) == 1 ? GT_OP : GEQ_OP;
+                }
+            case INSTANCEOF:
+                return INSTANCEOF_OP;
+            case PLUSMINUS:
+                return tokens.firstChar(i) == '+' ? PLUS_OP : MINUS_OP;
+            case MULDIV:
+                switch (tokens.firstChar(i)) {
+                    case '*':
+                        return TIMES_OP;
+                    case '/':
+                        return DIVIDE_OP;
+                    default:
+                        return MODULUS_OP;
+                }
+            default:
+                return -1;
         }
-
-        return left;
     }
 
-    //-----------------------------------
-    /*
-     * <NewCastOrUnary> ::= < NewExpression> | <CastExpression> | <UnaryPrefix>
+    /**
+     * @return the node of a binary operator other than instanceof
      */
-    private Expr parseNewCastOrUnary() {
-        Expr castOrUnary;
-        if(this.currentToken.kind == NEW){
-            castOrUnary=parseNew();
-        }
-        else if(this.currentToken.kind == CAST){
-            castOrUnary=parseCast();
-        }
-        else{
-            castOrUnary=parseUnaryPrefix();
+    private Expr binaryExpr(int operator, int position, Expr left, Expr right) {
+        switch (operator) {
+            case OR_OP:
+                return new BinaryLogicOrExpr(position, left, right);
+            case AND_OP:
+                return new BinaryLogicAndExpr(position, left, right);
+            case EQ_OP:
+                return new BinaryCompEqExpr(position, left, right);
+            case NE_OP:
+                return new BinaryCompNeExpr(position, left, right);
+            case LT_OP:
+                return new BinaryCompLtExpr(position, left, right);
+            case LEQ_OP:
+                return new BinaryCompLeqExpr(position, left, right);
+            case GT_OP:
+                return new BinaryCompGtExpr(position, left, right);
+            case GEQ_OP:
+                return new BinaryCompGeqExpr(position, left, right);
+            case PLUS_OP:
+                return new BinaryArithPlusExpr(position, left, right);
+            case MINUS_OP:
+                return new BinaryArithMinusExpr(position, left, right);
+            case TIMES_OP:
+                return new BinaryArithTimesExpr(position, left, right);
+            case DIVIDE_OP:
+                return new BinaryArithDivideExpr(position, left, right);
+            default:
+                return new BinaryArithModulusExpr(position, left, right);
         }
-        return castOrUnary;
     }
 
 
+    //-----------------------------------
     /*
+     * <NewCastOrUnary> ::= < NewExpression> | <CastExpression> | <UnaryPrefix>
+     *
      * <NewExpression> ::= NEW <Identifier> ( ) | NEW <Identifier> [ <Expression> ]
+     *
+     * <CastExpression> ::= CAST ( <Type> , <Expression> )
      */
-    private Expr parseNew() {
-        updateCurrentToken();
-        String id = this.parseIdentifier();
-        if(this.currentToken.kind == LPAREN){
+    private Expr beginNewCastOrUnary() {
+        int start = tokens.start(current);
+        if(tokens.kind(current) == NEW){
             updateCurrentToken();
-            this.checkToken(RPAREN,"When parsing New, \")\" expected");
-            return new NewExpr(this.currentToken.position,id);
-        }else if(this.currentToken.kind == LBRACKET){
+            String id = this.parseIdentifier();
+            if(tokens.kind(current) == LPAREN){
+                updateCurrentToken();
+                this.checkToken(RPAREN,"When parsing New, \")\" expected");
+                NewExpr newExpr = span(new NewExpr(tokens.line(current),id), start);
+                newExpr.setTypeId(symbol(id));
+                return newExpr;
+            }else if(tokens.kind(current) == LBRACKET){
+                updateCurrentToken();
+                pushExpression(NEW_ARRAY_FRAME, start).name = id;
+                return nestExpression();
+            }else{
+                this.registerError("When parsing New, \"(\" or \"[\" expected",
+                        "Unexpected Token");
+            }
+        }
+        else if(tokens.kind(current) == CAST){
             updateCurrentToken();
-            Expr expr = this.parseExpression();
-            this.checkToken(RBRACKET,"When parsing New, \"]\" expected");
-            return new NewArrayExpr(this.currentToken.position,id,expr);
-        }else{
-            this.registerError("When parsing New, \"(\" or \"[\" expected",
-                    "Unexpected Token");
+            this.checkToken(LPAREN,"When parsing Cast, \"(\" expected");
+            String type = this.parseType();
+            this.checkToken(COMMA,"When parsing Cast, \",\" expected");
+            pushExpression(CAST_FRAME, start).name = type;
+            return nestExpression();
         }
-        return null;
-    }
-
-
-    /*
-     * <CastExpression> ::= CAST ( <Type> , <Expression> )
-     */
-    private Expr parseCast() {
-        updateCurrentToken();
-        this.checkToken(LPAREN,"When parsing Cast, \"(\" expected");
-        String type = this.parseType();
-        this.checkToken(COMMA,"When parsing Cast, \",\" expected");
-        Expr expr = this.parseExpression();
-        this.checkToken(RPAREN, "When parsing Cast, \")\" expected");
-        return new CastExpr( this.currentToken.position, type, expr);
+        return beginUnaryPrefix();
     }
 
 
     /*
      * <UnaryPrefix> ::= <PrefixOp> <UnaryPrefix> | <UnaryPostfix>
      * <PrefixOp> ::= - | ! | ++ | --
+     * <UnaryPostfix> ::= <Primary> <PostfixOp>
+     * <PostfixOp> ::= ++ | -- | EMPTY
+     *
+     * The node of a prefix operator gets the position of the token after it.
      */
-    private Expr parseUnaryPrefix() {
-        String operator = this.parseOperator();
-        switch (operator) {
-            case "-":
-                updateCurrentToken();
-                return new UnaryNegExpr(this.currentToken.position, this.parseUnaryPrefix());
-            case "!":
-                updateCurrentToken();
-                return new UnaryNotExpr(this.currentToken.position, this.parseUnaryPrefix());
-            case "++":
-                updateCurrentToken();
-                return new UnaryIncrExpr(this.currentToken.position, this.parseUnaryPrefix(), false);
-            case "--":
-                updateCurrentToken();
-                return new UnaryDecrExpr(this.currentToken.position, this.parseUnaryPrefix(), false);
-            default:
-                return this.parseUnaryPostfix();
+    private Expr beginUnaryPrefix() {
+        while (true) {
+            int start = tokens.start(current);
+            Token.Kind kind = tokens.kind(current);
+            switch (kind) {
+                case PLUSMINUS:
+                    if (tokens.firstChar(current) != '-') {
+                        return beginPrimary();
+                    }
+                    break;
+                case UNARYNOT:
+                case UNARYINCR:
+                case UNARYDECR:
+                    break;
+                default:
+                    return beginPrimary();
+            }
+            updateCurrentToken();
+            ExpressionFrame frame = pushExpression(PREFIX_FRAME, start);
+            frame.position = tokens.line(current);
+            frame.prefix = kind;
         }
     }
 
-
-    /*
-     * <UnaryPostfix> ::= <Primary> <PostfixOp>
-     * <PostfixOp> ::= ++ | -- | EMPTY
+    /**
+     * @return the node of a prefix operator
      */
-    private Expr parseUnaryPostfix() {
-        Expr primary = this.parsePrimary();
-        if(this.currentToken.spelling.equals("++")){
-            updateCurrentToken();
-            return new UnaryIncrExpr(this.currentToken.position,primary,true);
-        }else if(this.currentToken.spelling.equals("--")){
-            updateCurrentToken();
-            return new UnaryDecrExpr(this.currentToken.position,primary,true);
+    private static Expr prefixExpr(Token.Kind prefix, int position, Expr expr) {
+        switch (prefix) {
+            case PLUSMINUS:
+                return new UnaryNegExpr(position, expr);
+            case UNARYNOT:
+                return new UnaryNotExpr(position, expr);
+            case UNARYINCR:
+                return new UnaryIncrExpr(position, expr, false);
+            default:
+                return new UnaryDecrExpr(position, expr, false);
         }
-        return primary;
     }
 
 
@@ -710,89 +1400,181 @@ public class Parser
              | [ <Expression> ] <Suffix>
              | ( <Arguments> ) <Suffix>
              | EMPTY
+     *
+     * A token that cannot start a primary gives a null primary.
      */
-    private Expr parsePrimary() {
-        int position = this.currentToken.position;
-        Expr tempExpr =null;
+    private Expr beginPrimary() {
+        int position = tokens.line(current);
+        int start = tokens.start(current);
+        Expr primary = null;
         //parse over the first rule
-        switch (this.currentToken.kind) {
+        switch (tokens.kind(current)) {
             case INTCONST: // <IntegerConst>
-                tempExpr = this.parseIntConst();
+                primary = this.parseIntConst();
                 break;
             case BOOLEAN: // <BooleanConst>
-                tempExpr = this.parseBoolean();
+                primary = this.parseBoolean();
                 break;
             case STRCONST: // <StringConst> <Suffix>
-                tempExpr = this.parseStringConst();
+                primary = this.parseStringConst();
                 break;
             case LPAREN: // (<Expression>)<Suffix>
                 updateCurrentToken();
-                Expr expr = this.parseExpression();
-                this.checkToken(RPAREN, "When parsing (Expr), \")\" expected");
-                tempExpr = expr;
-                break;
+                pushExpression(PAREN_FRAME, start).position = position;
+                return nestExpression();
             case IDENTIFIER://<identifier><Suffix>
                 String identifier = parseIdentifier();
-                tempExpr= parseSuffix(tempExpr, position, identifier);
-                //find the first suffix if exist just to make a proper tempExpr
-
-                break;
+                if (tokens.kind(current) != LPAREN && tokens.kind(current) != LBRACKET) {
+                    VarExpr varExpr = span(new VarExpr(position, null, identifier), start);
+                    varExpr.setNameId(symbol(identifier));
+                    primary = varExpr;
+                    break;
+                }
+                ExpressionFrame frame = pushExpression(PRIMARY_FRAME, start);
+                frame.position = position;
+                if (beginSuffix(frame, identifier)) {
+                    return nestExpression();
+                }
+                return resumeSuffixes(frame);
         }
+        // most primaries are done here, and need no frame
+        switch (tokens.kind(current)) {
+            case DOT:
+            case UNARYINCR:
+            case UNARYDECR:
+                ExpressionFrame frame = pushExpression(PRIMARY_FRAME, start);
+                frame.position = position;
+                frame.expr = primary;
+                return resumeSuffixes(frame);
+            default:
+                return primary;
+        }
+    }
 
-        //--------------------------------------------parse suffix------------------------------------------------------
-
-        while( currentToken.kind==DOT){
+    /**
+     * Takes the suffixes "." <Identifier> after the primary parsed so far, up to
+     * one with an argument or index, which is begun, and then the
+     * <PostfixOp> of the whole primary
+     */
+    private Expr resumeSuffixes(ExpressionFrame frame) {
+        while( tokens.kind(current)==DOT){
             updateCurrentToken();
             String identifier= parseIdentifier();
-            tempExpr= parseSuffix(tempExpr,position, identifier);
+            if (beginSuffix(frame, identifier)) {
+                return nestExpression();
+            }
         }
-        return tempExpr;
-
+        expressionDepth--;
+        if (tokens.kind(current) == UNARYINCR) {
+            updateCurrentToken();
+            return span(new UnaryIncrExpr(tokens.line(current),frame.expr,true), frame.start);
+        }
+        else if (tokens.kind(current) == UNARYDECR) {
+            updateCurrentToken();
+            return span(new UnaryDecrExpr(tokens.line(current),frame.expr,true), frame.start);
+        }
+        return frame.expr;
     }
 
     //    <Suffix> ::=   . <Identifier> <Suffix>
 //             | [ <Expression> ] <Suffix>
 //             | ( <Arguments> ) <Suffix>
 //             | EMPTY
-    private Expr parseSuffix(Expr tempExpr, int position, String identifier){
-        if(currentToken.kind==LPAREN ) {
-            updateCurrentToken();
-            ExprList arguments = parseArguments();
+    /**
+     * Adds the node of an identifier and what follows it to the primary
+     * parsed so far
+     * @return true if an argument or index follows, whose expression is to
+     * be parsed next
+     */
+    private boolean beginSuffix(ExpressionFrame frame, String identifier) {
+        if(tokens.kind(current)==LPAREN ) {
             updateCurrentToken();
-            tempExpr= new DispatchExpr(this.currentToken.position, tempExpr, identifier, arguments);
-
+            frame.name = identifier;
+            frame.exprList = new ExprList(tokens.line(current));
+            frame.listStart = tokens.start(current);
+            if (tokens.kind(current) != RPAREN) {
+                frame.kind = ARGUMENT_FRAME;
+                return true;
+            }
+            endDispatch(frame);
         }
-        else if(currentToken.kind==LBRACKET) {
+        else if(tokens.kind(current)==LBRACKET) {
             updateCurrentToken();
-
-            Expr index = parseExpression();
-            this.checkToken(RBRACKET, "When parsing (Expr), \"]\" expected");
-            tempExpr= new ArrayExpr(this.currentToken.position, tempExpr, identifier, index);
+            frame.name = identifier;
+            frame.kind = INDEX_FRAME;
+            return true;
         }
         else {
-            tempExpr=new VarExpr(position, tempExpr, identifier);
-
+            VarExpr varExpr = span(new VarExpr(frame.position, frame.expr, identifier),
+                    frame.start);
+            varExpr.setNameId(symbol(identifier));
+            frame.expr = varExpr;
         }
-        return tempExpr;
+        return false;
     }
+
     /*
      * <Arguments> ::= EMPTY | <Expression> <MoreArgs>
      * <MoreArgs>  ::= EMPTY | , <Expression> <MoreArgs>
      */
-    private ExprList parseArguments() {
-        int position = this.currentToken.position;
-        ExprList exprList = new ExprList(position);
-        while (this.currentToken.kind != RPAREN) {
-            exprList.addElement(this.parseExpression());
-            if (this.currentToken.kind != COMMA ) {
-                if(this.currentToken.kind != RPAREN) {
-                    this.registerError("When parsing Arguments, \",\" expected",
-                            "Unexpected Token");
-                }else{ break; }
+    private Expr resumeArguments(ExpressionFrame frame, Expr argument) {
+        frame.exprList.addElement(argument);
+        if (tokens.kind(current) != COMMA ) {
+            if(tokens.kind(current) != RPAREN) {
+                this.registerError("When parsing Arguments, \",\" expected",
+                        "Unexpected Token");
             }
+        }
+        else {
             updateCurrentToken();
+            if (tokens.kind(current) != RPAREN) {
+                return nestExpression();
+            }
+        }
+        endDispatch(frame);
+        return resumeSuffixes(frame);
+    }
+
+    /**
+     * Moves past the ")" of the arguments of a call, and makes the call
+     */
+    private void endDispatch(ExpressionFrame frame) {
+        ExprList arguments = span(frame.exprList, frame.listStart);
+        updateCurrentToken();
+        DispatchExpr dispatchExpr = span(new DispatchExpr(tokens.line(current), frame.expr,
+                frame.name, arguments), frame.start);
+        dispatchExpr.setMethodNameId(symbol(frame.name));
+        frame.expr = dispatchExpr;
+    }
+
+    /**
+     * @return the frame of an expression beginning at the current token, on
+     * top of the stack
+     */
+    private ExpressionFrame pushExpression(int kind) {
+        ExpressionFrame frame = pushExpression(kind, tokens.start(current));
+        frame.position = tokens.line(current);
+        return frame;
+    }
+
+    /**
+     * @return the frame of an expression that began at the given offset, on
+     * top of the stack
+     */
+    private ExpressionFrame pushExpression(int kind, int start) {
+        if (expressionDepth == expressionFrames.length) {
+            expressionFrames = Arrays.copyOf(expressionFrames, 2 * expressionDepth);
         }
-        return exprList;
+        ExpressionFrame frame = expressionFrames[expressionDepth];
+        if (frame == null) {
+            frame = expressionFrames[expressionDepth] = new ExpressionFrame();
+        }
+        expressionDepth++;
+        frame.kind = kind;
+        frame.start = start;
+        frame.operator = -1;
+        frame.expr = null;
+        return frame;
     }
 
 
@@ -802,12 +1584,13 @@ public class Parser
      * <MoreFormals> ::= EMPTY | , <Formal> <MoreFormals
      */
     private FormalList parseParameters() {
-        int position = this.currentToken.position;
+        int position = tokens.line(current);
+        int start = tokens.start(current);
         FormalList formalList = new FormalList(position);
-        while (this.currentToken.kind != RPAREN) {
+        while (tokens.kind(current) != RPAREN) {
             formalList.addElement(this.parseFormal());
-            if (this.currentToken.kind != COMMA) {
-                if(this.currentToken.kind != RPAREN){
+            if (tokens.kind(current) != COMMA) {
+                if(tokens.kind(current) != RPAREN){
                     this.registerError("When parsing Parameters, \\\",\\\" expected",
                             "Unexpected Token");
                 }
@@ -815,7 +1598,7 @@ public class Parser
             }
             updateCurrentToken();
         }
-        return formalList;
+        return span(formalList, start);
     }
 
 
@@ -823,10 +1606,14 @@ public class Parser
      * <Formal> ::= <Type> <Identifier>
      */
     private Formal parseFormal() {
+        int start = tokens.start(current);
         String type = this.parseType();
         String id = this.parseIdentifier();
 
-        return new Formal(this.currentToken.position, type, id);
+        Formal formal = span(new Formal(tokens.line(current), type, id), start);
+        formal.setTypeId(symbol(type));
+        formal.setNameId(symbol(id));
+        return formal;
     }
 
 
@@ -838,10 +1625,10 @@ public class Parser
     private String parseType() {
         String id = this.parseIdentifier();
 
-        if(this.currentToken.kind == LBRACKET){
+        if(tokens.kind(current) == LBRACKET){
             updateCurrentToken();
             this.checkToken(RBRACKET, "When parsing Type, \\\"]\\\" expected");
-            id = id +"[]";
+            id = symbols.get(symbols.intern(id +"[]"));
         }
         return id;
     }
@@ -850,36 +1637,65 @@ public class Parser
     //----------------------------------------
     //Terminals
 
-    private String parseOperator() {
-        return this.currentToken.spelling;
+    /**
+     * Gives a node the source chars from the given offset up to the end of
+     * the last token moved past, which is the node's last token
+     * @param node the node just parsed
+     * @param start the offset of the node's first char
+     * @return the node
+     */
+    private <T extends ASTNode> T span(T node, int start) {
+        node.setSpan(start, Math.max(start, previousEnd));
+        return node;
+    }
+
+    /**
+     * Gives a field node the symbol ids of its type and name
+     * @param field the field node
+     * @return the field node
+     */
+    private Field field(Field field) {
+        field.setTypeId(symbol(field.getType()));
+        field.setNameId(symbol(field.getName()));
+        return field;
     }
 
+    /**
+     * @param name a name stored in the AST
+     * @return the symbol id of the name, or -1 if there is no name
+     */
+    private int symbol(String name) {
+        return name == null || name.isEmpty() ? -1 : symbols.intern(name);
+    }
 
     private String parseIdentifier() {
-        String identifier = this.currentToken.spelling;
+        String identifier = tokens.spelling(current);
         this.checkToken(IDENTIFIER,"When parsing Identifier, Identifier expected");
         return identifier;
     }
 
 
     private ConstStringExpr parseStringConst() {
-        ConstStringExpr constStringExpr = new ConstStringExpr(this.currentToken.position,this.currentToken.spelling);
+        int start = tokens.start(current);
+        ConstStringExpr constStringExpr = new ConstStringExpr(tokens.line(current),tokens.spelling(current));
         updateCurrentToken();
-        return constStringExpr;
+        return span(constStringExpr, start);
     }
 
 
     private ConstIntExpr parseIntConst() {
-        ConstIntExpr constIntExpr = new ConstIntExpr(this.currentToken.position,this.currentToken.spelling);
+        int start = tokens.start(current);
+        ConstIntExpr constIntExpr = new ConstIntExpr(tokens.line(current),tokens.spelling(current));
         updateCurrentToken();
-        return constIntExpr;
+        return span(constIntExpr, start);
     }
 
 
     private ConstBooleanExpr parseBoolean() {
-        ConstBooleanExpr constBooleanExpr = new ConstBooleanExpr(this.currentToken.position,this.currentToken.spelling);
+        int start = tokens.start(current);
+        ConstBooleanExpr constBooleanExpr = new ConstBooleanExpr(tokens.line(current),tokens.spelling(current));
         updateCurrentToken();
-        return constBooleanExpr;
+        return span(constBooleanExpr, start);
     }
 
     /**
@@ -887,21 +1703,70 @@ public class Parser
      * Ignores comment tokens
      */
     private void updateCurrentToken(){
-        this.currentToken = scanner.scan();
-        while(this.currentToken.kind == COMMENT){
-            this.currentToken = scanner.scan();
+        if (this.current >= 0) {
+            this.previousEnd = tokens.start(current) + tokens.length(current);
+        }
+        this.current++;
+        while(tokens.kind(current) == COMMENT){
+            this.current++;
+        }
+    }
+
+    /**
+     * Skips the tokens of a statement or member with a syntax error, through
+     * the next ";", or up to the next "}", outside any braces opened while
+     * skipping.  Skipping also stops at a "class" or the end of file, neither
+     * of which can be recovered from inside a class.
+     * @return true if skipping stopped at a "class" or the end of file
+     */
+    private boolean skipToBoundary() {
+        int depth = 0; // the number of braces opened while skipping
+        while (true) {
+            switch (tokens.kind(current)) {
+                case CLASS:
+                case EOF:
+                    return true;
+                case SEMICOLON:
+                    if (depth == 0) {
+                        updateCurrentToken();
+                        return false;
+                    }
+                    break;
+                case LCURLY:
+                    depth++;
+                    break;
+                case RCURLY:
+                    if (depth == 0) {
+                        return false;
+                    }
+                    if (--depth == 0) {
+                        updateCurrentToken();
+                        return false;
+                    }
+                    break;
+            }
+            updateCurrentToken();
         }
     }
 
     /**
-     * Throws errors
+     * Registers an error at the current token and abandons what is being
+     * parsed.  An error at the token of the last error is not registered
+     * again, since it only follows from the last one.
      * @param errorMessage message passed to errorHandler
      * @param compilationMessage message passed to CompilationException
      */
     private void registerError(String errorMessage,String compilationMessage){
-        this.errorHandler.register(Error.Kind.PARSE_ERROR,this.filename,
-                this.currentToken.position,errorMessage);
-        throw new CompilationException(compilationMessage);
+        if (this.current != this.lastErrorToken) {
+            this.errorHandler.register(Error.Kind.PARSE_ERROR,this.filename,
+                    tokens.line(current), tokens.start(current),
+                    tokens.start(current) + tokens.length(current), errorMessage);
+            this.lastErrorToken = this.current;
+        }
+        if (this.recovering) {
+            throw SYNTAX_ERROR;
+        }
+        throw new CompilationException(compilationMessage, false);
     }
 
     /**
@@ -910,7 +1775,7 @@ public class Parser
      * @param errorMessage error message to be sent to the errorHandler
      */
     private void checkToken(Token.Kind kind,String errorMessage){
-        if(this.currentToken.kind != kind){
+        if(tokens.kind(current) != kind){
             this.registerError(errorMessage, "Unexpected Token");
         }
         updateCurrentToken();
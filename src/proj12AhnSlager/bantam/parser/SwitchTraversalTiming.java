@@ -0,0 +1,100 @@
+/**
+ * Filename: SwitchTraversalTiming
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.parser;
+
+import proj12AhnSlager.bantam.ast.ASTNode;
+import proj12AhnSlager.bantam.ast.ConstIntExpr;
+import proj12AhnSlager.bantam.ast.FlatAST;
+import proj12AhnSlager.bantam.ast.Program;
+import proj12AhnSlager.bantam.util.CompilationException;
+import proj12AhnSlager.bantam.util.ErrorHandler;
+import proj12AhnSlager.bantam.visitor.IntVisitor;
+import proj12AhnSlager.bantam.visitor.SwitchTraversal;
+
+/**
+ * Times a SwitchTraversal against an IntVisitor on parsed files.  It is kept
+ * with the parser, which it drives, so that the visitor package depends
+ * only on the ast.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class SwitchTraversalTiming
+{
+    /**
+     * Counts the nodes of the ASTs of the given files and sums their int
+     * constants, with an IntVisitor, which walks them with accept() and
+     * visit() as a Visitor does, and with a SwitchTraversal, and prints the
+     * times.  A Visitor itself is not timed, since VarExpr prints each time
+     * it accepts one.
+     *
+     * @param args the files to parse
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: SwitchTraversalTiming files...");
+            return;
+        }
+        Program[] programs = new Program[args.length];
+        for (int i = 0; i < args.length; i++) {
+            try {
+                programs[i] = new Parser(new ErrorHandler()).parse(args[i]);
+            }
+            catch (CompilationException e) {
+                System.out.println(args[i] + " could not be parsed.");
+                return;
+            }
+        }
+        class Counter extends SwitchTraversal
+        {
+            int nodes;
+            int sum;
+
+            @Override
+            protected boolean enter(ASTNode node, int kind) {
+                nodes++;
+                if (kind == FlatAST.CONST_INT_EXPR) {
+                    sum += ((ConstIntExpr) node).getIntConstant();
+                }
+                return true;
+            }
+        }
+        long visitorTime = Long.MAX_VALUE;
+        long switchTime = Long.MAX_VALUE;
+        int visitorResult = 0;
+        Counter counter = new Counter();
+        for (int run = 0; run < 20; run++) {
+            long start = System.nanoTime();
+            IntVisitor visitor = new IntVisitor()
+            {
+                @Override
+                protected int defaultResult() {
+                    return 1;
+                }
+
+                @Override
+                public int visit(ConstIntExpr node) {
+                    return 1 + node.getIntConstant();
+                }
+            };
+            visitorResult = 0;
+            for (Program program : programs) {
+                visitorResult += program.accept(visitor);
+            }
+            visitorTime = Math.min(visitorTime, System.nanoTime() - start);
+            start = System.nanoTime();
+            counter.nodes = 0;
+            counter.sum = 0;
+            for (Program program : programs) {
+                counter.run(program);
+            }
+            switchTime = Math.min(switchTime, System.nanoTime() - start);
+        }
+        System.out.println("IntVisitor: " + visitorTime / 1000 + " us, " + visitorResult);
+        System.out.println("SwitchTraversal: " + switchTime / 1000 + " us, "
+                + (counter.nodes + counter.sum));
+    }
+}
@@ -10,11 +10,14 @@ import proj12AhnSlager.bantam.ast.*;
 import proj12AhnSlager.bantam.util.ClassTreeNode;
 import proj12AhnSlager.bantam.util.Error;
 import proj12AhnSlager.bantam.util.ErrorHandler;
+import proj12AhnSlager.bantam.util.ErrorList;
+import proj12AhnSlager.bantam.visitor.ParallelTraversal;
 import proj12AhnSlager.bantam.visitor.Visitor;
 
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.List;
 
 /**
  * Class to build the environment that is used for the analyze method in the
@@ -54,6 +57,31 @@ public class EnvironmentBuilder extends Visitor {
         this.program.accept(this);
     }
 
+    /**
+     * builds the environments of the classes at the same time, each with an
+     * EnvironmentBuilder of its own, and registers their errors in the order
+     * of the classes, as build() does.  Two classes with the same name share
+     * their symbol tables, so a program that has them is built by build().
+     * @param parallel the traversal to run over the classes with
+     */
+    public void build(ParallelTraversal parallel){
+        HashSet<String> names = new HashSet<>();
+        for (ASTNode node : this.program.getClassList()) {
+            if (!names.add(((Class_) node).getName())) {
+                build();
+                return;
+            }
+        }
+        List<ErrorList> errors = parallel.runByClass(this.program, aClass -> {
+            ErrorList classErrors = new ErrorList();
+            new EnvironmentBuilder(this.classMap, null, classErrors, this.program)
+                    .visit(aClass);
+            return classErrors;
+        });
+        this.currentClass = null;
+        ParallelTraversal.registerAll(errors, this.errorHandler);
+    }
+
     /**
      * overrides the Class_ visit method to get the current class'
      * symbol tables
@@ -84,7 +112,7 @@ public class EnvironmentBuilder extends Visitor {
         // checks against the set of illegal names and registers an error if one is found
         if(this.illegalNames.contains(declaredName)){
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "The name " + declaredName + " is reserved");
         }
 
@@ -92,7 +120,7 @@ public class EnvironmentBuilder extends Visitor {
         if(this.currentClass.getVarSymbolTable().peek(declaredName) != null){
             // checks against previously declared variables
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "The name " + declaredName + " has been declared prior");
         }
         this.currentClass.getVarSymbolTable().add(declaredName, node.getType());
@@ -111,13 +139,13 @@ public class EnvironmentBuilder extends Visitor {
 
         if(this.illegalNames.contains(declaredName)){
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "The name " + declaredName + " is reserved");
         }
 
         if(this.currentClass.getMethodSymbolTable().peek(declaredName) != null){
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "The name " + declaredName + " has been declared prior");
         }
 
@@ -126,38 +154,11 @@ public class EnvironmentBuilder extends Visitor {
 
         currentClass.getMethodSymbolTable().enterScope();
         node.getFormalList().accept(this);
-        node.getStmtList().accept(this);
+        // the body declares nothing the environment holds, so it is not
+        // visited, and a body that has not been parsed is left that way
         currentClass.getMethodSymbolTable().exitScope();
 
         return null;
     }
 
-
-    /**
-     * Overrides the visit method for the WhileStmt
-     * enter and exit the proper scopes
-     * @param node the WhileStmt node
-     * @return
-     */
-    @Override
-    public Object visit(WhileStmt node){
-        currentClass.getVarSymbolTable().enterScope();
-        super.visit(node);
-        currentClass.getVarSymbolTable().exitScope();
-        return null;
-    }
-
-    /**
-     * Overrides the visit method for the ForStmt
-     * enter and exit the proper scopes
-     * @param node the ForStmt node
-     * @return
-     */
-    @Override
-    public Object visit(ForStmt node){
-        currentClass.getVarSymbolTable().enterScope();
-        super.visit(node);
-        currentClass.getVarSymbolTable().exitScope();
-        return null;
-    }
 }
@@ -0,0 +1,128 @@
+/**
+ * Filename: FlatASTCheck
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.semant;
+
+import proj12AhnSlager.bantam.ast.ASTNode;
+import proj12AhnSlager.bantam.ast.Expr;
+import proj12AhnSlager.bantam.ast.FlatAST;
+import proj12AhnSlager.bantam.ast.Program;
+import proj12AhnSlager.bantam.parser.Parser;
+import proj12AhnSlager.bantam.util.ErrorHandler;
+import proj12AhnSlager.bantam.util.SymbolInterner;
+
+/**
+ * Checks the views of a FlatAST against the nodes they were made from, and
+ * measures the memory an AST takes as objects and as a FlatAST.  It is kept
+ * with the semantic analyzer, which it drives the visitors of, so that the
+ * ast and parser packages do not depend on them.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class FlatASTCheck
+{
+    /**
+     * Checks the views against the nodes they were made from: flattening the
+     * views gives the same arrays, the semantic visitors that collect string
+     * constants, count local variables and look for main get the same results
+     * from both, and an expression type set on one view is seen by the others.
+     *
+     * @param filename a Bantam source file
+     * @return a description of the first difference found, or null if none
+     */
+    public static String verify(String filename) {
+        SymbolInterner symbols = new SymbolInterner();
+        Program program = new Parser(new ErrorHandler(), symbols).parse(filename);
+        FlatAST flat = new FlatAST(program, symbols);
+        if (!flat.sameAs(new FlatAST(flat.getProgram(), symbols))) {
+            return "flattening the views gave different arrays";
+        }
+        if (!new StringConstantsVisitor().getStringConstants(program).equals(
+                new StringConstantsVisitor().getStringConstants(flat.getProgram()))) {
+            return "the views have different string constants";
+        }
+        if (!new NumLocalVarsVisitor().getNumLocalVars(program).equals(
+                new NumLocalVarsVisitor().getNumLocalVars(flat.getProgram()))) {
+            return "the views have different numbers of local variables";
+        }
+        if (new MainMainVisitor().hasMain(program) !=
+                new MainMainVisitor().hasMain(flat.getProgram())) {
+            return "the views do not agree on whether there is a main method";
+        }
+        for (int i = 0; i < flat.size(); i++) {
+            ASTNode node = flat.getNode(i);
+            if (node instanceof Expr) {
+                ((Expr) node).setExprType(node.getClass().getSuperclass().getSimpleName());
+            }
+        }
+        FlatAST typed = new FlatAST(flat.getProgram(), symbols);
+        if (!flat.sameAs(typed)) {
+            return "the views of a node do not share its type";
+        }
+        return null;
+    }
+
+    /**
+     * Parses a file and prints the memory its AST takes as objects and as a
+     * FlatAST.  So that the garbage collector's rounding does not swamp a
+     * small AST, enough copies of it are held at once to make up about
+     * MEASURED_NODES nodes, and the heap in use with them is divided by the
+     * number of copies.
+     *
+     * @param args the name of a Bantam source file
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: FlatASTCheck file");
+            return;
+        }
+        String difference = verify(args[0]);
+        System.out.println(difference == null ? "The views agree with the nodes." : difference);
+
+        SymbolInterner symbols = new SymbolInterner();
+        Program program = new Parser(new ErrorHandler(), symbols).parse(args[0]);
+        int nodes = new FlatAST(program, symbols).size();
+        int copies = Math.max(1, MEASURED_NODES / nodes);
+        program = null;
+
+        Program[] programs = new Program[copies];
+        FlatAST[] flats = new FlatAST[copies];
+        long before = usedMemory();
+        for (int i = 0; i < copies; i++) {
+            programs[i] = new Parser(new ErrorHandler(), symbols).parse(args[0]);
+        }
+        long withNodes = usedMemory();
+        for (int i = 0; i < copies; i++) {
+            flats[i] = new FlatAST(programs[i], symbols);
+            programs[i] = null;
+        }
+        long withArrays = usedMemory();
+        System.out.println(nodes + " nodes, measured over " + copies + " copies");
+        System.out.println("As objects: " + (withNodes - before) / copies + " bytes");
+        System.out.println("As a FlatAST: " + (withArrays - before) / copies +
+                " bytes, of which " + flats[0].sizeInBytes() + " are its arrays");
+    }
+
+    // the number of nodes of all the copies measured at once
+    private static final int MEASURED_NODES = 1000000;
+
+    /**
+     * @return the heap in use once garbage collection frees no more of it
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 20; i++) {
+            System.gc();
+            long now = runtime.totalMemory() - runtime.freeMemory();
+            if (now >= used && i >= 3) {
+                return Math.min(used, now);
+            }
+            used = Math.min(used, now);
+        }
+        return used;
+    }
+}
@@ -10,14 +10,19 @@
 
 package proj12AhnSlager.bantam.semant;
 import proj12AhnSlager.bantam.ast.*;
+import proj12AhnSlager.bantam.visitor.FusedTraversal;
 import proj12AhnSlager.bantam.visitor.Visitor;
 
 
 /**
- * This Vistor class uses the Visitor pattern to visit all the
- * nodes of a program AST, and checks to see if there
+ * This class walks the nodes of a program AST, and checks to see if there
  * is a Main class as well as a Main method
  *
+ * It is an analysis of a FusedTraversal, so it can be run in the same walk
+ * of the AST as other analyses: addTo() registers it with a traversal, and
+ * hasMain() then tells what it found.  It is still a Visitor, so a program
+ * can also accept() one, which checks in a traversal of its own.
+ *
  *
  * @author  Jackie Hang, Kyle Slager
  * @version 1.0
@@ -27,6 +32,7 @@ import proj12AhnSlager.bantam.visitor.Visitor;
 public class MainMainVisitor extends Visitor{
 
     boolean hasBeenFound = false;
+    private boolean inClass = false; // whether the class being left was walked
 
 
     /**
@@ -36,61 +42,77 @@ public class MainMainVisitor extends Visitor{
      * @return boolean of existance
      */
     public boolean hasMain(Program ast) {
-        hasBeenFound = false;
-        ast.accept(this);
-        return hasBeenFound;
+        FusedTraversal traversal = new FusedTraversal();
+        addTo(traversal);
+        traversal.run(ast);
+        return hasMain();
     }
 
     /**
-     * Visits the list of classes
+     * Checks a program accepting this visitor, in a traversal of its own;
+     * hasMain() then tells whether it has a main method in a Main class
      *
-     * @param node the class list node
-     * @return
+     * @param node the program node
+     * @return null
      */
-    public Object visit(ClassList node){
-        for( ASTNode astNode: node){
-            if(!hasBeenFound){
-                astNode.accept(this);
-            }
-        }
+    public Object visit(Program node) {
+        hasMain(node);
         return null;
     }
 
     /**
-     * Overrides the Visit method that takes in a Class node
+     * Adds the check as an analysis of a traversal; once the traversal has
+     * been run, hasMain() tells what it found
+     *
+     * @param traversal the traversal
+     */
+    public void addTo(FusedTraversal traversal) {
+        hasBeenFound = false;
+        traversal.add()
+                .pre(Class_.class, this::enterClass)
+                .post(Class_.class, this::leaveClass)
+                .pre(Method.class, this::enterMethod)
+                .pre(Field.class, node -> false);
+    }
+
+    /**
+     * @return whether the traversal this check was last added to found a Main
+     * class with a main method
+     */
+    public boolean hasMain() {
+        return hasBeenFound;
+    }
+
+    /**
+     * Walks the members of a class until a main method in a Main class has
+     * been found
+     * @param node the class node
+     * @return whether to walk the members of the class
+     */
+    private boolean enterClass(Class_ node){
+        inClass = !hasBeenFound;
+        return inClass;
+    }
+
+    /**
      * Sees if there is a main class
      * @param node the class node
-     * @return
      */
-    public Object visit(Class_ node){
-        super.visit(node);
-        if(!node.getName().equals("Main")){
+    private void leaveClass(Class_ node){
+        if(inClass && !node.getName().equals("Main")){
             hasBeenFound = false;
         }
-
-        return null;
     }
 
     /**
-     * Overrides the Visit method that takes in a method node
      * Sees if there is a main method
      * @param node the method node
-     * @return
+     * @return false, since the body is not needed
      */
-    public Object visit(Method node) {
-        super.visit(node);
+    private boolean enterMethod(Method node) {
         if((node.getName().equals("main")) && (node.getFormalList().getSize() == 0) && (node.getReturnType().equals("void"))) {
             hasBeenFound = true;
         }
-        return null;
-    }
-
-    /**
-     * Avoids going through each expression
-     * @param node the field node
-     * @return null
-     */
-    public Object visit(Field node){
-        return null;
+        return false;
     }
-}
\ No newline at end of file
+}
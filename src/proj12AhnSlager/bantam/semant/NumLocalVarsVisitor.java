@@ -9,15 +9,22 @@
 package proj12AhnSlager.bantam.semant;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import proj12AhnSlager.bantam.ast.*;
+import proj12AhnSlager.bantam.visitor.FusedTraversal;
+import proj12AhnSlager.bantam.visitor.ParallelTraversal;
 import proj12AhnSlager.bantam.visitor.Visitor;
 
 /**
- * This Visitor class uses the Visitor pattern to
- * visit every node of a program AST, but specifically captures
- * the number of local variables in every method.
+ * This class walks the statements of a program AST, and
+ * captures the number of local variables in every method.
+ *
+ * It is an analysis of a FusedTraversal, so it can be run in the same walk
+ * of the AST as other analyses: addTo() registers it with a traversal, and
+ * getNumLocalVars() then gives what it found.  It is still a Visitor, so a
+ * program can also accept() one, which counts in a traversal of its own.
  *
  *
  * @author  Jackie Hang, Kyle Slager
@@ -29,6 +36,7 @@ public class NumLocalVarsVisitor extends Visitor{
     private Map<String, Integer> localVars;
     private String className;
     private int numCurVars;
+    private FusedTraversal.Analysis analysis; // the analysis it was last added as
 
     /**
      * Creates a map of every method and the number of
@@ -38,111 +46,128 @@ public class NumLocalVarsVisitor extends Visitor{
      * @return Map<String, Integer>
      */
     public Map<String,Integer> getNumLocalVars(Program ast){
-        numCurVars = 0;
-        localVars = new HashMap<>();
-        ast.accept(this);
-        return localVars;
+        FusedTraversal traversal = new FusedTraversal();
+        addTo(traversal);
+        traversal.run(ast);
+        return getNumLocalVars();
     }
 
     /**
-     * Overrides the visit method of the visitor
-     * that takes in a Class node.
+     * Counts the local variables of a program accepting this visitor, in a
+     * traversal of its own; getNumLocalVars() then gives the map
      *
-     * Ensures that all method names have a single class
-     * attached to it.
-     *
-     * @param node the class node
-     * @return
+     * @param node the program node
+     * @return null
      */
-    public Object visit(Class_ node){
-        className = node.getName();
-        return super.visit(node);
+    public Object visit(Program node){
+        getNumLocalVars(node);
+        return null;
     }
 
     /**
-     * Overrides the visit method of the visitor
-     * that takes in a Method node.
+     * Counts the local variables of the methods of each class at the same
+     * time, and merges the maps in the order of the classes, as
+     * getNumLocalVars(ast) does
      *
-     * Adds all the method names to a map.
-     *
-     * @param node the method node
-     * @return
+     * @param ast
+     * @param parallel the traversal to run over the classes with
+     * @return Map<String, Integer>
      */
-    public Object visit(Method node){
-        numCurVars = node.getFormalList().getSize();
-        node.getStmtList().accept(this);
-        localVars.put(className + "." + node.getName(), numCurVars);
-        return null;
+    public Map<String,Integer> getNumLocalVars(Program ast, ParallelTraversal parallel){
+        List<Map<String, Integer>> found = parallel.run(ast, unit -> {
+            NumLocalVarsVisitor visitor = new NumLocalVarsVisitor();
+            FusedTraversal traversal = new FusedTraversal();
+            visitor.addTo(traversal);
+            traversal.run(unit);
+            return visitor.localVars;
+        });
+        numCurVars = 0;
+        localVars = new HashMap<>();
+        for (Map<String, Integer> counts : found) {
+            localVars.putAll(counts);
+        }
+        return localVars;
     }
 
     /**
-     * Overrides the visit method of the visitor
-     * that takes in a Method node.
+     * Adds the count as an analysis of a traversal; once the traversal has
+     * been run, getNumLocalVars() gives the map it made
      *
-     * Increments the counter for every local var found
-     * in a method
-     * @param node the declaration statement node
-     * @return
+     * @param traversal the traversal
      */
-    public Object visit(DeclStmt node){
-        numCurVars++;
-        return null;
+    public void addTo(FusedTraversal traversal) {
+        numCurVars = 0;
+        localVars = new HashMap<>();
+        analysis = traversal.add();
+        analysis.pre(Class_.class, this::enterClass)
+                .pre(Method.class, this::enterMethod)
+                .post(Method.class, this::leaveMethod)
+                .pre(IfStmt.class, this::enterIf)
+                .pre(DeclStmt.class, this::countDecl)
+                .pre(Expr.class, node -> false)
+                .pre(ReturnStmt.class, node -> false);
     }
 
     /**
-     * Overrides to avoid visiting
-     * @param node the expression node
-     * @return
+     * @return the map of every method and the number of local variables in
+     * them, that the traversal this was last added to found
      */
-    public Object visit(Expr node){
-        return null;
+    public Map<String,Integer> getNumLocalVars(){
+        return localVars;
     }
 
     /**
-     * Overrides to avoid visiting
-     * @param node the if statement node
-     * @return
+     * Ensures that all method names have a single class
+     * attached to it.
+     *
+     * @param node the class node
+     * @return true, to walk its members
      */
-    public Object visit(IfStmt node){
-        if(node.getElseStmt() != null){
-            node.getElseStmt().accept(this);
-        }
-        return null;
+    private boolean enterClass(Class_ node){
+        className = node.getName();
+        return true;
     }
 
     /**
-     * Overrides to avoid visiting
-     * @param node the for statement node
-     * @return
+     * Counts the formals of a method, before its body is walked
+     *
+     * @param node the method node
+     * @return true, to walk its body
      */
-    public Object visit(ForStmt node){
-        node.getBodyStmt().accept(this);
-        return null;
+    private boolean enterMethod(Method node){
+        numCurVars = node.getFormalList().getSize();
+        return true;
     }
 
     /**
-     * Overrides to avoid visiting
-     * @param node the while statement node
-     * @return
+     * Adds the method name to the map, once its body has been walked
+     *
+     * @param node the method node
      */
-    public Object visit(WhileStmt node){
-        node.getBodyStmt().accept(this);
-        return null;
+    private void leaveMethod(Method node){
+        localVars.put(className + "." + node.getName(), numCurVars);
     }
 
-
     /**
-     * Overrides to avoid visiting
-     * @param node the return statement node
-     * @return
+     * Skips the then branch of an if statement, so that only its else
+     * branch is walked
+     *
+     * @param node the if statement node
+     * @return true, to walk its else branch
      */
-    public Object visit(ReturnStmt node){
-        return null;
+    private boolean enterIf(IfStmt node){
+        analysis.skip(node.getThenStmt());
+        return true;
     }
 
-
-
+    /**
+     * Increments the counter for every local var found
+     * in a method
+     * @param node the declaration statement node
+     * @return false, since its initializer declares nothing
+     */
+    private boolean countDecl(DeclStmt node){
+        numCurVars++;
+        return false;
+    }
 }
-
-
-
@@ -0,0 +1,66 @@
+/**
+ * Filename: ProgramAnalyzer
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.semant;
+
+import proj12AhnSlager.bantam.ast.Program;
+import proj12AhnSlager.bantam.parser.FrontEnd;
+import proj12AhnSlager.bantam.util.CompilationException;
+import proj12AhnSlager.bantam.util.Error;
+import proj12AhnSlager.bantam.util.ErrorHandler;
+
+import java.util.Arrays;
+
+/**
+ * Parses a program spread over many files with a FrontEnd and analyzes it as
+ * one program.  It is kept with the semantic analyzer, which it drives, so
+ * that the parser package does not depend on it.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class ProgramAnalyzer
+{
+    /**
+     * Parses the files and directories given into one program, and if they
+     * have no errors, analyzes the whole program; then prints the errors
+     *
+     * @param args the names of the files and directories
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Please include at least 1 file or directory in arguments");
+            return;
+        }
+        ErrorHandler errorHandler = new ErrorHandler();
+        FrontEnd frontEnd = new FrontEnd();
+        frontEnd.setRecovering(true);
+        Program program;
+        try {
+            program = frontEnd.parse(Arrays.asList(args), errorHandler);
+        }
+        catch (CompilationException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        if (!errorHandler.errorsFound()) {
+            System.out.println("Parsing Successful.");
+            try {
+                new SemanticAnalyzer(errorHandler).analyze(program);
+                if (!errorHandler.errorsFound()) {
+                    System.out.println("Analyzing Successful");
+                }
+            }
+            catch (RuntimeException e) {
+                if (!errorHandler.errorsFound()) {
+                    System.out.println("Analyzing stopped: " + e);
+                }
+            }
+        }
+        for (Error error : errorHandler.getErrorList()) {
+            System.out.println(error.toString() + "\n");
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Filename: ProgramChecks
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.semant;
+
+import proj12AhnSlager.bantam.ast.Program;
+import proj12AhnSlager.bantam.parser.Parser;
+import proj12AhnSlager.bantam.util.CompilationException;
+import proj12AhnSlager.bantam.util.ErrorHandler;
+import proj12AhnSlager.bantam.visitor.FusedTraversal;
+
+import java.util.Map;
+
+/**
+ * Runs the checks of the IDE, MainMainVisitor, StringConstantsVisitor and
+ * NumLocalVarsVisitor, in one walk of a program AST, rather than one walk
+ * each, and keeps what they found.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class ProgramChecks
+{
+    private MainMainVisitor mainMain = new MainMainVisitor();
+    private StringConstantsVisitor stringConstants = new StringConstantsVisitor();
+    private NumLocalVarsVisitor numLocalVars = new NumLocalVarsVisitor();
+
+    /**
+     * Runs all the checks on a program
+     *
+     * @param program the AST of the program
+     */
+    public void run(Program program) {
+        FusedTraversal traversal = new FusedTraversal();
+        mainMain.addTo(traversal);
+        stringConstants.addTo(traversal);
+        numLocalVars.addTo(traversal);
+        traversal.run(program);
+    }
+
+    /**
+     * @return whether the program has a Main class with a main method
+     */
+    public boolean hasMain() {
+        return mainMain.hasMain();
+    }
+
+    /**
+     * @return the string constants of the program, by StringConst_ name
+     */
+    public Map<String, String> getStringConstants() {
+        return stringConstants.getStringConstants();
+    }
+
+    /**
+     * @return the number of local variables of each method, by class and
+     * method name
+     */
+    public Map<String, Integer> getNumLocalVars() {
+        return numLocalVars.getNumLocalVars();
+    }
+
+    /**
+     * Runs the checks on the given files one after another, and all at once,
+     * prints the times, and checks that they find the same
+     *
+     * @param args the files to check
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: ProgramChecks files...");
+            return;
+        }
+        Program[] programs = new Program[args.length];
+        for (int i = 0; i < args.length; i++) {
+            try {
+                programs[i] = new Parser(new ErrorHandler()).parse(args[i]);
+            }
+            catch (CompilationException e) {
+                System.out.println(args[i] + " could not be parsed.");
+                return;
+            }
+        }
+        long separate = Long.MAX_VALUE;
+        long fused = Long.MAX_VALUE;
+        boolean same = true;
+        for (int run = 0; run < 20; run++) {
+            boolean[] hasMain = new boolean[programs.length];
+            Object[] strings = new Object[programs.length];
+            Object[] locals = new Object[programs.length];
+            long start = System.nanoTime();
+            for (int i = 0; i < programs.length; i++) {
+                hasMain[i] = new MainMainVisitor().hasMain(programs[i]);
+                strings[i] = new StringConstantsVisitor().getStringConstants(programs[i]);
+                locals[i] = new NumLocalVarsVisitor().getNumLocalVars(programs[i]);
+            }
+            long middle = System.nanoTime();
+            ProgramChecks[] checks = new ProgramChecks[programs.length];
+            for (int i = 0; i < programs.length; i++) {
+                checks[i] = new ProgramChecks();
+                checks[i].run(programs[i]);
+            }
+            long end = System.nanoTime();
+            separate = Math.min(separate, middle - start);
+            fused = Math.min(fused, end - middle);
+            for (int i = 0; i < programs.length; i++) {
+                same &= hasMain[i] == checks[i].hasMain()
+                        && strings[i].equals(checks[i].getStringConstants())
+                        && locals[i].equals(checks[i].getNumLocalVars());
+            }
+        }
+        System.out.println("One walk per check: " + separate / 1000 + " us");
+        System.out.println("One walk for all: " + fused / 1000 + " us");
+        System.out.println("The checks found " + (same ? "the same." : "different things."));
+    }
+}
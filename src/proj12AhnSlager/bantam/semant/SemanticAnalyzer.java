@@ -53,14 +53,14 @@ public class SemanticAnalyzer
      * These words are:  null, this, super, void, int, boolean.
      * However, class names can be used as variable names.
      */
-    public static final Set<String> reservedIdentifiers = new HashSet<>(Arrays.asList(
-            "null", "this", "super", "void", "int", "boolean"));
+    public static final Set<String> reservedIdentifiers = new HashSet<>(
+            SymbolInterner.reservedIdentifiers);
 
     /**
      * Reserved words that represent built in classes
      */
-    public static final Set<String> builtInNames = new HashSet<>(Arrays.asList(
-            "Object", "String", "TextIO", "Sys"));
+    public static final Set<String> builtInNames = new HashSet<>(
+            SymbolInterner.builtInClasses);
 
     private static String curFilename;
 
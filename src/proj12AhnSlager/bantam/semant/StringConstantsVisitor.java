@@ -8,27 +8,34 @@
 
 package proj12AhnSlager.bantam.semant;
 import proj12AhnSlager.bantam.ast.*;
+import proj12AhnSlager.bantam.visitor.FusedTraversal;
+import proj12AhnSlager.bantam.visitor.ParallelTraversal;
 import proj12AhnSlager.bantam.visitor.Visitor;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 
 /**
- * This class uses the Visitor pattern to traverse
- * a Program AST.
+ * This class walks a Program AST.
  *
  * Returns a Map of all the String constants in
  * the program and a unique identifier as
  * its key.
  *
+ * It is an analysis of a FusedTraversal, so it can be run in the same walk
+ * of the AST as other analyses: addTo() registers it with a traversal, and
+ * getStringConstants() then gives what it found.  It is still a Visitor, so
+ * a program can also accept() one, which searches in a traversal of its own.
+ *
  * @author  Jackie Hang, Kyle Slager
  * @version 1.0
  * @since   2-13-19
  */
 
-public class StringConstantsVisitor extends Visitor {
+public class StringConstantsVisitor extends Visitor{
 
     private ArrayList<String> stringList = new ArrayList<>();
 
@@ -39,8 +46,63 @@ public class StringConstantsVisitor extends Visitor {
      * @return Map of string constants
      */
     public Map<String, String> getStringConstants(Program ast) {
+        FusedTraversal traversal = new FusedTraversal();
+        addTo(traversal);
+        traversal.run(ast);
+        return getStringConstants();
+    }
+
+    /**
+     * Finds the string constants of a program accepting this visitor, in a
+     * traversal of its own; getStringConstants() then gives the map
+     * @param node the program node
+     * @return null
+     */
+    public Object visit(Program node) {
+        getStringConstants(node);
+        return null;
+    }
+
+    /**
+     * Finds the string constants of each class at the same time, and numbers
+     * them in the order of the classes, as getStringConstants(ast) does
+     * @param ast
+     * @param parallel the traversal to run over the classes with
+     * @return Map of string constants
+     */
+    public Map<String, String> getStringConstants(Program ast, ParallelTraversal parallel) {
+        List<List<String>> found = parallel.run(ast, unit -> {
+            StringConstantsVisitor visitor = new StringConstantsVisitor();
+            FusedTraversal traversal = new FusedTraversal();
+            visitor.addTo(traversal);
+            traversal.run(unit);
+            return visitor.stringList;
+        });
+        stringList = new ArrayList<>();
+        for (List<String> strings : found) {
+            stringList.addAll(strings);
+        }
+        return getStringConstants();
+    }
+
+    /**
+     * Adds the search as an analysis of a traversal; once the traversal has
+     * been run, getStringConstants() gives the constants it found
+     *
+     * @param traversal the traversal
+     */
+    public void addTo(FusedTraversal traversal) {
+        stringList = new ArrayList<>();
+        traversal.add().pre(ConstStringExpr.class, this::addConstant);
+    }
+
+    /**
+     * Creates a unique key for every string constant the traversal this was
+     * last added to found, in the order found, and adds to a Map
+     * @return Map of string constants
+     */
+    public Map<String, String> getStringConstants() {
         Map<String,String> stringMap = new HashMap<String,String>();
-        ast.accept(this);
         int stringNum = stringList.size();
         for(int i = 0; i < stringNum; i++){
             String strConstName = "StringConst_" + Integer.toString(i);
@@ -50,16 +112,13 @@ public class StringConstantsVisitor extends Visitor {
     }
 
     /**
-     * Overrides the visit method that takes in
-     * a Constant String Expression.
-     *
-     * When the visitor encounters it, the constant gets
-     * added to a string list
+     * When the traversal reaches a Constant String
+     * Expression, the constant gets added to a string list
      * @param node the string constant expression node
-     * @return
+     * @return true, though it has no children
      */
-    public Object visit(ConstStringExpr node){
+    private boolean addConstant(ConstStringExpr node){
         stringList.add(node.getConstant());
-        return null;
+        return true;
     }
 }
@@ -84,7 +84,7 @@ public class TypeCheckerVisitor extends Visitor
         // expr's type with the field's type.
         if (!isClassType(node.getType())) {
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "The declared type " + node.getType() + " of the field "
                             + node.getName() + " is undefined.");
         }
@@ -94,7 +94,7 @@ public class TypeCheckerVisitor extends Visitor
             if(!isSubTypeOf(initExpr.getExprType(),node.getType())) {
                 System.out.println(initExpr.getExprType());
                 errorHandler.register(Error.Kind.SEMANT_ERROR,
-                        currentClass.getASTNode().getFilename(), node.getLineNum(),
+                        currentClass.getASTNode().getFilename(), node,
                         "The type of the initializer is " + initExpr.getExprType()
                          + " which is not compatible with the " + node.getName() +
                          " field's type " + node.getType());
@@ -115,7 +115,7 @@ public class TypeCheckerVisitor extends Visitor
     public Object visit(Method node) {
         if (!isClassType(node.getReturnType()) && !node.getReturnType().equals("void")){
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "The return type " + node.getReturnType() + " of the method "
                             + node.getName() + " is undefined.");
         }
@@ -137,7 +137,7 @@ public class TypeCheckerVisitor extends Visitor
     public Object visit(Formal node) {
         if (!isClassType(node.getType())) {
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "The declared type " + node.getType() + " of the formal" +
                             " parameter " + node.getName() + " is undefined.");
         }
@@ -156,7 +156,7 @@ public class TypeCheckerVisitor extends Visitor
         node.getPredExpr().accept(this);
         if(!node.getPredExpr().getExprType().equals("boolean")) {
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "The type of the predicate is " + node.getPredExpr().getExprType()
                             + " which is not boolean.");
         }
@@ -176,7 +176,7 @@ public class TypeCheckerVisitor extends Visitor
         node.getPredExpr().accept(this);
         if(!node.getPredExpr().getExprType().equals("boolean")){
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "The type of the predicate is " + node.getPredExpr().getExprType()
                             + " which is not boolean.");
         }
@@ -199,20 +199,20 @@ public class TypeCheckerVisitor extends Visitor
         node.getUpdateExpr().accept(this);
         if(!node.getInitExpr().getExprType().equals("int")){
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "The type of the initialization is " + node.getPredExpr().getExprType()
                             + " which is not int.");
         }
         if(!node.getPredExpr().getExprType().equals("boolean")){
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "The type of the predicate is " + node.getPredExpr().getExprType()
                             + " which is not boolean.");
         }
 
         if(!node.getUpdateExpr().getExprType().equals("boolean")){
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "The type of the update is " + node.getPredExpr().getExprType()
                             + " which is not int.");
         }
@@ -235,7 +235,7 @@ public class TypeCheckerVisitor extends Visitor
         String rightExprType = node.getRightExpr().getExprType();
         if(!leftExprType.equals(rightExprType) || !leftExprType.equals("int")) {
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "The values of this Arithmetic Expression are "+ node.getLeftExpr().getExprType()
                             +" and " +node.getRightExpr().getExprType()+ ". Arithmetic Expression must be int int.");
         }
@@ -314,19 +314,19 @@ public class TypeCheckerVisitor extends Visitor
         if(!leftExprType.equals(rightExprType) || !input) {
             if(type == "boolean") {
                 errorHandler.register(Error.Kind.SEMANT_ERROR,
-                        currentClass.getASTNode().getFilename(), node.getLineNum(),
+                        currentClass.getASTNode().getFilename(), node,
                         "The values of this Binary Expression are " + leftExprType
                                 + " and " + rightExprType + ". Expression must be boolean boolean.");
             }
             else if(type == "int"){
                 errorHandler.register(Error.Kind.SEMANT_ERROR,
-                        currentClass.getASTNode().getFilename(), node.getLineNum(),
+                        currentClass.getASTNode().getFilename(), node,
                         "The values of this Binary Expression are " + leftExprType
                                 + " and " + rightExprType + ". Expression must be int int.");
             }
             else{
                 errorHandler.register(Error.Kind.SEMANT_ERROR,
-                        currentClass.getASTNode().getFilename(), node.getLineNum(),
+                        currentClass.getASTNode().getFilename(), node,
                         "The two values of this Binary Expression are not compatible");
             }
         }
@@ -472,7 +472,7 @@ public class TypeCheckerVisitor extends Visitor
     public Object visit(NewExpr node) {
         if(currentClass.getClassMap().get(node.getType()) == null) {
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "The type " + node.getType() + " does not exist.");
             node.setExprType("Object"); // to allow analysis to continue
         }
@@ -493,7 +493,7 @@ public class TypeCheckerVisitor extends Visitor
         node.getExpr().accept(this);
         if(!node.getExpr().getExprType().equals(type)) {
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "The " + node.getExpr().getExprType() + " operator applies only to " + type +
                             " expressions, not " + node.getExpr().getExprType() + " expressions.");
         }
@@ -585,7 +585,7 @@ public class TypeCheckerVisitor extends Visitor
         varReferenceExpression.accept(this);
         if (currentSymbolTable.lookup(node.getName()) != null) {
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "The variable name " + node.getName() + " has already been used in this scope.");
         }
 
@@ -635,7 +635,7 @@ public class TypeCheckerVisitor extends Visitor
         arraySize.accept(this);
         if (!arraySize.getExprType().equals("int")) {
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "Array size must be given as an integer value");
             arraySize.setExprType("int");
         }
@@ -663,7 +663,7 @@ public class TypeCheckerVisitor extends Visitor
                 Formal formalList = (Formal) currentMethod.getFormalList().get(i);
                 if(!actualList.getType().equals(formalList.getType()));
                     errorHandler.register(Error.Kind.SEMANT_ERROR,
-                        currentClass.getASTNode().getFilename(), node.getLineNum(),
+                        currentClass.getASTNode().getFilename(), node,
                         "Parameter type does not match expected parameter type");
             }
         }
@@ -680,7 +680,7 @@ public class TypeCheckerVisitor extends Visitor
     public Object visit(AssignExpr node){
         if(currentSymbolTable.lookup(node.getName())==null){
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "The variable " + node.getName() + " has not been defined");
         }
         return null;
@@ -697,7 +697,7 @@ public class TypeCheckerVisitor extends Visitor
         node.getIndex().accept(this);
         if(!node.getIndex().getExprType().equals("int")){
             errorHandler.register(Error.Kind.SEMANT_ERROR,
-                    currentClass.getASTNode().getFilename(), node.getLineNum(),
+                    currentClass.getASTNode().getFilename(), node,
                     "The index of assignment is a " + node.getIndex().getExprType() +
                             " and it should be an int.");
         }
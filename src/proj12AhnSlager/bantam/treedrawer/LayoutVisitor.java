@@ -134,6 +134,10 @@ public class LayoutVisitor extends Visitor
         return layoutNullary("Break");
     }
 
+    public Object visit(ErrorStmt node) {
+        return layoutNullary("Error");
+    }
+
     // Expressions
 
     public Object visit(ExprList node) {
@@ -23,4 +23,15 @@ public class CompilationException extends RuntimeException
     public CompilationException(String message) {
         super(message);
     }
+
+    /**
+     * creates an exception with a message and, if asked for, no stack trace.
+     * An exception that only reports errors already registered with an
+     * ErrorHandler has no use for a stack trace, which is slow to fill in.
+     * @param message The message telling the reason the exception was thrown
+     * @param writableStackTrace whether the stack trace is filled in
+     */
+    public CompilationException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
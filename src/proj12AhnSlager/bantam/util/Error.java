@@ -27,6 +27,14 @@ public class Error {
      * Line number in the source file where the error occurred
      */
     private int lineNum;
+    /**
+     * Offset of the first source char the error is about, or -1 if unknown
+     */
+    private int startOffset;
+    /**
+     * Offset just past the last source char the error is about, or -1 if unknown
+     */
+    private int endOffset;
     /**
      * Error message
      */
@@ -41,9 +49,26 @@ public class Error {
      * @param message  error message
      */
     public Error(Kind kind, String filename, int lineNum, String message) {
+        this(kind, filename, lineNum, -1, -1, message);
+    }
+
+    /**
+     * Error constructor for an error about a known span of the source
+     *
+     * @param kind        the type of error (lex, parse, semantic)
+     * @param filename    file name where the error occurred
+     * @param lineNum     line number where the error occurred
+     * @param startOffset offset of the first source char the error is about
+     * @param endOffset   offset just past the last source char the error is about
+     * @param message     error message
+     */
+    public Error(Kind kind, String filename, int lineNum, int startOffset, int endOffset,
+                 String message) {
         this.kind = kind;
         this.filename = filename;
         this.lineNum = lineNum;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
         this.message = message;
     }
 
@@ -74,6 +99,24 @@ public class Error {
         return lineNum;
     }
 
+    /**
+     * Get the offset of the first source char the error is about
+     *
+     * @return the offset, or -1 if it is not known
+     */
+    public int getStartOffset() {
+        return startOffset;
+    }
+
+    /**
+     * Get the offset just past the last source char the error is about
+     *
+     * @return the offset, or -1 if it is not known
+     */
+    public int getEndOffset() {
+        return endOffset;
+    }
+
     /**
      * Get the error message
      *
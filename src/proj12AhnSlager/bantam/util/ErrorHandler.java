@@ -28,6 +28,8 @@
 
 package proj12AhnSlager.bantam.util;
 
+import proj12AhnSlager.bantam.ast.ASTNode;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -67,6 +69,34 @@ public class ErrorHandler {
         register((new Error(kind, filename, lineNum, errorMessage)));
     }
 
+    /**
+     * Register an error about a known span of the source
+     *
+     * @param kind         the type (lex, parse, semantic) of error
+     * @param filename     the name of the filename where the error occurred
+     * @param lineNum      the starting line number in the source file where the error occurred
+     * @param startOffset  the offset of the first source char the error is about
+     * @param endOffset    the offset just past the last source char the error is about
+     * @param errorMessage the error message
+     */
+    public void register(Error.Kind kind, String filename, int lineNum, int startOffset,
+                         int endOffset, String errorMessage) {
+        register(new Error(kind, filename, lineNum, startOffset, endOffset, errorMessage));
+    }
+
+    /**
+     * Register an error about an AST node, at the node's line and span
+     *
+     * @param kind         the type (lex, parse, semantic) of error
+     * @param filename     the name of the filename where the error occurred
+     * @param node         the AST node the error is about
+     * @param errorMessage the error message
+     */
+    public void register(Error.Kind kind, String filename, ASTNode node, String errorMessage) {
+        register(kind, filename, node.getLineNum(), node.getStartOffset(),
+                node.getEndOffset(), errorMessage);
+    }
+
     /**
      * Register an error
      *
@@ -0,0 +1,58 @@
+/**
+ * Filename: ErrorList
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An ErrorHandler that keeps every error in the order it is registered, for
+ * scanners, parsers and analyses whose errors are sorted out before they are
+ * registered for real
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class ErrorList extends ErrorHandler
+{
+    private List<Error> errors = new ArrayList<>();
+
+    @Override
+    public void register(Error.Kind kind, String errorMessage) {
+        register(kind, null, -1, errorMessage);
+    }
+
+    @Override
+    public void register(Error.Kind kind, String filename, int lineNum, String errorMessage) {
+        register(kind, filename, lineNum, -1, -1, errorMessage);
+    }
+
+    @Override
+    public void register(Error.Kind kind, String filename, int lineNum, int startOffset,
+                         int endOffset, String errorMessage) {
+        errors.add(new Error(kind, filename, lineNum, startOffset, endOffset, errorMessage));
+    }
+
+    @Override
+    public boolean errorsFound() {
+        return !errors.isEmpty();
+    }
+
+    /**
+     * @return the registered errors, in the order they were registered
+     */
+    @Override
+    public List<Error> getErrorList() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    @Override
+    public void clear() {
+        errors.clear();
+    }
+
+}
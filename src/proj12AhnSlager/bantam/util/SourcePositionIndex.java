@@ -0,0 +1,97 @@
+/**
+ * Filename: SourcePositionIndex
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.util;
+
+/**
+ * Converts char offsets in a source file to line and column numbers and back,
+ * by binary search in the table of line start offsets the scanner builds.
+ * Tokens, AST nodes and errors carry offsets, so they can be mapped to exact
+ * places in an editor without reading the source again.
+ *
+ * Lines and columns are numbered from 1.  The line of an offset is the line
+ * the char at the offset is on, which is not always the position of a token,
+ * since a token's position is the line of the char just after it.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class SourcePositionIndex
+{
+    private int[] lineStarts; // the offset of the first char of each line
+
+    /**
+     *
+     * @param lineStarts the sorted offsets the lines start at, the first of
+     *                   which is 0, as Scanner.getLineStarts() gives them
+     */
+    public SourcePositionIndex(int[] lineStarts) {
+        if (lineStarts.length == 0 || lineStarts[0] != 0) {
+            throw new IllegalArgumentException("The first line must start at offset 0");
+        }
+        this.lineStarts = lineStarts;
+    }
+
+    /**
+     * @return the number of lines
+     */
+    public int getNumLines() {
+        return lineStarts.length;
+    }
+
+    /**
+     * @param offset a non-negative char offset
+     * @return the line number of the char at the offset
+     */
+    public int getLine(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Negative offset " + offset);
+        }
+        int low = 0;
+        int high = lineStarts.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (lineStarts[middle] <= offset) {
+                low = middle;
+            }
+            else {
+                high = middle - 1;
+            }
+        }
+        return low + 1;
+    }
+
+    /**
+     * @param offset a non-negative char offset
+     * @return the column number of the char at the offset in its line
+     */
+    public int getColumn(int offset) {
+        return offset - lineStarts[getLine(offset) - 1] + 1;
+    }
+
+    /**
+     * @param line a line number
+     * @return the offset of the first char of the line
+     */
+    public int getLineStart(int line) {
+        if (line < 1 || line > lineStarts.length) {
+            throw new IllegalArgumentException("No line " + line);
+        }
+        return lineStarts[line - 1];
+    }
+
+    /**
+     * @param line a line number
+     * @param column a column number in the line
+     * @return the offset of the char at the line and column
+     */
+    public int getOffset(int line, int column) {
+        if (column < 1) {
+            throw new IllegalArgumentException("No column " + column);
+        }
+        return getLineStart(line) + column - 1;
+    }
+
+}
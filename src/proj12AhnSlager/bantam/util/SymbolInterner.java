@@ -0,0 +1,274 @@
+/**
+ * Filename: SymbolInterner
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.util;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Gives each distinct identifier of a compilation a dense int id and one
+ * shared String.  The scanner interns identifiers straight from the source
+ * buffer, the parser stores the ids in the AST, and the symbol tables can be
+ * searched by id.  Since every name then is the one shared String, looking
+ * it up in a hash table uses its cached hash code and compares it by reference.
+ *
+ * The reserved words, the reserved identifiers and the names of the built-in
+ * classes are interned first, in the order listed here, so whether an id is one
+ * of them is a range check.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class SymbolInterner
+{
+    /**
+     * The reserved words and boolean constants.  The id of each is its index.
+     */
+    public static final List<String> keywords = List.of("break", "cast", "class", "var",
+            "else", "extends", "for", "if", "instanceof", "new", "return", "while",
+            "true", "false");
+
+    /**
+     * The identifiers that cannot be declared as the names of classes,
+     * methods, fields or variables
+     */
+    public static final List<String> reservedIdentifiers = List.of("null", "this", "super",
+            "void", "int", "boolean");
+
+    /**
+     * The names of the built-in classes
+     */
+    public static final List<String> builtInClasses = List.of("Object", "String", "TextIO",
+            "Sys");
+
+    public static final int FIRST_RESERVED_IDENTIFIER = keywords.size();
+    public static final int FIRST_BUILT_IN_CLASS =
+            FIRST_RESERVED_IDENTIFIER + reservedIdentifiers.size();
+    public static final int FIRST_USER_SYMBOL = FIRST_BUILT_IN_CLASS + builtInClasses.size();
+
+    private String[] symbols;   // the shared String of each id
+    private int[] hashes;       // the hash code of each id's String
+    private int size;           // the number of ids given out
+    private int[] table;        // open-addressed hash table of id + 1, 0 if empty
+
+    /**
+     * Creates an interner holding just the reserved words and names
+     */
+    public SymbolInterner() {
+        symbols = new String[256];
+        hashes = new int[256];
+        table = new int[512];
+        for (String keyword : keywords) {
+            intern(keyword);
+        }
+        for (String identifier : reservedIdentifiers) {
+            intern(identifier);
+        }
+        for (String name : builtInClasses) {
+            intern(name);
+        }
+    }
+
+    /**
+     * @param id a symbol id
+     * @return true if the id is of a reserved word or boolean constant
+     */
+    public static boolean isKeyword(int id) {
+        return id >= 0 && id < FIRST_RESERVED_IDENTIFIER;
+    }
+
+    /**
+     * @param id a symbol id
+     * @return true if the id is of a reserved identifier such as "this"
+     */
+    public static boolean isReservedIdentifier(int id) {
+        return id >= FIRST_RESERVED_IDENTIFIER && id < FIRST_BUILT_IN_CLASS;
+    }
+
+    /**
+     * @param id a symbol id
+     * @return true if the id is of the name of a built-in class
+     */
+    public static boolean isBuiltInClass(int id) {
+        return id >= FIRST_BUILT_IN_CLASS && id < FIRST_USER_SYMBOL;
+    }
+
+    /**
+     * @return the number of symbols interned
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param id a symbol id
+     * @return the shared String of the symbol
+     */
+    public String get(int id) {
+        return symbols[id];
+    }
+
+    /**
+     * Finds the id of a symbol without interning it
+     *
+     * @param name the symbol
+     * @return its id, or -1 if it has not been interned
+     */
+    public int lookup(String name) {
+        int hash = name.hashCode();
+        for (int i = slot(hash); table[i] != 0; i = (i + 1) & (table.length - 1)) {
+            int id = table[i] - 1;
+            if (hashes[id] == hash && symbols[id].equals(name)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param name a symbol
+     * @return the id of the symbol, giving it the next id if it is new
+     */
+    public int intern(String name) {
+        int id = lookup(name);
+        return id >= 0 ? id : add(name, name.hashCode());
+    }
+
+    /**
+     * Interns the symbol spelled by a slice of a char buffer.  A String is only
+     * built for it the first time it is seen.
+     *
+     * @param chars  the buffer holding the symbol
+     * @param offset the index of the symbol's first char
+     * @param length the number of chars in the symbol
+     * @return the id of the symbol
+     */
+    public int intern(char[] chars, int offset, int length) {
+        // the same hash as String.hashCode()
+        int hash = 0;
+        for (int j = offset; j < offset + length; j++) {
+            hash = 31 * hash + chars[j];
+        }
+        for (int i = slot(hash); table[i] != 0; i = (i + 1) & (table.length - 1)) {
+            int id = table[i] - 1;
+            if (hashes[id] == hash && matches(symbols[id], chars, offset, length)) {
+                return id;
+            }
+        }
+        return add(new String(chars, offset, length), hash);
+    }
+
+    /**
+     * @return the number of bytes writeTo() writes
+     */
+    public int serializedSize() {
+        int numChars = 0;
+        for (int id = FIRST_USER_SYMBOL; id < size; id++) {
+            numChars += symbols[id].length();
+        }
+        return 4 + 4 * (size - FIRST_USER_SYMBOL) + 2 * numChars;
+    }
+
+    /**
+     * Writes the symbols past the reserved words and names, for readFrom() to
+     * intern in another interner: their number, their lengths, then all their
+     * chars
+     *
+     * @param out the buffer to write to
+     */
+    public void writeTo(ByteBuffer out) {
+        out.putInt(size - FIRST_USER_SYMBOL);
+        for (int id = FIRST_USER_SYMBOL; id < size; id++) {
+            out.putInt(symbols[id].length());
+        }
+        for (int id = FIRST_USER_SYMBOL; id < size; id++) {
+            String symbol = symbols[id];
+            for (int j = 0; j < symbol.length(); j++) {
+                out.putChar(symbol.charAt(j));
+            }
+        }
+    }
+
+    /**
+     * Interns the symbols another interner wrote with writeTo()
+     *
+     * @param in the buffer to read from
+     * @return the id in this interner of each id in the other one
+     */
+    public int[] readFrom(ByteBuffer in) {
+        int count = in.getInt();
+        int[] lengths = new int[count];
+        in.asIntBuffer().get(lengths);
+        in.position(in.position() + 4 * count);
+        int numChars = 0;
+        for (int length : lengths) {
+            numChars += length;
+        }
+        char[] chars = new char[numChars];
+        in.asCharBuffer().get(chars);
+        in.position(in.position() + 2 * numChars);
+
+        int[] ids = new int[FIRST_USER_SYMBOL + count];
+        for (int id = 0; id < FIRST_USER_SYMBOL; id++) {
+            ids[id] = id;
+        }
+        for (int i = 0, offset = 0; i < count; offset += lengths[i++]) {
+            ids[FIRST_USER_SYMBOL + i] = intern(chars, offset, lengths[i]);
+        }
+        return ids;
+    }
+
+    private static boolean matches(String symbol, char[] chars, int offset, int length) {
+        if (symbol.length() != length) {
+            return false;
+        }
+        for (int j = 0; j < length; j++) {
+            if (symbol.charAt(j) != chars[offset + j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int add(String name, int hash) {
+        if (size == symbols.length) {
+            String[] newSymbols = new String[size * 2];
+            System.arraycopy(symbols, 0, newSymbols, 0, size);
+            symbols = newSymbols;
+            int[] newHashes = new int[size * 2];
+            System.arraycopy(hashes, 0, newHashes, 0, size);
+            hashes = newHashes;
+        }
+        int id = size++;
+        symbols[id] = name;
+        hashes[id] = hash;
+        if (size * 2 > table.length) {
+            // keep the table at most half full
+            table = new int[table.length * 2];
+            for (int j = 0; j < size; j++) {
+                insert(j);
+            }
+        }
+        else {
+            insert(id);
+        }
+        return id;
+    }
+
+    private int slot(int hash) {
+        // spread the high bits down, as HashMap does
+        return (hash ^ (hash >>> 16)) & (table.length - 1);
+    }
+
+    private void insert(int id) {
+        int i = slot(hashes[id]);
+        while (table[i] != 0) {
+            i = (i + 1) & (table.length - 1);
+        }
+        table[i] = id + 1;
+    }
+
+}
@@ -49,6 +49,11 @@ public class SymbolTable {
      * If lookup fails in this symbol table should lookup in parent
      */
     private SymbolTable parent;
+    /**
+     * Interner that gave out the symbol ids the table may be searched by
+     * (may be null)
+     */
+    private SymbolInterner symbols;
 
     /**
      * SymbolTable constructor
@@ -60,6 +65,17 @@ public class SymbolTable {
         parent = null;
     }
 
+    /**
+     * SymbolTable constructor
+     * create an empty symbol table that can also be searched by symbol id
+     *
+     * @param symbols the interner of the compilation
+     */
+    public SymbolTable(SymbolInterner symbols) {
+        this();
+        this.symbols = symbols;
+    }
+
     /**
      * SymbolTable constructor
      * create a symbol table from an existing one
@@ -80,6 +96,30 @@ public class SymbolTable {
         this.parent = parent;
     }
 
+    /**
+     * Set the interner that gives out the symbol ids
+     *
+     * @param symbols the interner of the compilation
+     */
+    public void setSymbols(SymbolInterner symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Get the shared String of a symbol id.  Since the interner gives every
+     * occurrence of a name the same String, the hash lookups with it use its
+     * cached hash code and compare by reference.
+     *
+     * @param id symbol id
+     * @return the symbol name
+     */
+    private String name(int id) {
+        if (symbols == null) {
+            throw new IllegalStateException("No SymbolInterner to look up symbol id " + id);
+        }
+        return symbols.get(id);
+    }
+
     /**
      * Set the parent symbol table
      *
@@ -127,6 +167,36 @@ public class SymbolTable {
         hash.put(s, value);
     }
 
+    /**
+     * Adds a symbol, given by its id, to the symbol table
+     *
+     * @param id    symbol id (i.e., of the name of variable or method)
+     * @param value value of symbol (i.e., type)
+     */
+    public void add(int id, Object value) {
+        add(name(id), value);
+    }
+
+    /**
+     * Looks up a symbol, given by its id, in any scope in the symbol table
+     *
+     * @param id symbol id to lookup
+     * @return value of symbol (i.e., type), null if not found
+     */
+    public Object lookup(int id) {
+        return lookup(name(id));
+    }
+
+    /**
+     * Looks up a symbol, given by its id, in the current scope in the table
+     *
+     * @param id symbol id to lookup
+     * @return value of symbol (i.e., type), null if not found
+     */
+    public Object peek(int id) {
+        return peek(name(id));
+    }
+
     /**
      * Looks up a symbol in any scope in the symbol table
      *
@@ -453,6 +523,7 @@ public class SymbolTable {
 
         // use these to create a new symbol table
         SymbolTable st = new SymbolTable(newScopes, newParent);
+        st.symbols = symbols;
 
         // return cloned symbol table
         return st;
@@ -0,0 +1,132 @@
+/**
+ * Filename: TreeDiff
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.util;
+
+import proj12AhnSlager.bantam.ast.ASTNode;
+import proj12AhnSlager.bantam.ast.ListNode;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Objects;
+
+/**
+ * Finds the first place two ASTs differ, for checking that a faster way of
+ * building an AST builds the same one.  Every field of every node is compared,
+ * and the line number and source offsets of each node as getLineNum(),
+ * getStartOffset() and getEndOffset() give them, which is where the node is
+ * whatever it was moved by.  The symbol ids of the two trees
+ * may come from different SymbolInterners, so an int field whose name ends in
+ * "Id" is compared by the symbol it stands for.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class TreeDiff
+{
+    private SymbolInterner expectedSymbols;
+    private SymbolInterner actualSymbols;
+
+    /**
+     * @param expectedSymbols the interner of the symbol ids of the expected tree
+     * @param actualSymbols the interner of the symbol ids of the actual tree
+     */
+    public TreeDiff(SymbolInterner expectedSymbols, SymbolInterner actualSymbols) {
+        this.expectedSymbols = expectedSymbols;
+        this.actualSymbols = actualSymbols;
+    }
+
+    /**
+     * @param expected the expected tree
+     * @param actual the actual tree
+     * @return a description of the first difference found, or null if the
+     * trees are the same
+     */
+    public String firstDifference(ASTNode expected, ASTNode actual) {
+        return compare("", expected, actual);
+    }
+
+    private String compare(String path, ASTNode expected, ASTNode actual) {
+        if (expected == null || actual == null) {
+            return expected == actual ? null :
+                    path + ": expected " + expected + " but found " + actual;
+        }
+        if (expected.getClass() != actual.getClass()) {
+            return path + ": expected a " + expected.getClass().getSimpleName() +
+                    " but found a " + actual.getClass().getSimpleName();
+        }
+        path = path + "/" + expected.getClass().getSimpleName() +
+                "@" + expected.getLineNum();
+        if (expected.getLineNum() != actual.getLineNum()
+                || expected.getStartOffset() != actual.getStartOffset()
+                || expected.getEndOffset() != actual.getEndOffset()) {
+            return path + ": expected line " + expected.getLineNum() + " at [" +
+                    expected.getStartOffset() + ", " + expected.getEndOffset() +
+                    ") but found line " + actual.getLineNum() + " at [" +
+                    actual.getStartOffset() + ", " + actual.getEndOffset() + ")";
+        }
+        if (expected instanceof ListNode) {
+            ListNode expectedList = (ListNode) expected;
+            ListNode actualList = (ListNode) actual;
+            if (expectedList.getSize() != actualList.getSize()) {
+                return path + ": expected " + expectedList.getSize() +
+                        " elements but found " + actualList.getSize();
+            }
+            for (int i = 0; i < expectedList.getSize(); i++) {
+                String difference = compare(path + "[" + i + "]", expectedList.get(i),
+                        actualList.get(i));
+                if (difference != null) {
+                    return difference;
+                }
+            }
+        }
+        for (Class<?> c = expected.getClass(); c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                // the elements of a list and the positions have been compared
+                if (Modifier.isStatic(field.getModifiers()) || c == ListNode.class
+                        || c == ASTNode.class) {
+                    continue;
+                }
+                field.setAccessible(true);
+                Object expectedValue;
+                Object actualValue;
+                try {
+                    expectedValue = field.get(expected);
+                    actualValue = field.get(actual);
+                }
+                catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+                String difference;
+                if (expectedValue instanceof ASTNode || actualValue instanceof ASTNode) {
+                    difference = expectedValue instanceof ASTNode
+                            && actualValue instanceof ASTNode
+                            ? compare(path + "." + field.getName(), (ASTNode) expectedValue,
+                            (ASTNode) actualValue)
+                            : path + "." + field.getName() + ": expected " + expectedValue +
+                            " but found " + actualValue;
+                }
+                else {
+                    if (field.getName().endsWith("Id") && field.getType() == int.class) {
+                        expectedValue = symbol(expectedSymbols, (Integer) expectedValue);
+                        actualValue = symbol(actualSymbols, (Integer) actualValue);
+                    }
+                    difference = Objects.equals(expectedValue, actualValue) ? null :
+                            path + "." + field.getName() + ": expected " + expectedValue +
+                                    " but found " + actualValue;
+                }
+                if (difference != null) {
+                    return difference;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String symbol(SymbolInterner symbols, int id) {
+        return id < 0 ? null : symbols.get(id);
+    }
+
+}
@@ -0,0 +1,406 @@
+/**
+ * Filename: FusedTraversal
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.visitor;
+
+import proj12AhnSlager.bantam.ast.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs several analyses over an AST in one walk.  Each analysis registers
+ * hooks for the classes of nodes it cares about: a pre hook is called when a
+ * node is reached, before its children, and a post hook once they have all
+ * been walked.  A hook registered for a class is called for the nodes of its
+ * subclasses too, so one for Expr is called for every expression.  The nodes
+ * are reached in the order a Visitor visits them.
+ *
+ * A pre hook returns whether its analysis wants the children of the node.  An
+ * analysis that does not gets no hooks called for them, and the walk leaves
+ * out the children of a node only when no analysis wants them, so one analysis
+ * skipping a subtree never changes what another sees.  A pre hook can also
+ * leave out just some children of its node, with Analysis.skip(), as a
+ * Visitor does by not visiting them.  Each analysis keeps
+ * its own state in the objects its hooks are bound to; the traversal only
+ * calls them, in the order the analyses were added.
+ *
+ * The walk keeps its own stack, so it takes a fixed depth of the Java stack
+ * however deep the AST is.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class FusedTraversal
+{
+    /**
+     * A hook called when a node is reached
+     *
+     * @param <T> the class of the nodes it is called for
+     */
+    public interface PreHook<T extends ASTNode>
+    {
+        /**
+         * @param node the node reached
+         * @return whether the analysis wants the children of the node walked
+         */
+        boolean pre(T node);
+    }
+
+    /**
+     * A hook called once the children of a node have been walked
+     *
+     * @param <T> the class of the nodes it is called for
+     */
+    public interface PostHook<T extends ASTNode>
+    {
+        /**
+         * @param node the node whose children have been walked
+         */
+        void post(T node);
+    }
+
+    /**
+     * The hooks of one analysis
+     */
+    public class Analysis
+    {
+        private final int index; // among the analyses of the traversal
+
+        private Analysis(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Registers a hook to be called when a node of a class is reached
+         *
+         * @param nodeClass the class of the nodes, or a superclass of them
+         * @param hook      the hook
+         * @param <T>       the class of the nodes
+         * @return this analysis, to register more hooks
+         */
+        public <T extends ASTNode> Analysis pre(Class<T> nodeClass, PreHook<? super T> hook) {
+            preHooks.add(new Hook(index, nodeClass, hook));
+            dispatches.clear();
+            return this;
+        }
+
+        /**
+         * Registers a hook to be called once the children of a node of a class
+         * have been walked
+         *
+         * @param nodeClass the class of the nodes, or a superclass of them
+         * @param hook      the hook
+         * @param <T>       the class of the nodes
+         * @return this analysis, to register more hooks
+         */
+        public <T extends ASTNode> Analysis post(Class<T> nodeClass, PostHook<? super T> hook) {
+            postHooks.add(new Hook(index, nodeClass, hook));
+            dispatches.clear();
+            return this;
+        }
+
+        /**
+         * Leaves a child of the node being reached out of this analysis: no
+         * hook of the analysis is called for the child or for anything under
+         * it.  Only to be called from a pre hook of this analysis, with a
+         * child of the node the hook was called for.
+         *
+         * @param child the child, or null, which is left out already
+         */
+        public void skip(ASTNode child) {
+            if (child == null) {
+                return;
+            }
+            if (numSkips == skipNodes.length) {
+                skipNodes = Arrays.copyOf(skipNodes, 2 * numSkips);
+                skipAnalyses = Arrays.copyOf(skipAnalyses, 2 * numSkips);
+                skipParents = Arrays.copyOf(skipParents, 2 * numSkips);
+            }
+            skipNodes[numSkips] = child;
+            skipAnalyses[numSkips] = index;
+            skipParents[numSkips] = reaching;
+            numSkips++;
+        }
+    }
+
+    private static class Hook
+    {
+        final int analysis;
+        final Class<?> nodeClass;
+        final Object hook; // a PreHook or a PostHook
+
+        Hook(int analysis, Class<?> nodeClass, Object hook) {
+            this.analysis = analysis;
+            this.nodeClass = nodeClass;
+            this.hook = hook;
+        }
+    }
+
+    // the hooks to call for the nodes of one class, with their analyses
+    private static class Dispatch
+    {
+        int[] preAnalyses;
+        PreHook<ASTNode>[] pres;
+        int[] postAnalyses;
+        PostHook<ASTNode>[] posts;
+    }
+
+    private int numAnalyses;
+    private List<Hook> preHooks = new ArrayList<>();
+    private List<Hook> postHooks = new ArrayList<>();
+    private Map<Class<?>, Dispatch> dispatches = new HashMap<>();
+
+    // the nodes to walk, the top last; a node whose children have been pushed
+    // stays below them, marked, until they have been walked
+    private ASTNode[] stack = new ASTNode[64];
+    private boolean[] walked = new boolean[64];
+    private int size;
+
+    // the children analyses have left out with skip(), each with its analysis
+    // and the index in the stack of its parent, until the child is reached or
+    // the parent is left
+    private ASTNode[] skipNodes = new ASTNode[8];
+    private int[] skipAnalyses = new int[8];
+    private int[] skipParents = new int[8];
+    private int numSkips;
+    private int reaching; // the index in the stack of the node whose pre hooks are called
+
+    /**
+     * Adds an analysis to the traversal
+     *
+     * @return the analysis, to register its hooks with
+     */
+    public Analysis add() {
+        return new Analysis(numAnalyses++);
+    }
+
+    /**
+     * Walks an AST once, calling the hooks of every analysis
+     *
+     * @param root the root of the AST
+     */
+    public void run(ASTNode root) {
+        // for each analysis, the index in the stack of the node whose children
+        // it did not want, or -1 if it wants the nodes being walked
+        int[] skippedAt = new int[numAnalyses];
+        Arrays.fill(skippedAt, -1);
+        // for each analysis, whether the node at skippedAt was left out
+        // with skip(), so that it was not reached at all
+        boolean[] leftOut = new boolean[numAnalyses];
+        int wanting = numAnalyses; // the number of analyses with no skippedAt
+        size = 0;
+        numSkips = 0;
+        push(root);
+        try {
+            while (size > 0) {
+                int top = size - 1;
+                ASTNode node = stack[top];
+                Dispatch dispatch = dispatchOf(node.getClass());
+                if (walked[top]) {
+                    size--;
+                    stack[top] = null;
+                    for (int i = 0; i < dispatch.posts.length; i++) {
+                        int analysis = dispatch.postAnalyses[i];
+                        if (skippedAt[analysis] < 0
+                                || (skippedAt[analysis] == top && !leftOut[analysis])) {
+                            dispatch.posts[i].post(node);
+                        }
+                    }
+                    for (int analysis = 0; analysis < numAnalyses; analysis++) {
+                        if (skippedAt[analysis] == top) {
+                            skippedAt[analysis] = -1;
+                            leftOut[analysis] = false;
+                            wanting++;
+                        }
+                    }
+                    // the children it left out that were not reached, such as null ones
+                    while (numSkips > 0 && skipParents[numSkips - 1] == top) {
+                        skipNodes[--numSkips] = null;
+                    }
+                    continue;
+                }
+                walked[top] = true;
+                for (int s = numSkips - 1; s >= 0; s--) {
+                    if (skipNodes[s] == node && skippedAt[skipAnalyses[s]] < 0) {
+                        skippedAt[skipAnalyses[s]] = top;
+                        leftOut[skipAnalyses[s]] = true;
+                        wanting--;
+                        numSkips--;
+                        System.arraycopy(skipNodes, s + 1, skipNodes, s, numSkips - s);
+                        System.arraycopy(skipAnalyses, s + 1, skipAnalyses, s, numSkips - s);
+                        System.arraycopy(skipParents, s + 1, skipParents, s, numSkips - s);
+                        skipNodes[numSkips] = null;
+                    }
+                }
+                reaching = top;
+                for (int i = 0; i < dispatch.pres.length; i++) {
+                    int analysis = dispatch.preAnalyses[i];
+                    if (skippedAt[analysis] < 0 && !dispatch.pres[i].pre(node)) {
+                        skippedAt[analysis] = top;
+                        wanting--;
+                    }
+                }
+                if (wanting > 0) {
+                    pushChildren(node);
+                }
+            }
+        }
+        finally {
+            Arrays.fill(stack, 0, size, null);
+            size = 0;
+            Arrays.fill(skipNodes, 0, numSkips, null);
+            numSkips = 0;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Dispatch dispatchOf(Class<?> nodeClass) {
+        Dispatch dispatch = dispatches.get(nodeClass);
+        if (dispatch == null) {
+            dispatch = new Dispatch();
+            List<Hook> pres = hooksFor(preHooks, nodeClass);
+            dispatch.preAnalyses = new int[pres.size()];
+            dispatch.pres = new PreHook[pres.size()];
+            for (int i = 0; i < pres.size(); i++) {
+                dispatch.preAnalyses[i] = pres.get(i).analysis;
+                dispatch.pres[i] = (PreHook<ASTNode>) pres.get(i).hook;
+            }
+            List<Hook> posts = hooksFor(postHooks, nodeClass);
+            dispatch.postAnalyses = new int[posts.size()];
+            dispatch.posts = new PostHook[posts.size()];
+            for (int i = 0; i < posts.size(); i++) {
+                dispatch.postAnalyses[i] = posts.get(i).analysis;
+                dispatch.posts[i] = (PostHook<ASTNode>) posts.get(i).hook;
+            }
+            dispatches.put(nodeClass, dispatch);
+        }
+        return dispatch;
+    }
+
+    // the hooks for the nodes of a class, by analysis and then in the order
+    // they were registered
+    private List<Hook> hooksFor(List<Hook> hooks, Class<?> nodeClass) {
+        List<Hook> found = new ArrayList<>();
+        for (int analysis = 0; analysis < numAnalyses; analysis++) {
+            for (Hook hook : hooks) {
+                if (hook.analysis == analysis && hook.nodeClass.isAssignableFrom(nodeClass)) {
+                    found.add(hook);
+                }
+            }
+        }
+        return found;
+    }
+
+    private void push(ASTNode node) {
+        if (node == null) {
+            return;
+        }
+        if (size == stack.length) {
+            stack = Arrays.copyOf(stack, 2 * size);
+            walked = Arrays.copyOf(walked, 2 * size);
+        }
+        stack[size] = node;
+        walked[size] = false;
+        size++;
+    }
+
+    /**
+     * Pushes the children of a node, those a Visitor visits, so that they come
+     * off the stack in the order a Visitor visits them
+     */
+    private void pushChildren(ASTNode node) {
+        int first = size;
+        if (node instanceof ListNode) {
+            for (ASTNode child : (ListNode) node) {
+                push(child);
+            }
+        }
+        else if (node instanceof BinaryExpr) {
+            push(((BinaryExpr) node).getLeftExpr());
+            push(((BinaryExpr) node).getRightExpr());
+        }
+        else if (node instanceof UnaryExpr) {
+            push(((UnaryExpr) node).getExpr());
+        }
+        else if (node instanceof VarExpr) {
+            push(((VarExpr) node).getRef());
+        }
+        else if (node instanceof DispatchExpr) {
+            push(((DispatchExpr) node).getRefExpr());
+            push(((DispatchExpr) node).getActualList());
+        }
+        else if (node instanceof AssignExpr) {
+            push(((AssignExpr) node).getExpr());
+        }
+        else if (node instanceof ArrayAssignExpr) {
+            push(((ArrayAssignExpr) node).getIndex());
+            push(((ArrayAssignExpr) node).getExpr());
+        }
+        else if (node instanceof ArrayExpr) {
+            push(((ArrayExpr) node).getRef());
+            push(((ArrayExpr) node).getIndex());
+        }
+        else if (node instanceof NewArrayExpr) {
+            push(((NewArrayExpr) node).getSize());
+        }
+        else if (node instanceof InstanceofExpr) {
+            push(((InstanceofExpr) node).getExpr());
+        }
+        else if (node instanceof CastExpr) {
+            push(((CastExpr) node).getExpr());
+        }
+        else if (node instanceof ExprStmt) {
+            push(((ExprStmt) node).getExpr());
+        }
+        else if (node instanceof DeclStmt) {
+            push(((DeclStmt) node).getInit());
+        }
+        else if (node instanceof BlockStmt) {
+            push(((BlockStmt) node).getStmtList());
+        }
+        else if (node instanceof IfStmt) {
+            push(((IfStmt) node).getPredExpr());
+            push(((IfStmt) node).getThenStmt());
+            push(((IfStmt) node).getElseStmt());
+        }
+        else if (node instanceof WhileStmt) {
+            push(((WhileStmt) node).getPredExpr());
+            push(((WhileStmt) node).getBodyStmt());
+        }
+        else if (node instanceof ForStmt) {
+            push(((ForStmt) node).getInitExpr());
+            push(((ForStmt) node).getPredExpr());
+            push(((ForStmt) node).getUpdateExpr());
+            push(((ForStmt) node).getBodyStmt());
+        }
+        else if (node instanceof ReturnStmt) {
+            push(((ReturnStmt) node).getExpr());
+        }
+        else if (node instanceof Method) {
+            push(((Method) node).getFormalList());
+            push(((Method) node).getStmtList());
+        }
+        else if (node instanceof Field) {
+            push(((Field) node).getInit());
+        }
+        else if (node instanceof Class_) {
+            push(((Class_) node).getMemberList());
+        }
+        else if (node instanceof Program) {
+            push(((Program) node).getClassList());
+        }
+        // constants, new expressions, formals, and break and error statements
+        // have no children
+        for (int i = first, j = size - 1; i < j; i++, j--) {
+            ASTNode swap = stack[i];
+            stack[i] = stack[j];
+            stack[j] = swap;
+        }
+    }
+}
@@ -0,0 +1,768 @@
+/**
+ * Filename: GenericVisitor
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.visitor;
+
+import proj12AhnSlager.bantam.ast.*;
+
+/**
+ * Visitor whose visit methods return a result of type R, so that an analysis
+ * that computes a value for each node gets it back from accept() without a
+ * cast.  Each visit method of a node with children visits them in the order
+ * Visitor does, and returns defaultResult() combined with the result of each
+ * child in turn; combine() keeps the result so far unless it is overridden.
+ *
+ * Visits are made by recursion: an AST too deep for that can be visited with
+ * a Visitor in iterative mode.  VisitorAdapter runs a Visitor where a
+ * GenericVisitor is expected.
+ *
+ * @param <R> the type of the results of the visits
+ * @author Kevin Ahn, Kyle Slager
+ */
+public abstract class GenericVisitor<R>
+{
+    /**
+     * @return the result of a node before the results of its children are
+     * combined into it, and of a node with no children
+     */
+    protected R defaultResult() {
+        return null;
+    }
+
+    /**
+     * Combines the result of a child into the result of its parent so far
+     *
+     * @param result      the result so far
+     * @param childResult the result of the child
+     * @return the combined result
+     */
+    protected R combine(R result, R childResult) {
+        return result;
+    }
+
+    /**
+     * Visit an AST node (should never be called)
+     *
+     * @param node the AST node
+     * @return result of the visit
+     */
+    public R visit(ASTNode node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a list node (should never be called)
+     *
+     * @param node the list node
+     * @return result of the visit
+     */
+    public R visit(ListNode node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a program node
+     *
+     * @param node the program node
+     * @return result of the visit
+     */
+    public R visit(Program node) {
+        R result = defaultResult();
+        result = combine(result, node.getClassList().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a list node of classes
+     *
+     * @param node the class list node
+     * @return result of the visit
+     */
+    public R visit(ClassList node) {
+        R result = defaultResult();
+        for (ASTNode child : node) {
+            result = combine(result, child.accept(this));
+        }
+        return result;
+    }
+
+    /**
+     * Visit a class node
+     *
+     * @param node the class node
+     * @return result of the visit
+     */
+    public R visit(Class_ node) {
+        R result = defaultResult();
+        result = combine(result, node.getMemberList().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a list node of members
+     *
+     * @param node the member list node
+     * @return result of the visit
+     */
+    public R visit(MemberList node) {
+        R result = defaultResult();
+        for (ASTNode child : node) {
+            result = combine(result, child.accept(this));
+        }
+        return result;
+    }
+
+    /**
+     * Visit a member node (should never be called)
+     *
+     * @param node the member node
+     * @return result of the visit
+     */
+    public R visit(Member node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a field node
+     *
+     * @param node the field node
+     * @return result of the visit
+     */
+    public R visit(Field node) {
+        R result = defaultResult();
+        if (node.getInit() != null) {
+            result = combine(result, node.getInit().accept(this));
+        }
+        return result;
+    }
+
+    /**
+     * Visit a method node
+     *
+     * @param node the method node
+     * @return result of the visit
+     */
+    public R visit(Method node) {
+        R result = defaultResult();
+        result = combine(result, node.getFormalList().accept(this));
+        result = combine(result, node.getStmtList().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a list node of formals
+     *
+     * @param node the formal list node
+     * @return result of the visit
+     */
+    public R visit(FormalList node) {
+        R result = defaultResult();
+        for (ASTNode child : node) {
+            result = combine(result, child.accept(this));
+        }
+        return result;
+    }
+
+    /**
+     * Visit a formal node
+     *
+     * @param node the formal node
+     * @return result of the visit
+     */
+    public R visit(Formal node) {
+        return defaultResult();
+    }
+
+    /**
+     * Visit a list node of statements
+     *
+     * @param node the statement list node
+     * @return result of the visit
+     */
+    public R visit(StmtList node) {
+        R result = defaultResult();
+        for (ASTNode child : node) {
+            result = combine(result, child.accept(this));
+        }
+        return result;
+    }
+
+    /**
+     * Visit a statement node (should never be called)
+     *
+     * @param node the statement node
+     * @return result of the visit
+     */
+    public R visit(Stmt node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a declaration statement node
+     *
+     * @param node the declaration statement node
+     * @return result of the visit
+     */
+    public R visit(DeclStmt node) {
+        R result = defaultResult();
+        result = combine(result, node.getInit().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit an expression statement node
+     *
+     * @param node the expression statement node
+     * @return result of the visit
+     */
+    public R visit(ExprStmt node) {
+        R result = defaultResult();
+        result = combine(result, node.getExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit an if statement node
+     *
+     * @param node the if statement node
+     * @return result of the visit
+     */
+    public R visit(IfStmt node) {
+        R result = defaultResult();
+        result = combine(result, node.getPredExpr().accept(this));
+        result = combine(result, node.getThenStmt().accept(this));
+        if (node.getElseStmt() != null) {
+            result = combine(result, node.getElseStmt().accept(this));
+        }
+        return result;
+    }
+
+    /**
+     * Visit a while statement node
+     *
+     * @param node the while statement node
+     * @return result of the visit
+     */
+    public R visit(WhileStmt node) {
+        R result = defaultResult();
+        result = combine(result, node.getPredExpr().accept(this));
+        result = combine(result, node.getBodyStmt().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a for statement node
+     *
+     * @param node the for statement node
+     * @return result of the visit
+     */
+    public R visit(ForStmt node) {
+        R result = defaultResult();
+        if (node.getInitExpr() != null) {
+            result = combine(result, node.getInitExpr().accept(this));
+        }
+        if (node.getPredExpr() != null) {
+            result = combine(result, node.getPredExpr().accept(this));
+        }
+        if (node.getUpdateExpr() != null) {
+            result = combine(result, node.getUpdateExpr().accept(this));
+        }
+        result = combine(result, node.getBodyStmt().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a break statement node
+     *
+     * @param node the break statement node
+     * @return result of the visit
+     */
+    public R visit(BreakStmt node) {
+        return defaultResult();
+    }
+
+    /**
+     * Visit a statement that could not be parsed
+     *
+     * @param node the error statement node
+     * @return result of the visit
+     */
+    public R visit(ErrorStmt node) {
+        return defaultResult();
+    }
+
+    /**
+     * Visit a block statement node
+     *
+     * @param node the block statement node
+     * @return result of the visit
+     */
+    public R visit(BlockStmt node) {
+        R result = defaultResult();
+        result = combine(result, node.getStmtList().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a return statement node
+     *
+     * @param node the return statement node
+     * @return result of the visit
+     */
+    public R visit(ReturnStmt node) {
+        R result = defaultResult();
+        if (node.getExpr() != null) {
+            result = combine(result, node.getExpr().accept(this));
+        }
+        return result;
+    }
+
+    /**
+     * Visit a list node of expressions
+     *
+     * @param node the expression list node
+     * @return result of the visit
+     */
+    public R visit(ExprList node) {
+        R result = defaultResult();
+        for (ASTNode child : node) {
+            result = combine(result, child.accept(this));
+        }
+        return result;
+    }
+
+    /**
+     * Visit an expression node (should never be called)
+     *
+     * @param node the expression node
+     * @return result of the visit
+     */
+    public R visit(Expr node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a dispatch expression node
+     *
+     * @param node the dispatch expression node
+     * @return result of the visit
+     */
+    public R visit(DispatchExpr node) {
+        R result = defaultResult();
+        if (node.getRefExpr() != null) {
+            result = combine(result, node.getRefExpr().accept(this));
+        }
+        result = combine(result, node.getActualList().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a new expression node
+     *
+     * @param node the new expression node
+     * @return result of the visit
+     */
+    public R visit(NewExpr node) {
+        return defaultResult();
+    }
+
+    /**
+     * Visit a new array expression node
+     *
+     * @param node the new array expression node
+     * @return result of the visit
+     */
+    public R visit(NewArrayExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getSize().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit an instanceof expression node
+     *
+     * @param node the instanceof expression node
+     * @return result of the visit
+     */
+    public R visit(InstanceofExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a cast expression node
+     *
+     * @param node the cast expression node
+     * @return result of the visit
+     */
+    public R visit(CastExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit an assignment expression node
+     *
+     * @param node the assignment expression node
+     * @return result of the visit
+     */
+    public R visit(AssignExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit an array assignment expression node
+     *
+     * @param node the array assignment expression node
+     * @return result of the visit
+     */
+    public R visit(ArrayAssignExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getIndex().accept(this));
+        result = combine(result, node.getExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary expression node (should never be called)
+     *
+     * @param node the binary expression node
+     * @return result of the visit
+     */
+    public R visit(BinaryExpr node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a binary comparison expression node (should never be called)
+     *
+     * @param node the binary comparison expression node
+     * @return result of the visit
+     */
+    public R visit(BinaryCompExpr node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a binary comparison equals expression node
+     *
+     * @param node the binary comparison equals expression node
+     * @return result of the visit
+     */
+    public R visit(BinaryCompEqExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary comparison not equals expression node
+     *
+     * @param node the binary comparison not equals expression node
+     * @return result of the visit
+     */
+    public R visit(BinaryCompNeExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary comparison less than expression node
+     *
+     * @param node the binary comparison less than expression node
+     * @return result of the visit
+     */
+    public R visit(BinaryCompLtExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary comparison less than or equal to expression node
+     *
+     * @param node the binary comparison less than or equal to expression node
+     * @return result of the visit
+     */
+    public R visit(BinaryCompLeqExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary comparison greater than expression node
+     *
+     * @param node the binary comparison greater than expression node
+     * @return result of the visit
+     */
+    public R visit(BinaryCompGtExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary comparison greater than or equal to expression node
+     *
+     * @param node the binary comparison greater to or equal to expression node
+     * @return result of the visit
+     */
+    public R visit(BinaryCompGeqExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary arithmetic expression node (should never be called)
+     *
+     * @param node the binary arithmetic expression node
+     * @return result of the visit
+     */
+    public R visit(BinaryArithExpr node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a binary arithmetic plus expression node
+     *
+     * @param node the binary arithmetic plus expression node
+     * @return result of the visit
+     */
+    public R visit(BinaryArithPlusExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary arithmetic minus expression node
+     *
+     * @param node the binary arithmetic minus expression node
+     * @return result of the visit
+     */
+    public R visit(BinaryArithMinusExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary arithmetic times expression node
+     *
+     * @param node the binary arithmetic times expression node
+     * @return result of the visit
+     */
+    public R visit(BinaryArithTimesExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary arithmetic divide expression node
+     *
+     * @param node the binary arithmetic divide expression node
+     * @return result of the visit
+     */
+    public R visit(BinaryArithDivideExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary arithmetic modulus expression node
+     *
+     * @param node the binary arithmetic modulus expression node
+     * @return result of the visit
+     */
+    public R visit(BinaryArithModulusExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary logical expression node (should never be called)
+     *
+     * @param node the binary logical expression node
+     * @return result of the visit
+     */
+    public R visit(BinaryLogicExpr node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a binary logical AND expression node
+     *
+     * @param node the binary logical AND expression node
+     * @return result of the visit
+     */
+    public R visit(BinaryLogicAndExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary logical OR expression node
+     *
+     * @param node the binary logical OR expression node
+     * @return result of the visit
+     */
+    public R visit(BinaryLogicOrExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a unary expression node
+     *
+     * @param node the unary expression node
+     * @return result of the visit
+     */
+    public R visit(UnaryExpr node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a unary negation expression node
+     *
+     * @param node the unary negation expression node
+     * @return result of the visit
+     */
+    public R visit(UnaryNegExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a unary NOT expression node
+     *
+     * @param node the unary NOT expression node
+     * @return result of the visit
+     */
+    public R visit(UnaryNotExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a unary increment expression node
+     *
+     * @param node the unary increment expression node
+     * @return result of the visit
+     */
+    public R visit(UnaryIncrExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a unary decrement expression node
+     *
+     * @param node the unary decrement expression node
+     * @return result of the visit
+     */
+    public R visit(UnaryDecrExpr node) {
+        R result = defaultResult();
+        result = combine(result, node.getExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a variable expression node
+     *
+     * @param node the variable expression node
+     * @return result of the visit
+     */
+    public R visit(VarExpr node) {
+        R result = defaultResult();
+        if (node.getRef() != null) {
+            result = combine(result, node.getRef().accept(this));
+        }
+        return result;
+    }
+
+    /**
+     * Visit an array expression node
+     *
+     * @param node the array expression node
+     * @return result of the visit
+     */
+    public R visit(ArrayExpr node) {
+        R result = defaultResult();
+        if (node.getRef() != null) {
+            result = combine(result, node.getRef().accept(this));
+        }
+        result = combine(result, node.getIndex().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a constant expression node (should never be called)
+     *
+     * @param node the constant expression node
+     * @return result of the visit
+     */
+    public R visit(ConstExpr node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit an int constant expression node
+     *
+     * @param node the int constant expression node
+     * @return result of the visit
+     */
+    public R visit(ConstIntExpr node) {
+        return defaultResult();
+    }
+
+    /**
+     * Visit a boolean constant expression node
+     *
+     * @param node the boolean constant expression node
+     * @return result of the visit
+     */
+    public R visit(ConstBooleanExpr node) {
+        return defaultResult();
+    }
+
+    /**
+     * Visit a string constant expression node
+     *
+     * @param node the string constant expression node
+     * @return result of the visit
+     */
+    public R visit(ConstStringExpr node) {
+        return defaultResult();
+    }
+}
@@ -0,0 +1,763 @@
+/**
+ * Filename: IntVisitor
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.visitor;
+
+import proj12AhnSlager.bantam.ast.*;
+
+/**
+ * Visitor whose visit methods return an int, for analyses such as counts and
+ * sums, which a Visitor or a GenericVisitor would box at every node.  Each
+ * visit method of a node with children visits them in the order Visitor
+ * does, and returns defaultResult() combined with the result of each child in
+ * turn; by default the results are added up.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public abstract class IntVisitor
+{
+    /**
+     * @return the result of a node before the results of its children are
+     * combined into it, and of a node with no children
+     */
+    protected int defaultResult() {
+        return 0;
+    }
+
+    /**
+     * Combines the result of a child into the result of its parent so far
+     *
+     * @param result      the result so far
+     * @param childResult the result of the child
+     * @return the combined result, by default their sum
+     */
+    protected int combine(int result, int childResult) {
+        return result + childResult;
+    }
+
+    /**
+     * Visit an AST node (should never be called)
+     *
+     * @param node the AST node
+     * @return result of the visit
+     */
+    public int visit(ASTNode node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a list node (should never be called)
+     *
+     * @param node the list node
+     * @return result of the visit
+     */
+    public int visit(ListNode node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a program node
+     *
+     * @param node the program node
+     * @return result of the visit
+     */
+    public int visit(Program node) {
+        int result = defaultResult();
+        result = combine(result, node.getClassList().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a list node of classes
+     *
+     * @param node the class list node
+     * @return result of the visit
+     */
+    public int visit(ClassList node) {
+        int result = defaultResult();
+        for (ASTNode child : node) {
+            result = combine(result, child.accept(this));
+        }
+        return result;
+    }
+
+    /**
+     * Visit a class node
+     *
+     * @param node the class node
+     * @return result of the visit
+     */
+    public int visit(Class_ node) {
+        int result = defaultResult();
+        result = combine(result, node.getMemberList().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a list node of members
+     *
+     * @param node the member list node
+     * @return result of the visit
+     */
+    public int visit(MemberList node) {
+        int result = defaultResult();
+        for (ASTNode child : node) {
+            result = combine(result, child.accept(this));
+        }
+        return result;
+    }
+
+    /**
+     * Visit a member node (should never be called)
+     *
+     * @param node the member node
+     * @return result of the visit
+     */
+    public int visit(Member node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a field node
+     *
+     * @param node the field node
+     * @return result of the visit
+     */
+    public int visit(Field node) {
+        int result = defaultResult();
+        if (node.getInit() != null) {
+            result = combine(result, node.getInit().accept(this));
+        }
+        return result;
+    }
+
+    /**
+     * Visit a method node
+     *
+     * @param node the method node
+     * @return result of the visit
+     */
+    public int visit(Method node) {
+        int result = defaultResult();
+        result = combine(result, node.getFormalList().accept(this));
+        result = combine(result, node.getStmtList().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a list node of formals
+     *
+     * @param node the formal list node
+     * @return result of the visit
+     */
+    public int visit(FormalList node) {
+        int result = defaultResult();
+        for (ASTNode child : node) {
+            result = combine(result, child.accept(this));
+        }
+        return result;
+    }
+
+    /**
+     * Visit a formal node
+     *
+     * @param node the formal node
+     * @return result of the visit
+     */
+    public int visit(Formal node) {
+        return defaultResult();
+    }
+
+    /**
+     * Visit a list node of statements
+     *
+     * @param node the statement list node
+     * @return result of the visit
+     */
+    public int visit(StmtList node) {
+        int result = defaultResult();
+        for (ASTNode child : node) {
+            result = combine(result, child.accept(this));
+        }
+        return result;
+    }
+
+    /**
+     * Visit a statement node (should never be called)
+     *
+     * @param node the statement node
+     * @return result of the visit
+     */
+    public int visit(Stmt node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a declaration statement node
+     *
+     * @param node the declaration statement node
+     * @return result of the visit
+     */
+    public int visit(DeclStmt node) {
+        int result = defaultResult();
+        result = combine(result, node.getInit().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit an expression statement node
+     *
+     * @param node the expression statement node
+     * @return result of the visit
+     */
+    public int visit(ExprStmt node) {
+        int result = defaultResult();
+        result = combine(result, node.getExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit an if statement node
+     *
+     * @param node the if statement node
+     * @return result of the visit
+     */
+    public int visit(IfStmt node) {
+        int result = defaultResult();
+        result = combine(result, node.getPredExpr().accept(this));
+        result = combine(result, node.getThenStmt().accept(this));
+        if (node.getElseStmt() != null) {
+            result = combine(result, node.getElseStmt().accept(this));
+        }
+        return result;
+    }
+
+    /**
+     * Visit a while statement node
+     *
+     * @param node the while statement node
+     * @return result of the visit
+     */
+    public int visit(WhileStmt node) {
+        int result = defaultResult();
+        result = combine(result, node.getPredExpr().accept(this));
+        result = combine(result, node.getBodyStmt().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a for statement node
+     *
+     * @param node the for statement node
+     * @return result of the visit
+     */
+    public int visit(ForStmt node) {
+        int result = defaultResult();
+        if (node.getInitExpr() != null) {
+            result = combine(result, node.getInitExpr().accept(this));
+        }
+        if (node.getPredExpr() != null) {
+            result = combine(result, node.getPredExpr().accept(this));
+        }
+        if (node.getUpdateExpr() != null) {
+            result = combine(result, node.getUpdateExpr().accept(this));
+        }
+        result = combine(result, node.getBodyStmt().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a break statement node
+     *
+     * @param node the break statement node
+     * @return result of the visit
+     */
+    public int visit(BreakStmt node) {
+        return defaultResult();
+    }
+
+    /**
+     * Visit a statement that could not be parsed
+     *
+     * @param node the error statement node
+     * @return result of the visit
+     */
+    public int visit(ErrorStmt node) {
+        return defaultResult();
+    }
+
+    /**
+     * Visit a block statement node
+     *
+     * @param node the block statement node
+     * @return result of the visit
+     */
+    public int visit(BlockStmt node) {
+        int result = defaultResult();
+        result = combine(result, node.getStmtList().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a return statement node
+     *
+     * @param node the return statement node
+     * @return result of the visit
+     */
+    public int visit(ReturnStmt node) {
+        int result = defaultResult();
+        if (node.getExpr() != null) {
+            result = combine(result, node.getExpr().accept(this));
+        }
+        return result;
+    }
+
+    /**
+     * Visit a list node of expressions
+     *
+     * @param node the expression list node
+     * @return result of the visit
+     */
+    public int visit(ExprList node) {
+        int result = defaultResult();
+        for (ASTNode child : node) {
+            result = combine(result, child.accept(this));
+        }
+        return result;
+    }
+
+    /**
+     * Visit an expression node (should never be called)
+     *
+     * @param node the expression node
+     * @return result of the visit
+     */
+    public int visit(Expr node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a dispatch expression node
+     *
+     * @param node the dispatch expression node
+     * @return result of the visit
+     */
+    public int visit(DispatchExpr node) {
+        int result = defaultResult();
+        if (node.getRefExpr() != null) {
+            result = combine(result, node.getRefExpr().accept(this));
+        }
+        result = combine(result, node.getActualList().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a new expression node
+     *
+     * @param node the new expression node
+     * @return result of the visit
+     */
+    public int visit(NewExpr node) {
+        return defaultResult();
+    }
+
+    /**
+     * Visit a new array expression node
+     *
+     * @param node the new array expression node
+     * @return result of the visit
+     */
+    public int visit(NewArrayExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getSize().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit an instanceof expression node
+     *
+     * @param node the instanceof expression node
+     * @return result of the visit
+     */
+    public int visit(InstanceofExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a cast expression node
+     *
+     * @param node the cast expression node
+     * @return result of the visit
+     */
+    public int visit(CastExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit an assignment expression node
+     *
+     * @param node the assignment expression node
+     * @return result of the visit
+     */
+    public int visit(AssignExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit an array assignment expression node
+     *
+     * @param node the array assignment expression node
+     * @return result of the visit
+     */
+    public int visit(ArrayAssignExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getIndex().accept(this));
+        result = combine(result, node.getExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary expression node (should never be called)
+     *
+     * @param node the binary expression node
+     * @return result of the visit
+     */
+    public int visit(BinaryExpr node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a binary comparison expression node (should never be called)
+     *
+     * @param node the binary comparison expression node
+     * @return result of the visit
+     */
+    public int visit(BinaryCompExpr node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a binary comparison equals expression node
+     *
+     * @param node the binary comparison equals expression node
+     * @return result of the visit
+     */
+    public int visit(BinaryCompEqExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary comparison not equals expression node
+     *
+     * @param node the binary comparison not equals expression node
+     * @return result of the visit
+     */
+    public int visit(BinaryCompNeExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary comparison less than expression node
+     *
+     * @param node the binary comparison less than expression node
+     * @return result of the visit
+     */
+    public int visit(BinaryCompLtExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary comparison less than or equal to expression node
+     *
+     * @param node the binary comparison less than or equal to expression node
+     * @return result of the visit
+     */
+    public int visit(BinaryCompLeqExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary comparison greater than expression node
+     *
+     * @param node the binary comparison greater than expression node
+     * @return result of the visit
+     */
+    public int visit(BinaryCompGtExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary comparison greater than or equal to expression node
+     *
+     * @param node the binary comparison greater to or equal to expression node
+     * @return result of the visit
+     */
+    public int visit(BinaryCompGeqExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary arithmetic expression node (should never be called)
+     *
+     * @param node the binary arithmetic expression node
+     * @return result of the visit
+     */
+    public int visit(BinaryArithExpr node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a binary arithmetic plus expression node
+     *
+     * @param node the binary arithmetic plus expression node
+     * @return result of the visit
+     */
+    public int visit(BinaryArithPlusExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary arithmetic minus expression node
+     *
+     * @param node the binary arithmetic minus expression node
+     * @return result of the visit
+     */
+    public int visit(BinaryArithMinusExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary arithmetic times expression node
+     *
+     * @param node the binary arithmetic times expression node
+     * @return result of the visit
+     */
+    public int visit(BinaryArithTimesExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary arithmetic divide expression node
+     *
+     * @param node the binary arithmetic divide expression node
+     * @return result of the visit
+     */
+    public int visit(BinaryArithDivideExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary arithmetic modulus expression node
+     *
+     * @param node the binary arithmetic modulus expression node
+     * @return result of the visit
+     */
+    public int visit(BinaryArithModulusExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary logical expression node (should never be called)
+     *
+     * @param node the binary logical expression node
+     * @return result of the visit
+     */
+    public int visit(BinaryLogicExpr node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a binary logical AND expression node
+     *
+     * @param node the binary logical AND expression node
+     * @return result of the visit
+     */
+    public int visit(BinaryLogicAndExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a binary logical OR expression node
+     *
+     * @param node the binary logical OR expression node
+     * @return result of the visit
+     */
+    public int visit(BinaryLogicOrExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getLeftExpr().accept(this));
+        result = combine(result, node.getRightExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a unary expression node
+     *
+     * @param node the unary expression node
+     * @return result of the visit
+     */
+    public int visit(UnaryExpr node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit a unary negation expression node
+     *
+     * @param node the unary negation expression node
+     * @return result of the visit
+     */
+    public int visit(UnaryNegExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a unary NOT expression node
+     *
+     * @param node the unary NOT expression node
+     * @return result of the visit
+     */
+    public int visit(UnaryNotExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a unary increment expression node
+     *
+     * @param node the unary increment expression node
+     * @return result of the visit
+     */
+    public int visit(UnaryIncrExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a unary decrement expression node
+     *
+     * @param node the unary decrement expression node
+     * @return result of the visit
+     */
+    public int visit(UnaryDecrExpr node) {
+        int result = defaultResult();
+        result = combine(result, node.getExpr().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a variable expression node
+     *
+     * @param node the variable expression node
+     * @return result of the visit
+     */
+    public int visit(VarExpr node) {
+        int result = defaultResult();
+        if (node.getRef() != null) {
+            result = combine(result, node.getRef().accept(this));
+        }
+        return result;
+    }
+
+    /**
+     * Visit an array expression node
+     *
+     * @param node the array expression node
+     * @return result of the visit
+     */
+    public int visit(ArrayExpr node) {
+        int result = defaultResult();
+        if (node.getRef() != null) {
+            result = combine(result, node.getRef().accept(this));
+        }
+        result = combine(result, node.getIndex().accept(this));
+        return result;
+    }
+
+    /**
+     * Visit a constant expression node (should never be called)
+     *
+     * @param node the constant expression node
+     * @return result of the visit
+     */
+    public int visit(ConstExpr node) {
+        throw new RuntimeException("This visitor method should not be called (node is abstract)");
+    }
+
+    /**
+     * Visit an int constant expression node
+     *
+     * @param node the int constant expression node
+     * @return result of the visit
+     */
+    public int visit(ConstIntExpr node) {
+        return defaultResult();
+    }
+
+    /**
+     * Visit a boolean constant expression node
+     *
+     * @param node the boolean constant expression node
+     * @return result of the visit
+     */
+    public int visit(ConstBooleanExpr node) {
+        return defaultResult();
+    }
+
+    /**
+     * Visit a string constant expression node
+     *
+     * @param node the string constant expression node
+     * @return result of the visit
+     */
+    public int visit(ConstStringExpr node) {
+        return defaultResult();
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Filename: ParallelTraversal
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.visitor;
+
+import proj12AhnSlager.bantam.ast.ASTNode;
+import proj12AhnSlager.bantam.ast.Class_;
+import proj12AhnSlager.bantam.ast.MemberList;
+import proj12AhnSlager.bantam.ast.Method;
+import proj12AhnSlager.bantam.ast.Program;
+import proj12AhnSlager.bantam.util.Error;
+import proj12AhnSlager.bantam.util.ErrorHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Runs a class-local analysis over the classes of a program at the same time
+ * on a ForkJoinPool.  The analysis is given as a task that makes an analysis
+ * of its own for one unit of the program, runs it, and returns what it found,
+ * so that no two tasks share any state.  The results come back in the order
+ * of the units in the source, however the tasks were scheduled, and the
+ * caller merges them in that order, so that the merged result is the one a
+ * single analysis walking the classes one after another would have found.
+ *
+ * A unit is a class, or, for a class with more than membersPerTask members,
+ * a stand-in for it holding a run of its members: a Class_ with the same
+ * filename, name, parent and positions, so that an analysis that keys what
+ * it finds by class name does not see the difference.  An analysis whose
+ * check of a member depends on the members before it, such as one for
+ * duplicate names, runs over whole classes with runByClass() instead.
+ *
+ * The errors a task finds are registered with an ErrorList of its own, and
+ * registerAll() then registers them with the ErrorHandler of the compilation
+ * in the order of the units, as a single analysis would have.
+ *
+ * The method bodies a lazy parse left unparsed are parsed before any task is
+ * run, one after another in source order, since parsing them registers their
+ * syntax errors with the ErrorHandler of the parse, which is not to be used
+ * on more than one thread.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class ParallelTraversal
+{
+    /**
+     * The most members of a class one task takes, by default
+     */
+    public static final int DEFAULT_MEMBERS_PER_TASK = 128;
+
+    private ForkJoinPool pool;
+    private int membersPerTask;
+
+    /**
+     * Creates a ParallelTraversal that runs on the common pool, with
+     * DEFAULT_MEMBERS_PER_TASK members a task
+     */
+    public ParallelTraversal() {
+        this(ForkJoinPool.commonPool(), DEFAULT_MEMBERS_PER_TASK);
+    }
+
+    /**
+     * @param pool           the pool to run the tasks on
+     * @param membersPerTask the most members of a class one task takes
+     */
+    public ParallelTraversal(ForkJoinPool pool, int membersPerTask) {
+        if (membersPerTask < 1) {
+            throw new IllegalArgumentException("A task must take at least one member");
+        }
+        this.pool = pool;
+        this.membersPerTask = membersPerTask;
+    }
+
+    /**
+     * Runs a task on each class, splitting large classes into runs of members
+     *
+     * @param program the program
+     * @param task    makes, runs and returns an analysis of one unit
+     * @param <R>     the type of what a task returns
+     * @return what each task returned, in the order of the units in the source
+     */
+    public <R> List<R> run(Program program, Function<Class_, R> task) {
+        return runAll(units(program, true), task);
+    }
+
+    /**
+     * Runs a task on each whole class
+     *
+     * @param program the program
+     * @param task    makes, runs and returns an analysis of one class
+     * @param <R>     the type of what a task returns
+     * @return what each task returned, in the order of the classes
+     */
+    public <R> List<R> runByClass(Program program, Function<Class_, R> task) {
+        return runAll(units(program, false), task);
+    }
+
+    /**
+     * @param program the program
+     * @param split   whether a class with more than membersPerTask members is
+     *                split into runs of them
+     * @return the units of the program, in source order, with their method
+     * bodies parsed
+     */
+    public List<Class_> units(Program program, boolean split) {
+        List<Class_> units = new ArrayList<>();
+        for (ASTNode node : program.getClassList()) {
+            Class_ aClass = (Class_) node;
+            MemberList members = aClass.getMemberList();
+            for (ASTNode member : members) {
+                if (member instanceof Method && !((Method) member).isBodyParsed()) {
+                    ((Method) member).getStmtList();
+                }
+            }
+            if (!split || members.getSize() <= membersPerTask) {
+                units.add(aClass);
+                continue;
+            }
+            for (int from = 0; from < members.getSize(); from += membersPerTask) {
+                MemberList run = new MemberList(members.getLineNum());
+                run.setSpan(members.getStartOffset(), members.getEndOffset());
+                int to = Math.min(from + membersPerTask, members.getSize());
+                for (int i = from; i < to; i++) {
+                    run.addElement(members.get(i));
+                }
+                Class_ standIn = new Class_(aClass.getLineNum(), aClass.getFilename(),
+                        aClass.getName(), aClass.getParent(), run);
+                standIn.setSpan(aClass.getStartOffset(), aClass.getEndOffset());
+                standIn.setNameId(aClass.getNameId());
+                standIn.setParentId(aClass.getParentId());
+                units.add(standIn);
+            }
+        }
+        return units;
+    }
+
+    private <R> List<R> runAll(List<Class_> units, Function<Class_, R> task) {
+        List<ForkJoinTask<R>> tasks = new ArrayList<>();
+        for (Class_ unit : units) {
+            tasks.add(pool.submit(() -> task.apply(unit)));
+        }
+        List<R> results = new ArrayList<>();
+        for (ForkJoinTask<R> submitted : tasks) {
+            results.add(submitted.join());
+        }
+        return results;
+    }
+
+    /**
+     * Registers the errors of each task with an ErrorHandler, in the order of
+     * the tasks, and those of each task in the order they were registered
+     *
+     * @param errorLists the ErrorList of each task, in the order of the units
+     * @param handler    the ErrorHandler of the compilation
+     */
+    public static void registerAll(List<? extends ErrorHandler> errorLists,
+                                   ErrorHandler handler) {
+        for (ErrorHandler errors : errorLists) {
+            for (Error error : errors.getErrorList()) {
+                handler.register(error.getKind(), error.getFilename(), error.getLineNum(),
+                        error.getStartOffset(), error.getEndOffset(), error.getMessage());
+            }
+        }
+    }
+}
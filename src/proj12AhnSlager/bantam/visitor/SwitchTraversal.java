@@ -0,0 +1,240 @@
+/**
+ * Filename: SwitchTraversal
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.visitor;
+
+import proj12AhnSlager.bantam.ast.*;
+
+import java.util.Arrays;
+
+/**
+ * Walks an AST in one loop over a stack of its own, finding the children of
+ * each node with a switch on its kind() rather than with accept() and visit()
+ * calls.  A subclass is told of each node twice: enter() when the node is
+ * reached, before its children, and leave() once they have all been walked,
+ * each with the kind of the node, so that it can switch on the kind too.  The
+ * nodes are reached in the order a Visitor visits them.
+ *
+ * enter() returns whether the children of the node are to be walked; leave()
+ * is called for the node either way.  A subclass that does not override
+ * leave() is walked in a loop that does not keep its nodes on the stack while
+ * their children are walked.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public abstract class SwitchTraversal
+{
+    // the nodes to walk, the top last; a node whose children have been pushed
+    // stays below them, marked, until they have been walked
+    private ASTNode[] stack = new ASTNode[64];
+    private boolean[] walked = new boolean[64];
+    private int size;
+
+    // whether the subclass overrides leave(); if not, a node comes off the
+    // stack as soon as it is reached
+    private final boolean leaves = overridesLeave(getClass());
+
+    private static boolean overridesLeave(Class<?> traversalClass) {
+        for (Class<?> c = traversalClass; c != SwitchTraversal.class; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod("leave", ASTNode.class, int.class);
+                return true;
+            }
+            catch (NoSuchMethodException e) {
+                // look in the superclass
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Called when a node is reached, before its children
+     *
+     * @param node the node reached
+     * @param kind the kind of the node
+     * @return whether the children of the node are to be walked
+     */
+    protected boolean enter(ASTNode node, int kind) {
+        return true;
+    }
+
+    /**
+     * Called once the children of a node have been walked
+     *
+     * @param node the node
+     * @param kind the kind of the node
+     */
+    protected void leave(ASTNode node, int kind) {
+    }
+
+    /**
+     * Walks an AST
+     *
+     * @param root the root of the AST
+     */
+    public void run(ASTNode root) {
+        size = 0;
+        push(root);
+        try {
+            if (!leaves) {
+                while (size > 0) {
+                    ASTNode node = stack[--size];
+                    stack[size] = null;
+                    int kind = node.kind();
+                    if (enter(node, kind)) {
+                        pushChildren(node, kind);
+                    }
+                }
+                return;
+            }
+            while (size > 0) {
+                int top = size - 1;
+                ASTNode node = stack[top];
+                int kind = node.kind();
+                if (walked[top]) {
+                    size--;
+                    stack[top] = null;
+                    leave(node, kind);
+                }
+                else {
+                    walked[top] = true;
+                    if (enter(node, kind)) {
+                        pushChildren(node, kind);
+                    }
+                }
+            }
+        }
+        finally {
+            Arrays.fill(stack, 0, size, null);
+            size = 0;
+        }
+    }
+
+    private void push(ASTNode node) {
+        if (node == null) {
+            return;
+        }
+        if (size == stack.length) {
+            stack = Arrays.copyOf(stack, 2 * size);
+            walked = Arrays.copyOf(walked, 2 * size);
+        }
+        stack[size] = node;
+        walked[size] = false;
+        size++;
+    }
+
+    /**
+     * Pushes the children of a node, those a Visitor visits, the last first,
+     * so that they come off the stack in the order a Visitor visits them
+     */
+    private void pushChildren(ASTNode node, int kind) {
+        switch (kind) {
+            case FlatAST.CLASS_LIST:
+            case FlatAST.MEMBER_LIST:
+            case FlatAST.FORMAL_LIST:
+            case FlatAST.STMT_LIST:
+            case FlatAST.EXPR_LIST:
+                ListNode list = (ListNode) node;
+                for (int i = list.getSize() - 1; i >= 0; i--) {
+                    push(list.get(i));
+                }
+                break;
+            case FlatAST.PLUS_EXPR:
+            case FlatAST.MINUS_EXPR:
+            case FlatAST.TIMES_EXPR:
+            case FlatAST.DIVIDE_EXPR:
+            case FlatAST.MODULUS_EXPR:
+            case FlatAST.EQ_EXPR:
+            case FlatAST.NE_EXPR:
+            case FlatAST.LT_EXPR:
+            case FlatAST.LEQ_EXPR:
+            case FlatAST.GT_EXPR:
+            case FlatAST.GEQ_EXPR:
+            case FlatAST.AND_EXPR:
+            case FlatAST.OR_EXPR:
+                push(((BinaryExpr) node).getRightExpr());
+                push(((BinaryExpr) node).getLeftExpr());
+                break;
+            case FlatAST.NEG_EXPR:
+            case FlatAST.NOT_EXPR:
+            case FlatAST.INCR_EXPR:
+            case FlatAST.DECR_EXPR:
+                push(((UnaryExpr) node).getExpr());
+                break;
+            case FlatAST.VAR_EXPR:
+                push(((VarExpr) node).getRef());
+                break;
+            case FlatAST.DISPATCH_EXPR:
+                push(((DispatchExpr) node).getActualList());
+                push(((DispatchExpr) node).getRefExpr());
+                break;
+            case FlatAST.ASSIGN_EXPR:
+                push(((AssignExpr) node).getExpr());
+                break;
+            case FlatAST.ARRAY_ASSIGN_EXPR:
+                push(((ArrayAssignExpr) node).getExpr());
+                push(((ArrayAssignExpr) node).getIndex());
+                break;
+            case FlatAST.ARRAY_EXPR:
+                push(((ArrayExpr) node).getIndex());
+                push(((ArrayExpr) node).getRef());
+                break;
+            case FlatAST.NEW_ARRAY_EXPR:
+                push(((NewArrayExpr) node).getSize());
+                break;
+            case FlatAST.INSTANCEOF_EXPR:
+                push(((InstanceofExpr) node).getExpr());
+                break;
+            case FlatAST.CAST_EXPR:
+                push(((CastExpr) node).getExpr());
+                break;
+            case FlatAST.EXPR_STMT:
+                push(((ExprStmt) node).getExpr());
+                break;
+            case FlatAST.DECL_STMT:
+                push(((DeclStmt) node).getInit());
+                break;
+            case FlatAST.BLOCK_STMT:
+                push(((BlockStmt) node).getStmtList());
+                break;
+            case FlatAST.IF_STMT:
+                push(((IfStmt) node).getElseStmt());
+                push(((IfStmt) node).getThenStmt());
+                push(((IfStmt) node).getPredExpr());
+                break;
+            case FlatAST.WHILE_STMT:
+                push(((WhileStmt) node).getBodyStmt());
+                push(((WhileStmt) node).getPredExpr());
+                break;
+            case FlatAST.FOR_STMT:
+                push(((ForStmt) node).getBodyStmt());
+                push(((ForStmt) node).getUpdateExpr());
+                push(((ForStmt) node).getPredExpr());
+                push(((ForStmt) node).getInitExpr());
+                break;
+            case FlatAST.RETURN_STMT:
+                push(((ReturnStmt) node).getExpr());
+                break;
+            case FlatAST.METHOD:
+                push(((Method) node).getStmtList());
+                push(((Method) node).getFormalList());
+                break;
+            case FlatAST.FIELD:
+                push(((Field) node).getInit());
+                break;
+            case FlatAST.CLASS:
+                push(((Class_) node).getMemberList());
+                break;
+            case FlatAST.PROGRAM:
+                push(((Program) node).getClassList());
+                break;
+            default:
+                // constants, new expressions, formals, and break and error
+                // statements have no children
+                break;
+        }
+    }
+}
@@ -30,12 +30,150 @@ package proj12AhnSlager.bantam.visitor;
 
 import proj12AhnSlager.bantam.ast.*;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 
 /**
  * Abstract visitor class for traversing the AST
+ *
+ * By default each visit method visits the children of its node by calling
+ * their accept methods, so a very deep AST, such as a long chain of else ifs
+ * or of calls, can overflow the Java stack.  In iterative mode the visit
+ * methods of this class instead push the children on a stack of nodes to be
+ * visited, which is emptied by a loop, so a traversal made of them has a
+ * fixed depth however deep the AST is.  The nodes are visited in the same
+ * order, and a visit method a subclass overrides is called as before: when
+ * it calls accept on a child, the child's subtree has been visited by the
+ * time accept returns.  Only the nesting of nodes whose visit methods the
+ * subclass overrides still takes a call per level.
  */
 public abstract class Visitor {
+    private boolean iterative;
+    private ArrayList<ASTNode> toVisit = new ArrayList<>(); // the top is last
+    private ASTNode dispatched; // the node the loop is visiting, until visited
+    private boolean deferred;   // whether the loop visits the children pushed
+    private Map<Class<?>, Boolean> overridden; // whether visit is overridden, by node class
+
+    /**
+     * Sets whether the visit methods of this class visit children from a
+     * stack of nodes rather than by recursion
+     *
+     * @param iterative whether to visit iteratively
+     */
+    public void setIterative(boolean iterative) {
+        this.iterative = iterative;
+    }
+
+    /**
+     * @return whether the visit methods of this class visit children from a
+     * stack of nodes rather than by recursion
+     */
+    public boolean isIterative() {
+        return iterative;
+    }
+
+    /**
+     * Begins the visit of the children of a node by a visit method of this
+     * class.  A node popped by the loop of visitToVisit() and visited by such
+     * a method leaves its children for that loop to visit; otherwise the
+     * method was called by a subclass, which expects the children visited by
+     * the time it returns.
+     *
+     * @param node the node whose children are visited
+     * @return the size of the stack before the children are pushed, or -1 if
+     * they are visited by recursion
+     */
+    private int beginChildren(ASTNode node) {
+        if (!iterative) {
+            return -1;
+        }
+        deferred = node == dispatched && !overrides(node.getClass());
+        dispatched = null;
+        return toVisit.size();
+    }
+
+    /**
+     * Visits a child of a node, or in iterative mode, pushes it
+     *
+     * @param child the child
+     */
+    private void visitChild(ASTNode child) {
+        if (iterative) {
+            toVisit.add(child);
+        }
+        else {
+            child.accept(this);
+        }
+    }
+
+    /**
+     * Ends the visit of the children of a node, reversing those pushed so that
+     * they are popped in order, and visiting them unless the loop they were
+     * left for does
+     *
+     * @param first the value returned by beginChildren()
+     */
+    private void endChildren(int first) {
+        if (first < 0) {
+            return;
+        }
+        for (int i = first, j = toVisit.size() - 1; i < j; i++, j--) {
+            toVisit.set(j, toVisit.set(i, toVisit.get(j)));
+        }
+        if (!deferred) {
+            visitToVisit(first);
+        }
+    }
+
+    /**
+     * Visits the nodes pushed on the stack down to the given size, in the
+     * order they are popped
+     *
+     * @param size the size of the stack to leave
+     */
+    private void visitToVisit(int size) {
+        try {
+            while (toVisit.size() > size) {
+                ASTNode node = toVisit.remove(toVisit.size() - 1);
+                dispatched = node;
+                node.accept(this);
+            }
+        }
+        finally {
+            dispatched = null;
+            toVisit.subList(size, toVisit.size()).clear();
+        }
+    }
+
+    /**
+     * @param nodeClass the class of a node, or of a subclass of a node class,
+     *                  such as the views of a FlatAST
+     * @return whether this visitor overrides the visit method of the class
+     */
+    private boolean overrides(Class<?> nodeClass) {
+        if (overridden == null) {
+            overridden = new HashMap<>();
+        }
+        Boolean overrides = overridden.get(nodeClass);
+        if (overrides == null) {
+            overrides = true;
+            for (Class<?> c = nodeClass; c != null; c = c.getSuperclass()) {
+                try {
+                    overrides = getClass().getMethod("visit", c)
+                            .getDeclaringClass() != Visitor.class;
+                    break;
+                }
+                catch (NoSuchMethodException e) {
+                    // the visit method is that of a superclass
+                }
+            }
+            overridden.put(nodeClass, overrides);
+        }
+        return overrides;
+    }
+
     /**
      * Visit an AST node (should never be called)
      *
@@ -63,7 +201,9 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(Program node) {
-        node.getClassList().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getClassList());
+        endChildren(first);
         return null;
     }
 
@@ -74,8 +214,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(ClassList node) {
+        int first = beginChildren(node);
         for (ASTNode aNode : node)
-            aNode.accept(this);
+            visitChild(aNode);
+        endChildren(first);
         return null;
     }
 
@@ -86,7 +228,9 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(Class_ node) {
-        node.getMemberList().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getMemberList());
+        endChildren(first);
         return null;
     }
 
@@ -97,8 +241,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(MemberList node) {
+        int first = beginChildren(node);
         for (ASTNode child : node)
-            child.accept(this);
+            visitChild(child);
+        endChildren(first);
         return null;
     }
 
@@ -119,9 +265,11 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(Field node) {
+        int first = beginChildren(node);
         if (node.getInit() != null) {
-            node.getInit().accept(this);
+            visitChild(node.getInit());
         }
+        endChildren(first);
         return null;
     }
 
@@ -132,8 +280,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(Method node) {
-        node.getFormalList().accept(this);
-        node.getStmtList().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getFormalList());
+        visitChild(node.getStmtList());
+        endChildren(first);
         return null;
     }
 
@@ -144,8 +294,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(FormalList node) {
+        int first = beginChildren(node);
         for (Iterator it = node.iterator(); it.hasNext(); )
-            ((Formal) it.next()).accept(this);
+            visitChild((Formal) it.next());
+        endChildren(first);
         return null;
     }
 
@@ -166,8 +318,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(StmtList node) {
+        int first = beginChildren(node);
         for (Iterator it = node.iterator(); it.hasNext(); )
-            ((Stmt) it.next()).accept(this);
+            visitChild((Stmt) it.next());
+        endChildren(first);
         return null;
     }
 
@@ -188,7 +342,9 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(DeclStmt node) {
-        node.getInit().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getInit());
+        endChildren(first);
         return null;
     }
 
@@ -199,7 +355,9 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(ExprStmt node) {
-        node.getExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getExpr());
+        endChildren(first);
         return null;
     }
 
@@ -210,11 +368,13 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(IfStmt node) {
-        node.getPredExpr().accept(this);
-        node.getThenStmt().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getPredExpr());
+        visitChild(node.getThenStmt());
         if (node.getElseStmt() != null) {
-            node.getElseStmt().accept(this);
+            visitChild(node.getElseStmt());
         }
+        endChildren(first);
         return null;
     }
 
@@ -225,8 +385,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(WhileStmt node) {
-        node.getPredExpr().accept(this);
-        node.getBodyStmt().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getPredExpr());
+        visitChild(node.getBodyStmt());
+        endChildren(first);
         return null;
     }
 
@@ -237,16 +399,18 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(ForStmt node) {
+        int first = beginChildren(node);
         if (node.getInitExpr() != null) {
-            node.getInitExpr().accept(this);
+            visitChild(node.getInitExpr());
         }
         if (node.getPredExpr() != null) {
-            node.getPredExpr().accept(this);
+            visitChild(node.getPredExpr());
         }
         if (node.getUpdateExpr() != null) {
-            node.getUpdateExpr().accept(this);
+            visitChild(node.getUpdateExpr());
         }
-        node.getBodyStmt().accept(this);
+        visitChild(node.getBodyStmt());
+        endChildren(first);
         return null;
     }
 
@@ -260,6 +424,16 @@ public abstract class Visitor {
         return null;
     }
 
+    /**
+     * Visit a statement that could not be parsed
+     *
+     * @param node the error statement node
+     * @return result of the visit
+     */
+    public Object visit(ErrorStmt node) {
+        return null;
+    }
+
     /**
      * Visit a block statement node
      *
@@ -267,7 +441,9 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(BlockStmt node) {
-        node.getStmtList().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getStmtList());
+        endChildren(first);
         return null;
     }
 
@@ -278,9 +454,11 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(ReturnStmt node) {
+        int first = beginChildren(node);
         if (node.getExpr() != null) {
-            node.getExpr().accept(this);
+            visitChild(node.getExpr());
         }
+        endChildren(first);
         return null;
     }
 
@@ -291,8 +469,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(ExprList node) {
+        int first = beginChildren(node);
         for (Iterator it = node.iterator(); it.hasNext(); )
-            ((Expr) it.next()).accept(this);
+            visitChild((Expr) it.next());
+        endChildren(first);
         return null;
     }
 
@@ -313,9 +493,11 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(DispatchExpr node) {
+        int first = beginChildren(node);
         if(node.getRefExpr() != null)
-            node.getRefExpr().accept(this);
-        node.getActualList().accept(this);
+            visitChild(node.getRefExpr());
+        visitChild(node.getActualList());
+        endChildren(first);
         return null;
     }
 
@@ -336,7 +518,9 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(NewArrayExpr node) {
-        node.getSize().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getSize());
+        endChildren(first);
         return null;
     }
 
@@ -347,7 +531,9 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(InstanceofExpr node) {
-        node.getExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getExpr());
+        endChildren(first);
         return null;
     }
 
@@ -358,7 +544,9 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(CastExpr node) {
-        node.getExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getExpr());
+        endChildren(first);
         return null;
     }
 
@@ -369,7 +557,9 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(AssignExpr node) {
-        node.getExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getExpr());
+        endChildren(first);
         return null;
     }
 
@@ -380,8 +570,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(ArrayAssignExpr node) {
-        node.getIndex().accept(this);
-        node.getExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getIndex());
+        visitChild(node.getExpr());
+        endChildren(first);
         return null;
     }
 
@@ -412,8 +604,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(BinaryCompEqExpr node) {
-        node.getLeftExpr().accept(this);
-        node.getRightExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getLeftExpr());
+        visitChild(node.getRightExpr());
+        endChildren(first);
         return null;
     }
 
@@ -424,8 +618,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(BinaryCompNeExpr node) {
-        node.getLeftExpr().accept(this);
-        node.getRightExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getLeftExpr());
+        visitChild(node.getRightExpr());
+        endChildren(first);
         return null;
     }
 
@@ -436,8 +632,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(BinaryCompLtExpr node) {
-        node.getLeftExpr().accept(this);
-        node.getRightExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getLeftExpr());
+        visitChild(node.getRightExpr());
+        endChildren(first);
         return null;
     }
 
@@ -448,8 +646,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(BinaryCompLeqExpr node) {
-        node.getLeftExpr().accept(this);
-        node.getRightExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getLeftExpr());
+        visitChild(node.getRightExpr());
+        endChildren(first);
         return null;
     }
 
@@ -460,8 +660,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(BinaryCompGtExpr node) {
-        node.getLeftExpr().accept(this);
-        node.getRightExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getLeftExpr());
+        visitChild(node.getRightExpr());
+        endChildren(first);
         return null;
     }
 
@@ -472,8 +674,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(BinaryCompGeqExpr node) {
-        node.getLeftExpr().accept(this);
-        node.getRightExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getLeftExpr());
+        visitChild(node.getRightExpr());
+        endChildren(first);
         return null;
     }
 
@@ -494,8 +698,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(BinaryArithPlusExpr node) {
-        node.getLeftExpr().accept(this);
-        node.getRightExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getLeftExpr());
+        visitChild(node.getRightExpr());
+        endChildren(first);
         return null;
     }
 
@@ -506,8 +712,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(BinaryArithMinusExpr node) {
-        node.getLeftExpr().accept(this);
-        node.getRightExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getLeftExpr());
+        visitChild(node.getRightExpr());
+        endChildren(first);
         return null;
     }
 
@@ -518,8 +726,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(BinaryArithTimesExpr node) {
-        node.getLeftExpr().accept(this);
-        node.getRightExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getLeftExpr());
+        visitChild(node.getRightExpr());
+        endChildren(first);
         return null;
     }
 
@@ -530,8 +740,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(BinaryArithDivideExpr node) {
-        node.getLeftExpr().accept(this);
-        node.getRightExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getLeftExpr());
+        visitChild(node.getRightExpr());
+        endChildren(first);
         return null;
     }
 
@@ -542,8 +754,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(BinaryArithModulusExpr node) {
-        node.getLeftExpr().accept(this);
-        node.getRightExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getLeftExpr());
+        visitChild(node.getRightExpr());
+        endChildren(first);
         return null;
     }
 
@@ -564,8 +778,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(BinaryLogicAndExpr node) {
-        node.getLeftExpr().accept(this);
-        node.getRightExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getLeftExpr());
+        visitChild(node.getRightExpr());
+        endChildren(first);
         return null;
     }
 
@@ -576,8 +792,10 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(BinaryLogicOrExpr node) {
-        node.getLeftExpr().accept(this);
-        node.getRightExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getLeftExpr());
+        visitChild(node.getRightExpr());
+        endChildren(first);
         return null;
     }
 
@@ -598,7 +816,9 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(UnaryNegExpr node) {
-        node.getExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getExpr());
+        endChildren(first);
         return null;
     }
 
@@ -609,7 +829,9 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(UnaryNotExpr node) {
-        node.getExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getExpr());
+        endChildren(first);
         return null;
     }
 
@@ -620,7 +842,9 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(UnaryIncrExpr node) {
-        node.getExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getExpr());
+        endChildren(first);
         return null;
     }
 
@@ -631,7 +855,9 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(UnaryDecrExpr node) {
-        node.getExpr().accept(this);
+        int first = beginChildren(node);
+        visitChild(node.getExpr());
+        endChildren(first);
         return null;
     }
 
@@ -642,9 +868,11 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(VarExpr node) {
+        int first = beginChildren(node);
         if (node.getRef() != null) {
-            node.getRef().accept(this);
+            visitChild(node.getRef());
         }
+        endChildren(first);
         return null;
     }
 
@@ -655,10 +883,12 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(ArrayExpr node) {
+        int first = beginChildren(node);
         if (node.getRef() != null) {
-            node.getRef().accept(this);
+            visitChild(node.getRef());
         }
-        node.getIndex().accept(this);
+        visitChild(node.getIndex());
+        endChildren(first);
         return null;
     }
 
@@ -0,0 +1,684 @@
+/**
+ * Filename: VisitorAdapter
+ * Names: Kevin Ahn and Kyle Slager
+ * CS461
+ * Project 13
+ */
+package proj12AhnSlager.bantam.visitor;
+
+import proj12AhnSlager.bantam.ast.*;
+
+/**
+ * Runs a Visitor where a GenericVisitor is expected: each visit method hands
+ * the node to the accept method of the Visitor, which visits it, and its
+ * subtree, just as it always has, and returns what the Visitor returns.
+ *
+ * @author Kevin Ahn, Kyle Slager
+ */
+public class VisitorAdapter extends GenericVisitor<Object>
+{
+    private Visitor visitor;
+
+    /**
+     * @param visitor the Visitor to run
+     */
+    public VisitorAdapter(Visitor visitor) {
+        this.visitor = visitor;
+    }
+
+    /**
+     * @return the Visitor that is run
+     */
+    public Visitor getVisitor() {
+        return visitor;
+    }
+
+    /**
+     * Visit an AST node (should never be called)
+     *
+     * @param node the AST node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(ASTNode node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a list node (should never be called)
+     *
+     * @param node the list node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(ListNode node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a program node
+     *
+     * @param node the program node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(Program node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a list node of classes
+     *
+     * @param node the class list node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(ClassList node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a class node
+     *
+     * @param node the class node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(Class_ node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a list node of members
+     *
+     * @param node the member list node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(MemberList node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a member node (should never be called)
+     *
+     * @param node the member node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(Member node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a field node
+     *
+     * @param node the field node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(Field node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a method node
+     *
+     * @param node the method node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(Method node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a list node of formals
+     *
+     * @param node the formal list node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(FormalList node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a formal node
+     *
+     * @param node the formal node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(Formal node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a list node of statements
+     *
+     * @param node the statement list node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(StmtList node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a statement node (should never be called)
+     *
+     * @param node the statement node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(Stmt node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a declaration statement node
+     *
+     * @param node the declaration statement node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(DeclStmt node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit an expression statement node
+     *
+     * @param node the expression statement node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(ExprStmt node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit an if statement node
+     *
+     * @param node the if statement node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(IfStmt node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a while statement node
+     *
+     * @param node the while statement node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(WhileStmt node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a for statement node
+     *
+     * @param node the for statement node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(ForStmt node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a break statement node
+     *
+     * @param node the break statement node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BreakStmt node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a statement that could not be parsed
+     *
+     * @param node the error statement node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(ErrorStmt node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a block statement node
+     *
+     * @param node the block statement node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BlockStmt node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a return statement node
+     *
+     * @param node the return statement node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(ReturnStmt node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a list node of expressions
+     *
+     * @param node the expression list node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(ExprList node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit an expression node (should never be called)
+     *
+     * @param node the expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(Expr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a dispatch expression node
+     *
+     * @param node the dispatch expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(DispatchExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a new expression node
+     *
+     * @param node the new expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(NewExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a new array expression node
+     *
+     * @param node the new array expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(NewArrayExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit an instanceof expression node
+     *
+     * @param node the instanceof expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(InstanceofExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a cast expression node
+     *
+     * @param node the cast expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(CastExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit an assignment expression node
+     *
+     * @param node the assignment expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(AssignExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit an array assignment expression node
+     *
+     * @param node the array assignment expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(ArrayAssignExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a binary expression node (should never be called)
+     *
+     * @param node the binary expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BinaryExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a binary comparison expression node (should never be called)
+     *
+     * @param node the binary comparison expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BinaryCompExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a binary comparison equals expression node
+     *
+     * @param node the binary comparison equals expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BinaryCompEqExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a binary comparison not equals expression node
+     *
+     * @param node the binary comparison not equals expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BinaryCompNeExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a binary comparison less than expression node
+     *
+     * @param node the binary comparison less than expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BinaryCompLtExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a binary comparison less than or equal to expression node
+     *
+     * @param node the binary comparison less than or equal to expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BinaryCompLeqExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a binary comparison greater than expression node
+     *
+     * @param node the binary comparison greater than expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BinaryCompGtExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a binary comparison greater than or equal to expression node
+     *
+     * @param node the binary comparison greater to or equal to expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BinaryCompGeqExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a binary arithmetic expression node (should never be called)
+     *
+     * @param node the binary arithmetic expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BinaryArithExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a binary arithmetic plus expression node
+     *
+     * @param node the binary arithmetic plus expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BinaryArithPlusExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a binary arithmetic minus expression node
+     *
+     * @param node the binary arithmetic minus expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BinaryArithMinusExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a binary arithmetic times expression node
+     *
+     * @param node the binary arithmetic times expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BinaryArithTimesExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a binary arithmetic divide expression node
+     *
+     * @param node the binary arithmetic divide expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BinaryArithDivideExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a binary arithmetic modulus expression node
+     *
+     * @param node the binary arithmetic modulus expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BinaryArithModulusExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a binary logical expression node (should never be called)
+     *
+     * @param node the binary logical expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BinaryLogicExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a binary logical AND expression node
+     *
+     * @param node the binary logical AND expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BinaryLogicAndExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a binary logical OR expression node
+     *
+     * @param node the binary logical OR expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(BinaryLogicOrExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a unary expression node
+     *
+     * @param node the unary expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(UnaryExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a unary negation expression node
+     *
+     * @param node the unary negation expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(UnaryNegExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a unary NOT expression node
+     *
+     * @param node the unary NOT expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(UnaryNotExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a unary increment expression node
+     *
+     * @param node the unary increment expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(UnaryIncrExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a unary decrement expression node
+     *
+     * @param node the unary decrement expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(UnaryDecrExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a variable expression node
+     *
+     * @param node the variable expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(VarExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit an array expression node
+     *
+     * @param node the array expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(ArrayExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a constant expression node (should never be called)
+     *
+     * @param node the constant expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(ConstExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit an int constant expression node
+     *
+     * @param node the int constant expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(ConstIntExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a boolean constant expression node
+     *
+     * @param node the boolean constant expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(ConstBooleanExpr node) {
+        return node.accept(visitor);
+    }
+
+    /**
+     * Visit a string constant expression node
+     *
+     * @param node the string constant expression node
+     * @return what the Visitor returns
+     */
+    @Override
+    public Object visit(ConstStringExpr node) {
+        return node.accept(visitor);
+    }
+}